@@ -0,0 +1,282 @@
+package ws.palladian.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import ws.palladian.helper.io.FileHelper;
+
+/**
+ * <p>
+ * Access to the synthetic data sets for the benchmarks, which are checked in as resources, so that results are
+ * comparable between runs and machines. The data sets were created with {@link #main(String[])}; the generation is
+ * deterministic, so in case a data set needs to be changed, adapt the generator and re-create all of them.
+ * </p>
+ *
+ * <ul>
+ * <li>{@value #TEXTS}: documents in five categories (category, tab, text), with a shared Zipf-distributed vocabulary
+ * and category-specific terms.</li>
+ * <li>{@value #NUMERIC}: semicolon separated numeric features with a class in the last column, three Gaussian
+ * clusters.</li>
+ * <li>{@value #SNIPPETS}: sentences with dates in various formats, numbers with units, and mixed case text.</li>
+ * <li>{@value #DOCUMENT}: an XHTML document with nested lists and a large table.</li>
+ * </ul>
+ */
+public final class BenchmarkData {
+
+    public static final String TEXTS = "texts.tsv";
+
+    public static final String NUMERIC = "numeric.csv";
+
+    public static final String SNIPPETS = "snippets.txt";
+
+    public static final String DOCUMENT = "document.xhtml";
+
+    private static final long SEED = 42;
+
+    private static final String[] CATEGORIES = {"sports", "politics", "science", "business", "culture"};
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "tor", "bel", "sa", "ri", "qua", "den", "ul",
+            "phe", "gra", "vin", "os", "tem", "ber", "ch", "ion", "al", "ex", "str", "ma", "zu"};
+
+    private static final String[] MONTHS = {"January", "February", "March", "April", "May", "June", "July", "August",
+            "September", "October", "November", "December"};
+
+    private static final String[] UNITS = {"kg", "g", "mb", "GB", "inches", "cm", "km", "mph", "hours", "minutes",
+            "MHz", "watts", "liters", "ml", "%"};
+
+    private BenchmarkData() {
+        // no instances
+    }
+
+    /**
+     * @param name The name of the data set.
+     * @return The lines of the data set.
+     */
+    public static List<String> readLines(String name) {
+        try (InputStream inputStream = open(name)) {
+            return FileHelper.readFileToArray(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + name, e);
+        }
+    }
+
+    /**
+     * @param name The name of the data set.
+     * @return The content of the data set.
+     */
+    public static String readString(String name) {
+        try (InputStream inputStream = open(name)) {
+            return FileHelper.readFileToString(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + name, e);
+        }
+    }
+
+    /**
+     * <p>
+     * Copy the data set to a temporary file, for code which needs to read from the file system (the resources are
+     * packaged into the benchmark JAR). The file is deleted on exit.
+     * </p>
+     *
+     * @param name The name of the data set.
+     * @return The temporary file.
+     */
+    public static File toTempFile(String name) {
+        try (InputStream inputStream = open(name)) {
+            File file = File.createTempFile("palladian-benchmark-", "-" + name);
+            file.deleteOnExit();
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy " + name, e);
+        }
+    }
+
+    private static InputStream open(String name) throws IOException {
+        InputStream inputStream = BenchmarkData.class.getResourceAsStream(name);
+        if (inputStream == null) {
+            throw new IOException("Resource " + name + " not found");
+        }
+        return inputStream;
+    }
+
+    // generation of the data sets
+
+    /**
+     * <p>
+     * Create the data sets.
+     * </p>
+     *
+     * @param args The directory where to write the data sets, i.e.
+     *            <code>palladian-benchmark/src/main/resources/ws/palladian/benchmark</code>.
+     * @throws IOException In case writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: BenchmarkData <outputDirectory>");
+            System.exit(1);
+        }
+        File directory = new File(args[0]);
+        writeTexts(new File(directory, TEXTS), new Random(SEED));
+        writeNumeric(new File(directory, NUMERIC), new Random(SEED));
+        writeSnippets(new File(directory, SNIPPETS), new Random(SEED));
+        writeDocument(new File(directory, DOCUMENT), new Random(SEED));
+    }
+
+    private static List<String> createVocabulary(Random random, int size) {
+        List<String> vocabulary = new ArrayList<>();
+        while (vocabulary.size() < size) {
+            StringBuilder word = new StringBuilder();
+            int numSyllables = 1 + random.nextInt(4);
+            for (int i = 0; i < numSyllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (!vocabulary.contains(word.toString())) {
+                vocabulary.add(word.toString());
+            }
+        }
+        return vocabulary;
+    }
+
+    /** Draw an index in [0,size) from a Zipf distribution with exponent one. */
+    private static int zipf(Random random, int size) {
+        return (int)Math.min(size - 1, Math.floor(Math.pow(size + 1, random.nextDouble())) - 1);
+    }
+
+    private static void writeTexts(File file, Random random) throws IOException {
+        List<String> vocabulary = createVocabulary(random, 3000);
+        List<List<String>> categoryVocabularies = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            categoryVocabularies.add(createVocabulary(random, 200));
+        }
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            for (int d = 0; d < 1000; d++) {
+                int c = random.nextInt(CATEGORIES.length);
+                StringBuilder text = new StringBuilder();
+                int numWords = 20 + random.nextInt(60);
+                boolean sentenceStart = true;
+                for (int w = 0; w < numWords; w++) {
+                    String word;
+                    if (random.nextInt(4) == 0) {
+                        word = categoryVocabularies.get(c).get(zipf(random, 200));
+                    } else {
+                        word = vocabulary.get(zipf(random, vocabulary.size()));
+                    }
+                    if (sentenceStart || random.nextInt(10) == 0) {
+                        word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                    }
+                    text.append(word);
+                    sentenceStart = random.nextInt(12) == 0;
+                    if (sentenceStart) {
+                        text.append(random.nextBoolean() ? ". " : "? ");
+                    } else if (random.nextInt(15) == 0) {
+                        text.append(", ");
+                    } else {
+                        text.append(' ');
+                    }
+                }
+                writer.print(CATEGORIES[c]);
+                writer.print('\t');
+                writer.println(text.toString().trim() + ".");
+            }
+        }
+    }
+
+    private static void writeNumeric(File file, Random random) throws IOException {
+        int numFeatures = 10;
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            for (int f = 0; f < numFeatures; f++) {
+                writer.print("f" + f + ";");
+            }
+            writer.println("class");
+            for (int i = 0; i < 1000; i++) {
+                int cluster = random.nextInt(3);
+                for (int f = 0; f < numFeatures; f++) {
+                    double value = cluster * (f % 3 + 1) + random.nextGaussian();
+                    writer.print(String.format(Locale.US, "%.4f;", value));
+                }
+                writer.println("c" + cluster);
+            }
+        }
+    }
+
+    private static void writeSnippets(File file, Random random) throws IOException {
+        List<String> vocabulary = createVocabulary(random, 500);
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            for (int i = 0; i < 500; i++) {
+                int year = 1990 + random.nextInt(30);
+                int month = 1 + random.nextInt(12);
+                int day = 1 + random.nextInt(28);
+                String date;
+                switch (random.nextInt(5)) {
+                    case 0:
+                        date = String.format(Locale.US, "%04d-%02d-%02d", year, month, day);
+                        break;
+                    case 1:
+                        date = String.format(Locale.US, "%s %d, %d", MONTHS[month - 1], day, year);
+                        break;
+                    case 2:
+                        date = String.format(Locale.US, "%02d.%02d.%04d", day, month, year);
+                        break;
+                    case 3:
+                        date = String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:00Z", year, month, day,
+                                random.nextInt(24), random.nextInt(60));
+                        break;
+                    default:
+                        date = String.format(Locale.US, "%d %s %d", day, MONTHS[month - 1], year);
+                        break;
+                }
+                String unit = UNITS[random.nextInt(UNITS.length)];
+                String number = String.format(Locale.US, random.nextBoolean() ? "%.1f" : "%.0f",
+                        random.nextDouble() * 500);
+                String word1 = vocabulary.get(zipf(random, vocabulary.size()));
+                String word2 = vocabulary.get(zipf(random, vocabulary.size())).toUpperCase();
+                String word3 = vocabulary.get(zipf(random, vocabulary.size()));
+                writer.println(String.format("The %s (%s) was released on %s and weighs %s %s, said \"%s\"!", word1,
+                        word2, date, number, unit, word3));
+            }
+        }
+    }
+
+    private static void writeDocument(File file, Random random) throws IOException {
+        List<String> vocabulary = createVocabulary(random, 500);
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<html xmlns=\"http://www.w3.org/1999/xhtml\">");
+            writer.println("<head><title>Benchmark</title></head>");
+            writer.println("<body>");
+            for (int s = 0; s < 20; s++) {
+                writer.println("<div class=\"section\" id=\"section" + s + "\">");
+                writer.println("<h2>" + vocabulary.get(random.nextInt(vocabulary.size())) + "</h2>");
+                writer.println("<ul>");
+                for (int i = 0; i < 10; i++) {
+                    writer.println("<li><a href=\"/" + vocabulary.get(random.nextInt(vocabulary.size())) + "\">"
+                            + vocabulary.get(zipf(random, vocabulary.size())) + "</a></li>");
+                }
+                writer.println("</ul>");
+                writer.println("</div>");
+            }
+            writer.println("<table id=\"data\">");
+            for (int r = 0; r < 500; r++) {
+                writer.print("<tr>");
+                writer.print("<td>" + r + "</td>");
+                writer.print("<td>" + vocabulary.get(zipf(random, vocabulary.size())) + "</td>");
+                writer.print(String.format(Locale.US, "<td>%.2f</td>", random.nextDouble() * 1000));
+                writer.println("</tr>");
+            }
+            writer.println("</table>");
+            writer.println("</body>");
+            writer.println("</html>");
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package ws.palladian.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ws.palladian.core.Instance;
+import ws.palladian.core.InstanceBuilder;
+
+/**
+ * Parsed access to the {@value BenchmarkData#TEXTS} data set.
+ */
+final class BenchmarkTexts {
+
+    private BenchmarkTexts() {
+        // no instances
+    }
+
+    /** @return The texts without categories. */
+    static List<String> getTexts() {
+        List<String> texts = new ArrayList<>();
+        for (String line : BenchmarkData.readLines(BenchmarkData.TEXTS)) {
+            texts.add(line.substring(line.indexOf('\t') + 1));
+        }
+        return texts;
+    }
+
+    /** @return The texts as instances with their categories. */
+    static List<Instance> getInstances() {
+        List<Instance> instances = new ArrayList<>();
+        for (String line : BenchmarkData.readLines(BenchmarkData.TEXTS)) {
+            int tab = line.indexOf('\t');
+            instances.add(new InstanceBuilder().setText(line.substring(tab + 1)).create(line.substring(0, tab)));
+        }
+        return instances;
+    }
+
+}
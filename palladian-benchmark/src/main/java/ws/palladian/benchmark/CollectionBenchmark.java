@@ -0,0 +1,112 @@
+package ws.palladian.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.extraction.token.Tokenizer;
+import ws.palladian.helper.collection.Bag;
+import ws.palladian.helper.collection.CompactTrie;
+import ws.palladian.helper.collection.Trie;
+
+/**
+ * Benchmarks for the {@link Trie}, the {@link CompactTrie} and the {@link Bag}, filled with the tokens of the synthetic texts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionBenchmark {
+
+    private List<String> tokens;
+
+    private List<String> shuffledTokens;
+
+    private Trie<Integer> trie;
+
+    private CompactTrie<Integer> compactTrie;
+
+    private Bag<String> bag;
+
+    @Setup
+    public void setup() {
+        tokens = new ArrayList<>();
+        for (String text : BenchmarkTexts.getTexts()) {
+            tokens.addAll(Tokenizer.tokenize(text));
+        }
+        shuffledTokens = new ArrayList<>(tokens);
+        Collections.shuffle(shuffledTokens, new Random(0));
+        trie = createTrie();
+        compactTrie = new CompactTrie<>(trie);
+        bag = createBag();
+    }
+
+    @Benchmark
+    public Trie<Integer> trieInsert() {
+        return createTrie();
+    }
+
+    private Trie<Integer> createTrie() {
+        Trie<Integer> trie = new Trie<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            trie.put(tokens.get(i), i);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public void trieLookup(Blackhole blackhole) {
+        for (String token : shuffledTokens) {
+            blackhole.consume(trie.get(token));
+        }
+    }
+
+    @Benchmark
+    public CompactTrie<Integer> compactTrieCreate() {
+        return new CompactTrie<>(trie);
+    }
+
+    @Benchmark
+    public void compactTrieLookup(Blackhole blackhole) {
+        for (String token : shuffledTokens) {
+            blackhole.consume(compactTrie.get(token));
+        }
+    }
+
+    @Benchmark
+    public Bag<String> bagAdd() {
+        return createBag();
+    }
+
+    private Bag<String> createBag() {
+        Bag<String> bag = new Bag<>();
+        for (String token : tokens) {
+            bag.add(token);
+        }
+        return bag;
+    }
+
+    @Benchmark
+    public void bagCount(Blackhole blackhole) {
+        for (String token : shuffledTokens) {
+            blackhole.consume(bag.count(token));
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package ws.palladian.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.classification.utils.CsvDatasetReader;
+import ws.palladian.classification.utils.CsvDatasetReaderConfig;
+import ws.palladian.core.Instance;
+import ws.palladian.helper.io.CloseableIterator;
+
+/**
+ * Benchmark for parsing CSV files with the {@link CsvDatasetReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvDatasetReaderBenchmark {
+
+    private CsvDatasetReaderConfig.Builder config;
+
+    @Setup
+    public void setup() {
+        File file = BenchmarkData.toTempFile(BenchmarkData.NUMERIC);
+        config = CsvDatasetReaderConfig.filePath(file);
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws IOException {
+        try (CloseableIterator<Instance> iterator = config.create().iterator()) {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package ws.palladian.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.helper.date.DateParser;
+
+/**
+ * Benchmark for extracting dates from text with {@link DateParser#findDates(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParserBenchmark {
+
+    private List<String> snippets;
+
+    @Setup
+    public void setup() {
+        snippets = BenchmarkData.readLines(BenchmarkData.SNIPPETS);
+    }
+
+    @Benchmark
+    public void findDates(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(DateParser.findDates(snippet));
+        }
+    }
+
+}
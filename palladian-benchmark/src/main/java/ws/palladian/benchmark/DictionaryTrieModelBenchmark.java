@@ -0,0 +1,77 @@
+package ws.palladian.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.classification.text.DictionaryBuilder;
+import ws.palladian.classification.text.DictionaryModel;
+import ws.palladian.classification.text.DictionaryTrieModel;
+import ws.palladian.classification.text.FeatureSetting;
+import ws.palladian.classification.text.FeatureSettingBuilder;
+import ws.palladian.classification.text.Preprocessor;
+import ws.palladian.helper.collection.CollectionHelper;
+
+/**
+ * Benchmarks for term lookups in a {@link DictionaryTrieModel}; the looked up terms are a shuffled mix of terms which
+ * are contained in the model and terms which are not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DictionaryTrieModelBenchmark {
+
+    private DictionaryModel model;
+
+    private List<String> terms;
+
+    @Setup
+    public void setup() {
+        FeatureSetting featureSetting = FeatureSettingBuilder.chars(3, 6).create();
+        Preprocessor preprocessor = new Preprocessor(featureSetting);
+        DictionaryBuilder builder = new DictionaryTrieModel.Builder().setFeatureSetting(featureSetting);
+        List<String> lines = BenchmarkData.readLines(BenchmarkData.TEXTS);
+        // train with the first half, look up terms of all
+        for (String line : lines.subList(0, lines.size() / 2)) {
+            int tab = line.indexOf('\t');
+            Set<String> documentTerms = CollectionHelper.newHashSet(preprocessor.apply(line.substring(tab + 1)));
+            builder.addDocument(documentTerms, line.substring(0, tab));
+        }
+        model = builder.create();
+        terms = new ArrayList<>();
+        for (String text : BenchmarkTexts.getTexts()) {
+            Iterator<String> iterator = preprocessor.apply(text);
+            while (iterator.hasNext() && terms.size() < 100000) {
+                terms.add(iterator.next());
+            }
+        }
+        Collections.shuffle(terms, new Random(0));
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (String term : terms) {
+            blackhole.consume(model.getCategoryEntries(term));
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package ws.palladian.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.classification.numeric.KnnClassifier;
+import ws.palladian.classification.numeric.KnnLearner;
+import ws.palladian.classification.numeric.KnnModel;
+import ws.palladian.classification.utils.CsvDatasetReaderConfig;
+import ws.palladian.core.Instance;
+
+/**
+ * Benchmarks for training and classification with the {@link KnnClassifier} on the numeric data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KnnClassifierBenchmark {
+
+    private List<Instance> training;
+
+    private List<Instance> test;
+
+    private KnnLearner learner;
+
+    private KnnClassifier classifier;
+
+    private KnnModel model;
+
+    @Setup
+    public void setup() {
+        List<Instance> instances = CsvDatasetReaderConfig.filePath(BenchmarkData.toTempFile(BenchmarkData.NUMERIC))
+                .create().readAll();
+        training = instances.subList(0, 800);
+        test = instances.subList(800, instances.size());
+        learner = new KnnLearner();
+        classifier = new KnnClassifier(3);
+        model = learner.train(training);
+    }
+
+    @Benchmark
+    public KnnModel train() {
+        return learner.train(training);
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (Instance instance : test) {
+            blackhole.consume(classifier.classify(instance.getVector(), model));
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package ws.palladian.benchmark;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.classification.text.FeatureSetting;
+import ws.palladian.classification.text.FeatureSettingBuilder;
+import ws.palladian.classification.text.Preprocessor;
+
+/**
+ * Benchmarks for the n-gram generation of the {@link Preprocessor}, which is used for training and classification of
+ * the text classifier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreprocessorBenchmark {
+
+    @Param({"chars3-6", "words1-2"})
+    public String featureSetting;
+
+    private List<String> texts;
+
+    private Preprocessor preprocessor;
+
+    @Setup
+    public void setup() {
+        texts = BenchmarkTexts.getTexts();
+        preprocessor = new Preprocessor(createFeatureSetting(featureSetting));
+    }
+
+    static FeatureSetting createFeatureSetting(String name) {
+        switch (name) {
+            case "chars3-6":
+                return FeatureSettingBuilder.chars(3, 6).create();
+            case "words1-2":
+                return FeatureSettingBuilder.words(1, 2).create();
+            default:
+                throw new IllegalArgumentException("Unknown feature setting " + name);
+        }
+    }
+
+    @Benchmark
+    public void nGrams(Blackhole blackhole) {
+        for (String text : texts) {
+            Iterator<String> iterator = preprocessor.apply(text);
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+}
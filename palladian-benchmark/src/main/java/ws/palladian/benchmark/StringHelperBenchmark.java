@@ -0,0 +1,80 @@
+package ws.palladian.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.helper.nlp.StringHelper;
+
+/**
+ * Benchmarks for frequently used {@link StringHelper} methods on the synthetic snippets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringHelperBenchmark {
+
+    private List<String> snippets;
+
+    @Setup
+    public void setup() {
+        snippets = BenchmarkData.readLines(BenchmarkData.SNIPPETS);
+    }
+
+    @Benchmark
+    public void clean(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.clean(snippet));
+        }
+    }
+
+    @Benchmark
+    public void trim(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.trim(snippet));
+        }
+    }
+
+    @Benchmark
+    public void containsWord(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.containsWord("released", snippet));
+        }
+    }
+
+    @Benchmark
+    public void caseSignature(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.getCaseSignature(snippet));
+        }
+    }
+
+    @Benchmark
+    public void countOccurrences(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.countOccurrences(snippet, "e"));
+        }
+    }
+
+    @Benchmark
+    public void removeNonAsciiCharacters(Blackhole blackhole) {
+        for (String snippet : snippets) {
+            blackhole.consume(StringHelper.removeNonAsciiCharacters(snippet));
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package ws.palladian.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.classification.text.DictionaryModel;
+import ws.palladian.classification.text.PalladianTextClassifier;
+import ws.palladian.core.Instance;
+
+/**
+ * Benchmarks for training and classification with the {@link PalladianTextClassifier}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextClassifierBenchmark {
+
+    @Param({"chars3-6", "words1-2"})
+    public String featureSetting;
+
+    private List<Instance> instances;
+
+    private PalladianTextClassifier classifier;
+
+    private DictionaryModel model;
+
+    @Setup
+    public void setup() {
+        instances = BenchmarkTexts.getInstances();
+        classifier = new PalladianTextClassifier(PreprocessorBenchmark.createFeatureSetting(featureSetting));
+        model = classifier.train(instances);
+    }
+
+    @Benchmark
+    public DictionaryModel train() {
+        return classifier.train(instances);
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (Instance instance : instances) {
+            blackhole.consume(classifier.classify(instance.getVector(), model));
+        }
+    }
+
+}
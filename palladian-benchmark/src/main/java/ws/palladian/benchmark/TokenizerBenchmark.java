@@ -0,0 +1,82 @@
+package ws.palladian.benchmark;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.core.Token;
+import ws.palladian.extraction.token.Tokenizer;
+import ws.palladian.extraction.token.WordTokenizer;
+
+/**
+ * Benchmarks for tokenization, sentence splitting and n-gram calculation on the synthetic texts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private List<String> texts;
+
+    private WordTokenizer wordTokenizer;
+
+    @Setup
+    public void setup() {
+        texts = BenchmarkTexts.getTexts();
+        wordTokenizer = new WordTokenizer();
+    }
+
+    @Benchmark
+    public void wordTokenizer(Blackhole blackhole) {
+        for (String text : texts) {
+            Iterator<Token> iterator = wordTokenizer.iterateTokens(text);
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(Tokenizer.tokenize(text));
+        }
+    }
+
+    @Benchmark
+    public void sentences(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(Tokenizer.getSentences(text));
+        }
+    }
+
+    @Benchmark
+    public void charNGrams(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(Tokenizer.calculateAllCharNGrams(text, 3, 5));
+        }
+    }
+
+    @Benchmark
+    public void wordNGrams(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(Tokenizer.calculateAllWordNGrams(text, 1, 3));
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package ws.palladian.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ws.palladian.helper.normalization.UnitNormalizer;
+
+/**
+ * Benchmarks for unit detection and normalization with the {@link UnitNormalizer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnitNormalizerBenchmark {
+
+    /** Extracts the "weighs ..." part of the snippets. */
+    private static final Pattern NUMBER_UNIT_PATTERN = Pattern.compile("weighs ([\\d.]+) ([^,]+),");
+
+    private List<Double> numbers;
+
+    private List<String> units;
+
+    @Setup
+    public void setup() {
+        numbers = new ArrayList<>();
+        units = new ArrayList<>();
+        for (String snippet : BenchmarkData.readLines(BenchmarkData.SNIPPETS)) {
+            Matcher matcher = NUMBER_UNIT_PATTERN.matcher(snippet);
+            if (matcher.find()) {
+                numbers.add(Double.valueOf(matcher.group(1)));
+                units.add(matcher.group(2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void detectUnit(Blackhole blackhole) {
+        for (String unit : units) {
+            blackhole.consume(UnitNormalizer.detectUnit(unit));
+        }
+    }
+
+    @Benchmark
+    public void normalize(Blackhole blackhole) {
+        for (int i = 0; i < numbers.size(); i++) {
+            blackhole.consume(UnitNormalizer.getNormalizedNumber(numbers.get(i), units.get(i)));
+        }
+    }
+
+}
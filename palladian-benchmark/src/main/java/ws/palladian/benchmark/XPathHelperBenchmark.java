@@ -0,0 +1,68 @@
+package ws.palladian.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import ws.palladian.helper.html.XPathHelper;
+
+/**
+ * Benchmarks for XPath evaluation on an XHTML document with the {@link XPathHelper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XPathHelperBenchmark {
+
+    private static final String TABLE_XPATH = "//table[@id='data']/tr/td[2]";
+
+    private static final String LINK_XPATH = "//div[@class='section']/ul/li/a";
+
+    private Document document;
+
+    private XPathHelper.Query tableQuery;
+
+    @Setup
+    public void setup() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        byte[] bytes = BenchmarkData.readString(BenchmarkData.DOCUMENT).getBytes(StandardCharsets.UTF_8);
+        document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+        tableQuery = XPathHelper.compile(XPathHelper.addXhtmlNsToXPath(TABLE_XPATH));
+    }
+
+    @Benchmark
+    public void xhtmlNodes(Blackhole blackhole) {
+        blackhole.consume(XPathHelper.getXhtmlNodes(document, TABLE_XPATH));
+        blackhole.consume(XPathHelper.getXhtmlNodes(document, LINK_XPATH));
+    }
+
+    @Benchmark
+    public void compiledQuery(Blackhole blackhole) {
+        blackhole.consume(tableQuery.getNodes(document));
+    }
+
+    @Benchmark
+    public void nodeById(Blackhole blackhole) {
+        blackhole.consume(XPathHelper.getNodeByID(document, "section10"));
+    }
+
+}
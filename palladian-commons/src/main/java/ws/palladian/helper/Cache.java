@@ -1,20 +1,21 @@
 package ws.palladian.helper;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ws.palladian.helper.collection.TinyLfuCache;
 import ws.palladian.helper.io.FileHelper;
 
 /**
  * <p>
  * The Cache can be used to store data objects such as model files. These files do not have to be re-read from hard disk
- * every time they are needed.
+ * every time they are needed. The cache is thread safe and unbounded by default; a bound for the sizes of the objects
+ * can be set using {@link #setMaxCacheSize(long)}, in which case objects are evicted using the {@link TinyLfuCache}
+ * policy.
  * </p>
- * 
+ *
  * @author David Urbansky
  */
 public class Cache {
@@ -22,14 +23,24 @@ public class Cache {
     /** The logger for this class. */
     private static final Logger LOGGER = LoggerFactory.getLogger(Cache.class);
 
-    /** List of objects in the cache. */
-    private Map<String, Object> dataObjects = new HashMap<>();
+    /** An object in the cache with its (estimated) size. */
+    private static final class SizedObject {
+        final Object object;
+        final long size;
+
+        SizedObject(Object object, long size) {
+            this.object = object;
+            this.size = size;
+        }
+    }
 
     /**
-     * Size of the objects in the cache. This is a lower estimate and only works if the sizes are given when a new
-     * object is put into the cache.
+     * Objects in the cache, weighted by their size. The size is a lower estimate and only works if the sizes are given
+     * when a new object is put into the cache. Only a single shard is used, as the bound applies per shard, and a large
+     * object must be able to take up (almost) the whole cache.
      */
-    private long cacheSize = 0L;
+    private final TinyLfuCache<String, SizedObject> dataObjects = new TinyLfuCache.Builder<String, SizedObject>()
+            .setConcurrencyLevel(1).setMaximumWeight(Long.MAX_VALUE, (identifier, sizedObject) -> sizedObject.size).create();
 
     static class SingletonHolder {
         static Cache instance = new Cache();
@@ -44,80 +55,81 @@ public class Cache {
     }
 
     public Object getDataObject(String identifier) {
-        return dataObjects.get(identifier);
+        SizedObject sizedObject = dataObjects.get(identifier);
+        return sizedObject != null ? sizedObject.object : null;
     }
 
     /**
      * <p>
      * Get the data object from the cache if it exists, if not add it to the cache.
      * </p>
-     * 
+     *
      * @param identifier The identifier of the object in the cache.
      * @param obj The object to store in the cache.
      * @return The object from the cache or the given one.
      */
     public Object getDataObject(String identifier, Object obj) {
-        Object object = dataObjects.get(identifier);
-
-        if (object == null) {
-            putDataObject(identifier, obj);
-            object = obj;
-        }
-
-        return object;
+        return dataObjects.get(identifier, id -> new SizedObject(obj, 0)).object;
     }
 
     /**
      * <p>
-     * Get the data object from the cache if it exists, if not deserialize it and add it to the cache.
+     * Get the data object from the cache if it exists, if not deserialize it and add it to the cache. In case multiple
+     * threads request the same object concurrently, the file is only deserialized once.
      * </p>
-     * 
+     *
      * @param identifier The identifier of the object in the cache.
      * @param obj The object to store in the cache.
      * @return The object from the cache or the given one.
      */
     public Object getDataObject(String identifier, File file) {
-        Object object = dataObjects.get(identifier);
-
-        if (object == null) {
+        SizedObject sizedObject = dataObjects.get(identifier, id -> {
             StopWatch stopWatch = new StopWatch();
-            object = FileHelper.tryDeserialize(file.getPath());
-            if (object != null) {
-                putDataObject(identifier, object);
-                LOGGER.info("File {} loaded into cache in {}", file, stopWatch.getElapsedTimeString());
-            } else {
+            Object object = FileHelper.tryDeserialize(file.getPath());
+            if (object == null) {
                 LOGGER.error("File {} could not be deserialized", file);
+                return null;
             }
-        }
-
-        return object;
+            LOGGER.info("File {} loaded into cache in {}", file, stopWatch.getElapsedTimeString());
+            return new SizedObject(object, 0);
+        });
+        return sizedObject != null ? sizedObject.object : null;
     }
 
     public void putDataObject(String identifier, Object object) {
-        dataObjects.put(identifier, object);
+        putDataObject(identifier, object, 0);
     }
 
     public void putDataObject(String identifier, Object object, long size) {
-        putDataObject(identifier, object);
-        cacheSize += size;
+        dataObjects.put(identifier, new SizedObject(object, size));
     }
 
     public long getCacheSize() {
-        return cacheSize;
+        return dataObjects.getWeightedSize();
+    }
+
+    /**
+     * <p>
+     * Limit the overall size of the objects in the cache; objects are evicted in case the size is exceeded.
+     * </p>
+     *
+     * @param maxCacheSize The maximum size.
+     */
+    public void setMaxCacheSize(long maxCacheSize) {
+        dataObjects.setMaximumWeight(maxCacheSize);
     }
-    
-    
+
     /**
      * <p>
      * Explicit remove data object from cache
      * </p>
-     * 
+     *
      * @param identifier The identifier of the object in the cache.
-     * 
-     * @return 
+     *
+     * @return
      */
     public void removeDataObject(String cacheName) {
-        dataObjects.remove(cacheName);        
+        dataObjects.remove(cacheName);
     }
 
-}
\ No newline at end of file
+}
@@ -5,11 +5,17 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
@@ -23,8 +29,9 @@ import ws.palladian.helper.functional.Factory;
  * to retrieve the occurrence count of an item. It is also often referred to as a <a
  * href="http://en.wikipedia.org/wiki/Multiset">multiset</a>. A typical use case for this class is a bag of words model
  * of a text document, where the counts in this bag represent the frequencies of tokens within the document. The
- * implementation of this class uses a {@link Map} to store the items and their counts. This class mostly adheres to the
- * interface definition of a {@link Collection}. Keep in mind the following peculiarities:
+ * implementation of this class uses an {@link ObjectIntMap} to store the items and their primitive counts, so that
+ * counting does not create any objects. This class mostly adheres to the interface definition of a {@link Collection}.
+ * Keep in mind the following peculiarities:
  * <ul>
  * <li>No <code>null</code> entries are allowed.
  * <li>{@link #size()} represents the sum of all counts within this bag; in contrast, to retrieve the number of
@@ -35,6 +42,7 @@ import ws.palladian.helper.functional.Factory;
  * <li>Items, which counts are set to zero are removed from the bag.
  * <li>Items with biggest/smallest count can be retrieved using {@link #getMax()} and {@link #getMin()}.
  * <li>You can retrieve a copy of this map, where entries are sorted by their counts using {@link #createSorted(Order)}.
+ * <li>Items are iterated in the order in which they were first added.
  * </ul>
  * </p>
  * 
@@ -65,7 +73,7 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
     }
 
     /** The internal map keeping the data. */
-    private transient Map<T, Integer> map;
+    private transient ObjectIntMap<T> map;
 
     /** The sum of all counts in the map. */
     private transient int size;
@@ -80,7 +88,7 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
     @Deprecated
     public static <T> Bag<T> create() {
-        return new Bag<>(new HashMap<>());
+        return new Bag<>();
     }
 
     /**
@@ -111,15 +119,14 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
     @Deprecated
     public static <T> Bag<T> create(Map<? extends T, ? extends Integer> map) {
-        Validate.notNull(map, "map must not be null");
-        return new Bag<>(new HashMap<>(map));
+        return new Bag<>(map);
     }
     
     /**
      * Creates an empty Bag.
      */
     public Bag() {
-    	this(new HashMap<T, Integer>());
+        this.map = new ObjectIntMap<>();
     }
 
     /**
@@ -129,7 +136,7 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
     public Bag(Map<? extends T, ? extends Integer> map) {
     	Validate.notNull(map, "map must not be null");
-        this.map = new HashMap<>();
+        this.map = new ObjectIntMap<>(map.size());
         for (Entry<? extends T, ? extends Integer> item : map.entrySet()) {
         		add(item.getKey(), item.getValue());
         }
@@ -139,7 +146,7 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
 	 * Internal constructor, which does not copy the map. Only by
 	 * {@link #createSorted(Order)}.
 	 */
-	private Bag(Map<T, Integer> map, int size) {
+	private Bag(ObjectIntMap<T> map, int size) {
 		this.map = map;
 		this.size = size;
 	}
@@ -152,11 +159,70 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
     public Bag(Iterable<? extends T> iterable) {
     	this();
         Validate.notNull(iterable, "iterable must not be null");
+        if (iterable instanceof Bag) {
+            // copy the counts, instead of iterating all duplicates
+            @SuppressWarnings("unchecked")
+            Bag<? extends T> other = (Bag<? extends T>)iterable;
+            map = new ObjectIntMap<>(other.map);
+            size = other.size;
+            return;
+        }
         for (T item : iterable) {
             add(item);
         }
     }
 
+    /**
+     * A live view on one item and its count.
+     */
+    private final class BagEntry implements Entry<T, Integer> {
+
+        private final T item;
+
+        BagEntry(T item) {
+            this.item = item;
+        }
+
+        @Override
+        public T getKey() {
+            return item;
+        }
+
+        @Override
+        public Integer getValue() {
+            return map.get(item);
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            Validate.notNull(value, "value must not be null");
+            return set(item, value);
+        }
+
+        @Override
+        public int hashCode() {
+            return item.hashCode() ^ map.get(item);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>)obj;
+            return item.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + map.get(item);
+        }
+
+    }
+
     // java.util.AbstractCollection overrides
 
     @Override
@@ -171,35 +237,40 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
 
         return new AbstractIterator<T>() {
 
-            final Iterator<Entry<T, Integer>> entryIterator = map.entrySet().iterator();
-            Entry<T, Integer> currentEntry = null;
+            int currentPos = -1;
             int currentCount;
+            boolean removable;
 
             @Override
             protected T getNext() throws Finished {
-                if (currentEntry != null && currentCount > 0) {
+                if (currentPos != -1 && currentCount > 0) {
                     currentCount--;
-                    return currentEntry.getKey();
+                    removable = true;
+                    return map.keyAt(currentPos);
                 }
-                if (entryIterator.hasNext()) {
-                    currentEntry = entryIterator.next();
-                    currentCount = currentEntry.getValue() - 1;
-                    return currentEntry.getKey();
+                int nextPos = map.next(currentPos);
+                if (nextPos != -1) {
+                    currentPos = nextPos;
+                    currentCount = map.valueAt(currentPos) - 1;
+                    removable = true;
+                    return map.keyAt(currentPos);
                 }
                 throw FINISHED;
             }
 
             @Override
             public void remove() {
-                if (currentEntry == null) {
+                if (!removable) {
                     throw new IllegalStateException();
                 }
-                int newValue = currentEntry.getValue() - 1;
+                removable = false;
                 size--;
+                int newValue = map.valueAt(currentPos) - 1;
                 if (newValue == 0) {
-                    entryIterator.remove();
+                    map.removeAt(currentPos);
+                    currentCount = 0;
                 } else {
-                    currentEntry.setValue(newValue);
+                    map.setValueAt(currentPos, newValue);
                 }
             }
 
@@ -211,6 +282,17 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
         return size;
     }
 
+    @Override
+    public boolean contains(Object o) {
+        return o != null && map.containsKey(o);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        size = 0;
+    }
+
     // specific Bag methods
 
     /**
@@ -224,8 +306,7 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
 	public int add(T item, int increment) {
 		Validate.notNull(item, "item must not be null");
-		int newCount = count(item) + increment;
-		map.put(item, newCount);
+		int newCount = map.addTo(item, increment);
 		size += increment;
 		return newCount;
 	}
@@ -253,12 +334,9 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
     public int set(T item, int count) {
         Validate.notNull(item, "item must not be null");
-        Integer oldValue = (count == 0) ? map.remove(item) : map.put(item, count);
-        if (oldValue != null) {
-            size -= oldValue;
-        }
-        size += count;
-        return oldValue != null ? oldValue : 0;
+        int oldValue = (count == 0) ? map.remove(item) : map.put(item, count);
+        size += count - oldValue;
+        return oldValue;
     }
 
     /**
@@ -271,48 +349,112 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      */
     public int count(T item) {
         Validate.notNull(item, "item must not be null");
-        Integer count = map.get(item);
-        return count == null ? 0 : count;
+        return map.get(item);
     }
 
     /**
      * @return A set with (unique) entries in this Bag.
      */
     public Set<Entry<T, Integer>> unique() {
-        return map.entrySet();
+        return new AbstractSet<Entry<T, Integer>>() {
+            @Override
+            public Iterator<Entry<T, Integer>> iterator() {
+                final Iterator<T> itemIterator = uniqueItems().iterator();
+                return new Iterator<Entry<T, Integer>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return itemIterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<T, Integer> next() {
+                        return new BagEntry(itemIterator.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        itemIterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
     }
 
     /**
      * @return A set with (unique) items in this Bag.
      */
     public Set<T> uniqueItems() {
-        return map.keySet();
+        final Set<T> keySet = map.keySet();
+        return new AbstractSet<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                final Iterator<T> iterator = keySet.iterator();
+                return new Iterator<T>() {
+                    T current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public T next() {
+                        return current = iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+                        size -= map.get(current);
+                        iterator.remove();
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o != null && map.containsKey(o);
+            }
+        };
     }
 
     /**
      * @return The {@link Entry} with the highest count, or <code>null</code> in case no entry exists.
      */
     public Entry<T, Integer> getMax() {
-        Entry<T, Integer> max = null;
-        for (Entry<T, Integer> entry : unique()) {
-            if (max == null || max.getValue() < entry.getValue()) {
-                max = entry;
+        int max = -1;
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            if (max == -1 || map.valueAt(max) < map.valueAt(pos)) {
+                max = pos;
             }
         }
-        return max;
+        return max != -1 ? new BagEntry(map.keyAt(max)) : null;
     }
 
     /**
      * @return The {@link Entry} with the lowest count, or <code>null</code> in case no entry exists.
      */
     public Entry<T, Integer> getMin() {
-        Entry<T, Integer> min = null;
-        for (Entry<T, Integer> entry : unique()) {
-            if (min == null || min.getValue() > entry.getValue()) {
-                min = entry;
+        int min = -1;
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            if (min == -1 || map.valueAt(min) > map.valueAt(pos)) {
+                min = pos;
             }
         }
-        return min;
+        return min != -1 ? new BagEntry(map.keyAt(min)) : null;
     }
 
     /**
@@ -323,9 +465,24 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      * @param order The sort order, not <code>null</code>.
      * @return A copy of this map with entries sorted by counts.
      */
-    public Bag<T> createSorted(Order order) {
+    public Bag<T> createSorted(final Order order) {
         Validate.notNull(order, "order must not be null");
-        Map<T, Integer> sorted = CollectionHelper.sortByValue(map, order);
+        List<Integer> positions = new ArrayList<>(map.size());
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            positions.add(pos);
+        }
+        // stable sort, so that items with equal counts keep their order
+        Collections.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer pos1, Integer pos2) {
+                int result = Integer.compare(map.valueAt(pos1), map.valueAt(pos2));
+                return order == Order.ASCENDING ? result : -result;
+            }
+        });
+        ObjectIntMap<T> sorted = new ObjectIntMap<>(map.size());
+        for (Integer pos : positions) {
+            sorted.put(map.keyAt(pos), map.valueAt(pos));
+        }
         return new Bag<>(sorted, size);
     }
 
@@ -337,7 +494,11 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
      * @return A map, where values represent the counts.
      */
     public Map<T, Integer> toMap() {
-        return new HashMap<>(map);
+        Map<T, Integer> result = new HashMap<>();
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            result.put(map.keyAt(pos), map.valueAt(pos));
+        }
+        return result;
     }
 
     // equals, hashCode
@@ -373,15 +534,15 @@ public class Bag<T> extends AbstractCollection<T> implements Serializable {
 
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.writeInt(map.size());
-        for (Entry<T, Integer> entry : map.entrySet()) {
-            out.writeObject(entry.getKey());
-            out.writeInt(entry.getValue());
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            out.writeObject(map.keyAt(pos));
+            out.writeInt(map.valueAt(pos));
         }
     }
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        map = new HashMap<>();
         int numEntries = in.readInt();
+        map = new ObjectIntMap<>(numEntries);
         for (int i = 0; i < numEntries; i++) {
             @SuppressWarnings("unchecked")
             T item = (T)in.readObject();
@@ -117,7 +117,7 @@ public class BloomFilter<T> implements Predicate<T>, Serializable {
      * @param seed initial seed value
      * @return 32 bit hash of the given array
      */
-    private static int murmur32(final byte[] data, int length, int seed) {
+    static int murmur32(final byte[] data, int length, int seed) {
         // 'm' and 'r' are mixing constants generated offline.
         // They're not really 'magic', they just happen to work well.
         final int m = 0x5bd1e995;
@@ -202,7 +202,7 @@ public class BloomFilter<T> implements Predicate<T>, Serializable {
      * @param item The item to convert, not <code>null</code>.
      * @return The byte array, representing the Object's string value.
      */
-    private static byte[] getBytes(Object item) {
+    static byte[] getBytes(Object item) {
         try {
             return item.toString().getBytes("UTF-8");
         } catch (UnsupportedEncodingException e) {
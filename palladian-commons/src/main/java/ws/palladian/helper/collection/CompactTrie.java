@@ -0,0 +1,597 @@
+package ws.palladian.helper.collection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * An immutable, compact trie for very large string maps. In contrast to the {@link Trie}, which allocates one object
+ * per character node, the nodes are numbered in level order and stored in flat arrays within a {@link ByteBuffer}:
+ * for each node, the index of its first child (the children of a node are consecutive and sorted by their character,
+ * so that lookups use binary search), its character, and a bit whether it holds a value. This takes about seven bytes
+ * per node, compared to more than forty for the {@link Trie}. The values are kept in an array parallel to the keys,
+ * which are numbered densely in node order (see {@link #indexOf(CharSequence)}); in case all values are
+ * {@link Integer}s, they are stored as primitive ints within the buffer.
+ * </p>
+ *
+ * <p>
+ * The buffer can be on the heap, off-heap (see {@link #CompactTrie(Trie, boolean)}), or memory-mapped from a file
+ * (see {@link #writeTo(File)} and {@link #map(File)}; only for tries with integer values, as arbitrary objects cannot
+ * be stored off-heap). The buffer is limited to 2 GB. Instances are thread safe.
+ * </p>
+ *
+ * @param <V> Type of the values.
+ */
+public final class CompactTrie<V> implements Iterable<Map.Entry<String, V>>, Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** Identifies files which were written by {@link #writeTo(File)}. */
+    private static final int MAGIC = 0x43545249;
+
+    private static final int VERSION = 1;
+
+    /** Flag in the header, in case the values are stored as ints in the buffer. */
+    private static final int FLAG_INT_VALUES = 1;
+
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private transient ByteBuffer buffer;
+
+    private transient int numNodes;
+
+    private transient int numKeys;
+
+    private transient boolean intValues;
+
+    /** Offsets of the arrays within the buffer. */
+    private transient int firstChildOffset;
+
+    private transient int labelOffset;
+
+    private transient int terminalOffset;
+
+    private transient int rankOffset;
+
+    private transient int valueOffset;
+
+    /** The values, in case they are not stored as ints in the buffer. */
+    private transient Object[] values;
+
+    /**
+     * <p>
+     * Create a compact trie with the entries of the given {@link Trie}, stored on the heap.
+     * </p>
+     *
+     * @param trie The trie, not <code>null</code>.
+     */
+    public CompactTrie(Trie<V> trie) {
+        this(trie, false);
+    }
+
+    /**
+     * <p>
+     * Create a compact trie with the entries of the given {@link Trie}.
+     * </p>
+     *
+     * @param trie The trie, not <code>null</code>.
+     * @param direct <code>true</code> to store the trie structure (and integer values) off-heap in a direct buffer.
+     */
+    public CompactTrie(Trie<V> trie, boolean direct) {
+        this((Iterable<? extends Entry<String, V>>)Validate.notNull(trie, "trie must not be null"), direct);
+    }
+
+    /**
+     * <p>
+     * Create a compact trie with the entries of the given map; entries with empty keys or <code>null</code> values are
+     * ignored (as in the {@link Trie}).
+     * </p>
+     *
+     * @param map The map, not <code>null</code>.
+     * @param direct <code>true</code> to store the trie structure (and integer values) off-heap in a direct buffer.
+     */
+    public CompactTrie(Map<String, V> map, boolean direct) {
+        this(Validate.notNull(map, "map must not be null").entrySet(), direct);
+    }
+
+    private CompactTrie(Iterable<? extends Entry<String, V>> entries, boolean direct) {
+        List<Entry<String, V>> sorted = new ArrayList<>();
+        boolean allIntegers = true;
+        for (Entry<String, V> entry : entries) {
+            if (entry.getKey() == null || entry.getKey().isEmpty() || entry.getValue() == null) {
+                continue;
+            }
+            sorted.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            allIntegers &= entry.getValue() instanceof Integer;
+        }
+        sorted.sort(Comparator.comparing(Entry::getKey));
+        build(sorted, allIntegers && !sorted.isEmpty(), direct);
+    }
+
+    /** Constructor for a mapped buffer. */
+    private CompactTrie(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a compact trie (invalid header).");
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Unsupported version " + buffer.getInt(Integer.BYTES) + ".");
+        }
+        initOffsets(buffer.getInt(2 * Integer.BYTES), buffer.getInt(3 * Integer.BYTES),
+                (buffer.getInt(4 * Integer.BYTES) & FLAG_INT_VALUES) != 0);
+    }
+
+    private void initOffsets(int numNodes, int numKeys, boolean intValues) {
+        this.numNodes = numNodes;
+        this.numKeys = numKeys;
+        this.intValues = intValues;
+        int numBlocks = (numNodes + 63) >>> 6;
+        long offset = HEADER_SIZE;
+        firstChildOffset = (int)offset;
+        offset += (long)(numNodes + 1) * Integer.BYTES;
+        labelOffset = (int)offset;
+        offset += (long)numNodes * Character.BYTES;
+        // align the longs
+        offset = (offset + 7) & ~7;
+        terminalOffset = (int)offset;
+        offset += (long)numBlocks * Long.BYTES;
+        rankOffset = (int)offset;
+        offset += (long)numBlocks * Integer.BYTES;
+        valueOffset = (int)offset;
+        if (intValues) {
+            offset += (long)numKeys * Integer.BYTES;
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The trie is too large (" + offset + " bytes), maximum is 2 GB.");
+        }
+        if (buffer != null && buffer.capacity() < offset) {
+            throw new IllegalStateException("The buffer is too small (" + buffer.capacity() + " bytes, expected "
+                    + offset + ").");
+        }
+    }
+
+    /**
+     * Create the level order representation from the sorted entries; the nodes are processed in the order of their
+     * numbers, and each node corresponds to the range of entries with the node's prefix.
+     */
+    private void build(List<Entry<String, V>> entries, boolean intValues, boolean direct) {
+        IntArrayBuilder rangeStart = new IntArrayBuilder();
+        IntArrayBuilder rangeEnd = new IntArrayBuilder();
+        IntArrayBuilder depths = new IntArrayBuilder();
+        IntArrayBuilder firstChildren = new IntArrayBuilder();
+        StringBuilder labels = new StringBuilder();
+        List<Object> orderedValues = new ArrayList<>(entries.size());
+        List<Integer> terminalNodes = new ArrayList<>();
+        // the root
+        rangeStart.add(0);
+        rangeEnd.add(entries.size());
+        depths.add(0);
+        labels.append('\u0000');
+        for (int node = 0; node < rangeStart.size(); node++) {
+            int start = rangeStart.get(node);
+            int end = rangeEnd.get(node);
+            int depth = depths.get(node);
+            if (start < end && entries.get(start).getKey().length() == depth) {
+                terminalNodes.add(node);
+                orderedValues.add(entries.get(start).getValue());
+                start++;
+            }
+            firstChildren.add(rangeStart.size());
+            while (start < end) {
+                char character = entries.get(start).getKey().charAt(depth);
+                int childEnd = start + 1;
+                while (childEnd < end && entries.get(childEnd).getKey().charAt(depth) == character) {
+                    childEnd++;
+                }
+                rangeStart.add(start);
+                rangeEnd.add(childEnd);
+                depths.add(depth + 1);
+                labels.append(character);
+                start = childEnd;
+            }
+        }
+        int numNodes = rangeStart.size();
+        firstChildren.add(numNodes);
+
+        initOffsets(numNodes, orderedValues.size(), intValues);
+        int size = intValues ? valueOffset + numKeys * Integer.BYTES : valueOffset;
+        buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(Integer.BYTES, VERSION);
+        buffer.putInt(2 * Integer.BYTES, numNodes);
+        buffer.putInt(3 * Integer.BYTES, numKeys);
+        buffer.putInt(4 * Integer.BYTES, intValues ? FLAG_INT_VALUES : 0);
+        for (int node = 0; node <= numNodes; node++) {
+            buffer.putInt(firstChildOffset + node * Integer.BYTES, firstChildren.get(node));
+        }
+        for (int node = 0; node < numNodes; node++) {
+            buffer.putChar(labelOffset + node * Character.BYTES, labels.charAt(node));
+        }
+        long[] terminalBits = new long[(numNodes + 63) >>> 6];
+        for (int node : terminalNodes) {
+            terminalBits[node >>> 6] |= 1L << (node & 63);
+        }
+        int rank = 0;
+        for (int block = 0; block < terminalBits.length; block++) {
+            buffer.putLong(terminalOffset + block * Long.BYTES, terminalBits[block]);
+            buffer.putInt(rankOffset + block * Integer.BYTES, rank);
+            rank += Long.bitCount(terminalBits[block]);
+        }
+        if (intValues) {
+            for (int i = 0; i < numKeys; i++) {
+                buffer.putInt(valueOffset + i * Integer.BYTES, (Integer)orderedValues.get(i));
+            }
+        } else {
+            values = orderedValues.toArray();
+        }
+    }
+
+    /** A growable int array, to avoid boxing during the build. */
+    private static final class IntArrayBuilder {
+        int[] data = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    // navigation
+
+    private int firstChild(int node) {
+        return buffer.getInt(firstChildOffset + node * Integer.BYTES);
+    }
+
+    private char label(int node) {
+        return buffer.getChar(labelOffset + node * Character.BYTES);
+    }
+
+    private boolean isTerminal(int node) {
+        return (buffer.getLong(terminalOffset + (node >>> 6) * Long.BYTES) & 1L << (node & 63)) != 0;
+    }
+
+    /** The number of terminal nodes before the given one, which is the index of its value. */
+    private int rank(int node) {
+        int block = node >>> 6;
+        long bits = buffer.getLong(terminalOffset + block * Long.BYTES) & ((1L << (node & 63)) - 1);
+        return buffer.getInt(rankOffset + block * Integer.BYTES) + Long.bitCount(bits);
+    }
+
+    /** @return The child with the given character, or -1. */
+    private int child(int node, char character) {
+        int low = firstChild(node);
+        int high = firstChild(node + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = label(mid);
+            if (midLabel < character) {
+                low = mid + 1;
+            } else if (midLabel > character) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /** @return The node for the given key, or -1. */
+    private int findNode(CharSequence key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node != -1; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        if (intValues) {
+            return (V)Integer.valueOf(buffer.getInt(valueOffset + index * Integer.BYTES));
+        }
+        return (V)values[index];
+    }
+
+    // public API
+
+    /**
+     * <p>
+     * Get the index of a key; the keys are numbered densely from zero to {@link #size()} - 1, so that the index can be
+     * used to look up values in parallel (e.g. primitive) arrays.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @return The index of the key, or -1 in case the key is not contained.
+     */
+    public int indexOf(CharSequence key) {
+        Validate.notNull(key, "key must not be null");
+        int node = findNode(key);
+        return node > 0 && isTerminal(node) ? rank(node) : -1;
+    }
+
+    /**
+     * @param key The key, not <code>null</code> or empty.
+     * @return The value for the key, or <code>null</code> in case the key is not contained.
+     */
+    public V get(String key) {
+        Validate.notEmpty(key, "key must not be empty");
+        int index = indexOf(key);
+        return index != -1 ? valueAt(index) : null;
+    }
+
+    /**
+     * @param key The key, not <code>null</code> or empty.
+     * @return <code>true</code> in case the key is contained.
+     */
+    public boolean containsKey(String key) {
+        Validate.notEmpty(key, "key must not be empty");
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * <p>
+     * Get the node for a key (or prefix); equivalent to {@link Trie#getNode(CharSequence)}, the node can be used to
+     * iterate the entries below the prefix.
+     * </p>
+     *
+     * @param key The key, not <code>null</code> or empty.
+     * @return The node, or <code>null</code> in case there is no such key or prefix.
+     */
+    public Node getNode(CharSequence key) {
+        Validate.notEmpty(key, "key must not be empty");
+        int node = findNode(key);
+        return node != -1 ? new Node(node, key.toString()) : null;
+    }
+
+    /**
+     * @return An iterator over all entries, in lexicographical order of the keys.
+     */
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+        return new EntryIterator(0, "");
+    }
+
+    /**
+     * @return The number of keys.
+     */
+    public int size() {
+        return numKeys;
+    }
+
+    /**
+     * @return The number of nodes.
+     */
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * @return The size of the buffer in bytes (i.e. without values which are not stored in the buffer).
+     */
+    public int getSizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * <p>
+     * Write the trie to a file, which can be memory-mapped using {@link #map(File)}. This is only possible, in case the
+     * values are integers.
+     * </p>
+     *
+     * @param file The file, not <code>null</code>.
+     * @throws IOException In case writing fails.
+     * @throws IllegalStateException In case the values are not integers.
+     */
+    public void writeTo(File file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        if (!intValues) {
+            throw new IllegalStateException("Only tries with integer values can be written to a file; use serialization.");
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            channel.truncate(0);
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.clear();
+            while (duplicate.hasRemaining()) {
+                channel.write(duplicate);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Memory-map a trie which was written using {@link #writeTo(File)}; the data is paged in by the operating system
+     * on demand and does not take heap space.
+     * </p>
+     *
+     * @param file The file, not <code>null</code>.
+     * @return The trie.
+     * @throws IOException In case the file cannot be read.
+     * @throws IllegalStateException In case the file is no valid trie.
+     */
+    public static CompactTrie<Integer> map(File file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Invalid file size " + channel.size() + ".");
+            }
+            // the mapping stays valid after closing the channel
+            return new CompactTrie<>(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTrie [size=" + numKeys + ", numNodes=" + numNodes + ", bytes=" + getSizeInBytes() + "]";
+    }
+
+    /**
+     * A node within the trie, which corresponds to a prefix.
+     */
+    public final class Node implements Map.Entry<String, V>, Iterable<Map.Entry<String, V>> {
+
+        private final int node;
+
+        private final String key;
+
+        private Node(int node, String key) {
+            this.node = node;
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return The value of this node, or <code>null</code> in case the node is only a prefix.
+         */
+        @Override
+        public V getValue() {
+            return isTerminal(node) ? valueAt(rank(node)) : null;
+        }
+
+        /**
+         * @throws UnsupportedOperationException The trie is immutable.
+         */
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("The CompactTrie is immutable.");
+        }
+
+        /**
+         * @return An iterator over all entries below this node (excluding this node, as in the {@link Trie}).
+         */
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new EntryIterator(node, key);
+        }
+
+        @Override
+        public String toString() {
+            return key + '=' + getValue();
+        }
+
+    }
+
+    /** Depth-first iteration over the entries below a node, in lexicographical order. */
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+
+        /** The next child to visit on each level, and the end of the children. */
+        private int[] next = new int[16];
+        private int[] end = new int[16];
+        private int level;
+        private final StringBuilder key;
+        private final int prefixLength;
+        private Entry<String, V> nextEntry;
+
+        EntryIterator(int node, String prefix) {
+            key = new StringBuilder(prefix);
+            prefixLength = prefix.length();
+            next[0] = firstChild(node);
+            end[0] = firstChild(node + 1);
+            level = 0;
+        }
+
+        private Entry<String, V> computeNext() {
+            while (level >= 0) {
+                if (next[level] == end[level]) {
+                    // level done, go up
+                    level--;
+                    if (level >= 0) {
+                        key.setLength(prefixLength + level);
+                    }
+                    continue;
+                }
+                int node = next[level]++;
+                key.setLength(prefixLength + level);
+                key.append(label(node));
+                // descend into the children
+                if (level + 1 == next.length) {
+                    next = Arrays.copyOf(next, next.length * 2);
+                    end = Arrays.copyOf(end, end.length * 2);
+                }
+                level++;
+                next[level] = firstChild(node);
+                end[level] = firstChild(node + 1);
+                if (isTerminal(node)) {
+                    return new AbstractMap.SimpleImmutableEntry<>(key.toString(), valueAt(rank(node)));
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextEntry == null) {
+                nextEntry = computeNext();
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, V> result = nextEntry;
+            nextEntry = null;
+            return result;
+        }
+
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        byte[] bytes = new byte[buffer.capacity()];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.clear();
+        duplicate.get(bytes);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeObject(values);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        buffer = ByteBuffer.wrap(bytes);
+        initOffsets(buffer.getInt(2 * Integer.BYTES), buffer.getInt(3 * Integer.BYTES),
+                (buffer.getInt(4 * Integer.BYTES) & FLAG_INT_VALUES) != 0);
+        values = (Object[])in.readObject();
+    }
+
+}
@@ -0,0 +1,266 @@
+package ws.palladian.helper.collection;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * Thread safe variant of the {@link BloomFilter}. The bits are stored in an {@link AtomicLongArray} and set using
+ * compare-and-set operations, so that the filter can be queried without locking and updated concurrently (e.g. as
+ * "seen" set for crawlers with multiple threads). Additions lock one of a fixed number of stripes, chosen by the hash
+ * of the item, so that concurrent additions of the same item are serialized and only one of them reports the item as
+ * new. Hash values are derived from two Murmur hashes using double hashing,
+ * so that only two hash computations are necessary, independent of the number of hash functions. The bit vector may be
+ * larger than <code>Integer.MAX_VALUE</code>.
+ * </p>
+ *
+ * <p>
+ * The serialized form only contains the parameters and the raw bit vector, so that pre-built filters can be shared
+ * between processes cheaply.
+ * </p>
+ *
+ * @param <T> Type of the items in this Bloom filter.
+ * @see ScalableBloomFilter
+ * @see CountingBloomFilter
+ * @see <a href="http://www.eecs.harvard.edu/~michaelm/postscripts/rsa2008.pdf">Less Hashing, Same Performance: Building
+ *      a Better Bloom Filter</a>
+ */
+public class ConcurrentBloomFilter<T> implements Predicate<T>, Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    private transient long vectorSize;
+
+    private transient int numHashFunctions;
+
+    private transient AtomicLongArray bits;
+
+    private transient AtomicLong numAddedItems;
+
+    /** The number of lock stripes for additions; must be a power of two. */
+    private static final int NUM_LOCKS = 64;
+
+    private transient Object[] locks;
+
+    /**
+     * <p>
+     * Create a new Bloom filter providing a specific false positive rate on a set with the maximum number of elements.
+     * </p>
+     *
+     * @param fpProb The accepted false positive probability, must be in range (0,1).
+     * @param numElements The expected number of elements, greater zero.
+     */
+    public ConcurrentBloomFilter(double fpProb, long numElements) {
+        Validate.isTrue(fpProb > 0 && fpProb < 1, "fpProb must be in range (0,1)");
+        Validate.isTrue(numElements > 0, "numElements must be greater zero");
+        long vectorSize = optimalVectorSize(fpProb, numElements);
+        init(vectorSize, optimalNumHashFunctions(vectorSize, numElements));
+    }
+
+    private void init(long vectorSize, int numHashFunctions) {
+        Validate.isTrue((vectorSize + 63) / 64 <= Integer.MAX_VALUE, "vectorSize too large");
+        this.vectorSize = vectorSize;
+        this.numHashFunctions = numHashFunctions;
+        this.bits = new AtomicLongArray((int)((vectorSize + 63) / 64));
+        this.numAddedItems = new AtomicLong();
+        this.locks = new Object[NUM_LOCKS];
+        for (int i = 0; i < NUM_LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @param fpProb The accepted false positive probability.
+     * @param numElements The expected number of elements.
+     * @return The optimal size of the bit vector.
+     */
+    static long optimalVectorSize(double fpProb, long numElements) {
+        return Math.max(1, (long)Math.ceil(numElements * Math.log(1 / fpProb) / Math.pow(Math.log(2), 2)));
+    }
+
+    /**
+     * @param vectorSize The size of the bit vector.
+     * @param numElements The expected number of elements.
+     * @return The optimal number of hash functions.
+     */
+    static int optimalNumHashFunctions(long vectorSize, long numElements) {
+        return Math.max(1, (int)Math.round((double)vectorSize / numElements * Math.log(2)));
+    }
+
+    /**
+     * @param item The item, not <code>null</code>.
+     * @return A 64 bit hash of the item, which is used as base for {@link #index(long, int, long)}.
+     */
+    static long hash(Object item) {
+        byte[] bytes = BloomFilter.getBytes(item);
+        int h1 = BloomFilter.murmur32(bytes, bytes.length, 0);
+        int h2 = BloomFilter.murmur32(bytes, bytes.length, h1);
+        return (long)h1 << 32 | h2 & 0xffffffffL;
+    }
+
+    /**
+     * @param hash The hash from {@link #hash(Object)}.
+     * @param i The number of the hash function.
+     * @param size The size of the vector.
+     * @return The index for the i-th hash function, in range [0,size).
+     */
+    static long index(long hash, int i, long size) {
+        long step = Long.rotateLeft(hash, 32) | 1;
+        return ((hash + i * step) & Long.MAX_VALUE) % size;
+    }
+
+    @Override
+    public boolean test(T item) {
+        if (item == null) {
+            return false;
+        }
+        long hash = hash(item);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = index(hash, i, vectorSize);
+            if ((bits.get((int)(index >>> 6)) & 1L << index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     * Add an item to this Bloom filter.
+     * </p>
+     *
+     * @param item The item to add, not <code>null</code>.
+     * @return <code>true</code> in case the filter was modified, i.e. the item was for sure not contained before,
+     *         <code>false</code> in case the item was (potentially) contained already.
+     */
+    public boolean add(T item) {
+        Validate.notNull(item, "item must not be null");
+        long hash = hash(item);
+        boolean modified = false;
+        // the same item always maps to the same stripe; the bits are still shared with items of other stripes
+        synchronized (locks[(int)(hash ^ hash >>> 32) & NUM_LOCKS - 1]) {
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = index(hash, i, vectorSize);
+                int word = (int)(index >>> 6);
+                long mask = 1L << index;
+                for (;;) {
+                    long current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                    if (bits.compareAndSet(word, current, current | mask)) {
+                        modified = true;
+                        break;
+                    }
+                }
+            }
+        }
+        numAddedItems.incrementAndGet();
+        return modified;
+    }
+
+    /**
+     * <p>
+     * Adds a collection of items to this Bloom filter.
+     * </p>
+     *
+     * @param items The items to add, not <code>null</code>.
+     */
+    public void addAll(Collection<? extends T> items) {
+        Validate.notNull(items, "items must not be null");
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * @return The number of hash functions.
+     */
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * @return The size of the bit vector.
+     */
+    public long getVectorSize() {
+        return vectorSize;
+    }
+
+    /**
+     * @return The number of items which have been added to this bloom filter (each duplicate is counted).
+     */
+    public long getNumAddedItems() {
+        return numAddedItems.get();
+    }
+
+    /**
+     * @return The number of bits which are set.
+     */
+    public long getNumSetBits() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return The current probability for false positives, determined from the fraction of set bits.
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow((double)getNumSetBits() / vectorSize, numHashFunctions);
+    }
+
+    /**
+     * @return The estimated number of distinct items in this filter, determined from the fraction of set bits.
+     */
+    public double getEstimatedNumItems() {
+        double fraction = (double)getNumSetBits() / vectorSize;
+        return -(double)vectorSize / numHashFunctions * Math.log(1 - fraction);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("ConcurrentBloomFilter [vectorSize=");
+        builder.append(vectorSize);
+        builder.append(", fpProbability=");
+        builder.append(getFalsePositiveProbability());
+        builder.append(", hashFunctions=");
+        builder.append(numHashFunctions);
+        builder.append(", addedItems=");
+        builder.append(getNumAddedItems());
+        builder.append("]");
+        return builder.toString();
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeLong(vectorSize);
+        out.writeInt(numHashFunctions);
+        out.writeLong(numAddedItems.get());
+        for (int i = 0; i < bits.length(); i++) {
+            out.writeLong(bits.get(i));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        init(in.readLong(), in.readInt());
+        numAddedItems.set(in.readLong());
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, in.readLong());
+        }
+    }
+
+}
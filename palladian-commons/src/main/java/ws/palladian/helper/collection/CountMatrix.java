@@ -105,13 +105,14 @@ public class CountMatrix<K> extends MatrixDecorator<K, Integer> implements Seria
 
     /**
      * <p>
-     * Shortcut method instead of constructor which allows omitting the type parameter.
+     * Shortcut method instead of constructor which allows omitting the type parameter. The counts are stored in an
+     * {@link IntMatrix}.
      * </p>
      * 
      * @return A new CountMatrix.
      */
     public static <T> CountMatrix<T> create() {
-        return new CountMatrix<T>(new MapMatrix<T, Integer>());
+        return new CountMatrix<T>(new IntMatrix<T>());
     }
 
     /**
@@ -140,8 +141,12 @@ public class CountMatrix<K> extends MatrixDecorator<K, Integer> implements Seria
     public void add(K x, K y, int value) {
         Validate.notNull(x, "x must not be null");
         Validate.notNull(y, "y must not be null");
-        Integer count = get(x, y);
-        set(x, y, count += value);
+        if (matrix instanceof IntMatrix) {
+            ((IntMatrix<K>)matrix).add(x, y, value);
+        } else {
+            Integer count = get(x, y);
+            set(x, y, count += value);
+        }
     }
 
     /**
@@ -154,6 +159,9 @@ public class CountMatrix<K> extends MatrixDecorator<K, Integer> implements Seria
      * @return
      */
     public int getCount(K x, K y) {
+        if (matrix instanceof IntMatrix) {
+            return ((IntMatrix<K>)matrix).getInt(x, y);
+        }
         return get(x, y);
     }
 
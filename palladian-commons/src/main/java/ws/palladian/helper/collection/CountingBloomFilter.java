@@ -0,0 +1,204 @@
+package ws.palladian.helper.collection;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A counting Bloom filter, which supports removal of items. Instead of single bits, it uses four bit counters, sixteen
+ * of which are packed into each long of an {@link AtomicLongArray}; like the {@link ConcurrentBloomFilter}, it can be
+ * queried and updated concurrently without locking. Counters which reach their maximum value of fifteen stick there
+ * and are never decremented any more, so that removals cannot cause false negatives due to overflows (with a properly
+ * sized filter, this is very unlikely to happen anyways). Items must only be removed in case they have been added
+ * before; {@link #remove(Object)} rejects items which are for sure not contained.
+ * </p>
+ *
+ * @param <T> Type of the items in this Bloom filter.
+ * @see <a href="http://pages.cs.wisc.edu/~cao/papers/summary-cache/node9.html">Bloom Filters as Summaries</a>
+ */
+public class CountingBloomFilter<T> implements Predicate<T>, Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** The maximum value of a counter. */
+    private static final int MAX_COUNT = 15;
+
+    private transient long numCounters;
+
+    private transient int numHashFunctions;
+
+    private transient AtomicLongArray counters;
+
+    /**
+     * <p>
+     * Create a new counting Bloom filter providing a specific false positive rate on a set with the maximum number of
+     * elements.
+     * </p>
+     *
+     * @param fpProb The accepted false positive probability, must be in range (0,1).
+     * @param numElements The expected number of elements, greater zero.
+     */
+    public CountingBloomFilter(double fpProb, long numElements) {
+        Validate.isTrue(fpProb > 0 && fpProb < 1, "fpProb must be in range (0,1)");
+        Validate.isTrue(numElements > 0, "numElements must be greater zero");
+        long numCounters = ConcurrentBloomFilter.optimalVectorSize(fpProb, numElements);
+        init(numCounters, ConcurrentBloomFilter.optimalNumHashFunctions(numCounters, numElements));
+    }
+
+    private void init(long numCounters, int numHashFunctions) {
+        Validate.isTrue((numCounters + 15) / 16 <= Integer.MAX_VALUE, "numCounters too large");
+        this.numCounters = numCounters;
+        this.numHashFunctions = numHashFunctions;
+        this.counters = new AtomicLongArray((int)((numCounters + 15) / 16));
+    }
+
+    private int getCount(long index) {
+        return (int)(counters.get((int)(index >>> 4)) >>> ((index & 15) << 2) & MAX_COUNT);
+    }
+
+    /** Increment or decrement the counter; saturated counters and zero counters (on decrement) are left unchanged. */
+    private void update(long index, int delta) {
+        int word = (int)(index >>> 4);
+        int shift = (int)(index & 15) << 2;
+        for (;;) {
+            long current = counters.get(word);
+            int count = (int)(current >>> shift & MAX_COUNT);
+            if (count == MAX_COUNT || count + delta < 0) {
+                return;
+            }
+            if (counters.compareAndSet(word, current, current + ((long)delta << shift))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean test(T item) {
+        if (item == null) {
+            return false;
+        }
+        long hash = ConcurrentBloomFilter.hash(item);
+        for (int i = 0; i < numHashFunctions; i++) {
+            if (getCount(ConcurrentBloomFilter.index(hash, i, numCounters)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     * Add an item to this Bloom filter; adding an item multiple times requires removing it the same number of times.
+     * </p>
+     *
+     * @param item The item to add, not <code>null</code>.
+     */
+    public void add(T item) {
+        Validate.notNull(item, "item must not be null");
+        long hash = ConcurrentBloomFilter.hash(item);
+        for (int i = 0; i < numHashFunctions; i++) {
+            update(ConcurrentBloomFilter.index(hash, i, numCounters), 1);
+        }
+    }
+
+    /**
+     * <p>
+     * Adds a collection of items to this Bloom filter.
+     * </p>
+     *
+     * @param items The items to add, not <code>null</code>.
+     */
+    public void addAll(Collection<? extends T> items) {
+        Validate.notNull(items, "items must not be null");
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * <p>
+     * Remove an item from this Bloom filter. The item must have been added before; removing items which were never
+     * added may cause false negatives for other items.
+     * </p>
+     *
+     * @param item The item to remove, not <code>null</code>.
+     * @return <code>true</code> in case the item was removed, <code>false</code> in case it was for sure not contained.
+     */
+    public boolean remove(T item) {
+        Validate.notNull(item, "item must not be null");
+        if (!test(item)) {
+            return false;
+        }
+        long hash = ConcurrentBloomFilter.hash(item);
+        for (int i = 0; i < numHashFunctions; i++) {
+            update(ConcurrentBloomFilter.index(hash, i, numCounters), -1);
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of hash functions.
+     */
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * @return The number of counters.
+     */
+    public long getNumCounters() {
+        return numCounters;
+    }
+
+    /**
+     * @return The current probability for false positives, determined from the fraction of non-zero counters.
+     */
+    public double getFalsePositiveProbability() {
+        long nonZero = 0;
+        for (long index = 0; index < numCounters; index++) {
+            if (getCount(index) > 0) {
+                nonZero++;
+            }
+        }
+        return Math.pow((double)nonZero / numCounters, numHashFunctions);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("CountingBloomFilter [numCounters=");
+        builder.append(numCounters);
+        builder.append(", fpProbability=");
+        builder.append(getFalsePositiveProbability());
+        builder.append(", hashFunctions=");
+        builder.append(numHashFunctions);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeLong(numCounters);
+        out.writeInt(numHashFunctions);
+        for (int i = 0; i < counters.length(); i++) {
+            out.writeLong(counters.get(i));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        init(in.readLong(), in.readInt());
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, in.readLong());
+        }
+    }
+
+}
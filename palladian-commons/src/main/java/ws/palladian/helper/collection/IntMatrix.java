@@ -0,0 +1,377 @@
+package ws.palladian.helper.collection;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A sparse {@link Matrix} with primitive <code>int</code> values. Row and column keys are mapped to int codes using
+ * {@link ObjectIntMap}s, each row stores its cells in an open addressing table from column code to value. In contrast
+ * to the {@link MapMatrix}, setting or incrementing a cell therefore does neither box the value, nor create any entry
+ * objects, and a cell lookup hashes each key only once. Use {@link #add(Object, Object, int)} and
+ * {@link #getInt(Object, Object)} to avoid boxing entirely; the {@link CountMatrix} does so automatically.
+ * </p>
+ *
+ * <p>
+ * Rows and columns are iterated in the order in which they were added. Rows and columns which are returned by
+ * {@link #getRow(Object)} and {@link #getColumn(Object)} are copies. <code>null</code> values are not allowed.
+ * </p>
+ *
+ * @param <K> Type of the keys.
+ */
+public class IntMatrix<K> extends AbstractMatrix<K, Integer> implements Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** The cells of one row; an open addressing table from column code to value with linear probing. */
+    private static final class Row {
+
+        final Object key;
+
+        /** Column codes plus one, so that zero marks a free slot. */
+        int[] columns = new int[4];
+
+        int[] values = new int[4];
+
+        int size;
+
+        Row(Object key) {
+            this.key = key;
+        }
+
+        private static int mix(int code) {
+            int h = code * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        /** @return The slot of the column, or the (negative) free slot minus one where it would be inserted. */
+        int find(int column) {
+            int mask = columns.length - 1;
+            int stored = column + 1;
+            for (int slot = mix(column) & mask;; slot = (slot + 1) & mask) {
+                if (columns[slot] == stored) {
+                    return slot;
+                }
+                if (columns[slot] == 0) {
+                    return -slot - 1;
+                }
+            }
+        }
+
+        /** Add the increment to the cell, which is created in case it does not exist; return the new value. */
+        int add(int column, int increment, boolean replace) {
+            int slot = find(column);
+            if (slot >= 0) {
+                return values[slot] = replace ? increment : values[slot] + increment;
+            }
+            if (2 * (size + 1) > columns.length) {
+                grow();
+                slot = find(column);
+            }
+            slot = -slot - 1;
+            columns[slot] = column + 1;
+            values[slot] = increment;
+            size++;
+            return increment;
+        }
+
+        private void grow() {
+            int[] oldColumns = columns;
+            int[] oldValues = values;
+            columns = new int[oldColumns.length * 2];
+            values = new int[oldColumns.length * 2];
+            for (int i = 0; i < oldColumns.length; i++) {
+                if (oldColumns[i] != 0) {
+                    int slot = -find(oldColumns[i] - 1) - 1;
+                    columns[slot] = oldColumns[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        /** Remove the cell, shifting back following entries of the probe sequence. */
+        boolean remove(int column) {
+            int slot = find(column);
+            if (slot < 0) {
+                return false;
+            }
+            int mask = columns.length - 1;
+            int free = slot;
+            for (int next = (free + 1) & mask; columns[next] != 0; next = (next + 1) & mask) {
+                int home = mix(columns[next] - 1) & mask;
+                // move the entry, in case its home slot is not located cyclically in (free, next]
+                if (free <= next ? (home <= free || home > next) : (home <= free && home > next)) {
+                    columns[free] = columns[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            columns[free] = 0;
+            size--;
+            return true;
+        }
+
+    }
+
+    /** Codes for the row keys. */
+    private transient ObjectIntMap<K> rowCodes;
+
+    /** Codes for the column keys. */
+    private transient ObjectIntMap<K> columnCodes;
+
+    /** The rows, indexed by row code; <code>null</code> for removed rows. */
+    private transient Row[] rows;
+
+    /** The column keys, indexed by column code; <code>null</code> for removed columns. */
+    private transient List<K> columnKeys;
+
+    /** The code for the next new row. */
+    private transient int nextRowCode;
+
+    public IntMatrix() {
+        init();
+    }
+
+    private void init() {
+        rowCodes = new ObjectIntMap<>();
+        columnCodes = new ObjectIntMap<>();
+        rows = new Row[8];
+        columnKeys = new ArrayList<>();
+        nextRowCode = 0;
+    }
+
+    private int rowCode(K y, boolean create) {
+        int pos = rowCodes.indexOf(y);
+        if (pos != -1) {
+            return rowCodes.valueAt(pos);
+        }
+        if (!create) {
+            return -1;
+        }
+        // codes are handed out consecutively; removed rows leave gaps, which are reclaimed on deserialization
+        int code = nextRowCode++;
+        if (code == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        rows[code] = new Row(y);
+        rowCodes.put(y, code);
+        return code;
+    }
+
+    private int columnCode(K x, boolean create) {
+        int pos = columnCodes.indexOf(x);
+        if (pos != -1) {
+            return columnCodes.valueAt(pos);
+        }
+        if (!create) {
+            return -1;
+        }
+        int code = columnKeys.size();
+        columnKeys.add(x);
+        columnCodes.put(x, code);
+        return code;
+    }
+
+    @Override
+    public Integer get(K x, K y) {
+        Validate.notNull(x, "x must not be null");
+        Validate.notNull(y, "y must not be null");
+        int rowCode = rowCode(y, false);
+        int columnCode = columnCode(x, false);
+        if (rowCode == -1 || columnCode == -1) {
+            return null;
+        }
+        Row row = rows[rowCode];
+        int slot = row.find(columnCode);
+        return slot >= 0 ? row.values[slot] : null;
+    }
+
+    /**
+     * <p>
+     * Get the value at the specified x/y position without boxing.
+     * </p>
+     *
+     * @param x Key/index of the column, not <code>null</code>.
+     * @param y Key/index of the row, not <code>null</code>.
+     * @return The value, or zero in case the cell does not exist.
+     */
+    public int getInt(K x, K y) {
+        Validate.notNull(x, "x must not be null");
+        Validate.notNull(y, "y must not be null");
+        int rowCode = rowCode(y, false);
+        int columnCode = columnCode(x, false);
+        if (rowCode == -1 || columnCode == -1) {
+            return 0;
+        }
+        Row row = rows[rowCode];
+        int slot = row.find(columnCode);
+        return slot >= 0 ? row.values[slot] : 0;
+    }
+
+    @Override
+    public void set(K x, K y, Integer value) {
+        Validate.notNull(x, "x must not be null");
+        Validate.notNull(y, "y must not be null");
+        Validate.notNull(value, "value must not be null");
+        int rowCode = rowCode(y, true); // may grow the rows array
+        rows[rowCode].add(columnCode(x, true), value, true);
+    }
+
+    /**
+     * <p>
+     * Increment the value at the specified x/y position; non-existing cells are treated as zero.
+     * </p>
+     *
+     * @param x Key/index of the column, not <code>null</code>.
+     * @param y Key/index of the row, not <code>null</code>.
+     * @param increment The value to add.
+     * @return The new value.
+     */
+    public int add(K x, K y, int increment) {
+        Validate.notNull(x, "x must not be null");
+        Validate.notNull(y, "y must not be null");
+        int rowCode = rowCode(y, true); // may grow the rows array
+        return rows[rowCode].add(columnCode(x, true), increment, false);
+    }
+
+    @Override
+    public Set<K> getColumnKeys() {
+        return Collections.unmodifiableSet(columnCodes.keySet());
+    }
+
+    @Override
+    public Set<K> getRowKeys() {
+        return Collections.unmodifiableSet(rowCodes.keySet());
+    }
+
+    @Override
+    public int columnCount() {
+        return columnCodes.size();
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCodes.size();
+    }
+
+    @Override
+    public void clear() {
+        init();
+    }
+
+    @Override
+    public MatrixVector<K, Integer> getRow(K y) {
+        Validate.notNull(y, "y must not be null");
+        int rowCode = rowCode(y, false);
+        if (rowCode == -1) {
+            return null;
+        }
+        Row row = rows[rowCode];
+        // keep the column order
+        Map<K, Integer> cells = new LinkedHashMap<>();
+        for (int column = 0; column < columnKeys.size(); column++) {
+            K x = columnKeys.get(column);
+            if (x != null) {
+                int slot = row.find(column);
+                if (slot >= 0) {
+                    cells.put(x, row.values[slot]);
+                }
+            }
+        }
+        return new MapMatrixVector<>(y, cells);
+    }
+
+    @Override
+    public MatrixVector<K, Integer> getColumn(K x) {
+        Validate.notNull(x, "x must not be null");
+        int columnCode = columnCode(x, false);
+        if (columnCode == -1) {
+            return null;
+        }
+        Map<K, Integer> cells = new LinkedHashMap<>();
+        for (int pos = rowCodes.first(); pos != -1; pos = rowCodes.next(pos)) {
+            Row row = rows[rowCodes.valueAt(pos)];
+            int slot = row.find(columnCode);
+            if (slot >= 0) {
+                cells.put(rowCodes.keyAt(pos), row.values[slot]);
+            }
+        }
+        return cells.size() > 0 ? new MapMatrixVector<>(x, cells) : null;
+    }
+
+    @Override
+    public void removeRow(K y) {
+        Validate.notNull(y, "y must not be null");
+        int pos = rowCodes.indexOf(y);
+        if (pos != -1) {
+            rows[rowCodes.removeAt(pos)] = null;
+        }
+    }
+
+    @Override
+    public void removeColumn(K x) {
+        Validate.notNull(x, "x must not be null");
+        int pos = columnCodes.indexOf(x);
+        if (pos != -1) {
+            int columnCode = columnCodes.removeAt(pos);
+            columnKeys.set(columnCode, null);
+            for (Row row : rows) {
+                if (row != null) {
+                    row.remove(columnCode);
+                }
+            }
+        }
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(columnCodes.size());
+        for (int pos = columnCodes.first(); pos != -1; pos = columnCodes.next(pos)) {
+            out.writeObject(columnCodes.keyAt(pos));
+        }
+        out.writeInt(rowCodes.size());
+        for (int pos = rowCodes.first(); pos != -1; pos = rowCodes.next(pos)) {
+            Row row = rows[rowCodes.valueAt(pos)];
+            out.writeObject(row.key);
+            out.writeInt(row.size);
+            for (int slot = 0; slot < row.columns.length; slot++) {
+                if (row.columns[slot] != 0) {
+                    out.writeObject(columnKeys.get(row.columns[slot] - 1));
+                    out.writeInt(row.values[slot]);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        init();
+        int numColumns = in.readInt();
+        for (int i = 0; i < numColumns; i++) {
+            columnCode((K)in.readObject(), true);
+        }
+        int numRows = in.readInt();
+        for (int i = 0; i < numRows; i++) {
+            int rowCode = rowCode((K)in.readObject(), true);
+            Row row = rows[rowCode];
+            int numCells = in.readInt();
+            for (int j = 0; j < numCells; j++) {
+                row.add(columnCode((K)in.readObject(), true), in.readInt(), true);
+            }
+        }
+    }
+
+}
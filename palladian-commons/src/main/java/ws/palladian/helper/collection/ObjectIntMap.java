@@ -0,0 +1,487 @@
+package ws.palladian.helper.collection;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A hash map from objects to primitive <code>int</code> values, which avoids the boxing and the entry objects of a
+ * {@link java.util.HashMap HashMap&lt;K, Integer&gt;}. The entries are kept in dense parallel arrays in insertion order,
+ * an open addressing table with linear probing maps the hashes to the positions in these arrays. Removing an entry
+ * leaves a hole, which is reclaimed when the arrays are compacted upon growing. In consequence:
+ * <ul>
+ * <li>Iteration order is the insertion order (also after removals).
+ * <li>Entries can be removed while iterating using {@link #removeAt(int)}, positions of other entries stay valid. Adding
+ * entries while iterating is not allowed, as it might compact the arrays.
+ * <li>For absent keys, {@link #get(Object)} returns zero, which makes this class convenient for counting.
+ * </ul>
+ * Entries are iterated by their positions:
+ *
+ * <pre>
+ * for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+ *     System.out.println(map.keyAt(pos) + &quot; : &quot; + map.valueAt(pos));
+ * }
+ * </pre>
+ *
+ * <code>null</code> keys are not allowed. This class is not thread safe.
+ * </p>
+ *
+ * @param <K> Type of the keys.
+ */
+public final class ObjectIntMap<K> implements Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** Marker for a free slot in the index table. */
+    private static final int FREE = -1;
+
+    /** Marker for a slot in the index table, which pointed to a removed entry. */
+    private static final int REMOVED = -2;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** Open addressing table, which points to positions in the entry arrays; twice as big as the entry arrays. */
+    private transient int[] index;
+
+    /** The keys in insertion order; <code>null</code> for removed entries. */
+    private transient Object[] keys;
+
+    /** The values belonging to the keys. */
+    private transient int[] values;
+
+    /** The (mixed) hashes of the keys, to avoid calling equals and hashCode when probing and rehashing. */
+    private transient int[] hashes;
+
+    /** Number of positions in the entry arrays which are used, including removed ones. */
+    private transient int used;
+
+    /** Number of entries. */
+    private transient int size;
+
+    /**
+     * Create a new, empty map.
+     */
+    public ObjectIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new, empty map.
+     *
+     * @param expectedSize The number of entries, which can be added without growing.
+     */
+    public ObjectIntMap(int expectedSize) {
+        Validate.isTrue(expectedSize >= 0, "expectedSize must be greater/equal zero");
+        allocate(Math.max(DEFAULT_CAPACITY, expectedSize));
+    }
+
+    /**
+     * Create a copy of the given map, with compacted arrays.
+     *
+     * @param other The map to copy, not <code>null</code>.
+     */
+    public ObjectIntMap(ObjectIntMap<? extends K> other) {
+        Validate.notNull(other, "other must not be null");
+        allocate(Math.max(DEFAULT_CAPACITY, other.size));
+        for (int pos = other.first(); pos != -1; pos = other.next(pos)) {
+            append(other.keys[pos], other.hashes[pos], other.values[pos]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+        index = new int[tableSize(capacity)];
+        Arrays.fill(index, FREE);
+        used = 0;
+        size = 0;
+    }
+
+    private static int tableSize(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 2;
+        Validate.isTrue(tableSize > 0, "capacity too large");
+        return tableSize;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** @return The slot in the index table for the given key, or -1 in case the key is not present. */
+    private int findSlot(Object key, int hash) {
+        int mask = index.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int pos = index[slot];
+            if (pos == FREE) {
+                return -1;
+            }
+            if (pos >= 0 && hashes[pos] == hash && key.equals(keys[pos])) {
+                return slot;
+            }
+        }
+    }
+
+    /** Add a new entry, which must not be present yet; the arrays must have space left. */
+    private int append(Object key, int hash, int value) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        int pos = used++;
+        index[slot] = pos;
+        keys[pos] = key;
+        hashes[pos] = hash;
+        values[pos] = value;
+        size++;
+        return pos;
+    }
+
+    /** Compact the arrays, and grow them in case they are more than half full. */
+    private void rebuild() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        int capacity = size >= keys.length / 2 ? keys.length * 2 : keys.length;
+        Validate.validState(capacity > 0, "map too large");
+        allocate(capacity);
+        for (int pos = 0; pos < oldUsed; pos++) {
+            if (oldKeys[pos] != null) {
+                append(oldKeys[pos], oldHashes[pos], oldValues[pos]);
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> in case this map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key, not <code>null</code>.
+     * @return The position of the entry with the given key, or -1 in case the key is not present.
+     */
+    public int indexOf(Object key) {
+        int slot = findSlot(key, hash(key));
+        return slot != -1 ? index[slot] : -1;
+    }
+
+    /**
+     * @param key The key, not <code>null</code>.
+     * @return <code>true</code> in case the map contains the key.
+     */
+    public boolean containsKey(Object key) {
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * @param key The key, not <code>null</code>.
+     * @return The value for the key, or zero in case the key is not present.
+     */
+    public int get(Object key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * @param key The key, not <code>null</code>.
+     * @param defaultValue The value to return in case the key is not present.
+     * @return The value for the key, or the default value in case the key is not present.
+     */
+    public int getOrDefault(Object key, int defaultValue) {
+        int pos = indexOf(key);
+        return pos != -1 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * @param key The key, not <code>null</code>.
+     * @param value The value.
+     * @return The previous value, or zero in case the key was not present.
+     */
+    public int put(K key, int value) {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot != -1) {
+            int pos = index[slot];
+            int oldValue = values[pos];
+            values[pos] = value;
+            return oldValue;
+        }
+        if (used == keys.length) {
+            rebuild();
+        }
+        append(key, hash, value);
+        return 0;
+    }
+
+    /**
+     * Add the increment to the value of the given key; absent keys are treated as zero.
+     *
+     * @param key The key, not <code>null</code>.
+     * @param increment The value to add.
+     * @return The new value.
+     */
+    public int addTo(K key, int increment) {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot != -1) {
+            return values[index[slot]] += increment;
+        }
+        if (used == keys.length) {
+            rebuild();
+        }
+        append(key, hash, increment);
+        return increment;
+    }
+
+    /**
+     * @param key The key to remove, not <code>null</code>.
+     * @return The removed value, or zero in case the key was not present.
+     */
+    public int remove(Object key) {
+        int slot = findSlot(key, hash(key));
+        if (slot == -1) {
+            return 0;
+        }
+        int pos = index[slot];
+        index[slot] = REMOVED;
+        keys[pos] = null;
+        size--;
+        return values[pos];
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(index, FREE);
+        used = 0;
+        size = 0;
+    }
+
+    // iteration by position
+
+    /**
+     * @return The position of the first entry, or -1 in case the map is empty.
+     */
+    public int first() {
+        return next(-1);
+    }
+
+    /**
+     * @param pos The current position.
+     * @return The position of the entry after the given position, or -1 in case there are no more entries.
+     */
+    public int next(int pos) {
+        for (int next = pos + 1; next < used; next++) {
+            if (keys[next] != null) {
+                return next;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param pos The position of an entry.
+     * @return The key of the entry.
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt(int pos) {
+        K key = (K)keys[pos];
+        if (key == null) {
+            throw new NoSuchElementException("no entry at position " + pos);
+        }
+        return key;
+    }
+
+    /**
+     * @param pos The position of an entry.
+     * @return The value of the entry.
+     */
+    public int valueAt(int pos) {
+        keyAt(pos);
+        return values[pos];
+    }
+
+    /**
+     * @param pos The position of an entry.
+     * @param value The new value.
+     * @return The previous value.
+     */
+    public int setValueAt(int pos, int value) {
+        keyAt(pos);
+        int oldValue = values[pos];
+        values[pos] = value;
+        return oldValue;
+    }
+
+    /**
+     * Remove the entry at the given position; the positions of other entries do not change.
+     *
+     * @param pos The position of an entry.
+     * @return The removed value.
+     */
+    public int removeAt(int pos) {
+        return remove(keyAt(pos));
+    }
+
+    /**
+     * @return A view on the keys in this map, which supports removal.
+     */
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new PositionIterator<K>() {
+                    @Override
+                    K get(int pos) {
+                        return keyAt(pos);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o != null && containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (o == null || !containsKey(o)) {
+                    return false;
+                }
+                ObjectIntMap.this.remove(o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                ObjectIntMap.this.clear();
+            }
+        };
+    }
+
+    /** Iterator over the positions, which supports removal. */
+    abstract class PositionIterator<T> implements Iterator<T> {
+        int current = -1;
+        int next = first();
+
+        abstract T get(int pos);
+
+        @Override
+        public boolean hasNext() {
+            return next != -1;
+        }
+
+        @Override
+        public T next() {
+            if (next == -1) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = ObjectIntMap.this.next(current);
+            return get(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current == -1) {
+                throw new IllegalStateException();
+            }
+            removeAt(current);
+            current = -1;
+        }
+    }
+
+    // equals, hashCode, toString as defined by java.util.Map
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int pos = first(); pos != -1; pos = next(pos)) {
+            hashCode += keys[pos].hashCode() ^ values[pos];
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ObjectIntMap<?> other = (ObjectIntMap<?>)obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int pos = first(); pos != -1; pos = next(pos)) {
+            int otherPos = other.indexOf(keys[pos]);
+            if (otherPos == -1 || other.values[otherPos] != values[pos]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int pos = first(); pos != -1; pos = next(pos)) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(keys[pos]).append('=').append(values[pos]);
+        }
+        return builder.append('}').toString();
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int pos = first(); pos != -1; pos = next(pos)) {
+            out.writeObject(keys[pos]);
+            out.writeInt(values[pos]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        int numEntries = in.readInt();
+        allocate(Math.max(DEFAULT_CAPACITY, numEntries));
+        for (int i = 0; i < numEntries; i++) {
+            @SuppressWarnings("unchecked")
+            K key = (K)in.readObject();
+            put(key, in.readInt());
+        }
+    }
+
+}
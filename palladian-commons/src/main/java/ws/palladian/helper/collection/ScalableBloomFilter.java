@@ -0,0 +1,207 @@
+package ws.palladian.helper.collection;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A Bloom filter which grows with the number of added items, so that the number of elements does not need to be known
+ * in advance. The filter consists of a series of {@link ConcurrentBloomFilter} layers; when the current layer has
+ * reached its capacity, a new one with a bigger capacity (<code>growthFactor</code>) and a tighter false positive
+ * probability (<code>tighteningRatio</code>) is added. This way, the overall false positive probability stays below
+ * the given target, as described in "Scalable Bloom Filters", Almeida et al., 2007.
+ * </p>
+ *
+ * <p>
+ * The filter is thread safe; queries are lock free, additions are synchronized, so that the check whether an item is
+ * contained already and the addition are atomic.
+ * </p>
+ *
+ * @param <T> Type of the items in this Bloom filter.
+ */
+public class ScalableBloomFilter<T> implements Predicate<T>, Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** The default factor by which the capacity of each new layer grows. */
+    public static final int DEFAULT_GROWTH_FACTOR = 2;
+
+    /** The default ratio by which the false positive probability of each new layer is tightened. */
+    public static final double DEFAULT_TIGHTENING_RATIO = 0.5;
+
+    private final double fpProb;
+
+    private final int growthFactor;
+
+    private final double tighteningRatio;
+
+    /** The layers, the last one is the one which is currently filled; copied on write. */
+    private volatile ConcurrentBloomFilter<T>[] layers;
+
+    /** The capacity of the last layer. */
+    private volatile long currentCapacity;
+
+    /**
+     * <p>
+     * Create a new scalable Bloom filter with default growth factor and tightening ratio.
+     * </p>
+     *
+     * @param fpProb The accepted overall false positive probability, must be in range (0,1).
+     * @param initialCapacity The capacity of the first layer, greater zero.
+     */
+    public ScalableBloomFilter(double fpProb, long initialCapacity) {
+        this(fpProb, initialCapacity, DEFAULT_GROWTH_FACTOR, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * <p>
+     * Create a new scalable Bloom filter.
+     * </p>
+     *
+     * @param fpProb The accepted overall false positive probability, must be in range (0,1).
+     * @param initialCapacity The capacity of the first layer, greater zero.
+     * @param growthFactor The factor by which the capacity of each new layer grows, greater zero.
+     * @param tighteningRatio The ratio by which the false positive probability of each new layer is tightened, must be
+     *            in range (0,1).
+     */
+    @SuppressWarnings("unchecked")
+    public ScalableBloomFilter(double fpProb, long initialCapacity, int growthFactor, double tighteningRatio) {
+        Validate.isTrue(fpProb > 0 && fpProb < 1, "fpProb must be in range (0,1)");
+        Validate.isTrue(initialCapacity > 0, "initialCapacity must be greater zero");
+        Validate.isTrue(growthFactor > 0, "growthFactor must be greater zero");
+        Validate.isTrue(tighteningRatio > 0 && tighteningRatio < 1, "tighteningRatio must be in range (0,1)");
+        this.fpProb = fpProb;
+        this.growthFactor = growthFactor;
+        this.tighteningRatio = tighteningRatio;
+        // the sum of the geometric series p_0 * r^i is p_0 / (1 - r), which must not exceed the target
+        this.layers = (ConcurrentBloomFilter<T>[])new ConcurrentBloomFilter<?>[] {new ConcurrentBloomFilter<T>(
+                layerFpProb(0), initialCapacity)};
+        this.currentCapacity = initialCapacity;
+    }
+
+    private double layerFpProb(int layer) {
+        return fpProb * (1 - tighteningRatio) * Math.pow(tighteningRatio, layer);
+    }
+
+    @Override
+    public boolean test(T item) {
+        if (item == null) {
+            return false;
+        }
+        ConcurrentBloomFilter<T>[] layers = this.layers;
+        // the newest layers are the biggest ones
+        for (int i = layers.length - 1; i >= 0; i--) {
+            if (layers[i].test(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * Add an item to this Bloom filter, in case it is not contained yet.
+     * </p>
+     *
+     * @param item The item to add, not <code>null</code>.
+     * @return <code>true</code> in case the item was added, i.e. it was for sure not contained before,
+     *         <code>false</code> in case the item was (potentially) contained already.
+     */
+    public synchronized boolean add(T item) {
+        Validate.notNull(item, "item must not be null");
+        if (test(item)) {
+            return false;
+        }
+        ConcurrentBloomFilter<T>[] layers = this.layers;
+        ConcurrentBloomFilter<T> current = layers[layers.length - 1];
+        current.add(item);
+        if (current.getNumAddedItems() >= currentCapacity) {
+            addLayer(layers.length);
+        }
+        return true;
+    }
+
+    private void addLayer(int numLayers) {
+        long capacity = currentCapacity * growthFactor;
+        ConcurrentBloomFilter<T>[] newLayers = Arrays.copyOf(layers, numLayers + 1);
+        newLayers[numLayers] = new ConcurrentBloomFilter<T>(layerFpProb(numLayers), capacity);
+        currentCapacity = capacity;
+        layers = newLayers;
+    }
+
+    /**
+     * <p>
+     * Adds a collection of items to this Bloom filter.
+     * </p>
+     *
+     * @param items The items to add, not <code>null</code>.
+     */
+    public void addAll(Collection<? extends T> items) {
+        Validate.notNull(items, "items must not be null");
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * @return The number of layers.
+     */
+    public int getNumLayers() {
+        return layers.length;
+    }
+
+    /**
+     * @return The number of items which have been added to this bloom filter (duplicates are not counted).
+     */
+    public long getNumAddedItems() {
+        long count = 0;
+        for (ConcurrentBloomFilter<T> layer : layers) {
+            count += layer.getNumAddedItems();
+        }
+        return count;
+    }
+
+    /**
+     * @return The overall size of all bit vectors.
+     */
+    public long getVectorSize() {
+        long size = 0;
+        for (ConcurrentBloomFilter<T> layer : layers) {
+            size += layer.getVectorSize();
+        }
+        return size;
+    }
+
+    /**
+     * @return The current overall probability for false positives, i.e. the probability that at least one layer
+     *         reports a false positive.
+     */
+    public double getFalsePositiveProbability() {
+        double trueNegativeProb = 1;
+        for (ConcurrentBloomFilter<T> layer : layers) {
+            trueNegativeProb *= 1 - layer.getFalsePositiveProbability();
+        }
+        return 1 - trueNegativeProb;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("ScalableBloomFilter [layers=");
+        builder.append(getNumLayers());
+        builder.append(", vectorSize=");
+        builder.append(getVectorSize());
+        builder.append(", fpProbability=");
+        builder.append(getFalsePositiveProbability());
+        builder.append(", addedItems=");
+        builder.append(getNumAddedItems());
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
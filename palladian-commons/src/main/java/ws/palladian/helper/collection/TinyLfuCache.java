@@ -0,0 +1,860 @@
+package ws.palladian.helper.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.helper.functional.Factory;
+
+/**
+ * <p>
+ * A thread safe, bounded cache with a W-TinyLFU eviction policy. In contrast to the {@link LruMap}, which evicts by
+ * recency alone, new entries only make it into the main area of the cache, in case they are accessed more frequently
+ * than the entries which would need to be evicted for them; frequencies are approximated with a count-min sketch
+ * which is periodically aged. A small window area in front of the main area keeps recently added entries, so that
+ * bursts of accesses to new entries are still served. The main area is a segmented LRU with a probation and a
+ * protected segment.
+ * </p>
+ *
+ * <p>
+ * The cache is split into shards, which are locked independently; so in contrast to the {@link ThreadSafeLruMap},
+ * concurrent threads only contend when they access the same shard. The cache is bounded by weight (by default, each
+ * entry weighs one, so that the bound is the maximum number of entries), entries can expire after write and/or after
+ * access, and {@link #get(Object, Function)} loads missing values, where concurrent loads of the same key are
+ * performed only once. <code>null</code> keys and values are not allowed.
+ * </p>
+ *
+ * <pre>
+ * TinyLfuCache&lt;String, Document&gt; cache = new TinyLfuCache.Builder&lt;String, Document&gt;().setMaximumSize(1000)
+ *         .setExpireAfterWrite(1, TimeUnit.HOURS).create();
+ * Document document = cache.get(url, u -&gt; retriever.getWebDocument(u));
+ * </pre>
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ * @see <a href="https://arxiv.org/abs/1512.00727">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+public final class TinyLfuCache<K, V> {
+
+    /** The minimum weight which each shard should be able to hold; small caches get less shards. */
+    private static final long MIN_SHARD_WEIGHT = 64;
+
+    /** The percentage of the weight which is reserved for the window area. */
+    private static final double WINDOW_PERCENTAGE = 0.01;
+
+    /** The percentage of the main area's weight which is reserved for the protected segment. */
+    private static final double PROTECTED_PERCENTAGE = 0.8;
+
+    public static final class Builder<K, V> implements Factory<TinyLfuCache<K, V>> {
+
+        private long maximumWeight = Long.MAX_VALUE;
+
+        private ToLongBiFunction<? super K, ? super V> weigher;
+
+        private long expireAfterWriteNanos = -1;
+
+        private long expireAfterAccessNanos = -1;
+
+        private int concurrencyLevel = 16;
+
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * @param maximumSize The maximum number of entries, greater zero; must not be combined with
+         *            {@link #setMaximumWeight(long, ToLongBiFunction)}.
+         * @return The builder.
+         */
+        public Builder<K, V> setMaximumSize(long maximumSize) {
+            Validate.isTrue(maximumSize > 0, "maximumSize must be greater zero");
+            Validate.validState(weigher == null, "weigher was already set");
+            this.maximumWeight = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param maximumWeight The maximum overall weight of the entries, greater zero.
+         * @param weigher The function which determines the weight of an entry, not <code>null</code>; weights must
+         *            not be negative.
+         * @return The builder.
+         */
+        public Builder<K, V> setMaximumWeight(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+            Validate.isTrue(maximumWeight > 0, "maximumWeight must be greater zero");
+            Validate.notNull(weigher, "weigher must not be null");
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * @param duration The duration after which entries expire after they have been put, greater zero.
+         * @param unit The unit of the duration, not <code>null</code>.
+         * @return The builder.
+         */
+        public Builder<K, V> setExpireAfterWrite(long duration, TimeUnit unit) {
+            Validate.isTrue(duration > 0, "duration must be greater zero");
+            Validate.notNull(unit, "unit must not be null");
+            this.expireAfterWriteNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * @param duration The duration after which entries expire after they have been accessed or put, greater zero.
+         * @param unit The unit of the duration, not <code>null</code>.
+         * @return The builder.
+         */
+        public Builder<K, V> setExpireAfterAccess(long duration, TimeUnit unit) {
+            Validate.isTrue(duration > 0, "duration must be greater zero");
+            Validate.notNull(unit, "unit must not be null");
+            this.expireAfterAccessNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * @param concurrencyLevel The (maximum) number of shards, greater zero; rounded to the next power of two.
+         * @return The builder.
+         */
+        public Builder<K, V> setConcurrencyLevel(int concurrencyLevel) {
+            Validate.isTrue(concurrencyLevel > 0, "concurrencyLevel must be greater zero");
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        /**
+         * @param ticker The time source in nanoseconds for expiry, not <code>null</code>; default is
+         *            {@link System#nanoTime()}.
+         * @return The builder.
+         */
+        public Builder<K, V> setTicker(LongSupplier ticker) {
+            Validate.notNull(ticker, "ticker must not be null");
+            this.ticker = ticker;
+            return this;
+        }
+
+        @Override
+        public TinyLfuCache<K, V> create() {
+            return new TinyLfuCache<>(this);
+        }
+
+    }
+
+    /** Snapshot of the statistics of a cache. */
+    public static final class CacheStats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long totalLoadTime;
+
+        private CacheStats(long hitCount, long missCount, long evictionCount, long loadSuccessCount,
+                long loadFailureCount, long totalLoadTime) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.totalLoadTime = totalLoadTime;
+        }
+
+        /** @return The number of lookups which returned a cached value. */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /** @return The number of lookups which did not return a cached value. */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /** @return The fraction of lookups which returned a cached value, or one in case there were no lookups. */
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1 : (double)hitCount / requestCount;
+        }
+
+        /** @return The number of entries which were evicted due to the size bound or due to expiry. */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /** @return The number of successful loads. */
+        public long getLoadSuccessCount() {
+            return loadSuccessCount;
+        }
+
+        /** @return The number of loads which threw an exception. */
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        /** @return The total time spent for loading in nanoseconds. */
+        public long getTotalLoadTime() {
+            return totalLoadTime;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("CacheStats [hits=").append(hitCount);
+            builder.append(", misses=").append(missCount);
+            builder.append(", hitRate=").append(getHitRate());
+            builder.append(", evictions=").append(evictionCount);
+            builder.append(", loadSuccesses=").append(loadSuccessCount);
+            builder.append(", loadFailures=").append(loadFailureCount);
+            builder.append(", totalLoadTime=").append(totalLoadTime);
+            builder.append("]");
+            return builder.toString();
+        }
+
+    }
+
+    /** The areas of the cache, in which a node can be. */
+    private enum Queue {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    /** An entry, which is linked into one of the queues. */
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        V value;
+        long weight;
+        long writeTime;
+        long accessTime;
+        Queue queue;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+
+    /** Doubly linked access order queue; the head is the least recently used node. */
+    private static final class LinkedQueue<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight;
+
+        void add(Node<K, V> node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToTail(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                add(node);
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch with four bit counters, which approximates the access frequencies of the keys. When the number
+     * of increments reaches the sample size, all counters are halved, so that old frequencies fade out. The sample size
+     * depends on the size of the table, so that the halving takes place before the counters saturate.
+     */
+    private static final class FrequencySketch {
+        static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L};
+        static final long RESET_MASK = 0x7777777777777777L;
+
+        final long[] table;
+        final int tableMask;
+        final int sampleSize;
+        int size;
+
+        FrequencySketch(long maximumWeight) {
+            int length = tableLength(maximumWeight);
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * length;
+        }
+
+        /** @return The number of table entries for the given maximum weight. */
+        static int tableLength(long maximumWeight) {
+            // unbounded caches never evict, so they do not need a big sketch
+            long capacity = maximumWeight == Long.MAX_VALUE ? 16 : Math.max(16, Math.min(maximumWeight, 1 << 14));
+            return Integer.highestOneBit((int)capacity - 1) << 1;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int)h & tableMask;
+        }
+
+        int frequency(int hash) {
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int offset = (start + i) << 2;
+                frequency = Math.min(frequency, (int)(table[indexOf(hash, i)] >>> offset & 0xf));
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                if ((table[index] >>> offset & 0xf) != 0xf) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = table[i] >>> 1 & RESET_MASK;
+                }
+                size /= 2;
+            }
+        }
+    }
+
+    /** A shard of the cache, guarded by its own lock. */
+    private final class Shard extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        final Map<K, Node<K, V>> data = new HashMap<>();
+        final LinkedQueue<K, V> window = new LinkedQueue<>();
+        final LinkedQueue<K, V> probation = new LinkedQueue<>();
+        final LinkedQueue<K, V> protectedQueue = new LinkedQueue<>();
+        FrequencySketch sketch;
+        long maximumWeight;
+
+        Shard(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.sketch = new FrequencySketch(maximumWeight);
+        }
+
+        long weightedSize() {
+            return window.weight + probation.weight + protectedQueue.weight;
+        }
+
+        long windowMaximum() {
+            return Math.max(1, (long)(maximumWeight * WINDOW_PERCENTAGE));
+        }
+
+        long protectedMaximum() {
+            return (long)((maximumWeight - windowMaximum()) * PROTECTED_PERCENTAGE);
+        }
+
+        LinkedQueue<K, V> queue(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW:
+                    return window;
+                case PROBATION:
+                    return probation;
+                default:
+                    return protectedQueue;
+            }
+        }
+
+        boolean isExpired(Node<K, V> node, long now) {
+            return expireAfterWriteNanos >= 0 && now - node.writeTime >= expireAfterWriteNanos
+                    || expireAfterAccessNanos >= 0 && now - node.accessTime >= expireAfterAccessNanos;
+        }
+
+        V get(Object key, int hash, boolean recordStats) {
+            lock();
+            try {
+                Node<K, V> node = data.get(key);
+                if (node == null) {
+                    if (recordStats) {
+                        sketch.increment(hash);
+                        missCount.increment();
+                    }
+                    return null;
+                }
+                long now = ticker.getAsLong();
+                if (isExpired(node, now)) {
+                    removeNode(node);
+                    evictionCount.increment();
+                    if (recordStats) {
+                        missCount.increment();
+                    }
+                    return null;
+                }
+                if (recordStats) {
+                    sketch.increment(hash);
+                    hitCount.increment();
+                    node.accessTime = now;
+                    onAccess(node);
+                }
+                return node.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        void onAccess(Node<K, V> node) {
+            switch (node.queue) {
+                case WINDOW:
+                    window.moveToTail(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    node.queue = Queue.PROTECTED;
+                    protectedQueue.add(node);
+                    // demote the least recently used protected nodes, in case the segment is full
+                    while (protectedQueue.weight > protectedMaximum() && protectedQueue.head != node) {
+                        Node<K, V> demoted = protectedQueue.head;
+                        protectedQueue.remove(demoted);
+                        demoted.queue = Queue.PROBATION;
+                        probation.add(demoted);
+                    }
+                    break;
+                default:
+                    protectedQueue.moveToTail(node);
+            }
+        }
+
+        V put(K key, int hash, V value, long weight) {
+            lock();
+            try {
+                long now = ticker.getAsLong();
+                Node<K, V> node = data.get(key);
+                V oldValue = null;
+                if (node != null) {
+                    oldValue = isExpired(node, now) ? null : node.value;
+                    LinkedQueue<K, V> queue = queue(node);
+                    queue.remove(node);
+                    node.weight = weight;
+                    queue.add(node);
+                    onAccess(node);
+                } else {
+                    node = new Node<>(key, hash);
+                    node.weight = weight;
+                    node.queue = Queue.WINDOW;
+                    data.put(key, node);
+                    window.add(node);
+                }
+                node.value = value;
+                node.writeTime = now;
+                node.accessTime = now;
+                sketch.increment(hash);
+                evict();
+                return oldValue;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(Object key) {
+            lock();
+            try {
+                Node<K, V> node = data.get(key);
+                if (node == null) {
+                    return null;
+                }
+                removeNode(node);
+                return node.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        void removeNode(Node<K, V> node) {
+            queue(node).remove(node);
+            data.remove(node.key);
+        }
+
+        void evictNode(Node<K, V> node) {
+            removeNode(node);
+            evictionCount.increment();
+        }
+
+        /**
+         * Move overflowing nodes from the window to the probation segment, and let them compete with the least
+         * recently used probation nodes for admission as long as the shard is overweight.
+         */
+        void evict() {
+            Node<K, V> candidate = null;
+            while (window.weight > windowMaximum() && window.head != null) {
+                Node<K, V> node = window.head;
+                window.remove(node);
+                node.queue = Queue.PROBATION;
+                probation.add(node);
+                if (candidate == null) {
+                    candidate = node;
+                }
+            }
+            while (weightedSize() > maximumWeight) {
+                Node<K, V> victim = probation.head;
+                if (victim == null) {
+                    victim = protectedQueue.head != null ? protectedQueue.head : window.head;
+                }
+                if (candidate == null || victim == candidate) {
+                    if (victim == candidate) {
+                        candidate = candidate.next;
+                    }
+                    evictNode(victim);
+                    continue;
+                }
+                Node<K, V> nextCandidate = candidate.next;
+                if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                    evictNode(victim);
+                } else {
+                    evictNode(candidate);
+                    candidate = nextCandidate;
+                }
+            }
+        }
+
+        void cleanUp() {
+            lock();
+            try {
+                long now = ticker.getAsLong();
+                removeExpired(window, now);
+                removeExpired(probation, now);
+                removeExpired(protectedQueue, now);
+                evict();
+            } finally {
+                unlock();
+            }
+        }
+
+        void removeExpired(LinkedQueue<K, V> queue, long now) {
+            for (Node<K, V> node = queue.head; node != null;) {
+                Node<K, V> next = node.next;
+                if (isExpired(node, now)) {
+                    evictNode(node);
+                }
+                node = next;
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                data.clear();
+                window.head = window.tail = null;
+                probation.head = probation.tail = null;
+                protectedQueue.head = protectedQueue.tail = null;
+                window.weight = probation.weight = protectedQueue.weight = 0;
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private final Shard[] shards;
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+
+    private final long expireAfterWriteNanos;
+
+    private final long expireAfterAccessNanos;
+
+    private final LongSupplier ticker;
+
+    /** Values which are currently being loaded, for de-duplicating concurrent loads. */
+    private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private TinyLfuCache(Builder<K, V> builder) {
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.ticker = builder.ticker;
+        int numShards = 1;
+        while (numShards < builder.concurrencyLevel) {
+            numShards <<= 1;
+        }
+        while (numShards > 1 && builder.maximumWeight / numShards < MIN_SHARD_WEIGHT) {
+            numShards /= 2;
+        }
+        shards = (Shard[])new TinyLfuCache<?, ?>.Shard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new Shard(shardWeight(builder.maximumWeight, i, numShards));
+        }
+    }
+
+    private static long shardWeight(long maximumWeight, int shard, int numShards) {
+        if (maximumWeight == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return maximumWeight / numShards + (shard < maximumWeight % numShards ? 1 : 0);
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    private Shard shard(int hash) {
+        // use the high bits, the low bits are used in the sketch
+        return shards[hash >>> 16 & shards.length - 1];
+    }
+
+    /**
+     * <p>
+     * Get a value from the cache.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @return The cached value, or <code>null</code> in case the key is not cached.
+     */
+    public V get(K key) {
+        Validate.notNull(key, "key must not be null");
+        int hash = spread(key);
+        return shard(hash).get(key, hash, true);
+    }
+
+    /**
+     * <p>
+     * Get a value from the cache, or load it in case it is not cached. In case multiple threads request the same
+     * missing key concurrently, the value is loaded only once, and the other threads wait for the result.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @param loader The function which loads a value, not <code>null</code>. In case it returns <code>null</code>,
+     *            nothing is cached. Exceptions are passed on to the caller(s).
+     * @return The cached or loaded value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Validate.notNull(key, "key must not be null");
+        Validate.notNull(loader, "loader must not be null");
+        int hash = spread(key);
+        Shard shard = shard(hash);
+        V value = shard.get(key, hash, true);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw (RuntimeException)cause;
+            }
+        }
+        try {
+            // another thread might have finished loading in the meantime
+            value = shard.get(key, hash, false);
+            if (value == null) {
+                long start = ticker.getAsLong();
+                try {
+                    value = loader.apply(key);
+                } finally {
+                    totalLoadTime.add(ticker.getAsLong() - start);
+                }
+                loadSuccessCount.increment();
+                if (value != null) {
+                    shard.put(key, hash, value, weigh(key, value));
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private long weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        long weight = weigher.applyAsLong(key, value);
+        Validate.isTrue(weight >= 0, "weight must not be negative");
+        return weight;
+    }
+
+    /**
+     * <p>
+     * Check, whether the cache contains the key; does not count as access.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @return <code>true</code> in case a (non-expired) value is cached for the key.
+     */
+    public boolean containsKey(K key) {
+        Validate.notNull(key, "key must not be null");
+        int hash = spread(key);
+        return shard(hash).get(key, hash, false) != null;
+    }
+
+    /**
+     * <p>
+     * Put a value into the cache, replacing an existing value. Depending on the frequencies of the keys, this might
+     * immediately evict the new entry.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @param value The value, not <code>null</code>.
+     * @return The previous value, or <code>null</code>.
+     */
+    public V put(K key, V value) {
+        Validate.notNull(key, "key must not be null");
+        Validate.notNull(value, "value must not be null");
+        int hash = spread(key);
+        return shard(hash).put(key, hash, value, weigh(key, value));
+    }
+
+    /**
+     * <p>
+     * Remove a value from the cache.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @return The removed value, or <code>null</code>.
+     */
+    public V remove(K key) {
+        Validate.notNull(key, "key must not be null");
+        return shard(spread(key)).remove(key);
+    }
+
+    /**
+     * <p>
+     * Remove all entries; the statistics are kept.
+     * </p>
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * <p>
+     * Remove all expired entries; usually they are only removed lazily, when they are accessed.
+     * </p>
+     */
+    public void cleanUp() {
+        for (Shard shard : shards) {
+            shard.cleanUp();
+        }
+    }
+
+    /**
+     * <p>
+     * Change the maximum weight of the cache; in case it is reduced, entries are evicted immediately.
+     * </p>
+     *
+     * @param maximumWeight The new maximum weight, greater or equal the number of shards.
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        Validate.isTrue(maximumWeight >= shards.length, "maximumWeight must be at least " + shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            shard.lock();
+            try {
+                shard.maximumWeight = shardWeight(maximumWeight, i, shards.length);
+                // the sketch is sized for the maximum weight, e.g. an initially unbounded cache has a tiny one
+                if (shard.sketch.table.length != FrequencySketch.tableLength(shard.maximumWeight)) {
+                    shard.sketch = new FrequencySketch(shard.maximumWeight);
+                }
+                shard.evict();
+            } finally {
+                shard.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries, including expired ones which have not been removed yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock();
+            try {
+                size += shard.data.size();
+            } finally {
+                shard.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The overall weight of the entries.
+     */
+    public long getWeightedSize() {
+        long weightedSize = 0;
+        for (Shard shard : shards) {
+            shard.lock();
+            try {
+                weightedSize += shard.weightedSize();
+            } finally {
+                shard.unlock();
+            }
+        }
+        return weightedSize;
+    }
+
+    /**
+     * @return A snapshot of the statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), loadSuccessCount.sum(),
+                loadFailureCount.sum(), totalLoadTime.sum());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("TinyLfuCache [size=").append(size());
+        builder.append(", weightedSize=").append(getWeightedSize());
+        builder.append(", shards=").append(shards.length);
+        builder.append(", stats=").append(getStats());
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
@@ -16,6 +16,7 @@ public final class DateFormat {
     private final String regex;
     private final String format;
     private Pattern pattern;
+    private final boolean local;
 
     /**
      * <p>
@@ -33,6 +34,7 @@ public final class DateFormat {
         this.regex = regex;
         this.format = format;
         this.pattern = null;
+        this.local = !hasUnboundedRepetition(regex);
     }
 
     /**
@@ -57,6 +59,77 @@ public final class DateFormat {
         return pattern;
     }
 
+    /**
+     * @return <code>true</code> in case the regex does not contain unbounded repetitions (<code>*</code>,
+     *         <code>+</code>, <code>{n,}</code>) of anything else than digits. This means, that the digits within a
+     *         match are only separated by a bounded number of other characters, so that it is sufficient to match
+     *         within the surroundings of digits.
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    /**
+     * Conservatively check, whether the given regex contains unbounded repetitions of something else than a digit
+     * (i.e. <code>\d</code> or <code>[0-9]</code>). Repeated groups are always considered unbounded.
+     */
+    static boolean hasUnboundedRepetition(String regex) {
+        String atom = null;
+        boolean quantified = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char ch = regex.charAt(i);
+            boolean unbounded = false;
+            if (ch == '\\') {
+                atom = regex.substring(i, Math.min(i + 2, regex.length()));
+                i++;
+                quantified = false;
+            } else if (ch == '[') {
+                int start = i;
+                i++;
+                if (i < regex.length() && regex.charAt(i) == '^') {
+                    i++;
+                }
+                if (i < regex.length() && regex.charAt(i) == ']') {
+                    i++;
+                }
+                for (int depth = 1; i < regex.length() && depth > 0; i++) {
+                    char current = regex.charAt(i);
+                    if (current == '\\') {
+                        i++;
+                    } else if (current == '[') {
+                        depth++;
+                    } else if (current == ']') {
+                        depth--;
+                    }
+                }
+                i--;
+                atom = regex.substring(start, i + 1);
+                quantified = false;
+            } else if (ch == '*' || ch == '+') {
+                // possessive or lazy modifier of a preceding quantifier
+                unbounded = !quantified;
+                quantified = true;
+            } else if (ch == '{') {
+                int end = regex.indexOf('}', i);
+                if (end == -1) {
+                    return true;
+                }
+                unbounded = regex.charAt(end - 1) == ',';
+                i = end;
+                quantified = true;
+            } else if (ch == '?') {
+                quantified = true;
+            } else {
+                atom = String.valueOf(ch);
+                quantified = false;
+            }
+            if (unbounded && !"\\d".equals(atom) && !"[0-9]".equals(atom)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /*
      * (non-Javadoc)
      * @see java.lang.Object#toString()
@@ -1,6 +1,8 @@
 package ws.palladian.helper.date;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -8,7 +10,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +41,12 @@ public final class DateParser {
     // XXX for performance optimizations to check speed of each regex, remove later. See issue #162
     private static final Map<DateFormat, Long> HALL_OF_SHAME = new LazyMap<>(Factories.constant(0l));
 
+    /**
+     * The number of characters around each digit, which are considered when searching for dates. Dates consist of
+     * digits, separated by names of months or weekdays, separators, time zones, etc., which are shorter.
+     */
+    private static final int DIGIT_CONTEXT = 64;
+
     private DateParser() {
         // utility class, no instances.
     }
@@ -185,7 +192,9 @@ public final class DateParser {
 
     /**
      * <p>
-     * Find all dates in a text by trying the given {@link DateFormat}s.
+     * Find all dates in a text by trying the given {@link DateFormat}s. The formats are tried in the given order, the
+     * text portions of found dates are masked, so that they are not matched again by subsequent formats. Matching is
+     * restricted to the surroundings of digits, so that texts without (or with only few) digits are processed quickly.
      * </p>
      * 
      * @param text The text to check for dates, not <code>null</code>.
@@ -195,14 +204,19 @@ public final class DateParser {
      */
     public static List<ExtractedDate> findDates(String text, DateFormat... formats) {
         List<ExtractedDate> result = new ArrayList<>();
+        char[] buffer = StringHelper.removeDoubleWhitespaces(text).toCharArray();
+        int[] windows = getDigitWindows(buffer);
+        if (windows.length == 0) {
+            return result;
+        }
+        CharSequence sequence = CharBuffer.wrap(buffer);
         for (DateFormat format : formats) {
-            List<ExtractedDate> dates = findDates(text, format);
-            for (ExtractedDate date : dates) {
-                String dateString = date.getDateString();
-                text = text.replaceFirst(dateString, StringUtils.repeat('x', dateString.length()));
-                result.add(date);
+            List<int[]> matches = new ArrayList<>();
+            findDates(sequence, format, windows, result, matches);
+            // mask the found dates, so that they are not matched again by the following formats
+            for (int[] match : matches) {
+                Arrays.fill(buffer, match[0], match[1], 'x');
             }
-
         }
         return result;
     }
@@ -218,10 +232,39 @@ public final class DateParser {
      *         never <code>null</code>.
      */
     public static List<ExtractedDate> findDates(String text, DateFormat format) {
-        StopWatch stopWatch = new StopWatch();
-        text = StringHelper.removeDoubleWhitespaces(text);
         List<ExtractedDate> result = new ArrayList<>();
+        String normalizedText = StringHelper.removeDoubleWhitespaces(text);
+        int[] windows = getDigitWindows(normalizedText.toCharArray());
+        if (windows.length > 0) {
+            findDates(normalizedText, format, windows, result, new ArrayList<int[]>());
+        }
+        return result;
+    }
+
+    /**
+     * Run the format's pattern over the given windows of the text; for {@link DateFormat#isLocal()} formats, the
+     * windows around the digits are sufficient, as each date contains digits; other formats are matched against the
+     * whole text. Found dates are added to the result, their offsets to the given list.
+     */
+    private static void findDates(CharSequence text, DateFormat format, int[] windows, List<ExtractedDate> result,
+            List<int[]> matches) {
+        StopWatch stopWatch = new StopWatch();
         Matcher matcher = format.getPattern().matcher(text);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        if (format.isLocal()) {
+            for (int i = 0; i < windows.length; i += 2) {
+                matcher.region(windows[i], windows[i + 1]);
+                findDates(text, format, matcher, result, matches);
+            }
+        } else {
+            findDates(text, format, matcher, result, matches);
+        }
+        addToHallOfShame(format, stopWatch);
+    }
+
+    private static void findDates(CharSequence text, DateFormat format, Matcher matcher, List<ExtractedDate> result,
+            List<int[]> matches) {
         while (matcher.find()) {
 
             // Determine, if the found potential date string is directly surrounded by digits or periods.
@@ -246,11 +289,40 @@ public final class DateParser {
                 ExtractedDate extractedDate = parseDate(matcher.group(), format);
                 if (extractedDate != null) {
                     result.add(extractedDate);
+                    matches.add(new int[] {start, end});
                 }
             }
         }
-        addToHallOfShame(format, stopWatch);
-        return result;
+    }
+
+    /**
+     * Determine the regions of the text, which are within {@link #DIGIT_CONTEXT} characters of a digit; overlapping
+     * regions are merged.
+     * 
+     * @param text The text.
+     * @return Start and end offsets of the regions, in ascending order; an empty array in case the text contains no
+     *         digits.
+     */
+    static int[] getDigitWindows(char[] text) {
+        int[] windows = new int[16];
+        int numWindows = 0;
+        for (int i = 0; i < text.length; i++) {
+            if (text[i] < '0' || text[i] > '9') {
+                continue;
+            }
+            int start = Math.max(0, i - DIGIT_CONTEXT);
+            int end = Math.min(text.length, i + 1 + DIGIT_CONTEXT);
+            if (numWindows > 0 && start <= windows[numWindows - 1]) {
+                windows[numWindows - 1] = end;
+            } else {
+                if (numWindows == windows.length) {
+                    windows = Arrays.copyOf(windows, windows.length * 2);
+                }
+                windows[numWindows++] = start;
+                windows[numWindows++] = end;
+            }
+        }
+        return Arrays.copyOf(windows, numWindows);
     }
 
     private static void addToHallOfShame(DateFormat format, StopWatch stopWatch) {
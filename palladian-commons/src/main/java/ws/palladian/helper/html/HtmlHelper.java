@@ -3,6 +3,7 @@ package ws.palladian.helper.html;
 import java.io.File;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +30,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import ws.palladian.helper.UrlHelper;
+import ws.palladian.helper.normalization.TextNormalizer;
 import ws.palladian.helper.nlp.PatternHelper;
 
 /**
@@ -62,6 +64,15 @@ public final class HtmlHelper {
     private static final Pattern STRIP_ALL_TAGS = Pattern
             // .compile("<!--.*?-->|<script.*?>.*?</script>|<style.*?>.*?</style>|<.*?>", Pattern.DOTALL
             .compile("<!--.*?-->|<script.*?>.*?</script>|<style.*?>.*?</style>|<[^<]*?>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern TAG = Pattern.compile("<(.*?)>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE_BETWEEN_TAGS = Pattern.compile(">\\s*?<");
+    private static final Pattern MULTIPLE_LINE_BREAKS = Pattern.compile("\n{3,}");
+    private static final Pattern MULTIPLE_SPACES = Pattern.compile("[ ]{2,}");
+
+    /**
+     * Cache for the patterns used by {@link #stripHtmlTags(String, Set)}.
+     */
+    private static final Map<Set<HtmlElement>, Pattern> STRIP_PATTERNS = new ConcurrentHashMap<>();
 
     /**
      * Thread local caching of TransformerFactories which are not thread-safe, but expensive to create.
@@ -105,9 +116,7 @@ public final class HtmlHelper {
     public static int countTagLength(String taggedText) {
         int totalTagLength = 0;
 
-        Pattern pattern = Pattern.compile("<(.*?)>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
-        Matcher matcher = pattern.matcher(taggedText);
+        Matcher matcher = TAG.matcher(taggedText);
         while (matcher.find()) {
             totalTagLength += matcher.group(1).length() + 2;
         }
@@ -129,8 +138,7 @@ public final class HtmlHelper {
 
         int tagCount = 0;
 
-        Pattern pattern = Pattern.compile("(<.*?>)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(htmlText);
+        Matcher matcher = TAG.matcher(htmlText);
 
         while (matcher.find()) {
             tagCount++;
@@ -153,10 +161,15 @@ public final class HtmlHelper {
      * @param htmlText The html content for which tags should be removed.
      */
     public static String stripHtmlTags(String htmlText) {
-        return STRIP_ALL_TAGS.matcher(htmlText).replaceAll("");
+        return TextNormalizer.STRIP_TAGS.normalize(htmlText);
     }
+
     public static String stripHtmlTags(String htmlText, String replacement) {
-        return STRIP_ALL_TAGS.matcher(htmlText).replaceAll(replacement);
+        if (replacement.indexOf('$') != -1 || replacement.indexOf('\\') != -1) {
+            // replacement with group references or escapes
+            return STRIP_ALL_TAGS.matcher(htmlText).replaceAll(replacement);
+        }
+        return new TextNormalizer.Builder().stripTags(replacement).create().normalize(htmlText);
     }
 
     /**
@@ -171,6 +184,15 @@ public final class HtmlHelper {
         if (htmlElements.isEmpty()) {
             return htmlText;
         }
+        Pattern pattern = STRIP_PATTERNS.get(htmlElements);
+        if (pattern == null) {
+            pattern = createStripPattern(htmlElements);
+            STRIP_PATTERNS.put(EnumSet.copyOf(htmlElements), pattern);
+        }
+        return pattern.matcher(htmlText).replaceAll("");
+    }
+
+    private static Pattern createStripPattern(Set<HtmlElement> htmlElements) {
         List<String> regexes = new ArrayList<>();
         if (htmlElements.contains(HtmlElement.COMMENTS)) {
             regexes.add("<!--.*?-->");
@@ -185,8 +207,7 @@ public final class HtmlHelper {
             regexes.add("<.*?>");
         }
         String regex = StringUtils.join(regexes, "|");
-        Pattern pattern = Pattern.compile(regex, Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-        return pattern.matcher(htmlText).replaceAll("");
+        return Pattern.compile(regex, Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
     }
 
     /**
@@ -207,8 +228,8 @@ public final class HtmlHelper {
             return htmlText;
         }
 
-        htmlText = htmlText.replaceAll(">\\s*?<", "><");
-        htmlText = htmlText.replaceAll("\n", "");
+        htmlText = WHITESPACE_BETWEEN_TAGS.matcher(htmlText).replaceAll("><");
+        htmlText = htmlText.replace("\n", "");
 
         return htmlText;
     }
@@ -366,8 +387,8 @@ public final class HtmlHelper {
 
         // result = result.replaceAll("[ \t]*?\n", "\n");
         result = NORMALIZE_LINES.matcher(result).replaceAll("");
-        result = result.replaceAll("\n{3,}", "\n\n");
-        result = result.replaceAll(" {2,}", " ");
+        result = MULTIPLE_LINE_BREAKS.matcher(result).replaceAll("\n\n");
+        result = TextNormalizer.COLLAPSE_SPACES.normalize(result);
 
         // experimental added 2010-06-30
         // remove multi line comments
@@ -725,7 +746,7 @@ public final class HtmlHelper {
             LOGGER.error(e.getMessage());
         }
 
-        return sb.toString().replaceAll("[ ]{2,}", "");
+        return MULTIPLE_SPACES.matcher(sb).replaceAll("");
     }
 
     public static Set<String> getLinks(Document document, boolean inDomain, boolean outDomain, String prefix) {
@@ -2,6 +2,7 @@ package ws.palladian.helper.html;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -18,6 +19,7 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -25,6 +27,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import ws.palladian.helper.collection.CollectionHelper;
+import ws.palladian.helper.collection.LruMap;
 import ws.palladian.helper.nlp.PatternHelper;
 import ws.palladian.helper.nlp.StringHelper;
 
@@ -49,6 +52,12 @@ import ws.palladian.helper.nlp.StringHelper;
  * simplifying XHTML XPath queries.
  * </p>
  *
+ * <p>
+ * Compiled expressions are cached per thread (the JAXP objects are not thread safe), keyed by expression and namespace
+ * mapping, so repeated queries do not need to be compiled again. Callers which evaluate the same expression many times
+ * can obtain a precompiled {@link Query} via {@link #compile(String, Map)}, which avoids the cache lookup as well.
+ * </p>
+ *
  * @author David Urbansky
  * @author Philipp Katz
  */
@@ -69,6 +78,25 @@ public final class XPathHelper {
     private static final Pattern AND_OR = Pattern.compile("and|or");
     private static final Pattern XHTML_TAGGABLE = Pattern.compile("[a-zA-Z][\\w]*|\\*");
 
+    /** Maximum number of compiled expressions cached per thread. */
+    private static final int CACHE_SIZE = 500;
+
+    /** One XPath object per thread, as they are not thread safe. */
+    private static final ThreadLocal<XPath> XPATH = new ThreadLocal<XPath>() {
+        @Override
+        protected XPath initialValue() {
+            return XPathFactory.newInstance().newXPath();
+        }
+    };
+
+    /** Compiled expressions per thread, keyed by expression and namespace mapping. */
+    private static final ThreadLocal<Map<Pair<String, Map<String, String>>, XPathExpression>> EXPRESSION_CACHE = new ThreadLocal<Map<Pair<String, Map<String, String>>, XPathExpression>>() {
+        @Override
+        protected Map<Pair<String, Map<String, String>>, XPathExpression> initialValue() {
+            return LruMap.accessOrder(CACHE_SIZE);
+        }
+    };
+
     private static class MyNamespaceContext implements NamespaceContext {
         private final Map<String, String> namespaces = new HashMap<>();
 
@@ -95,30 +123,114 @@ public final class XPathHelper {
 
     }
 
+    /**
+     * <p>
+     * A precompiled XPath expression. Instances can be shared between threads, each thread uses its own compiled copy
+     * of the expression.
+     * </p>
+     */
+    public static final class Query {
+
+        private final String xPath;
+        private final Map<String, String> namespaces;
+        private final ThreadLocal<XPathExpression> expression = new ThreadLocal<XPathExpression>() {
+            @Override
+            protected XPathExpression initialValue() {
+                try {
+                    return compileExpression(xPath, namespaces);
+                } catch (XPathExpressionException e) {
+                    // cannot happen, as the expression was already compiled successfully in the constructor
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        private Query(String xPath, Map<String, String> namespaces) throws XPathExpressionException {
+            this.xPath = xPath;
+            this.namespaces = namespaces;
+            expression.set(compileExpression(xPath, namespaces));
+        }
+
+        /**
+         * <p>
+         * Get a list of {@link Node}s matching this expression.
+         * </p>
+         *
+         * @param node The Node or Document to consider, not <code>null</code>.
+         * @return Matching nodes, or an empty {@link List} if no nodes match or an error occurred.
+         */
+        public List<Node> getNodes(Node node) {
+            Validate.notNull(node, "node must not be null.");
+            return evaluate(expression.get(), node, xPath);
+        }
+
+        /**
+         * <p>
+         * Get the first {@link Node} matching this expression.
+         * </p>
+         *
+         * @param node The Node or Document to consider, not <code>null</code>.
+         * @return Matching node, or <code>null</code> if no matching node or an error occurred.
+         */
+        public Node getNode(Node node) {
+            Validate.notNull(node, "node must not be null.");
+            try {
+                return (Node) expression.get().evaluate(node, XPathConstants.NODE);
+            } catch (XPathExpressionException e) {
+                LOGGER.error("{} for XPath \"{}\" : {}", new Object[]{e, xPath, e.getMessage(), e});
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return xPath;
+        }
+
+    }
+
     private XPathHelper() {
         // utility class, prevent instantiation.
     }
 
     /**
      * <p>
-     * Get a list of {@link Node}s matching the given XPath expression.
+     * Precompile an XPath expression for repeated use.
      * </p>
      *
-     * @param node       The Node or Document to consider, not <code>null</code>.
      * @param xPath      The XPath expression, not <code>null</code> or empty.
      * @param namespaces (Optional) Map with namespaces, necessary to bind prefixes in XPath expression to namespaces.
-     * @return Matching nodes for the given XPath expression, or an empty {@link List} if no nodes match or an error
-     * occurred.
+     * @return The compiled query.
+     * @throws IllegalArgumentException In case the expression is invalid.
      */
-    public static List<Node> getNodes(Node node, String xPath, Map<String, String> namespaces) {
-        Validate.notNull(node, "node must not be null.");
+    public static Query compile(String xPath, Map<String, String> namespaces) {
         Validate.notEmpty(xPath, "xPath must not be empty.");
+        Map<String, String> namespacesCopy = namespaces != null ? new HashMap<>(namespaces) : null;
+        try {
+            return new Query(xPath, namespacesCopy);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath \"" + xPath + "\"", e);
+        }
+    }
 
-        List<Node> ret = new ArrayList<>();
-
-        XPathFactory factory = XPathFactory.newInstance();
-        XPath xPathObject = factory.newXPath();
+    /**
+     * <p>
+     * Precompile an XPath expression for repeated use.
+     * </p>
+     *
+     * @param xPath The XPath expression, not <code>null</code> or empty.
+     * @return The compiled query.
+     * @throws IllegalArgumentException In case the expression is invalid.
+     */
+    public static Query compile(String xPath) {
+        return compile(xPath, null);
+    }
 
+    /**
+     * Compile an expression using the current thread's {@link XPath} object.
+     */
+    private static XPathExpression compileExpression(String xPath, Map<String, String> namespaces)
+            throws XPathExpressionException {
         MyNamespaceContext namespaceContext = new MyNamespaceContext();
         namespaceContext.addNamespace("xhtml", XHTML_NAMESPACE);
         if (namespaces != null) {
@@ -128,10 +240,31 @@ public final class XPathHelper {
                 namespaceContext.addNamespace(prefix, uri);
             }
         }
+        XPath xPathObject = XPATH.get();
         xPathObject.setNamespaceContext(namespaceContext);
+        return xPathObject.compile(xPath);
+    }
+
+    /**
+     * Get a compiled expression from the current thread's cache, or compile and cache it.
+     */
+    private static XPathExpression getCompiled(String xPath, Map<String, String> namespaces)
+            throws XPathExpressionException {
+        Map<String, String> key = namespaces != null ? namespaces : Collections.<String, String>emptyMap();
+        Map<Pair<String, Map<String, String>>, XPathExpression> cache = EXPRESSION_CACHE.get();
+        XPathExpression expression = cache.get(Pair.of(xPath, key));
+        if (expression == null) {
+            expression = compileExpression(xPath, namespaces);
+            // copy the mapping, as the caller might modify it later
+            cache.put(Pair.<String, Map<String, String>>of(xPath, new HashMap<>(key)), expression);
+        }
+        return expression;
+    }
+
+    private static List<Node> evaluate(XPathExpression expression, Node node, String xPath) {
+        List<Node> ret = new ArrayList<>();
         try {
-            XPathExpression xPathExpression = xPathObject.compile(xPath);
-            NodeList nodes = (NodeList) xPathExpression.evaluate(node, XPathConstants.NODESET);
+            NodeList nodes = (NodeList) expression.evaluate(node, XPathConstants.NODESET);
             for (int i = 0; i < nodes.getLength(); i++) {
                 ret.add(nodes.item(i));
             }
@@ -139,10 +272,35 @@ public final class XPathHelper {
             // TODO this exception should be thrown
             LOGGER.error("{} for XPath \"{}\" : {}", new Object[]{e, xPath, e.getMessage(), e});
         }
-
         return ret;
     }
 
+    /**
+     * <p>
+     * Get a list of {@link Node}s matching the given XPath expression.
+     * </p>
+     *
+     * @param node       The Node or Document to consider, not <code>null</code>.
+     * @param xPath      The XPath expression, not <code>null</code> or empty.
+     * @param namespaces (Optional) Map with namespaces, necessary to bind prefixes in XPath expression to namespaces.
+     * @return Matching nodes for the given XPath expression, or an empty {@link List} if no nodes match or an error
+     * occurred.
+     */
+    public static List<Node> getNodes(Node node, String xPath, Map<String, String> namespaces) {
+        Validate.notNull(node, "node must not be null.");
+        Validate.notEmpty(xPath, "xPath must not be empty.");
+
+        XPathExpression xPathExpression;
+        try {
+            xPathExpression = getCompiled(xPath, namespaces);
+        } catch (XPathExpressionException e) {
+            // TODO this exception should be thrown
+            LOGGER.error("{} for XPath \"{}\" : {}", new Object[]{e, xPath, e.getMessage(), e});
+            return new ArrayList<>();
+        }
+        return evaluate(xPathExpression, node, xPath);
+    }
+
     /**
      * <p>
      * Get a list of {@link Node}s from matching the given XPath expression.
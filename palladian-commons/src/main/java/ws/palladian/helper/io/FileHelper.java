@@ -612,6 +612,48 @@ public final class FileHelper {
         return lineNumber;
     }
 
+    /**
+     * <p>
+     * Perform an action on every line of the provided input file, which is memory-mapped, decoded and split into lines
+     * by multiple threads using the {@link MappedLineReader}. The action is triggered on the calling thread in file
+     * order, so it need not be thread safe. Compressed (gz) files are processed sequentially.
+     * </p>
+     *
+     * @param file The File which should be processed line by line, not <code>null</code>.
+     * @param lineAction The line action that should be triggered on each line, not <code>null</code>.
+     * @return The number of lines processed, <code>-1</code> in case of errors.
+     */
+    public static int performActionOnEveryLineParallel(File file, LineAction lineAction) {
+        return performActionOnEveryLineParallel(file, lineAction, true);
+    }
+
+    /**
+     * <p>
+     * Perform an action on every line of the provided input file, which is memory-mapped, decoded and split into lines
+     * by multiple threads using the {@link MappedLineReader}. Compressed (gz) files are processed sequentially.
+     * </p>
+     *
+     * @param file The File which should be processed line by line, not <code>null</code>.
+     * @param lineAction The line action that should be triggered on each line, not <code>null</code>.
+     * @param ordered <code>true</code> to trigger the action in file order on the calling thread, <code>false</code> to
+     *            trigger it concurrently from the worker threads; in this case, the action must be thread safe and line
+     *            numbers are not available (<code>-1</code>).
+     * @return The number of lines processed, <code>-1</code> in case of errors.
+     */
+    public static int performActionOnEveryLineParallel(File file, LineAction lineAction, boolean ordered) {
+        Validate.notNull(file, "file must not be null");
+        Validate.notNull(lineAction, "lineAction must not be null");
+        if (getFileType(file.getPath()).equalsIgnoreCase("gz")) {
+            return performActionOnEveryLine(file, lineAction);
+        }
+        try {
+            return (int)new MappedLineReader(file).setOrdered(ordered).read(lineAction);
+        } catch (IOException e) {
+            LOGGER.error("Encountered IOException for \"" + file + "\": " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
     /**
      * <p>
      * Perform an action on every line of the provided {@link InputStream}. The input stream is <b>not</b> closed after
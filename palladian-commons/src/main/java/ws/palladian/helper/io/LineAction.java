@@ -2,7 +2,8 @@ package ws.palladian.helper.io;
 
 public abstract class LineAction {
 
-    protected boolean looping = true;
+    /** Volatile, as the action might be performed by multiple threads. */
+    protected volatile boolean looping = true;
 
     /**
      * <p>
@@ -0,0 +1,593 @@
+package ws.palladian.helper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * Reads the lines of a (UTF-8 encoded, uncompressed) text file in parallel. The file is memory-mapped and split into
+ * chunks which end at line breaks; the chunks are decoded and split into lines by a pool of worker threads. This is
+ * intended for bulk loading big files, where reading through a single {@link java.io.BufferedReader} becomes the
+ * bottleneck. Line breaks are treated like in {@link java.io.BufferedReader#readLine()}, so the lines are the same.
+ * </p>
+ *
+ * <p>
+ * Lines can be delivered in two modes:
+ * <ul>
+ * <li><b>Ordered</b> (default): The lines are delivered in file order on the calling thread, so the consumer does not
+ * need to be thread safe. Decoding happens ahead in the worker threads.
+ * <li><b>Unordered</b>: The lines are delivered by the worker threads directly, so the consumer must be thread safe.
+ * Line numbers are only available in case {@link #setLineNumbers(boolean)} is enabled, which requires an additional
+ * (fast) pass over the file to count the lines in each chunk.
+ * </ul>
+ * Optionally, the lines can be delivered as reusable {@link CharSequence} views instead of Strings
+ * ({@link #setReuseLines(boolean)}), which avoids creating a String for each line. In this case, the consumer must not
+ * keep references to the given lines, but call {@link CharSequence#toString()} where necessary.
+ * </p>
+ *
+ * <pre>
+ * long numLines = new MappedLineReader(file).setOrdered(false).read(new LineConsumer() {
+ *     public void accept(CharSequence line, long lineNumber) {
+ *         // ...
+ *     }
+ * });
+ * </pre>
+ *
+ * @see FileHelper#performActionOnEveryLineParallel(File, LineAction)
+ */
+public final class MappedLineReader {
+
+    /**
+     * Callback for the lines.
+     */
+    public interface LineConsumer {
+
+        /**
+         * @param line The content of the line, without line break.
+         * @param lineNumber The number of the line, starting with <code>0</code>, or <code>-1</code> in case line
+         *            numbers are not available.
+         */
+        void accept(CharSequence line, long lineNumber);
+
+    }
+
+    /** The default chunk size in bytes. */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /** Size of the buffer for searching line breaks at the chunk boundaries. */
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final File file;
+
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private boolean ordered = true;
+
+    private boolean reuseLines = false;
+
+    private boolean lineNumbers = false;
+
+    /** A chunk of the file, from start (inclusive) to end (exclusive). */
+    private static final class Chunk {
+        final long start;
+        final long end;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** The decoded lines of a chunk; line i spans from lineBounds[2i] to lineBounds[2i+1] in chars. */
+    private static final class DecodedChunk {
+        final char[] chars;
+        final int[] lineBounds;
+        final int numLines;
+
+        DecodedChunk(char[] chars, int[] lineBounds, int numLines) {
+            this.chars = chars;
+            this.lineBounds = lineBounds;
+            this.numLines = numLines;
+        }
+    }
+
+    /** Reusable view on a line within a char array. */
+    private static final class LineView implements CharSequence {
+        char[] chars;
+        int start;
+        int length;
+
+        LineView set(char[] chars, int start, int end) {
+            this.chars = chars;
+            this.start = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+            }
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+            }
+            return new String(chars, this.start + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, length);
+        }
+    }
+
+    /**
+     * @param file The file to read, not <code>null</code>.
+     */
+    public MappedLineReader(File file) {
+        Validate.notNull(file, "file must not be null");
+        this.file = file;
+    }
+
+    /**
+     * @param numThreads The number of worker threads, greater zero; default is the number of available processors.
+     * @return This instance, for method chaining.
+     */
+    public MappedLineReader setNumThreads(int numThreads) {
+        Validate.isTrue(numThreads > 0, "numThreads must be greater zero");
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    /**
+     * @param chunkSize The approximate size of the chunks in bytes, greater zero; chunks are extended to the next line
+     *            break.
+     * @return This instance, for method chaining.
+     */
+    public MappedLineReader setChunkSize(int chunkSize) {
+        Validate.isTrue(chunkSize > 0, "chunkSize must be greater zero");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param ordered <code>true</code> to deliver the lines in file order on the calling thread, <code>false</code> to
+     *            deliver them from the worker threads as soon as they are available.
+     * @return This instance, for method chaining.
+     */
+    public MappedLineReader setOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @param reuseLines <code>true</code> to deliver reusable {@link CharSequence} views instead of Strings.
+     * @return This instance, for method chaining.
+     */
+    public MappedLineReader setReuseLines(boolean reuseLines) {
+        this.reuseLines = reuseLines;
+        return this;
+    }
+
+    /**
+     * @param lineNumbers <code>true</code> to determine line numbers in unordered mode (in ordered mode, line numbers
+     *            are always available).
+     * @return This instance, for method chaining.
+     */
+    public MappedLineReader setLineNumbers(boolean lineNumbers) {
+        this.lineNumbers = lineNumbers;
+        return this;
+    }
+
+    /**
+     * <p>
+     * Read all lines and pass them to the consumer.
+     * </p>
+     *
+     * @param consumer The consumer, not <code>null</code>; must be thread safe in unordered mode.
+     * @return The number of lines.
+     * @throws IOException In case the file cannot be read.
+     */
+    public long read(LineConsumer consumer) throws IOException {
+        return read(consumer, new AtomicBoolean());
+    }
+
+    /**
+     * <p>
+     * Read the lines and pass them to the {@link LineAction}; the loop can be stopped using
+     * {@link LineAction#breakLineLoop()}. In unordered mode, the action must be thread safe, and lines which are
+     * processed concurrently may still be delivered after stopping.
+     * </p>
+     *
+     * @param lineAction The action, not <code>null</code>.
+     * @return The number of lines which were processed.
+     * @throws IOException In case the file cannot be read.
+     */
+    public long read(final LineAction lineAction) throws IOException {
+        Validate.notNull(lineAction, "lineAction must not be null");
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicLong count = new AtomicLong();
+        read(new LineConsumer() {
+            @Override
+            public void accept(CharSequence line, long lineNumber) {
+                if (!lineAction.looping) {
+                    stopped.set(true);
+                    return;
+                }
+                lineAction.performAction(line.toString(), (int)lineNumber);
+                count.incrementAndGet();
+                if (!lineAction.looping) {
+                    stopped.set(true);
+                }
+            }
+        }, stopped);
+        return count.get();
+    }
+
+    private long read(final LineConsumer consumer, final AtomicBoolean stopped) throws IOException {
+        Validate.notNull(consumer, "consumer must not be null");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel);
+            ExecutorService executor = createExecutor();
+            try {
+                if (ordered) {
+                    return readOrdered(channel, chunks, consumer, stopped, executor);
+                }
+                return readUnordered(channel, chunks, consumer, stopped, executor);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private long readOrdered(FileChannel channel, List<Chunk> chunks, LineConsumer consumer, AtomicBoolean stopped,
+            ExecutorService executor) throws IOException {
+        LineView view = reuseLines ? new LineView() : null;
+        long lineNumber = 0;
+        ChunkPipeline pipeline = new ChunkPipeline(channel, chunks, executor);
+        while (pipeline.hasNext() && !stopped.get()) {
+            DecodedChunk decoded = pipeline.next();
+            for (int i = 0; i < decoded.numLines && !stopped.get(); i++) {
+                consumer.accept(line(decoded, i, view), lineNumber++);
+            }
+        }
+        return lineNumber;
+    }
+
+    private long readUnordered(final FileChannel channel, List<Chunk> chunks, final LineConsumer consumer,
+            final AtomicBoolean stopped, ExecutorService executor) throws IOException {
+        long[] firstLineNumbers = null;
+        if (lineNumbers) {
+            firstLineNumbers = countLines(channel, chunks, executor);
+        }
+        final AtomicLong count = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            final Chunk chunk = chunks.get(c);
+            final long firstLineNumber = firstLineNumbers != null ? firstLineNumbers[c] : -1;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    if (stopped.get()) {
+                        return null;
+                    }
+                    DecodedChunk decoded = decode(channel, chunk);
+                    LineView view = reuseLines ? new LineView() : null;
+                    for (int i = 0; i < decoded.numLines && !stopped.get(); i++) {
+                        consumer.accept(line(decoded, i, view), firstLineNumber == -1 ? -1 : firstLineNumber + i);
+                        count.incrementAndGet();
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return count.get();
+    }
+
+    /** Count the lines in each chunk, and return the number of the first line for each chunk. */
+    private long[] countLines(final FileChannel channel, List<Chunk> chunks, ExecutorService executor)
+            throws IOException {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (final Chunk chunk : chunks) {
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws IOException {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end
+                            - chunk.start);
+                    int count = 0;
+                    int length = buffer.limit();
+                    for (int i = 0; i < length; i++) {
+                        byte b = buffer.get(i);
+                        // multi byte UTF-8 sequences never contain these bytes
+                        if (b == '\n' || b == '\r' && (i + 1 == length || buffer.get(i + 1) != '\n')) {
+                            count++;
+                        }
+                    }
+                    if (length > 0) {
+                        byte last = buffer.get(length - 1);
+                        if (last != '\n' && last != '\r') {
+                            count++; // last line without line break
+                        }
+                    }
+                    return count;
+                }
+            }));
+        }
+        long[] firstLineNumbers = new long[chunks.size()];
+        long lineNumber = 0;
+        for (int c = 0; c < futures.size(); c++) {
+            firstLineNumbers[c] = lineNumber;
+            lineNumber += await(futures.get(c));
+        }
+        return firstLineNumbers;
+    }
+
+    /**
+     * <p>
+     * Iterate over the lines in file order; chunks are decoded ahead by the worker threads, which are stopped when the
+     * iterator is closed or exhausted.
+     * </p>
+     *
+     * @return An iterator over the lines, which must be closed in case it is not iterated completely.
+     * @throws IOException In case the file cannot be opened.
+     */
+    public CloseableIterator<String> iterator() throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        final ExecutorService executor;
+        final ChunkPipeline pipeline;
+        try {
+            executor = createExecutor();
+            pipeline = new ChunkPipeline(channel, split(channel), executor);
+        } catch (IOException | RuntimeException e) {
+            FileHelper.close(channel);
+            throw e;
+        }
+        return new CloseableIterator<String>() {
+            DecodedChunk current;
+            int index;
+            boolean closed;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (!closed && (current == null || index == current.numLines)) {
+                        if (!pipeline.hasNext()) {
+                            close();
+                            break;
+                        }
+                        current = pipeline.next();
+                        index = 0;
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("I/O exception while trying to read from file", e);
+                }
+                return !closed;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return line(current, index++, null).toString();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    executor.shutdownNow();
+                    channel.close();
+                }
+            }
+        };
+    }
+
+    /** Decodes the chunks ahead in the worker threads, and hands them out in order. */
+    private final class ChunkPipeline {
+        final FileChannel channel;
+        final List<Chunk> chunks;
+        final ExecutorService executor;
+        final Deque<Future<DecodedChunk>> pending = new ArrayDeque<>();
+        int nextChunk;
+
+        ChunkPipeline(FileChannel channel, List<Chunk> chunks, ExecutorService executor) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.executor = executor;
+            fill();
+        }
+
+        private void fill() {
+            // keep a bounded number of decoded chunks in memory
+            while (pending.size() < 2 * numThreads && nextChunk < chunks.size()) {
+                final Chunk chunk = chunks.get(nextChunk++);
+                pending.add(executor.submit(new Callable<DecodedChunk>() {
+                    @Override
+                    public DecodedChunk call() throws IOException {
+                        return decode(channel, chunk);
+                    }
+                }));
+            }
+        }
+
+        boolean hasNext() {
+            return !pending.isEmpty();
+        }
+
+        DecodedChunk next() throws IOException {
+            DecodedChunk decoded = await(pending.poll());
+            fill();
+            return decoded;
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "MappedLineReader-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Split the file into chunks, which end after a line feed (or at the end of the file). */
+    private List<Chunk> split(FileChannel channel) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            if (end < size) {
+                end = findLineEnd(channel, end - 1, size, scanBuffer);
+            }
+            // a chunk must be mappable, so lines longer than this are not supported
+            Validate.validState(end - start <= Integer.MAX_VALUE, "line too long");
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /** @return The position after the first line feed at or after the given position, or the size of the file. */
+    private static long findLineEnd(FileChannel channel, long position, long size, ByteBuffer scanBuffer)
+            throws IOException {
+        while (position < size) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scanBuffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /** Decode the chunk and determine the line boundaries. */
+    private static DecodedChunk decode(FileChannel channel, Chunk chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        decoder.onMalformedInput(CodingErrorAction.REPLACE);
+        decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // UTF-8 never needs more chars than bytes
+        CharBuffer charBuffer = CharBuffer.allocate(buffer.remaining());
+        decoder.decode(buffer, charBuffer, true);
+        decoder.flush(charBuffer);
+        char[] chars = charBuffer.array();
+        int length = charBuffer.position();
+
+        int[] lineBounds = new int[64];
+        int numLines = 0;
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c == '\n' || c == '\r') {
+                if (2 * numLines + 2 > lineBounds.length) {
+                    lineBounds = Arrays.copyOf(lineBounds, lineBounds.length * 2);
+                }
+                lineBounds[2 * numLines] = lineStart;
+                lineBounds[2 * numLines + 1] = i;
+                numLines++;
+                if (c == '\r' && i + 1 < length && chars[i + 1] == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < length) {
+            if (2 * numLines + 2 > lineBounds.length) {
+                lineBounds = Arrays.copyOf(lineBounds, lineBounds.length + 2);
+            }
+            lineBounds[2 * numLines] = lineStart;
+            lineBounds[2 * numLines + 1] = length;
+            numLines++;
+        }
+        return new DecodedChunk(chars, lineBounds, numLines);
+    }
+
+    private static CharSequence line(DecodedChunk decoded, int index, LineView view) {
+        int start = decoded.lineBounds[2 * index];
+        int end = decoded.lineBounds[2 * index + 1];
+        if (view != null) {
+            return view.set(decoded.chars, start, end);
+        }
+        return new String(decoded.chars, start, end - start);
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
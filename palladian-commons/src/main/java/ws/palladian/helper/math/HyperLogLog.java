@@ -0,0 +1,169 @@
+package ws.palladian.helper.math;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A <a href="http://algo.inria.fr/flajolet/Publications/FlFuGaMe07.pdf">HyperLogLog</a> sketch, which estimates the
+ * number of distinct values in a stream in constant memory. With a precision <code>p</code>, the sketch uses
+ * <code>2^p</code> one byte registers and has a relative standard error of about <code>1.04 / sqrt(2^p)</code>, i.e.
+ * 1.6% for the default precision of {@value #DEFAULT_PRECISION}. Sketches with the same precision can be merged.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe; use one sketch per thread and {@link #merge(HyperLogLog)} them.
+ * </p>
+ */
+public class HyperLogLog implements Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** The default precision. */
+    public static final int DEFAULT_PRECISION = 12;
+
+    private transient int precision;
+
+    private transient byte[] registers;
+
+    /**
+     * <p>
+     * Create a new sketch with the default precision {@value #DEFAULT_PRECISION}.
+     * </p>
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * <p>
+     * Create a new sketch.
+     * </p>
+     *
+     * @param precision The precision, in range [4,18].
+     */
+    public HyperLogLog(int precision) {
+        Validate.isTrue(precision >= 4 && precision <= 18, "precision must be in range [4,18]");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * <p>
+     * Copy constructor.
+     * </p>
+     *
+     * @param sketch The sketch to copy, not <code>null</code>.
+     */
+    public HyperLogLog(HyperLogLog sketch) {
+        Validate.notNull(sketch, "sketch must not be null");
+        this.precision = sketch.precision;
+        this.registers = sketch.registers.clone();
+    }
+
+    /**
+     * <p>
+     * Add a value to the sketch; <code>0.0</code> and <code>-0.0</code> are considered equal.
+     * </p>
+     *
+     * @param value The value.
+     */
+    public void add(double value) {
+        addHash(mix(Double.doubleToLongBits(value == 0 ? 0. : value)));
+    }
+
+    /**
+     * <p>
+     * Add a value to the sketch, given by its 64 bit hash; the hash bits must be uniformly distributed.
+     * </p>
+     *
+     * @param hash The hash of the value.
+     */
+    public void addHash(long hash) {
+        int index = (int)(hash >>> 64 - precision);
+        // the remaining bits, with a stop bit in case they are all zero
+        long remaining = hash << precision | 1L << precision - 1;
+        byte rank = (byte)(Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /** Finalizer of the SplitMix64 generator, which spreads the bits of similar values. */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+
+    /**
+     * <p>
+     * Merge another sketch into this one; afterwards, this sketch represents the values of both sketches.
+     * </p>
+     *
+     * @param other The sketch to merge, not <code>null</code>, with the same precision; it is not modified.
+     */
+    public void merge(HyperLogLog other) {
+        Validate.notNull(other, "other must not be null");
+        Validate.isTrue(precision == other.precision, "precisions must be equal");
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return The estimated number of distinct values.
+     */
+    public long getEstimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1. / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting for small cardinalities
+            estimate = m * Math.log((double)m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return The precision.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog [precision=" + precision + ", estimate=" + getEstimate() + "]";
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(precision);
+        out.write(registers);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        precision = in.readInt();
+        registers = new byte[1 << precision];
+        in.readFully(registers);
+    }
+
+}
@@ -0,0 +1,395 @@
+package ws.palladian.helper.math;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A <a href="https://arxiv.org/abs/1603.05346">KLL</a> quantile sketch, which approximates quantiles and ranks of a
+ * stream of values in bounded memory. The values are kept in a hierarchy of compactors; when a compactor is full, it
+ * is sorted and every other value (chosen at random) is promoted to the next level with double weight. With the
+ * default <code>k</code> of {@value #DEFAULT_K}, the rank error is about 1.3% (with high probability), and about
+ * <code>3k</code> values are retained, independent of the stream length. Up to <code>k</code> values, the sketch is
+ * exact. Sketches can be merged, e.g. when values were collected by multiple threads or partitions.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe; use one sketch per thread and {@link #merge(KllSketch)} them.
+ * </p>
+ */
+public class KllSketch implements Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /** The default size parameter. */
+    public static final int DEFAULT_K = 200;
+
+    /** The minimum capacity of a compactor. */
+    private static final int MIN_CAPACITY = 8;
+
+    /** Factor by which the capacities of the lower levels decrease. */
+    private static final double CAPACITY_DECAY = 2. / 3;
+
+    private transient int k;
+
+    /** The values on each level; values on level h have weight 2^h. */
+    private transient double[][] levels;
+
+    private transient int[] sizes;
+
+    private transient int numLevels;
+
+    /** The number of retained values over all levels. */
+    private transient int numRetained;
+
+    /** The overall capacity of all levels, which changes when levels are added. */
+    private transient int totalCapacity;
+
+    private transient long count;
+
+    private transient double min;
+
+    private transient double max;
+
+    /** State of the xorshift generator for choosing the promoted values. */
+    private transient long randomState;
+
+    /** Sorted values with their cumulative weights; lazily created for queries, reset on modification. */
+    private transient double[] sortedValues;
+
+    private transient long[] cumulativeWeights;
+
+    /**
+     * <p>
+     * Create a new sketch with the default size parameter {@value #DEFAULT_K}.
+     * </p>
+     */
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * <p>
+     * Create a new sketch.
+     * </p>
+     *
+     * @param k The size parameter, at least {@value #MIN_CAPACITY}; higher values give more accurate results, but need
+     *            more memory.
+     */
+    public KllSketch(int k) {
+        Validate.isTrue(k >= MIN_CAPACITY, "k must be at least " + MIN_CAPACITY);
+        init(k);
+    }
+
+    /**
+     * <p>
+     * Copy constructor.
+     * </p>
+     *
+     * @param sketch The sketch to copy, not <code>null</code>.
+     */
+    public KllSketch(KllSketch sketch) {
+        Validate.notNull(sketch, "sketch must not be null");
+        this.k = sketch.k;
+        this.numLevels = sketch.numLevels;
+        this.levels = new double[sketch.levels.length][];
+        for (int h = 0; h < numLevels; h++) {
+            this.levels[h] = sketch.levels[h].clone();
+        }
+        this.sizes = sketch.sizes.clone();
+        this.numRetained = sketch.numRetained;
+        this.totalCapacity = sketch.totalCapacity;
+        this.count = sketch.count;
+        this.min = sketch.min;
+        this.max = sketch.max;
+        this.randomState = sketch.randomState;
+    }
+
+    private void init(int k) {
+        this.k = k;
+        this.levels = new double[4][];
+        this.levels[0] = new double[16];
+        this.sizes = new int[4];
+        this.numLevels = 1;
+        this.numRetained = 0;
+        this.totalCapacity = k;
+        this.count = 0;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+        this.randomState = 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * <p>
+     * Add a value to the sketch.
+     * </p>
+     *
+     * @param value The value, not NaN.
+     */
+    public void add(double value) {
+        Validate.isTrue(!Double.isNaN(value), "value must not be NaN");
+        append(0, value);
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+        compress();
+    }
+
+    /**
+     * <p>
+     * Merge another sketch into this one; afterwards, this sketch represents the values of both sketches.
+     * </p>
+     *
+     * @param other The sketch to merge, not <code>null</code>; it is not modified.
+     */
+    public void merge(KllSketch other) {
+        Validate.notNull(other, "other must not be null");
+        if (other.count == 0) {
+            return;
+        }
+        // take a snapshot, as the other sketch might be this one
+        int otherNumLevels = other.numLevels;
+        int[] otherSizes = Arrays.copyOf(other.sizes, otherNumLevels);
+        double[][] otherLevels = Arrays.copyOf(other.levels, otherNumLevels);
+        for (int h = 0; h < otherNumLevels; h++) {
+            while (h >= numLevels) {
+                addLevel();
+            }
+            for (int i = 0; i < otherSizes[h]; i++) {
+                append(h, otherLevels[h][i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compress();
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(16, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+        numRetained++;
+        sortedValues = null;
+    }
+
+    private void addLevel() {
+        if (numLevels == levels.length) {
+            levels = Arrays.copyOf(levels, numLevels * 2);
+            sizes = Arrays.copyOf(sizes, numLevels * 2);
+        }
+        levels[numLevels++] = new double[16];
+        totalCapacity = 0;
+        for (int h = 0; h < numLevels; h++) {
+            totalCapacity += capacity(h);
+        }
+    }
+
+    private int capacity(int level) {
+        return Math.max(MIN_CAPACITY, (int)Math.ceil(k * Math.pow(CAPACITY_DECAY, numLevels - 1 - level)));
+    }
+
+    /** Compact the lowest full levels, until the retained values fit into the overall capacity. */
+    private void compress() {
+        while (numRetained > totalCapacity) {
+            for (int h = 0; h < numLevels; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Promote every other value of the level to the next one; in case of an odd size, the smallest value stays. */
+    private void compact(int level) {
+        if (level + 1 == numLevels) {
+            addLevel();
+        }
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int keep = size % 2;
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        int offset = (int)(randomState & 1);
+        for (int i = keep + offset; i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+        numRetained -= size - keep;
+        sizes[level] = keep;
+    }
+
+    private void ensureSorted() {
+        if (sortedValues != null) {
+            return;
+        }
+        int retained = numRetained;
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int pos = 0;
+        for (int h = 0; h < numLevels; h++) {
+            double[] levelValues = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(levelValues);
+            // merge the sorted level into the sorted values so far
+            double[] mergedValues = new double[pos + levelValues.length];
+            long[] mergedWeights = new long[pos + levelValues.length];
+            int i = 0;
+            int j = 0;
+            int m = 0;
+            while (i < pos || j < levelValues.length) {
+                if (j == levelValues.length || i < pos && values[i] <= levelValues[j]) {
+                    mergedValues[m] = values[i];
+                    mergedWeights[m++] = weights[i++];
+                } else {
+                    mergedValues[m] = levelValues[j++];
+                    mergedWeights[m++] = 1L << h;
+                }
+            }
+            System.arraycopy(mergedValues, 0, values, 0, m);
+            System.arraycopy(mergedWeights, 0, weights, 0, m);
+            pos = m;
+        }
+        for (int i = 1; i < retained; i++) {
+            weights[i] += weights[i - 1];
+        }
+        sortedValues = values;
+        cumulativeWeights = weights;
+    }
+
+    /**
+     * <p>
+     * Get the approximate quantile. In case the rank falls exactly between two values, their average is returned
+     * (like in {@link FatStats#getPercentile(int)}).
+     * </p>
+     *
+     * @param q The quantile, in range [0,1].
+     * @return The value at the given quantile, or NaN in case the sketch is empty.
+     */
+    public double getQuantile(double q) {
+        Validate.isTrue(q >= 0 && q <= 1, "q must be in range [0,1]");
+        if (count == 0) {
+            return Double.NaN;
+        }
+        ensureSorted();
+        long total = cumulativeWeights[cumulativeWeights.length - 1];
+        double rank = q * total;
+        int index = Arrays.binarySearch(cumulativeWeights, (long)Math.ceil(rank));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // go to the first of equal cumulative weights
+            while (index > 0 && cumulativeWeights[index - 1] == cumulativeWeights[index]) {
+                index--;
+            }
+        }
+        index = Math.min(index, sortedValues.length - 1);
+        if (rank == cumulativeWeights[index] && index + 1 < sortedValues.length) {
+            return 0.5 * sortedValues[index] + 0.5 * sortedValues[index + 1];
+        }
+        return sortedValues[index];
+    }
+
+    /**
+     * <p>
+     * Get the approximate normalized rank of a value, i.e. the fraction of values which are less or equal.
+     * </p>
+     *
+     * @param value The value.
+     * @return The normalized rank in range [0,1], or NaN in case the sketch is empty.
+     */
+    public double getRank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        ensureSorted();
+        int index = Arrays.binarySearch(sortedValues, value);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            // go to the last of equal values
+            while (index + 1 < sortedValues.length && sortedValues[index + 1] == value) {
+                index++;
+            }
+        }
+        if (index < 0) {
+            return 0;
+        }
+        return (double)cumulativeWeights[index] / cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    /**
+     * @return The number of values which were added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of values which are retained in the sketch.
+     */
+    public int getNumRetained() {
+        return numRetained;
+    }
+
+    /**
+     * @return The minimum value, or NaN in case the sketch is empty.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return The maximum value, or NaN in case the sketch is empty.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "KllSketch [k=" + k + ", count=" + count + ", retained=" + numRetained + ", levels=" + numLevels + "]";
+    }
+
+    // serialization code; in case you change the internals of this class, make sure, serialization still works
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(k);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(numLevels);
+        for (int h = 0; h < numLevels; h++) {
+            out.writeInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                out.writeDouble(levels[h][i]);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        init(in.readInt());
+        count = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        int numLevels = in.readInt();
+        while (this.numLevels < numLevels) {
+            addLevel();
+        }
+        for (int h = 0; h < numLevels; h++) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                append(h, in.readDouble());
+            }
+        }
+    }
+
+}
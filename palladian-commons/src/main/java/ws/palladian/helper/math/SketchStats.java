@@ -0,0 +1,294 @@
+package ws.palladian.helper.math;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.apache.commons.lang.Validate;
+
+import ws.palladian.helper.functional.Factory;
+
+/**
+ * <p>
+ * Keep mathematical stats for a series of numbers in bounded memory, so that it can be used for streams of arbitrary
+ * length. Like {@link SlimStats}, it keeps mean, min, max, sum and the central moments (up to the fourth, so that
+ * skewness and kurtosis are available), and in contrast to {@link SlimStats}, it approximates median, percentiles and
+ * the cumulative probability using a {@link KllSketch}, and the number of distinct values using a {@link HyperLogLog}.
+ * Up to the sketch's <code>k</code> values, the percentiles are exact and equal to those of {@link FatStats}.
+ * </p>
+ *
+ * <p>
+ * Instances can be merged using {@link #merge(SketchStats)}, e.g. to combine stats which were collected by multiple
+ * threads or on multiple partitions. This class is not thread safe. The mode cannot be computed.
+ * </p>
+ */
+public class SketchStats extends AbstractStats implements Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <p>
+     * A factory for producing {@link SketchStats} instances.
+     * </p>
+     */
+    public static final Factory<Stats> FACTORY = new Factory<Stats>() {
+        @Override
+        public Stats create() {
+            return new SketchStats();
+        }
+    };
+
+    private long count = 0;
+
+    private double mean = 0;
+
+    /** Sums of the 2nd, 3rd and 4th powers of the differences from the mean. */
+    private double m2 = 0;
+
+    private double m3 = 0;
+
+    private double m4 = 0;
+
+    private double sum = 0;
+
+    private double mse = 0;
+
+    private final KllSketch quantiles;
+
+    private final HyperLogLog distinctValues;
+
+    /**
+     * <p>
+     * Create a new, empty {@link SketchStats} collection with default sketch sizes.
+     * </p>
+     */
+    public SketchStats() {
+        this(KllSketch.DEFAULT_K, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * <p>
+     * Create a new, empty {@link SketchStats} collection.
+     * </p>
+     *
+     * @param k The size parameter for the {@link KllSketch}.
+     * @param precision The precision for the {@link HyperLogLog}.
+     */
+    public SketchStats(int k, int precision) {
+        quantiles = new KllSketch(k);
+        distinctValues = new HyperLogLog(precision);
+    }
+
+    /**
+     * <p>
+     * Create a new {@link SketchStats} collection with the provided values.
+     * </p>
+     *
+     * @param values The values to add to this Stats collection, not <code>null</code>.
+     */
+    public SketchStats(Collection<? extends Number> values) {
+        this();
+        Validate.notNull(values, "values must not be null");
+        for (Number value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param stats The stats to copy, not <code>null</code>.
+     */
+    public SketchStats(SketchStats stats) {
+        Validate.notNull(stats, "stats must not be null");
+        this.count = stats.count;
+        this.mean = stats.mean;
+        this.m2 = stats.m2;
+        this.m3 = stats.m3;
+        this.m4 = stats.m4;
+        this.sum = stats.sum;
+        this.mse = stats.mse;
+        this.quantiles = new KllSketch(stats.quantiles);
+        this.distinctValues = new HyperLogLog(stats.distinctValues);
+    }
+
+    @Override
+    public SketchStats add(Number value) {
+        Validate.notNull(value, "value must not be null");
+        double doubleValue = value.doubleValue();
+        long n1 = count;
+        count++;
+        double delta = doubleValue - mean;
+        double deltaN = delta / count;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * n1;
+        mean += deltaN;
+        m4 += term * deltaN2 * ((double)count * count - 3 * count + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term * deltaN * (count - 2) - 3 * deltaN * m2;
+        m2 += term;
+        sum += doubleValue;
+        mse += (doubleValue * doubleValue - mse) / count;
+        // NaN propagates to the moments as in the SlimStats, but has no rank
+        if (!Double.isNaN(doubleValue)) {
+            quantiles.add(doubleValue);
+        }
+        distinctValues.add(doubleValue);
+        return this;
+    }
+
+    /**
+     * <p>
+     * Merge other stats into these; afterwards, these stats represent the values of both.
+     * </p>
+     *
+     * @param other The stats to merge, not <code>null</code>; they are not modified.
+     * @return This instance, to allow fluent method chaining.
+     */
+    public SketchStats merge(SketchStats other) {
+        Validate.notNull(other, "other must not be null");
+        if (other.count == 0) {
+            return this;
+        }
+        double na = count;
+        double nb = other.count;
+        double n = na + nb;
+        double delta = other.mean - mean;
+        double delta2 = delta * delta;
+        double newM2 = m2 + other.m2 + delta2 * na * nb / n;
+        double newM3 = m3 + other.m3 + delta2 * delta * na * nb * (na - nb) / (n * n) + 3 * delta
+                * (na * other.m2 - nb * m2) / n;
+        double newM4 = m4 + other.m4 + delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (n * n * n) + 6
+                * delta2 * (na * na * other.m2 + nb * nb * m2) / (n * n) + 4 * delta * (na * other.m3 - nb * m3) / n;
+        mean += delta * nb / n;
+        m2 = newM2;
+        m3 = newM3;
+        m4 = newM4;
+        mse = (mse * na + other.mse * nb) / n;
+        sum += other.sum;
+        count += other.count;
+        quantiles.merge(other.quantiles);
+        distinctValues.merge(other.distinctValues);
+        return this;
+    }
+
+    @Override
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count == 1) {
+            return 0.;
+        }
+        // subtract one from the count, when we have a sample
+        return Math.sqrt(m2 / (count - (isSample() ? 1 : 0)));
+    }
+
+    @Override
+    public double getPercentile(int p) {
+        Validate.isTrue(p >= 0 && p <= 100, "p must be in range [0,100]");
+        return quantiles.getQuantile(p / 100.);
+    }
+
+    @Override
+    public int getCount() {
+        return (int)Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The number of values, which might exceed the range of {@link #getCount()}.
+     */
+    public long getLongCount() {
+        return count;
+    }
+
+    /**
+     * @return The estimated number of distinct values.
+     */
+    public long getDistinctCount() {
+        return distinctValues.getEstimate();
+    }
+
+    @Override
+    public double getMin() {
+        return quantiles.getMin();
+    }
+
+    @Override
+    public double getMax() {
+        return quantiles.getMax();
+    }
+
+    @Override
+    public double getSum() {
+        return sum;
+    }
+
+    @Override
+    public double getMse() {
+        return count == 0 ? Double.NaN : mse;
+    }
+
+    @Override
+    public double getCumulativeProbability(double t) {
+        return quantiles.getRank(t);
+    }
+
+    @Override
+    public double getMomentAboutMean(int k) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        switch (k) {
+            case 0:
+                return 1;
+            case 1:
+                return 0;
+            case 2:
+                return m2 / count;
+            case 3:
+                return m3 / count;
+            case 4:
+                return m4 / count;
+            default:
+                throw new UnsupportedOperationException("Only moments up to the fourth are supported by this stats.");
+        }
+    }
+
+    @Override
+    public double getMode() {
+        throw new UnsupportedOperationException("Calculating the mode is not supported by this stats.");
+    }
+
+    @Override
+    public boolean isSample() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        stringBuilder.append("Min: ").append(getMin()).append("\n");
+        stringBuilder.append("Max: ").append(getMax()).append("\n");
+        stringBuilder.append("Standard Deviation: ").append(getStandardDeviation()).append("\n");
+        stringBuilder.append("Mean: ").append(getMean()).append("\n");
+        stringBuilder.append("Median: ").append(getMedian()).append("\n");
+        for (int p = 10; p < 100; p += 10) {
+            stringBuilder.append(p + "-Percentile: ").append(getPercentile(p)).append('\n');
+        }
+        stringBuilder.append("Count: ").append(getLongCount()).append("\n");
+        stringBuilder.append("Distinct Count: ").append(getDistinctCount()).append("\n");
+        stringBuilder.append("Range: ").append(getRange()).append("\n");
+        stringBuilder.append("MSE: ").append(getMse()).append("\n");
+        stringBuilder.append("RMSE: ").append(getRmse()).append("\n");
+        stringBuilder.append("Sum: ").append(getSum());
+
+        return stringBuilder.toString();
+    }
+
+}
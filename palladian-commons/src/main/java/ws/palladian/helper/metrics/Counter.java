@@ -0,0 +1,24 @@
+package ws.palladian.helper.metrics;
+
+/**
+ * <p>
+ * A monotonically increasing count, e.g. of processed documents or errors.
+ * </p>
+ *
+ * @see MetricRegistry#counter(String)
+ */
+public interface Counter {
+
+    /**
+     * Increment the count by one.
+     */
+    void increment();
+
+    /**
+     * Increment the count.
+     *
+     * @param n The value to add.
+     */
+    void increment(long n);
+
+}
@@ -0,0 +1,19 @@
+package ws.palladian.helper.metrics;
+
+/**
+ * <p>
+ * The distribution of values, e.g. of the number of extracted entities per document.
+ * </p>
+ *
+ * @see MetricRegistry#histogram(String)
+ */
+public interface Histogram {
+
+    /**
+     * Record a value.
+     *
+     * @param value The value.
+     */
+    void update(double value);
+
+}
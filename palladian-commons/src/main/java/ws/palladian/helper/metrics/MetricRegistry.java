@@ -0,0 +1,35 @@
+package ws.palladian.helper.metrics;
+
+/**
+ * <p>
+ * Service provider interface for metrics. Implementations hand out the metrics by name, the same name must always give
+ * the same (or an equivalent) metric, and all metrics must be thread safe. By default, Palladian uses the
+ * {@link NoOpMetricRegistry}; to collect metrics, set an implementation via {@link Metrics#setRegistry(MetricRegistry)}
+ * or register it in <code>META-INF/services/ws.palladian.helper.metrics.MetricRegistry</code>, where it is picked up
+ * using the {@link java.util.ServiceLoader}. An adapter to an existing metrics library only needs to implement this
+ * interface.
+ * </p>
+ *
+ * @see SimpleMetricRegistry
+ */
+public interface MetricRegistry {
+
+    /**
+     * @param name The name of the counter, not <code>null</code>.
+     * @return The counter.
+     */
+    Counter counter(String name);
+
+    /**
+     * @param name The name of the timer, not <code>null</code>.
+     * @return The timer.
+     */
+    Timer timer(String name);
+
+    /**
+     * @param name The name of the histogram, not <code>null</code>.
+     * @return The histogram.
+     */
+    Histogram histogram(String name);
+
+}
@@ -0,0 +1,101 @@
+package ws.palladian.helper.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Access to the {@link MetricRegistry} which is used by Palladian's components. Per default, this is the
+ * {@link NoOpMetricRegistry}, unless an implementation is registered for the {@link ServiceLoader}; it can be replaced
+ * at runtime using {@link #setRegistry(MetricRegistry)}. Instrumented code should obtain the metrics for each
+ * invocation (instead of keeping them in fields), so that a replaced registry takes effect immediately.
+ * </p>
+ */
+public final class Metrics {
+
+    /** The logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(Metrics.class);
+
+    private static volatile MetricRegistry registry = loadRegistry();
+
+    private Metrics() {
+        // no instances
+    }
+
+    private static MetricRegistry loadRegistry() {
+        try {
+            Iterator<MetricRegistry> iterator = ServiceLoader.load(MetricRegistry.class).iterator();
+            if (iterator.hasNext()) {
+                MetricRegistry registry = iterator.next();
+                LOGGER.debug("Using metric registry {}", registry);
+                return registry;
+            }
+        } catch (Throwable t) {
+            LOGGER.warn("Could not load metric registry, metrics are disabled", t);
+        }
+        return NoOpMetricRegistry.INSTANCE;
+    }
+
+    /**
+     * @return The current registry.
+     */
+    public static MetricRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Set the registry; <code>null</code> disables metrics.
+     *
+     * @param registry The registry, or <code>null</code>.
+     */
+    public static void setRegistry(MetricRegistry registry) {
+        Metrics.registry = registry != null ? registry : NoOpMetricRegistry.INSTANCE;
+    }
+
+    /**
+     * @param name The name.
+     * @return The counter from the current registry.
+     */
+    public static Counter counter(String name) {
+        return registry.counter(name);
+    }
+
+    /**
+     * @param name The name.
+     * @return The timer from the current registry.
+     */
+    public static Timer timer(String name) {
+        return registry.timer(name);
+    }
+
+    /**
+     * @param name The name.
+     * @return The histogram from the current registry.
+     */
+    public static Histogram histogram(String name) {
+        return registry.histogram(name);
+    }
+
+    /**
+     * Create a metric name, which is the class name and the given parts, separated by dots.
+     *
+     * @param type The class, not <code>null</code>.
+     * @param names The parts of the name.
+     * @return The name.
+     */
+    public static String name(Class<?> type, String... names) {
+        Validate.notNull(type, "type must not be null");
+        StringBuilder builder = new StringBuilder(type.getName());
+        for (String name : names) {
+            if (name != null && !name.isEmpty()) {
+                builder.append('.').append(name);
+            }
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,72 @@
+package ws.palladian.helper.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * A {@link MetricRegistry} which discards everything; it hands out singletons without any state, so that instrumented
+ * code has (almost) no overhead, when no metrics are collected.
+ * </p>
+ */
+public final class NoOpMetricRegistry implements MetricRegistry {
+
+    public static final NoOpMetricRegistry INSTANCE = new NoOpMetricRegistry();
+
+    private static final Counter NO_OP_COUNTER = new Counter() {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void increment(long n) {
+        }
+    };
+
+    private static final Histogram NO_OP_HISTOGRAM = new Histogram() {
+        @Override
+        public void update(double value) {
+        }
+    };
+
+    private static final Timer.Context NO_OP_CONTEXT = new Timer.Context() {
+        @Override
+        public void close() {
+        }
+    };
+
+    private static final Timer NO_OP_TIMER = new Timer() {
+        @Override
+        public Context time() {
+            return NO_OP_CONTEXT;
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+        }
+    };
+
+    private NoOpMetricRegistry() {
+        // singleton
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return NO_OP_COUNTER;
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return NO_OP_TIMER;
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return NO_OP_HISTOGRAM;
+    }
+
+    @Override
+    public String toString() {
+        return "NoOpMetricRegistry";
+    }
+
+}
@@ -0,0 +1,164 @@
+package ws.palladian.helper.metrics;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.helper.math.SketchStats;
+import ws.palladian.helper.math.Stats;
+
+/**
+ * <p>
+ * A {@link MetricRegistry} which keeps the metrics in memory; the distributions of timers and histograms are kept in
+ * {@link SketchStats}, so that the memory consumption is bounded. Useful for testing, or for applications which
+ * periodically read and log the metrics, e.g. using {@link #toString()}. Timers are recorded in milliseconds.
+ * </p>
+ */
+public class SimpleMetricRegistry implements MetricRegistry {
+
+    private static final class SimpleCounter implements Counter {
+        final LongAdder count = new LongAdder();
+
+        @Override
+        public void increment() {
+            count.increment();
+        }
+
+        @Override
+        public void increment(long n) {
+            count.add(n);
+        }
+    }
+
+    private static final class SimpleHistogram implements Histogram {
+        final SketchStats stats = new SketchStats();
+
+        @Override
+        public void update(double value) {
+            synchronized (stats) {
+                stats.add(value);
+            }
+        }
+
+        Stats getStats() {
+            synchronized (stats) {
+                return new SketchStats(stats);
+            }
+        }
+    }
+
+    private static final class SimpleTimer implements Timer {
+        final SimpleHistogram histogram = new SimpleHistogram();
+
+        @Override
+        public Context time() {
+            final long start = System.nanoTime();
+            return new Context() {
+                boolean closed;
+
+                @Override
+                public void close() {
+                    if (!closed) {
+                        closed = true;
+                        update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            Validate.notNull(unit, "unit must not be null");
+            histogram.update(unit.toNanos(duration) / 1000000.);
+        }
+    }
+
+    private final ConcurrentMap<String, SimpleCounter> counters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, SimpleTimer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, SimpleHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        Validate.notNull(name, "name must not be null");
+        return counters.computeIfAbsent(name, n -> new SimpleCounter());
+    }
+
+    @Override
+    public Timer timer(String name) {
+        Validate.notNull(name, "name must not be null");
+        return timers.computeIfAbsent(name, n -> new SimpleTimer());
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        Validate.notNull(name, "name must not be null");
+        return histograms.computeIfAbsent(name, n -> new SimpleHistogram());
+    }
+
+    /**
+     * @param name The name of the counter.
+     * @return The current count, or zero in case there is no such counter.
+     */
+    public long getCount(String name) {
+        SimpleCounter counter = counters.get(name);
+        return counter != null ? counter.count.sum() : 0;
+    }
+
+    /**
+     * @param name The name of the timer.
+     * @return A snapshot of the recorded durations in milliseconds, or <code>null</code> in case there is no such
+     *         timer.
+     */
+    public Stats getTimerStats(String name) {
+        SimpleTimer timer = timers.get(name);
+        return timer != null ? timer.histogram.getStats() : null;
+    }
+
+    /**
+     * @param name The name of the histogram.
+     * @return A snapshot of the recorded values, or <code>null</code> in case there is no such histogram.
+     */
+    public Stats getHistogramStats(String name) {
+        SimpleHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.getStats() : null;
+    }
+
+    /**
+     * Remove all metrics.
+     */
+    public void clear() {
+        counters.clear();
+        timers.clear();
+        histograms.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Entry<String, SimpleCounter> entry : new TreeMap<>(counters).entrySet()) {
+            builder.append(entry.getKey()).append(": count=").append(entry.getValue().count.sum()).append('\n');
+        }
+        Map<String, SimpleHistogram> distributions = new TreeMap<>();
+        for (Entry<String, SimpleTimer> entry : timers.entrySet()) {
+            distributions.put(entry.getKey() + " [ms]", entry.getValue().histogram);
+        }
+        distributions.putAll(histograms);
+        for (Entry<String, SimpleHistogram> entry : distributions.entrySet()) {
+            Stats stats = entry.getValue().getStats();
+            builder.append(entry.getKey());
+            builder.append(String.format(": count=%d, mean=%.3f, median=%.3f, p95=%.3f, p99=%.3f, max=%.3f\n",
+                    stats.getCount(), stats.getMean(), stats.getMedian(), stats.getPercentile(95),
+                    stats.getPercentile(99), stats.getMax()));
+        }
+        return builder.toString().trim();
+    }
+
+}
@@ -0,0 +1,49 @@
+package ws.palladian.helper.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The distribution of durations of an operation, which also gives its throughput. Usage:
+ * </p>
+ *
+ * <pre>
+ * Timer.Context context = timer.time();
+ * try {
+ *     // the timed operation
+ * } finally {
+ *     context.close();
+ * }
+ * </pre>
+ *
+ * @see MetricRegistry#timer(String)
+ */
+public interface Timer {
+
+    /**
+     * A started timing, which is recorded when being closed.
+     */
+    interface Context extends AutoCloseable {
+        /**
+         * Stop and record the timing; subsequent invocations have no effect.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Start timing.
+     *
+     * @return The context, which must be closed when the operation has finished.
+     */
+    Context time();
+
+    /**
+     * Record a duration which was measured otherwise.
+     *
+     * @param duration The duration.
+     * @param unit The unit of the duration, not <code>null</code>.
+     */
+    void update(long duration, TimeUnit unit);
+
+}
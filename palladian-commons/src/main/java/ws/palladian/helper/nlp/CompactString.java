@@ -0,0 +1,150 @@
+package ws.palladian.helper.nlp;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * An immutable, memory saving representation of a string, e.g. for the keys of large dictionaries. A Java 8
+ * {@link String} needs two bytes per character plus the overhead of a separate <code>char[]</code>; this class stores
+ * strings which consist of Latin-1 characters only with one byte per character, and all others UTF-8 encoded. Random
+ * access via {@link #charAt(int)} is only cheap for Latin-1 strings; the typical use case is looking up keys, which
+ * only requires {@link #equals(Object)} and {@link #hashCode()}.
+ * </p>
+ *
+ * <p>
+ * The hash code is equal to the one of the corresponding {@link String}, but instances are never equal to a
+ * {@link String}; for lookups, convert the string using {@link #valueOf(String)}. Unpaired surrogate characters cannot
+ * be represented and are replaced (as by {@link String#getBytes(java.nio.charset.Charset)}).
+ * </p>
+ */
+public final class CompactString implements CharSequence, Comparable<CompactString>, Serializable {
+
+    /** The serial version id. */
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] bytes;
+
+    /** <code>true</code> in case the bytes are Latin-1 encoded, <code>false</code> in case UTF-8. */
+    private final boolean latin1;
+
+    /** Cached hash code; zero in case not yet calculated. */
+    private transient int hash;
+
+    private CompactString(byte[] bytes, boolean latin1) {
+        this.bytes = bytes;
+        this.latin1 = latin1;
+    }
+
+    /**
+     * <p>
+     * Create a compact representation of the given string.
+     * </p>
+     *
+     * @param string The string, not <code>null</code>.
+     * @return The compact representation.
+     */
+    public static CompactString valueOf(String string) {
+        Validate.notNull(string, "string must not be null");
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) > 0xff) {
+                return new CompactString(string.getBytes(StandardCharsets.UTF_8), false);
+            }
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte)string.charAt(i);
+        }
+        return new CompactString(bytes, true);
+    }
+
+    @Override
+    public int length() {
+        if (latin1) {
+            return bytes.length;
+        }
+        int length = 0;
+        for (byte b : bytes) {
+            if ((b & 0xc0) != 0x80) { // no continuation byte
+                // four byte sequences represent supplementary characters, i.e. two chars
+                length += (b & 0xf8) == 0xf0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (latin1) {
+            return (char)(bytes[index] & 0xff);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * @return The number of bytes which are used for storing the characters.
+     */
+    public int getNumBytes() {
+        return bytes.length;
+    }
+
+    @Override
+    public int compareTo(CompactString other) {
+        if (latin1 && other.latin1) {
+            int length = Math.min(bytes.length, other.bytes.length);
+            for (int i = 0; i < length; i++) {
+                int c1 = bytes[i] & 0xff;
+                int c2 = other.bytes[i] & 0xff;
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return bytes.length - other.bytes.length;
+        }
+        return toString().compareTo(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && bytes.length > 0) {
+            if (latin1) {
+                for (byte b : bytes) {
+                    h = 31 * h + (b & 0xff);
+                }
+            } else {
+                h = toString().hashCode();
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        CompactString other = (CompactString)obj;
+        // the encoding is determined by the content, so equal strings have equal bytes
+        return latin1 == other.latin1 && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+}
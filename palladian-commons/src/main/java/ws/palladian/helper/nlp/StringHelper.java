@@ -16,8 +16,8 @@ import org.slf4j.LoggerFactory;
 import ws.palladian.helper.StopWatch;
 import ws.palladian.helper.collection.StringLengthComparator;
 import ws.palladian.helper.constants.RegExp;
-import ws.palladian.helper.html.HtmlHelper;
 import ws.palladian.helper.normalization.StringNormalizer;
+import ws.palladian.helper.normalization.TextNormalizer;
 import ws.palladian.helper.normalization.UnitNormalizer;
 
 /**
@@ -49,13 +49,27 @@ public final class StringHelper {
     private static final Pattern PATTERN_NON_ASCII_SPACE = Pattern.compile(" ");
     private static final Pattern PATTERN_NON_ASCII = Pattern.compile("[^\\p{ASCII}]");
     private static final Pattern PATTERN_BRACKETS = Pattern.compile("[(\\[{].*?[)\\]}]");
-    private static final Pattern PATTERN_MULTIPLE_WHITESPACES = Pattern.compile("[ ]{2,}");
+    private static final Pattern PATTERN_MULTIPLE_WHITESPACES = Pattern.compile("\\s{2,}");
     private static final Pattern PATTERN_MULTIPLE_HYPHENS = Pattern.compile("[-]{2,}");
     private static final Pattern PATTERN_DIGIT = Pattern.compile("[^0-9]");
     private static final Pattern PATTERN_UPPERCASE = Pattern.compile("[^A-Z]");
+    private static final Pattern PATTERN_NON_LETTERS_DIGITS = Pattern.compile("[^a-zA-Z0-9]");
+    private static final Pattern PATTERN_TIME_EXPRESSION = Pattern.compile("(\\d){1,2}:(\\d){1,2}(\\s)?(am|pm)");
+    private static final Pattern PATTERN_EMPTY_LINES = Pattern.compile("(?m)^\\s*$\\n");
+    private static final Pattern PATTERN_LINE_WHITESPACE = Pattern.compile("(?m)^\\s*|\\s*$");
+    private static final Pattern PATTERN_QUOTES = Pattern.compile("[„“”»«]");
+    private static final Pattern PATTERN_APOSTROPHES = Pattern.compile("[’‘]");
+    private static final Pattern PATTERN_DASHES = Pattern.compile("[–—]");
 
     private static final Pattern FOUR_BYTE_UTF8 = Pattern.compile("[^ -\uD7FF\uE000-\uFFFF\n\r]");
 
+    /**
+     * Characters which are removed by {@link #trim(String)}; whitespace is also unwanted but trim() handles that, " "
+     * here is another character (ASCII code 160).
+     */
+    private static final String[] TRIM_UNWANTED = {",", ".", ":", ";", "!", "|", "?", "¬", " ", " ", "#", "-", "\'", "\"", "*", "/", "\\",
+            "@", "<", ">", "=", "·", "^", "_", "+", "»", "ￂ", "•", "”", "“", "´", "`", "¯", "~", "®", "™", "○"};
+
     private StringHelper() {
         // utility class.
     }
@@ -640,7 +654,7 @@ public final class StringHelper {
      * @return the string
      */
     public static String replaceProtectedSpace(String string) {
-        return string.replaceAll("\u00A0", " ");
+        return string.replace('\u00A0', ' ');
     }
 
     /**
@@ -807,7 +821,7 @@ public final class StringHelper {
      * @return true, if is time expression
      */
     public static boolean isTimeExpression(String string) {
-        return string.matches("(\\d){1,2}:(\\d){1,2}(\\s)?(am|pm)");
+        return PATTERN_TIME_EXPRESSION.matcher(string).matches();
     }
 
     /**
@@ -856,7 +870,7 @@ public final class StringHelper {
         if (string == null) {
             return 0;
         }
-        return string.replaceAll("[^a-zA-Z0-9]", "").length();
+        return PATTERN_NON_LETTERS_DIGITS.matcher(string).replaceAll("").length();
     }
 
     /**
@@ -960,21 +974,34 @@ public final class StringHelper {
     }
 
     public static String trim(String inputString, boolean trimLeft, boolean trimRight, String keepCharacters) {
-
         if (inputString == null) {
             return null;
         }
+        return trim(inputString, 0, inputString.length(), trimLeft, trimRight, keepCharacters);
+    }
 
-        String string = inputString.trim();
-        if (string.length() == 0) {
-            return string;
+    /** Trim the given range of the text; instead of creating substrings, the range is adjusted. */
+    private static String trim(CharSequence text, int start, int end, boolean trimLeft, boolean trimRight,
+            String keepCharacters) {
+        // like String#trim
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return "";
         }
 
-        string = StringEscapeUtils.unescapeHtml(string);
-
-        String[] unwanted = {",", ".", ":", ";", "!", "|", "?", "¬", " ", " ", "#", "-", "\'", "\"", "*", "/", "\\",
-                "@", "<", ">", "=", "·", "^", "_", "+", "»", "ￂ", "•", "”", "“", "´", "`", "¯", "~", "®", "™", "○"};
-        // whitespace is also unwanted but trim() handles that, " " here is another character (ASCII code 160)
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '&') {
+                text = TextNormalizer.DECODE_ENTITIES.normalize(text.subSequence(start, end).toString());
+                start = 0;
+                end = text.length();
+                break;
+            }
+        }
 
         // delete quotes only if it is unlikely to be a unit (foot and inches)
         // Pattern p = Pattern.compile("((\\d)+'')|('(\\s)?(\\d)+\")");
@@ -986,19 +1013,16 @@ public final class StringHelper {
 
         boolean deleteFirst = true;
         boolean deleteLast = true;
-        while (((deleteFirst && trimLeft) || (deleteLast && trimRight)) && !string.isEmpty()) {
+        while (((deleteFirst && trimLeft) || (deleteLast && trimRight)) && start < end) {
             deleteFirst = false;
             deleteLast = false;
-            Character first = string.charAt(0);
-            Character last = string.charAt(string.length() - 1);
-            // System.out.println(Character.getType(last));
-            for (String element : unwanted) {
+            char first = text.charAt(start);
+            char last = text.charAt(end - 1);
+            for (String element : TRIM_UNWANTED) {
                 if (keepCharacters.contains(element)) {
                     continue;
                 }
 
-                // System.out.println(first.charValue());
-                // System.out.println(Character.isSpaceChar(first));
                 if (first == element.charAt(0)
                         || Character.getType(first) == Character.DIRECTIONALITY_RIGHT_TO_LEFT_EMBEDDING
                         || Character.isSpaceChar(first)) {
@@ -1016,17 +1040,22 @@ public final class StringHelper {
             }
 
             if (deleteFirst && trimLeft) {
-                string = string.substring(1);
+                start++;
             }
 
-            if (deleteLast && trimRight && string.length() > 0) {
-                string = string.substring(0, string.length() - 1);
+            if (deleteLast && trimRight && start < end) {
+                end--;
             }
 
-            string = string.trim();
+            while (start < end && text.charAt(start) <= ' ') {
+                start++;
+            }
+            while (start < end && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
         }
 
-        return string.trim();
+        return text.subSequence(start, end).toString();
     }
 
     /**
@@ -1038,20 +1067,8 @@ public final class StringHelper {
      * @return
      */
     public static String removeControlCharacters(String string) {
-        // replace line breaks encoded in utf-8
-        string = string.replace("\u2028", "\n");
-
-        // replace line breaks encoded in html entities
-        string = string.replace("&#10", "\n");
-
-        for (int i = 0, l = string.length(); i < l; ++i) {
-            // < 33 means all control characters are not wanted as well
-            if (string.charAt(i) < 33) {
-                string = string.replace(string.charAt(i), ' ');
-            }
-        }
-
-        return string;
+        // line breaks encoded in utf-8 and html entities, and all characters < 33
+        return TextNormalizer.CONTROL_CHARACTERS.normalize(string);
     }
 
     /**
@@ -1077,9 +1094,7 @@ public final class StringHelper {
     }
 
     public static String clean(String text, String keepCharacters) {
-        text = removeControlCharacters(text);
-        text = cleanKeepFormat(text, keepCharacters);
-        return text;
+        return clean(text, keepCharacters, TextNormalizer.CLEAN);
     }
 
     public static String cleanKeepFormat(String text) {
@@ -1087,15 +1102,16 @@ public final class StringHelper {
     }
 
     public static String cleanKeepFormat(String text, String keepCharacters) {
-        text = HtmlHelper.stripHtmlTags(text);
-        text = StringEscapeUtils.unescapeHtml(text);
-        text = replaceProtectedSpace(text);
-        text = removeDoubleWhitespaces(text);
-        // text = removeNonAsciiCharacters(text);
+        return clean(text, keepCharacters, TextNormalizer.CLEAN_KEEP_FORMAT);
+    }
+
+    private static String clean(String text, String keepCharacters, TextNormalizer normalizer) {
+        // strip tags, unescape HTML, replace protected spaces, remove double white spaces in one go
+        StringBuilder buffer = normalizer.normalize(text, new StringBuilder(text.length()));
 
         // trim but keep sentence delimiters
-        text = StringHelper.trim(text, keepCharacters);
-        text = text.replace("″", "\"");
+        text = trim(buffer, 0, buffer.length(), true, true, keepCharacters);
+        text = text.replace('″', '"');
         if (text.startsWith(")")) {
             text = text.substring(1);
         }
@@ -1186,7 +1202,7 @@ public final class StringHelper {
      * @return The number of words in the string.
      */
     public static int countWords(String string) {
-        return string.replaceAll("\\s{2,}", "\\s").split(" ").length;
+        return PATTERN_MULTIPLE_WHITESPACES.matcher(string).replaceAll("\\s").split(" ").length;
     }
 
     /**
@@ -1462,7 +1478,7 @@ public final class StringHelper {
      * @return The cleansed text.
      */
     public static String removeDoubleWhitespaces(String text) {
-        return PATTERN_MULTIPLE_WHITESPACES.matcher(text).replaceAll(" ");
+        return TextNormalizer.COLLAPSE_SPACES.normalize(text);
     }
 
     /**
@@ -1474,7 +1490,13 @@ public final class StringHelper {
      * @return The number of white spaces in the text.
      */
     public static int countWhitespaces(String text) {
-        return text.replaceAll("[^ ]", "").length();
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -2004,7 +2026,7 @@ public final class StringHelper {
         if (string == null) {
             return null;
         }
-        return string.replaceAll("(?m)^\\s*$\\n", "");
+        return PATTERN_EMPTY_LINES.matcher(string).replaceAll("");
     }
 
     /**
@@ -2019,7 +2041,7 @@ public final class StringHelper {
         if (text == null) {
             return null;
         }
-        return text.replaceAll("(?m)^\\s*|\\s*$", "");
+        return PATTERN_LINE_WHITESPACE.matcher(text).replaceAll("");
     }
 
     /**
@@ -2034,7 +2056,9 @@ public final class StringHelper {
         if (text == null) {
             return null;
         }
-        return text.replaceAll("[„“”»«]", "\"").replaceAll("[’‘]", "'").replaceAll("[–—]", "-");
+        text = PATTERN_QUOTES.matcher(text).replaceAll("\"");
+        text = PATTERN_APOSTROPHES.matcher(text).replaceAll("'");
+        return PATTERN_DASHES.matcher(text).replaceAll("-");
     }
 
     /**
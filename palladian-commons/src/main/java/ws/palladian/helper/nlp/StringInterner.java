@@ -0,0 +1,157 @@
+package ws.palladian.helper.nlp;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A thread safe pool for deduplicating strings, e.g. the terms and category names which occur over and over again when
+ * deserializing models. In contrast to {@link String#intern()}, the pool is not global, and in contrast to the
+ * {@link StringPool}, it does not need to be cleared: the strings are only referenced weakly, so that they can be
+ * garbage collected as soon as they are no longer used elsewhere. To reduce lock contention, the pool is split into
+ * segments which are locked independently. As each pooled string needs a map entry, only intern strings which are
+ * likely to be duplicated.
+ * </p>
+ *
+ * <p>
+ * Use the {@link #SHARED} instance, unless you have a reason to keep the strings separated.
+ * </p>
+ */
+public final class StringInterner {
+
+    /** The shared instance. */
+    public static final StringInterner SHARED = new StringInterner();
+
+    /** The default number of segments. */
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    private final int mask;
+
+    private static final class Segment {
+        final WeakHashMap<String, WeakReference<String>> map = new WeakHashMap<>();
+
+        synchronized String intern(String string) {
+            WeakReference<String> reference = map.get(string);
+            if (reference != null) {
+                String existing = reference.get();
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            map.put(string, new WeakReference<>(string));
+            return string;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+
+    /**
+     * <p>
+     * Create a new, empty interner with the default number of segments.
+     * </p>
+     */
+    public StringInterner() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * <p>
+     * Create a new, empty interner.
+     * </p>
+     *
+     * @param numSegments The number of segments, i.e. the number of threads which can intern without blocking each
+     *            other; will be rounded up to the next power of two.
+     */
+    public StringInterner(int numSegments) {
+        Validate.isTrue(numSegments > 0, "numSegments must be greater zero");
+        int size = Integer.highestOneBit(numSegments);
+        if (size < numSegments) {
+            size <<= 1;
+        }
+        segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * <p>
+     * Get the canonical representation of the given string.
+     * </p>
+     *
+     * @param string The string, may be <code>null</code>.
+     * @return A string which is equal to the given one; in case an equal string was interned before and is still
+     *         referenced, that one; <code>null</code> in case the given string was <code>null</code>.
+     */
+    public String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        int hash = string.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & mask].intern(string);
+    }
+
+    /**
+     * <p>
+     * Intern all strings of the given collection.
+     * </p>
+     *
+     * @param strings The strings, may be <code>null</code>.
+     * @return A new, modifiable set with the interned strings, or <code>null</code> in case the given collection was
+     *         <code>null</code>.
+     */
+    public Set<String> internAll(Collection<String> strings) {
+        if (strings == null) {
+            return null;
+        }
+        Set<String> result = new HashSet<>(strings.size() * 4 / 3 + 1);
+        for (String string : strings) {
+            result.add(intern(string));
+        }
+        return result;
+    }
+
+    /**
+     * @return The (approximate) number of strings in the pool; strings which are no longer referenced might still be
+     *         counted until they are garbage collected.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * <p>
+     * Remove all strings from the pool.
+     * </p>
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StringInterner [segments=" + segments.length + ", size=" + size() + "]";
+    }
+
+}
@@ -2,6 +2,14 @@ package ws.palladian.helper.nlp;
 
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * <p>
+ * A simple pool for deduplicating strings, which is cleared completely when exceeding {@value #MAX_SIZE} entries.
+ * </p>
+ * 
+ * @deprecated Use the {@link StringInterner}, which keeps the strings weakly referenced and does not need clearing.
+ */
+@Deprecated
 public class StringPool {
 
     private static final int MAX_SIZE = 10000;
@@ -0,0 +1,581 @@
+package ws.palladian.helper.normalization;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.helper.collection.CompactTrie;
+import ws.palladian.helper.html.HtmlHelper;
+import ws.palladian.helper.nlp.StringHelper;
+
+/**
+ * <p>
+ * Normalization of text, e.g. extracted from web pages, which combines the typical cleaning steps: replacing control
+ * characters, stripping HTML tags (including comments, scripts and styles), decoding HTML entities, replacing protected
+ * spaces, collapsing spaces and case folding. In contrast to chaining regular expression replacements, all steps are
+ * applied while scanning the text, and the result is written into a {@link StringBuilder}, so that no intermediate
+ * strings are created. The steps give exactly the same results as the previous implementations of
+ * {@link HtmlHelper#stripHtmlTags(String)}, {@link StringHelper#removeControlCharacters(String)},
+ * {@link StringHelper#removeDoubleWhitespaces(String)}, and <code>StringEscapeUtils#unescapeHtml</code>, which are
+ * now based on this class.
+ * </p>
+ *
+ * <p>
+ * The steps are applied in the following order (each one on the result of the previous ones):
+ * </p>
+ * <ol>
+ * <li>replace control characters (code point below 33, line separator, and <code>&amp;#10</code>) by space,</li>
+ * <li>remove comments, scripts, styles and tags (optionally, put a replacement),</li>
+ * <li>decode HTML 4 entities (named and numeric),</li>
+ * <li>replace protected spaces (<code>U+00A0</code>) by space,</li>
+ * <li>collapse runs of spaces into one space, and</li>
+ * <li>convert to lower case (character by character, i.e. not locale sensitive like {@link String#toLowerCase()}).
+ * </li>
+ * </ol>
+ *
+ * <p>
+ * As decoding entities needs to see the text after tags were removed (e.g. <code>&amp;amp&lt;b&gt;;</code>), it is
+ * done in a second scan over a thread local buffer, in case tags are stripped or control characters replaced as well.
+ * Instances are immutable and thread safe; create them using the {@link Builder}.
+ * </p>
+ */
+public final class TextNormalizer {
+
+    /** Remove comments, scripts, styles and tags, like {@link HtmlHelper#stripHtmlTags(String)}. */
+    public static final TextNormalizer STRIP_TAGS = new Builder().stripTags().create();
+
+    /** Decode HTML entities. */
+    public static final TextNormalizer DECODE_ENTITIES = new Builder().decodeEntities().create();
+
+    /** Replace control characters by space, like {@link StringHelper#removeControlCharacters(String)}. */
+    public static final TextNormalizer CONTROL_CHARACTERS = new Builder().replaceControlCharacters().create();
+
+    /** Collapse multiple spaces, like {@link StringHelper#removeDoubleWhitespaces(String)}. */
+    public static final TextNormalizer COLLAPSE_SPACES = new Builder().collapseSpaces().create();
+
+    /** Strip tags, decode entities, replace protected spaces and collapse spaces. */
+    public static final TextNormalizer CLEAN_KEEP_FORMAT = new Builder().stripTags().decodeEntities()
+            .replaceProtectedSpaces().collapseSpaces().create();
+
+    /** Like {@link #CLEAN_KEEP_FORMAT}, but replace control characters (and thus line breaks) first. */
+    public static final TextNormalizer CLEAN = new Builder().replaceControlCharacters().stripTags().decodeEntities()
+            .replaceProtectedSpaces().collapseSpaces().create();
+
+    public static final class Builder {
+
+        private boolean controlCharacters;
+
+        private boolean stripTags;
+
+        private String tagReplacement = "";
+
+        private boolean decodeEntities;
+
+        private boolean protectedSpaces;
+
+        private boolean collapseSpaces;
+
+        private boolean lowerCase;
+
+        /**
+         * Replace characters with a code point below 33 (this includes line breaks and tabs), the unicode line
+         * separator and <code>&amp;#10</code> by space.
+         */
+        public Builder replaceControlCharacters() {
+            this.controlCharacters = true;
+            return this;
+        }
+
+        /** Remove comments, scripts, styles and tags. */
+        public Builder stripTags() {
+            return stripTags("");
+        }
+
+        /**
+         * Replace comments, scripts, styles and tags.
+         *
+         * @param replacement The replacement, which is taken literally, not <code>null</code>.
+         */
+        public Builder stripTags(String replacement) {
+            Validate.notNull(replacement, "replacement must not be null");
+            this.stripTags = true;
+            this.tagReplacement = replacement;
+            return this;
+        }
+
+        /** Decode named and numeric HTML 4 entities. */
+        public Builder decodeEntities() {
+            this.decodeEntities = true;
+            return this;
+        }
+
+        /** Replace protected spaces (<code>U+00A0</code>) by space. */
+        public Builder replaceProtectedSpaces() {
+            this.protectedSpaces = true;
+            return this;
+        }
+
+        /** Collapse runs of (ASCII) spaces into one space. */
+        public Builder collapseSpaces() {
+            this.collapseSpaces = true;
+            return this;
+        }
+
+        /** Convert all characters to lower case. */
+        public Builder lowerCase() {
+            this.lowerCase = true;
+            return this;
+        }
+
+        public TextNormalizer create() {
+            return new TextNormalizer(this);
+        }
+
+    }
+
+    /** Maximum capacity of the thread local buffers which is kept after processing a text. */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    /** The named entities; the dense indices of the trie point into {@link #ENTITY_VALUES}. */
+    private static final CompactTrie<Integer> ENTITY_NAMES;
+
+    private static final char[] ENTITY_VALUES;
+
+    static {
+        Map<String, Integer> entities = getEntities();
+        ENTITY_NAMES = new CompactTrie<>(entities, false);
+        ENTITY_VALUES = new char[entities.size()];
+        for (Map.Entry<String, Integer> entity : entities.entrySet()) {
+            ENTITY_VALUES[ENTITY_NAMES.indexOf(entity.getKey())] = (char)entity.getValue().intValue();
+        }
+    }
+
+    /** @return The HTML 4 entity names with their values, as used by commons-lang's <code>unescapeHtml</code>. */
+    @SuppressWarnings("deprecation")
+    private static Map<String, Integer> getEntities() {
+        Map<String, Integer> entities = new HashMap<>();
+        for (String[][] entityArray : new String[][][] {
+                org.apache.commons.lang3.text.translate.EntityArrays.BASIC_UNESCAPE(),
+                org.apache.commons.lang3.text.translate.EntityArrays.ISO8859_1_UNESCAPE(),
+                org.apache.commons.lang3.text.translate.EntityArrays.HTML40_EXTENDED_UNESCAPE()}) {
+            for (String[] entity : entityArray) {
+                // e.g. ["&amp;", "&"]
+                entities.put(entity[0].substring(1, entity[0].length() - 1), (int)entity[1].charAt(0));
+            }
+        }
+        return entities;
+    }
+
+    /** Sequences which end comments, script and style elements; must be lower case. */
+    private static final String[] CLOSERS = {"-->", ">", "</script>", "</style>"};
+
+    private static final int COMMENT_END = 0;
+
+    private static final int TAG_END = 1;
+
+    private static final int SCRIPT_END = 2;
+
+    private static final int STYLE_END = 3;
+
+    /** Marker for a closing sequence which does not occur (anymore). */
+    private static final int NONE = -2;
+
+    /** A view on a part of a character sequence, for looking up entity names without creating strings. */
+    private static final class Slice implements CharSequence {
+        CharSequence sequence;
+        int offset;
+        int length;
+
+        Slice set(CharSequence sequence, int start, int end) {
+            this.sequence = sequence;
+            this.offset = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return sequence.charAt(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return sequence.subSequence(offset + start, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+
+    /** Buffers and state for processing a text; one per thread. */
+    private static final class Workspace {
+        StringBuilder buffer = new StringBuilder();
+        StringBuilder result = new StringBuilder();
+        final Slice slice = new Slice();
+        /** The first occurrences of the {@link #CLOSERS} from the last searched positions on. */
+        final int[] closers = new int[CLOSERS.length];
+        boolean lastSpace;
+        boolean modified;
+
+        void reset() {
+            for (int i = 0; i < closers.length; i++) {
+                closers[i] = -1;
+            }
+            lastSpace = false;
+            modified = false;
+        }
+
+        /**
+         * Find a closing sequence; the start positions must not decrease between invocations, which allows to reuse
+         * the results of previous searches (so that e.g. many unclosed comments do not result in quadratic runtime).
+         */
+        int find(CharSequence text, int closer, int start) {
+            int found = closers[closer];
+            if (found == NONE) {
+                return -1;
+            }
+            if (found >= start) {
+                return found;
+            }
+            found = indexOfIgnoreCase(text, CLOSERS[closer], start);
+            closers[closer] = found == -1 ? NONE : found;
+            return found;
+        }
+
+        void release() {
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder();
+            }
+            if (result.capacity() > MAX_RETAINED_CAPACITY) {
+                result = new StringBuilder();
+            }
+        }
+    }
+
+    private static final ThreadLocal<Workspace> WORKSPACE = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    private final boolean controlCharacters;
+
+    private final boolean stripTags;
+
+    private final String tagReplacement;
+
+    private final boolean decodeEntities;
+
+    private final boolean protectedSpaces;
+
+    private final boolean collapseSpaces;
+
+    private final boolean lowerCase;
+
+    private TextNormalizer(Builder builder) {
+        this.controlCharacters = builder.controlCharacters;
+        this.stripTags = builder.stripTags;
+        this.tagReplacement = builder.tagReplacement;
+        this.decodeEntities = builder.decodeEntities;
+        this.protectedSpaces = builder.protectedSpaces;
+        this.collapseSpaces = builder.collapseSpaces;
+        this.lowerCase = builder.lowerCase;
+    }
+
+    /**
+     * <p>
+     * Normalize a text.
+     * </p>
+     *
+     * @param text The text, not <code>null</code>.
+     * @return The normalized text; the given instance, in case nothing was changed.
+     */
+    public String normalize(String text) {
+        Validate.notNull(text, "text must not be null");
+        Workspace workspace = WORKSPACE.get();
+        StringBuilder result = workspace.result;
+        result.setLength(0);
+        normalize(text, result, workspace);
+        String normalized = workspace.modified ? result.toString() : text;
+        result.setLength(0);
+        workspace.release();
+        return normalized;
+    }
+
+    /**
+     * <p>
+     * Normalize a text and append the result to the given {@link StringBuilder}.
+     * </p>
+     *
+     * @param text The text, not <code>null</code>.
+     * @param output The builder to which to append the normalized text, not <code>null</code>.
+     * @return The given builder.
+     */
+    public StringBuilder normalize(CharSequence text, StringBuilder output) {
+        Validate.notNull(text, "text must not be null");
+        Validate.notNull(output, "output must not be null");
+        Workspace workspace = WORKSPACE.get();
+        normalize(text, output, workspace);
+        workspace.release();
+        return output;
+    }
+
+    private void normalize(CharSequence text, StringBuilder output, Workspace workspace) {
+        workspace.reset();
+        if (decodeEntities && (stripTags || controlCharacters)) {
+            StringBuilder buffer = workspace.buffer;
+            buffer.setLength(0);
+            scan(text, buffer, workspace, false);
+            workspace.lastSpace = false;
+            decode(buffer, output, workspace);
+            buffer.setLength(0);
+        } else if (decodeEntities) {
+            decode(text, output, workspace);
+        } else {
+            scan(text, output, workspace, true);
+        }
+    }
+
+    /** Replace control characters and strip tags; apply the character steps in case <code>emit</code> is set. */
+    private void scan(CharSequence text, StringBuilder output, Workspace workspace, boolean emit) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (stripTags && c == '<') {
+                int end = matchTag(text, i, length, workspace);
+                if (end != -1) {
+                    workspace.modified = true;
+                    for (int j = 0; j < tagReplacement.length(); j++) {
+                        append(output, tagReplacement.charAt(j), workspace, emit);
+                    }
+                    i = end;
+                    continue;
+                }
+            }
+            if (controlCharacters) {
+                if (c == '&' && regionMatches(text, i, "&#10")) {
+                    workspace.modified = true;
+                    append(output, ' ', workspace, emit);
+                    i += 4;
+                    continue;
+                }
+                if ((c < 33 || c == '\u2028') && c != ' ') {
+                    workspace.modified = true;
+                    c = ' ';
+                }
+            }
+            append(output, c, workspace, emit);
+            i++;
+        }
+    }
+
+    /**
+     * Match <code>&lt;!--.*?--&gt;|&lt;script.*?&gt;.*?&lt;/script&gt;|&lt;style.*?&gt;.*?&lt;/style&gt;|&lt;[^&lt;]*?&gt;</code>
+     * (dot all, case insensitive) at the given position.
+     *
+     * @return The end of the match (exclusive), or -1.
+     */
+    private static int matchTag(CharSequence text, int start, int length, Workspace workspace) {
+        if (regionMatches(text, start, "<!--")) {
+            int end = workspace.find(text, COMMENT_END, start + 4);
+            if (end != -1) {
+                return end + 3;
+            }
+        }
+        if (regionMatches(text, start, "<script")) {
+            int tagEnd = workspace.find(text, TAG_END, start + 7);
+            if (tagEnd != -1) {
+                int end = workspace.find(text, SCRIPT_END, tagEnd + 1);
+                if (end != -1) {
+                    return end + 9;
+                }
+            }
+        }
+        if (regionMatches(text, start, "<style")) {
+            int tagEnd = workspace.find(text, TAG_END, start + 6);
+            if (tagEnd != -1) {
+                int end = workspace.find(text, STYLE_END, tagEnd + 1);
+                if (end != -1) {
+                    return end + 8;
+                }
+            }
+        }
+        for (int i = start + 1; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '>') {
+                return i + 1;
+            }
+            if (c == '<') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decode entities, and apply the character steps; same behavior as commons-lang's
+     * <code>StringEscapeUtils#unescapeHtml</code>.
+     */
+    private void decode(CharSequence text, StringBuilder output, Workspace workspace) {
+        int length = text.length();
+        int nextSemicolon = -1;
+        int nextAmpersand = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '&') {
+                if (nextSemicolon != NONE && nextSemicolon <= i) {
+                    nextSemicolon = indexOf(text, ';', i + 1, length);
+                }
+                if (nextAmpersand != NONE && nextAmpersand <= i) {
+                    nextAmpersand = indexOf(text, '&', i + 1, length);
+                }
+                if (nextSemicolon != NONE && (nextAmpersand == NONE || nextAmpersand > nextSemicolon)) {
+                    int value = entityValue(text, i + 1, nextSemicolon, workspace.slice);
+                    if (value != -1) {
+                        workspace.modified = true;
+                        append(output, (char)value, workspace, true);
+                        i = nextSemicolon;
+                        continue;
+                    }
+                }
+                // no entity; the content until the semicolon contains no ampersand and can be appended as usual
+            }
+            append(output, c, workspace, true);
+        }
+    }
+
+    /** @return The value of the entity between start and end, or -1 in case it is no valid entity. */
+    private static int entityValue(CharSequence text, int start, int end, Slice slice) {
+        if (start == end) {
+            return -1;
+        }
+        if (text.charAt(start) != '#') {
+            int index = ENTITY_NAMES.indexOf(slice.set(text, start, end));
+            return index != -1 ? ENTITY_VALUES[index] : -1;
+        }
+        if (end - start == 1) {
+            return -1;
+        }
+        // like Integer#parseInt, which is used by commons-lang, but without creating a string
+        int position = start + 1;
+        int radix = 10;
+        char hexChar = text.charAt(position);
+        if (hexChar == 'x' || hexChar == 'X') {
+            radix = 16;
+            position++;
+        }
+        boolean negative = false;
+        if (position < end && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+            negative = text.charAt(position) == '-';
+            position++;
+        }
+        if (position == end) {
+            return -1;
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = Character.digit(text.charAt(position), radix);
+            if (digit == -1) {
+                return -1;
+            }
+            value = value * radix + digit;
+            if (value > 1L << 31) {
+                return -1;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > 0xFFFF || value < Integer.MIN_VALUE) {
+            return -1;
+        }
+        // like commons-lang, negative values are written as char, except -1
+        return (int)value;
+    }
+
+    /** Append a character, applying the character steps in case <code>emit</code> is set. */
+    private void append(StringBuilder output, char c, Workspace workspace, boolean emit) {
+        if (emit) {
+            if (protectedSpaces && c == '\u00A0') {
+                workspace.modified = true;
+                c = ' ';
+            }
+            if (collapseSpaces) {
+                if (c == ' ' && workspace.lastSpace) {
+                    workspace.modified = true;
+                    return;
+                }
+                workspace.lastSpace = c == ' ';
+            }
+            if (lowerCase) {
+                char lower = Character.toLowerCase(c);
+                if (lower != c) {
+                    workspace.modified = true;
+                    c = lower;
+                }
+            }
+        }
+        output.append(c);
+    }
+
+    /** Compare, ignoring the case of ASCII characters (like a regular expression with case insensitive flag). */
+    private static boolean regionMatches(CharSequence text, int start, String lowerCaseTarget) {
+        if (start + lowerCaseTarget.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCaseTarget.length(); i++) {
+            if (toLowerAscii(text.charAt(start + i)) != lowerCaseTarget.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfIgnoreCase(CharSequence text, String lowerCaseTarget, int start) {
+        char first = lowerCaseTarget.charAt(0);
+        int last = text.length() - lowerCaseTarget.length();
+        for (int i = start; i <= last; i++) {
+            if (toLowerAscii(text.charAt(i)) == first && regionMatches(text, i, lowerCaseTarget)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @return The index of the character, or {@link #NONE}. */
+    private static int indexOf(CharSequence text, char c, int start, int length) {
+        for (int i = start; i < length; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char)(c + 32) : c;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("TextNormalizer [");
+        builder.append("controlCharacters=").append(controlCharacters);
+        builder.append(", stripTags=").append(stripTags);
+        builder.append(", decodeEntities=").append(decodeEntities);
+        builder.append(", protectedSpaces=").append(protectedSpaces);
+        builder.append(", collapseSpaces=").append(collapseSpaces);
+        builder.append(", lowerCase=").append(lowerCase);
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,54 @@
+package ws.palladian.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CacheTest {
+
+    @Test
+    public void testMaxCacheSize() {
+        Cache cache = new Cache();
+        cache.setMaxCacheSize(1000);
+        cache.putDataObject("large", "largeObject", 500);
+        assertEquals("largeObject", cache.getDataObject("large"));
+        cache.putDataObject("small", "smallObject", 100);
+        assertEquals("largeObject", cache.getDataObject("large"));
+        assertEquals("smallObject", cache.getDataObject("small"));
+        assertEquals(600, cache.getCacheSize());
+        cache.putDataObject("tooLarge", "tooLargeObject", 1001);
+        assertNull(cache.getDataObject("tooLarge"));
+        assertEquals(600, cache.getCacheSize());
+    }
+
+    /** The frequencies must adapt to a new working set, also in case the size was limited after creation. */
+    @Test
+    public void testShiftingWorkingSet() {
+        Cache cache = new Cache();
+        cache.setMaxCacheSize(500);
+        access(cache, "first", 0);
+        access(cache, "second", 1);
+        int resident = 0;
+        for (int i = 0; i < 50; i++) {
+            resident += cache.containsDataObject("second" + i) ? 1 : 0;
+        }
+        assertEquals(50, resident);
+    }
+
+    /** Access 50 hot objects repeatedly, interleaved with objects which are only used once. */
+    private static void access(Cache cache, String prefix, int phase) {
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.getDataObject(prefix + i) == null) {
+                    cache.putDataObject(prefix + i, prefix + i, 1);
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                String identifier = "scan" + phase + "_" + round + "_" + i;
+                cache.putDataObject(identifier, identifier, 1);
+            }
+        }
+    }
+
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -16,6 +17,7 @@ import org.junit.Test;
 
 import ws.palladian.helper.collection.CollectionHelper.Order;
 import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.io.ResourceHelper;
 
 public class BagTest {
 
@@ -160,6 +162,41 @@ public class BagTest {
         assertEquals(bag1, deserialized);
     }
 
+    /** Bag serialized with the previous, HashMap based implementation. */
+    @Test
+    public void testSerializationCompatibility() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(ResourceHelper.getResourceStream("/serializedCollections.ser"))) {
+            @SuppressWarnings("unchecked")
+            Bag<String> deserialized = (Bag<String>)in.readObject();
+            assertEquals(10, deserialized.size());
+            assertEquals(3, deserialized.count(ELEMENT1));
+            assertEquals(5, deserialized.count(ELEMENT2));
+            assertEquals(2, deserialized.count(ELEMENT3));
+            assertEquals(bag1, deserialized);
+            assertEquals(bag1.hashCode(), deserialized.hashCode());
+        }
+    }
+
+    @Test
+    public void testUniqueViews() {
+        Iterator<Entry<String, Integer>> iterator = bag1.unique().iterator();
+        while (iterator.hasNext()) {
+            Entry<String, Integer> entry = iterator.next();
+            if (entry.getKey().equals(ELEMENT1)) {
+                entry.setValue(10);
+            } else if (entry.getKey().equals(ELEMENT3)) {
+                iterator.remove();
+            }
+        }
+        assertEquals(15, bag1.size());
+        assertEquals(10, bag1.count(ELEMENT1));
+        assertEquals(0, bag1.count(ELEMENT3));
+        bag1.uniqueItems().remove(ELEMENT1);
+        assertEquals(5, bag1.size());
+        assertEquals(1, bag1.uniqueItems().size());
+        assertEquals(bag1.toMap().entrySet(), bag1.unique());
+    }
+
     @Test
     public void testCopy() {
         Bag<String> copy = new Bag<>(bag1);
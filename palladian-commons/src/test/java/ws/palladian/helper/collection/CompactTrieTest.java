@@ -0,0 +1,174 @@
+package ws.palladian.helper.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+
+public class CompactTrieTest {
+
+    private static Trie<Integer> createTrie() {
+        Trie<Integer> trie = new Trie<>();
+        trie.put("to", 1);
+        trie.put("tea", 2);
+        trie.put("ted", 3);
+        trie.put("ten", 4);
+        trie.put("i", 5);
+        trie.put("in", 6);
+        trie.put("inn", 7);
+        trie.put("a", 8);
+        return trie;
+    }
+
+    @Test
+    public void testLookup() {
+        CompactTrie<Integer> trie = new CompactTrie<>(createTrie());
+        assertEquals(8, trie.size());
+        assertEquals((Integer)1, trie.get("to"));
+        assertEquals((Integer)4, trie.get("ten"));
+        assertEquals((Integer)5, trie.get("i"));
+        assertEquals((Integer)7, trie.get("inn"));
+        assertNull(trie.get("te"));
+        assertNull(trie.get("tens"));
+        assertNull(trie.get("b"));
+        assertTrue(trie.containsKey("in"));
+        assertFalse(trie.containsKey("t"));
+        assertEquals(-1, trie.indexOf("t"));
+        assertEquals(-1, trie.indexOf(""));
+    }
+
+    @Test
+    public void testDenseIndices() {
+        CompactTrie<Integer> trie = new CompactTrie<>(createTrie());
+        boolean[] seen = new boolean[trie.size()];
+        for (Entry<String, Integer> entry : trie) {
+            int index = trie.indexOf(entry.getKey());
+            assertFalse(seen[index]);
+            seen[index] = true;
+        }
+    }
+
+    @Test
+    public void testIteration() {
+        CompactTrie<Integer> trie = new CompactTrie<>(createTrie());
+        List<String> keys = new ArrayList<>();
+        for (Entry<String, Integer> entry : trie) {
+            keys.add(entry.getKey());
+        }
+        assertEquals("[a, i, in, inn, tea, ted, ten, to]", keys.toString());
+
+        CompactTrie<Integer>.Node node = trie.getNode("te");
+        assertEquals("te", node.getKey());
+        assertNull(node.getValue());
+        keys.clear();
+        for (Entry<String, Integer> entry : node) {
+            keys.add(entry.getKey() + "=" + entry.getValue());
+        }
+        assertEquals("[tea=2, ted=3, ten=4]", keys.toString());
+
+        // as in the Trie, the node itself is not included
+        node = trie.getNode("in");
+        assertEquals((Integer)6, node.getValue());
+        Iterator<Entry<String, Integer>> iterator = node.iterator();
+        assertEquals("inn", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+
+        assertNull(trie.getNode("x"));
+        assertFalse(new CompactTrie<>(new Trie<Integer>()).iterator().hasNext());
+    }
+
+    @Test
+    public void testEquivalenceWithTrie() {
+        Random random = new Random(1);
+        Trie<String> trie = new Trie<>();
+        Map<String, String> map = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                // include some non-ASCII characters
+                key.append((char)(random.nextInt(10) == 0 ? 'ä' + random.nextInt(3) : 'a' + random.nextInt(6)));
+            }
+            trie.put(key.toString(), "v" + i);
+            map.put(key.toString(), "v" + i);
+        }
+        CompactTrie<String> compactTrie = new CompactTrie<>(trie, true);
+        assertEquals(map.size(), compactTrie.size());
+        for (Entry<String, String> entry : map.entrySet()) {
+            assertEquals(entry.getValue(), compactTrie.get(entry.getKey()));
+        }
+        // iteration gives the same entries in the same (sorted) order
+        Iterator<Entry<String, String>> expected = map.entrySet().iterator();
+        for (Entry<String, String> entry : compactTrie) {
+            assertEquals(expected.next(), entry);
+        }
+        assertFalse(expected.hasNext());
+        // the same prefix iteration as the Trie
+        Map<String, String> expectedPrefix = new HashMap<>();
+        for (Entry<String, String> entry : trie.getNode("abc")) {
+            expectedPrefix.put(entry.getKey(), entry.getValue());
+        }
+        Map<String, String> actualPrefix = new HashMap<>();
+        for (Entry<String, String> entry : compactTrie.getNode("abc")) {
+            actualPrefix.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expectedPrefix, actualPrefix);
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            map.put("key" + i, i);
+        }
+        CompactTrie<Integer> trie = new CompactTrie<>(map, false);
+        File file = new File(FileHelper.getTempDir(), "compactTrie_" + System.currentTimeMillis() + ".bin");
+        try {
+            trie.writeTo(file);
+            CompactTrie<Integer> mapped = CompactTrie.map(file);
+            assertEquals(10000, mapped.size());
+            assertEquals((Integer)1234, mapped.get("key1234"));
+            assertNull(mapped.get("key10000"));
+            assertEquals(trie.indexOf("key42"), mapped.indexOf("key42"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMapNonIntegerValues() throws IOException {
+        Trie<String> trie = new Trie<>();
+        trie.put("a", "b");
+        new CompactTrie<>(trie).writeTo(new File(FileHelper.getTempDir(), "compactTrie.bin"));
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        Trie<String> trie = new Trie<>();
+        trie.put("palladian", "toolkit");
+        trie.put("pal", "friend");
+        CompactTrie<String> compactTrie = new CompactTrie<>(trie);
+        String path = new File(FileHelper.getTempDir(), "compactTrie_" + System.currentTimeMillis() + ".ser").getPath();
+        FileHelper.serialize(compactTrie, path);
+        CompactTrie<String> deserialized = FileHelper.deserialize(path);
+        assertEquals(2, deserialized.size());
+        assertEquals("toolkit", deserialized.get("palladian"));
+        assertEquals("friend", deserialized.get("pal"));
+    }
+
+}
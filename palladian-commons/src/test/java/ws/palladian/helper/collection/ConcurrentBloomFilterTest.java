@@ -0,0 +1,177 @@
+package ws.palladian.helper.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+
+public class ConcurrentBloomFilterTest {
+
+    @Test
+    public void testConcurrentBloomFilter() throws InterruptedException {
+        final ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, 100000);
+        assertEquals(958506, filter.getVectorSize());
+        assertEquals(7, filter.getNumHashFunctions());
+        final AtomicInteger newItems = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            // all threads add the same items, each item must be new exactly once
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100000; i++) {
+                        if (filter.add("item" + i)) {
+                            newItems.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400000, filter.getNumAddedItems());
+        // some items might be reported as seen already due to false positives
+        assertTrue(newItems.get() <= 100000 && newItems.get() > 99000);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.test("item" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            falsePositives += filter.test("other" + i) ? 1 : 0;
+        }
+        assertEquals(0.01, (double)falsePositives / 100000, 0.005);
+        assertEquals(0.01, filter.getFalsePositiveProbability(), 0.005);
+        assertEquals(100000, filter.getEstimatedNumItems(), 1000);
+    }
+
+    @Test
+    public void testConcurrentAddOfSameItem() throws InterruptedException {
+        final ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, 200000);
+        final AtomicIntegerArray newCounts = new AtomicIntegerArray(200000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 200000; i++) {
+                        if (filter.add("item" + i)) {
+                            newCounts.incrementAndGet(i);
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < 200000; i++) {
+            assertTrue(newCounts.get(i) <= 1);
+        }
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, 1000);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("item" + i);
+        }
+        File tempFile = new File(FileHelper.getTempDir(), "bloomFilter_" + System.currentTimeMillis() + ".ser");
+        FileHelper.serialize(filter, tempFile.getPath());
+        ConcurrentBloomFilter<String> deserialized = FileHelper.deserialize(tempFile.getPath());
+        assertEquals(filter.getVectorSize(), deserialized.getVectorSize());
+        assertEquals(filter.getNumSetBits(), deserialized.getNumSetBits());
+        assertEquals(1000, deserialized.getNumAddedItems());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(deserialized.test("item" + i));
+        }
+        assertFalse(deserialized.add("item0"));
+        // the raw bit vector plus some overhead
+        assertTrue(tempFile.length() < filter.getVectorSize() / 8 + 200);
+    }
+
+    @Test
+    public void testScalableBloomFilter() {
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(0.01, 1000);
+        for (int i = 0; i < 100000; i++) {
+            filter.add("item" + i);
+        }
+        assertEquals(7, filter.getNumLayers());
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.test("item" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            falsePositives += filter.test("other" + i) ? 1 : 0;
+        }
+        assertTrue(falsePositives < 1000);
+        assertEquals(0.01, filter.getFalsePositiveProbability(), 0.002);
+    }
+
+    @Test
+    public void testScalableBloomFilterConcurrentAdd() throws InterruptedException {
+        final ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(0.01, 1000);
+        final AtomicInteger newItems = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            // all threads add the same items, each item must be reported as new at most once
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        if (filter.add("item" + i)) {
+                            newItems.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(filter.getNumAddedItems(), newItems.get());
+        assertTrue(newItems.get() <= 20000);
+    }
+
+    @Test
+    public void testCountingBloomFilter() {
+        CountingBloomFilter<String> filter = new CountingBloomFilter<>(0.01, 1000);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("item" + i);
+        }
+        filter.add("item0");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.test("item" + i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(filter.remove("item" + i));
+        }
+        // added twice
+        assertTrue(filter.test("item0"));
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            // no false negatives
+            assertTrue(i % 2 == 0 || filter.test("item" + i));
+            falsePositives += i % 2 == 0 && filter.test("item" + i) ? 1 : 0;
+        }
+        assertTrue(falsePositives < 20);
+        assertFalse(filter.remove("mango"));
+    }
+
+}
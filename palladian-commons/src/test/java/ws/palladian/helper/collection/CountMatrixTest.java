@@ -2,8 +2,14 @@ package ws.palladian.helper.collection;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
+import java.io.ObjectInputStream;
+
 import org.junit.Test;
 
+import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.io.ResourceHelper;
+
 public class CountMatrixTest {
 
     @Test
@@ -23,6 +29,37 @@ public class CountMatrixTest {
 
         assertEquals(2, countMatrix.columnCount());
         assertEquals(3, countMatrix.rowCount());
+
+        // works with other matrix implementations as well
+        CountMatrix<String> mapCountMatrix = new CountMatrix<>(new MapMatrix<String, Integer>());
+        mapCountMatrix.add("x1", "y1", 2);
+        mapCountMatrix.add("x1", "y1", 3);
+        assertEquals(5, mapCountMatrix.getCount("x1", "y1"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        CountMatrix<String> countMatrix = CountMatrix.create();
+        countMatrix.add("x1", "y1", 2);
+        countMatrix.add("x2", "y1", 4);
+        countMatrix.add("x1", "y2", 5);
+        File tempFile = new File(FileHelper.getTempDir(), "countMatrix_" + System.currentTimeMillis() + ".ser");
+        FileHelper.serialize(countMatrix, tempFile.getPath());
+        CountMatrix<String> deserialized = FileHelper.deserialize(tempFile.getPath());
+        assertEquals(4, deserialized.getCount("x2", "y1"));
+        assertEquals(11, deserialized.getSum());
+        assertEquals(countMatrix.getRowKeys(), deserialized.getRowKeys());
+
+        // matrix serialized with the previous, MapMatrix based implementation
+        try (ObjectInputStream in = new ObjectInputStream(ResourceHelper.getResourceStream("/serializedCollections.ser"))) {
+            in.readObject(); // the bag
+            @SuppressWarnings("unchecked")
+            CountMatrix<String> oldMatrix = (CountMatrix<String>)in.readObject();
+            assertEquals(5, oldMatrix.getCount("x1", "y2"));
+            assertEquals(8, oldMatrix.getSum());
+            oldMatrix.add("x1", "y2");
+            assertEquals(6, oldMatrix.getCount("x1", "y2"));
+        }
     }
 
 }
@@ -19,6 +19,33 @@ public class MatrixTest {
         test(new PairMatrix<Integer, Integer>());
     }
 
+    @Test
+    public void testIntMatrix() {
+        test(new IntMatrix<Integer>());
+        IntMatrix<String> matrix = new IntMatrix<>();
+        assertEquals(3, matrix.add("x", "y", 3));
+        assertEquals(5, matrix.add("x", "y", 2));
+        assertEquals(5, matrix.getInt("x", "y"));
+        assertEquals(0, matrix.getInt("x", "z"));
+        assertNull(matrix.get("x", "z"));
+        // many columns in one row, and removal of columns in between
+        for (int i = 0; i < 1000; i++) {
+            matrix.add("x" + i, "y", i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            matrix.removeColumn("x" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 3 == 0 ? 0 : i, matrix.getInt("x" + i, "y"));
+        }
+        // many rows
+        for (int i = 0; i < 100; i++) {
+            matrix.add("x", "y" + i, i);
+        }
+        assertEquals(101, matrix.rowCount());
+        assertEquals(99, matrix.getInt("x", "y99"));
+    }
+
     private static void test(Matrix<Integer, Integer> matrix) {
         matrix.set(0, 0, 1);
         matrix.set(0, 1, 2);
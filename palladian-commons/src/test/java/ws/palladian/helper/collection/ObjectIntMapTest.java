@@ -0,0 +1,124 @@
+package ws.palladian.helper.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+
+public class ObjectIntMapTest {
+
+    @Test
+    public void testBasicOperations() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertEquals(0, map.get("a"));
+        assertEquals(0, map.put("a", 5));
+        assertEquals(5, map.put("a", 6));
+        assertEquals(8, map.addTo("a", 2));
+        assertEquals(3, map.addTo("b", 3));
+        assertEquals(2, map.size());
+        assertEquals(-1, map.getOrDefault("c", -1));
+        assertTrue(map.containsKey("b"));
+        assertEquals(3, map.remove("b"));
+        assertFalse(map.containsKey("b"));
+        assertEquals(0, map.remove("b"));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.get("a"));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        List<String> keys = Arrays.asList("z", "y", "a", "m", "b", "x", "c", "q", "r", "s", "t");
+        for (String key : keys) {
+            map.put(key, key.charAt(0));
+        }
+        map.remove("m");
+        map.put("m", 1);
+        assertEquals(Arrays.asList("z", "y", "a", "b", "x", "c", "q", "r", "s", "t", "m"),
+                new ArrayList<>(map.keySet()));
+        assertEquals("{z=122, y=121, a=97, b=98, x=120, c=99, q=113, r=114, s=115, t=116, m=1}", map.toString());
+    }
+
+    @Test
+    public void testRemoveWhileIterating() {
+        ObjectIntMap<Integer> map = new ObjectIntMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        Iterator<Integer> iterator = map.keySet().iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(50, map.size());
+        for (int pos = map.first(); pos != -1; pos = map.next(pos)) {
+            assertEquals(1, map.keyAt(pos) % 2);
+            assertEquals((int)map.keyAt(pos), map.valueAt(pos));
+        }
+    }
+
+    /** Compare against a HashMap with random operations, which also trigger growing and compacting. */
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        ObjectIntMap<Integer> map = new ObjectIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            Integer key = random.nextInt(2000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Integer old = expected.remove(key);
+                    assertEquals(old != null ? old : 0, map.remove(key));
+                    break;
+                case 1:
+                    Integer value = expected.get(key);
+                    expected.put(key, (value != null ? value : 0) + 1);
+                    map.addTo(key, 1);
+                    break;
+                default:
+                    expected.put(key, i);
+                    map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int)entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(map, new ObjectIntMap<>(map));
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+        map.put("three", 3);
+        map.remove("two");
+        File tempFile = new File(FileHelper.getTempDir(), "objectIntMap_" + System.currentTimeMillis() + ".ser");
+        FileHelper.serialize(map, tempFile.getPath());
+        ObjectIntMap<String> deserialized = FileHelper.deserialize(tempFile.getPath());
+        assertEquals(map, deserialized);
+        assertEquals(Arrays.asList("one", "three"), new ArrayList<>(deserialized.keySet()));
+    }
+
+}
@@ -0,0 +1,205 @@
+package ws.palladian.helper.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import ws.palladian.helper.collection.TinyLfuCache.CacheStats;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testBasicOperations() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache.Builder<String, Integer>().create();
+        assertNull(cache.get("a"));
+        assertNull(cache.put("a", 1));
+        assertEquals(1, (int)cache.put("a", 2));
+        assertEquals(2, (int)cache.get("a"));
+        assertTrue(cache.containsKey("a"));
+        assertEquals(1, cache.size());
+        assertEquals(2, (int)cache.remove("a"));
+        assertFalse(cache.containsKey("a"));
+        cache.put("b", 3);
+        cache.clear();
+        assertEquals(0, cache.size());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0.5, stats.getHitRate(), 0);
+    }
+
+    @Test
+    public void testMaximumSize() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache.Builder<Integer, Integer>().setMaximumSize(1000)
+                .create();
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(1000, cache.size());
+        assertEquals(9000, cache.getStats().getEvictionCount());
+        cache.setMaximumWeight(100);
+        assertEquals(100, cache.size());
+    }
+
+    /**
+     * Frequently used entries must survive a scan over many entries which are only used once; an LRU cache of the
+     * same size loses them.
+     */
+    @Test
+    public void testScanResistance() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache.Builder<Integer, Integer>().setMaximumSize(500)
+                .create();
+        LruMap<Integer, Integer> lruMap = LruMap.accessOrder(500);
+        int cacheHits = 0;
+        int lruHits = 0;
+        for (int i = 0; i < 100000; i++) {
+            // each fifth access goes to one of 200 hot entries, the others are scanned
+            int key = i % 5 == 0 ? i / 5 % 200 : 1000 + i;
+            if (cache.get(key) != null) {
+                cacheHits += key < 200 ? 1 : 0;
+            } else {
+                cache.put(key, key);
+            }
+            if (lruMap.get(key) != null) {
+                lruHits += key < 200 ? 1 : 0;
+            } else {
+                lruMap.put(key, key);
+            }
+        }
+        assertTrue(cacheHits > 0.9 * 20000);
+        assertTrue(lruHits < 0.1 * 20000);
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache.Builder<String, String>()
+                .setMaximumWeight(100, (key, value) -> value.length()).create();
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        assertEquals(20, cache.getWeightedSize());
+        cache.put("c", StringUtils.repeat('x', 101));
+        assertFalse(cache.containsKey("c"));
+        assertTrue(cache.getWeightedSize() <= 100);
+    }
+
+    @Test
+    public void testSingleShard() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache.Builder<String, String>().setConcurrencyLevel(1)
+                .setMaximumWeight(100, (key, value) -> value.length()).create();
+        cache.put("a", "b");
+        assertEquals("b", cache.get("a"));
+        // an entry which takes up more than the share of a single shard in the default configuration
+        cache.put("c", StringUtils.repeat('x', 50));
+        assertTrue(cache.containsKey("a"));
+        assertTrue(cache.containsKey("c"));
+    }
+
+    @Test
+    public void testExpiry() {
+        final AtomicLong time = new AtomicLong();
+        TinyLfuCache<String, String> cache = new TinyLfuCache.Builder<String, String>()
+                .setExpireAfterWrite(10, TimeUnit.NANOSECONDS).setExpireAfterAccess(5, TimeUnit.NANOSECONDS)
+                .setTicker(time::get).create();
+        cache.put("a", "a");
+        cache.put("b", "b");
+        time.set(4);
+        assertEquals("a", cache.get("a"));
+        time.set(8);
+        assertEquals("a", cache.get("a"));
+        assertNull(cache.get("b")); // not accessed for more than 5
+        time.set(10);
+        assertNull(cache.get("a")); // written 10 ago
+        cache.put("c", "c");
+        time.set(20);
+        assertEquals(1, cache.size());
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testLoaderDeduplication() throws InterruptedException {
+        final TinyLfuCache<String, String> cache = new TinyLfuCache.Builder<String, String>().create();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                String value = cache.get("key", key -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return "value";
+                });
+                assertEquals("value", value);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getLoadSuccessCount());
+
+        try {
+            cache.get("failing", key -> {
+                throw new IllegalArgumentException("load failed");
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("load failed", e.getMessage());
+        }
+        assertEquals(1, cache.getStats().getLoadFailureCount());
+        assertFalse(cache.containsKey("failing"));
+    }
+
+    /** Concurrent puts and gets on a small cache must keep it consistent and bounded. */
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final TinyLfuCache<Integer, Integer> cache = new TinyLfuCache.Builder<Integer, Integer>().setMaximumSize(1024)
+                .create();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 100000; i++) {
+                    int key = (int)Math.abs(random.nextGaussian() * 1000);
+                    Integer value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        assertEquals(key, (int)value);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.size() <= 1024);
+        assertEquals(cache.size(), cache.getWeightedSize());
+        assertTrue(cache.getStats().getHitRate() > 0.3);
+    }
+
+}
@@ -1,20 +1,27 @@
 package ws.palladian.helper.date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.regex.Matcher;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import ws.palladian.helper.ProgressMonitor;
 import ws.palladian.helper.ProgressReporter;
+import ws.palladian.helper.constants.DateFormat;
 import ws.palladian.helper.constants.RegExp;
 import ws.palladian.helper.io.FileHelper;
 import ws.palladian.helper.io.ResourceHelper;
+import ws.palladian.helper.nlp.StringHelper;
 
 /** @formatter:off */
 public class DateParserTest {
@@ -527,6 +534,74 @@ public class DateParserTest {
         assertEquals(dateParserLogic.minute, 0);
     }
 
+    /**
+     * Reference for {@link DateParser#findDates(String, DateFormat...)}, which matches each format against the whole
+     * text and masks the found dates.
+     */
+    private static List<String> referenceFindDates(String text, DateFormat... formats) {
+        List<String> result = new ArrayList<>();
+        StringBuilder normalizedText = new StringBuilder(StringHelper.removeDoubleWhitespaces(text));
+        for (DateFormat format : formats) {
+            Matcher matcher = format.getPattern().matcher(normalizedText.toString());
+            List<int[]> matches = new ArrayList<>();
+            while (matcher.find()) {
+                int start = matcher.start();
+                if (start > 0 && normalizedText.charAt(start - 1) == '.') {
+                    continue;
+                }
+                boolean digitNeighbor = start > 0 && Character.isDigit(normalizedText.charAt(start - 1));
+                int end = matcher.end();
+                if (end < normalizedText.length() && normalizedText.charAt(end - 1) != '/') {
+                    digitNeighbor = Character.isDigit(normalizedText.charAt(end));
+                }
+                if (!digitNeighbor) {
+                    ExtractedDate date = DateParser.parseDate(matcher.group(), format);
+                    if (date != null) {
+                        result.add(date.getDateString() + "|" + date.getFormat() + "|" + date.getNormalizedDateString());
+                        matches.add(new int[] {start, end});
+                    }
+                }
+            }
+            for (int[] match : matches) {
+                normalizedText.replace(match[0], match[1], StringUtils.repeat('x', match[1] - match[0]));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> findDates(String text) {
+        List<String> result = new ArrayList<>();
+        for (ExtractedDate date : DateParser.findDates(text)) {
+            result.add(date.getDateString() + "|" + date.getFormat() + "|" + date.getNormalizedDateString());
+        }
+        return result;
+    }
+
+    @Test
+    public void testFindDatesEquivalence() throws IOException {
+        String text = FileHelper.readFileToString(ResourceHelper.getResourcePath("/wikipedia_2011_Egyptian_revolution.txt"));
+        List<String> expected = referenceFindDates(text, RegExp.ALL_DATE_FORMATS);
+        assertTrue(expected.size() > 100);
+        assertEquals(expected, findDates(text));
+
+        // dates far apart, with long digit-free text between them
+        String filler = StringUtils.repeat("no dates here, ", 20);
+        text = "Tue, 02 Jul 2010 19:07:49 GMT" + filler + "Wednesday August 18, 2010, 8:20 PM GMT +07:00" + filler
+                + "2010-08-03 and 07/24/2010, but also   23. Juli 2010 3:35:58 PM" + filler + "2007-aug.-12 "
+                + filler + "June 2010" + filler;
+        assertEquals(referenceFindDates(text, RegExp.ALL_DATE_FORMATS), findDates(text));
+        assertEquals(5, findDates(filler + "1. 2010-08-03, 2. 2010-08-03, 3. 2007-08-12, June 2010 or 2010/07/02")
+                .size());
+        assertEquals(0, findDates(filler).size());
+        assertEquals(0, findDates("").size());
+
+        // URL formats contain unbounded repetitions and need to be matched against the whole text
+        assertFalse(RegExp.DATE_URL_SPLIT.isLocal());
+        assertTrue(RegExp.DATE_ISO8601_YMD_T.isLocal());
+        String url = "http://www.example.com/2010/" + filler.replace(' ', '-') + "/07-02";
+        assertEquals(1, DateParser.findDates(url, RegExp.DATE_URL_SPLIT).size());
+    }
+
     @Test
     @Ignore // make this faster!
     public void testExtractFromText() throws IOException {
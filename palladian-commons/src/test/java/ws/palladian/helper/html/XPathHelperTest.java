@@ -2,12 +2,18 @@ package ws.palladian.helper.html;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -106,4 +112,48 @@ public class XPathHelperTest {
         assertEquals(10, tocItems2.size());
     }
 
+    @Test
+    public void testNamespaceCache() throws ParserConfigurationException, SAXException, IOException {
+        Document doc = ParseUtil.parseXhtml(ResourceHelper.getResourceFile("/multipleNamespaces.xml"));
+        Map<String, String> mapping = new HashMap<String, String>();
+        mapping.put("h", "http://www.w3.org/TR/html4/");
+        assertEquals(2, XPathHelper.getNodes(doc, "//h:td", mapping).size());
+
+        // same expression, different mapping must not use the cached expression
+        mapping.put("h", "http://www.w3schools.com/furniture");
+        assertEquals(0, XPathHelper.getNodes(doc, "//h:td", mapping).size());
+        assertEquals(1, XPathHelper.getNodes(doc, "//h:name", mapping).size());
+    }
+
+    @Test
+    public void testCompile() throws Exception {
+        final Document doc = ParseUtil.parseXhtml(ResourceHelper.getResourceFile("events.xml"));
+        final XPathHelper.Query query = XPathHelper.compile("//participant[@events=\"e02\"]");
+        assertEquals(2, query.getNodes(doc).size());
+        assertEquals("participant", query.getNode(doc).getNodeName());
+        assertNull(XPathHelper.compile("//nonexistent").getNode(doc));
+
+        // precompiled queries can be shared between threads; the DOM is not thread safe, so each task gets a copy
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final Document copy = (Document)doc.cloneNode(true);
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return query.getNodes(copy).size();
+                }
+            }));
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(2, (int) result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompileInvalid() {
+        XPathHelper.compile("//participant[");
+    }
+
 }
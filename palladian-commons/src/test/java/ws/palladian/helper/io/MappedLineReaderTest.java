@@ -0,0 +1,138 @@
+package ws.palladian.helper.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ws.palladian.helper.io.MappedLineReader.LineConsumer;
+
+public class MappedLineReaderTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /** Create a file with random lines, mixed line breaks and multi byte characters. */
+    private File createFile(int numLines, boolean trailingLineBreak) throws IOException {
+        Random random = new Random(numLines);
+        String[] breaks = {"\n", "\r\n", "\r"};
+        String alphabet = "abcdefghij äöü€𝄞 ";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numLines; i++) {
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                builder.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0,
+                        random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            if (trailingLineBreak || i < numLines - 1) {
+                builder.append(breaks[random.nextInt(breaks.length)]);
+            }
+        }
+        File file = tempFolder.newFile();
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> readSequentially(File file) {
+        final List<String> lines = new ArrayList<>();
+        FileHelper.performActionOnEveryLine(file, new LineAction() {
+            @Override
+            public void performAction(String line, int lineNumber) {
+                lines.add(line);
+            }
+        });
+        return lines;
+    }
+
+    @Test
+    public void testOrdered() throws IOException {
+        for (boolean trailingLineBreak : new boolean[] {true, false}) {
+            File file = createFile(5000, trailingLineBreak);
+            List<String> expected = readSequentially(file);
+            for (int chunkSize : new int[] {1, 7, 1000, MappedLineReader.DEFAULT_CHUNK_SIZE}) {
+                final List<String> lines = new ArrayList<>();
+                long numLines = new MappedLineReader(file).setChunkSize(chunkSize).setNumThreads(3)
+                        .read(new LineConsumer() {
+                            @Override
+                            public void accept(CharSequence line, long lineNumber) {
+                                assertEquals(lines.size(), lineNumber);
+                                lines.add(line.toString());
+                            }
+                        });
+                assertEquals(expected.size(), numLines);
+                assertEquals(expected, lines);
+            }
+        }
+    }
+
+    @Test
+    public void testUnordered() throws IOException {
+        File file = createFile(5000, true);
+        final List<String> expected = readSequentially(file);
+        final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+        long numLines = new MappedLineReader(file).setChunkSize(500).setOrdered(false).setLineNumbers(true)
+                .setReuseLines(true).read(new LineConsumer() {
+                    @Override
+                    public void accept(CharSequence line, long lineNumber) {
+                        assertEquals(expected.get((int)lineNumber), line.toString());
+                        lines.add(line.toString());
+                    }
+                });
+        assertEquals(expected.size(), numLines);
+        Collections.sort(lines);
+        Collections.sort(expected);
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    public void testBreakLineLoop() throws IOException {
+        File file = createFile(1000, true);
+        final AtomicLong count = new AtomicLong();
+        int numLines = FileHelper.performActionOnEveryLineParallel(file, new LineAction() {
+            @Override
+            public void performAction(String line, int lineNumber) {
+                assertEquals(count.getAndIncrement(), lineNumber);
+                if (lineNumber == 99) {
+                    breakLineLoop();
+                }
+            }
+        });
+        assertEquals(100, numLines);
+        assertEquals(100, count.get());
+    }
+
+    @Test
+    public void testIterator() throws IOException {
+        File file = createFile(2000, false);
+        List<String> lines = new ArrayList<>();
+        try (CloseableIterator<String> iterator = new MappedLineReader(file).setChunkSize(100).iterator()) {
+            while (iterator.hasNext()) {
+                lines.add(iterator.next());
+            }
+        }
+        assertEquals(readSequentially(file), lines);
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        File file = tempFolder.newFile();
+        assertEquals(0, FileHelper.performActionOnEveryLineParallel(file, new LineAction() {
+            @Override
+            public void performAction(String line, int lineNumber) {
+                throw new AssertionError();
+            }
+        }));
+    }
+
+}
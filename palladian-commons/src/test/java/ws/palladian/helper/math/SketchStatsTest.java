@@ -0,0 +1,159 @@
+package ws.palladian.helper.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+
+public class SketchStatsTest {
+
+    @Test
+    public void testStats() {
+        Stats stats = new SketchStats().add(2., 1., 6., 10., 23., 7.);
+        assertEquals(true, stats.isSample());
+        assertEquals(6, stats.getCount());
+        assertEquals(8.167, stats.getMean(), 0.001);
+        assertEquals(6.5, stats.getMedian(), 0);
+        assertEquals(23, stats.getMax(), 0);
+        assertEquals(1, stats.getMin(), 0);
+        assertEquals(7.985, stats.getStandardDeviation(), 0.001);
+        assertEquals(119.833, stats.getMse(), 0.001);
+        assertEquals(10.947, stats.getRmse(), 0.001);
+        assertEquals(0.5, stats.getCumulativeProbability(6), 0.001);
+        assertEquals(22, stats.getRange(), 0);
+        assertEquals(0.9778, stats.getRelativeStandardDeviation(), 0.001);
+        assertEquals(63.76667, stats.getVariance(), 0.001);
+        assertEquals(442.5926, stats.getMomentAboutMean(3), 0.001);
+        assertEquals(8755.2477, stats.getMomentAboutMean(4), 0.001);
+        assertEquals(1.5645, stats.getSkewness(), 0.001);
+        assertEquals(2.7934, stats.getKurtosis(), 0.001);
+        assertEquals(6, ((SketchStats)stats).getDistinctCount());
+    }
+
+    /** Up to k values, the percentiles must be equal to those of the FatStats. */
+    @Test
+    public void testExactPercentiles() {
+        Random random = new Random(1);
+        FatStats fatStats = new FatStats();
+        SketchStats sketchStats = new SketchStats();
+        for (int i = 0; i < KllSketch.DEFAULT_K; i++) {
+            double value = random.nextInt(50);
+            fatStats.add(value);
+            sketchStats.add(value);
+        }
+        for (int p = 1; p < 100; p++) {
+            assertEquals(fatStats.getPercentile(p), sketchStats.getPercentile(p), 0);
+        }
+        assertEquals(fatStats.getCumulativeProbability(25), sketchStats.getCumulativeProbability(25), 0);
+    }
+
+    @Test
+    public void testLargeStream() {
+        Random random = new Random(1);
+        SketchStats stats = new SketchStats();
+        for (int i = 0; i < 1000000; i++) {
+            stats.add(random.nextInt(100000));
+        }
+        assertEquals(1000000, stats.getLongCount());
+        assertEquals(50000, stats.getMedian(), 1500);
+        assertEquals(90000, stats.getPercentile(90), 1500);
+        assertEquals(0.25, stats.getCumulativeProbability(25000), 0.015);
+        assertEquals(99995, stats.getDistinctCount(), 5000);
+        assertTrue(stats.getMax() >= 99990);
+        assertTrue(stats.getMin() <= 10);
+    }
+
+    /** Merged stats must be (approximately) equal to stats which saw all values. */
+    @Test
+    public void testMerge() {
+        Random random = new Random(1);
+        List<SketchStats> partitions = new ArrayList<>();
+        SketchStats all = new SketchStats();
+        FatStats fatStats = new FatStats();
+        for (int p = 0; p < 4; p++) {
+            SketchStats partition = new SketchStats();
+            for (int i = 0; i < 10000; i++) {
+                // partitions with different distributions
+                double value = random.nextGaussian() * (p + 1) + p * 10;
+                partition.add(value);
+                all.add(value);
+                fatStats.add(value);
+            }
+            partitions.add(partition);
+        }
+        SketchStats merged = new SketchStats();
+        for (SketchStats partition : partitions) {
+            merged.merge(partition);
+        }
+        assertEquals(all.getLongCount(), merged.getLongCount());
+        assertEquals(all.getMean(), merged.getMean(), 0.000001);
+        assertEquals(all.getSum(), merged.getSum(), 0.000001);
+        assertEquals(all.getMse(), merged.getMse(), 0.000001);
+        assertEquals(all.getStandardDeviation(), merged.getStandardDeviation(), 0.000001);
+        assertEquals(fatStats.getSkewness(), merged.getSkewness(), 0.000001);
+        assertEquals(fatStats.getKurtosis(), merged.getKurtosis(), 0.000001);
+        assertEquals(all.getMin(), merged.getMin(), 0);
+        assertEquals(all.getMax(), merged.getMax(), 0);
+        assertEquals(fatStats.getMedian(), merged.getMedian(), 0.5);
+        assertEquals(fatStats.getPercentile(90), merged.getPercentile(90), 0.5);
+        assertEquals(40000, merged.getDistinctCount(), 2000);
+    }
+
+    /** Merging with itself doubles the count, but leaves the distribution unchanged. */
+    @Test
+    public void testSelfMerge() {
+        Random random = new Random(1);
+        SketchStats stats = new SketchStats();
+        for (int i = 0; i < 10000; i++) {
+            stats.add(random.nextInt(1000));
+        }
+        double mean = stats.getMean();
+        double median = stats.getMedian();
+        stats.merge(stats);
+        assertEquals(20000, stats.getLongCount());
+        assertEquals(mean, stats.getMean(), 0.000001);
+        assertEquals(median, stats.getMedian(), 20);
+        assertEquals(1000, stats.getDistinctCount(), 50);
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        SketchStats stats = new SketchStats();
+        for (int i = 0; i < 100000; i++) {
+            stats.add(i);
+        }
+        File tempFile = new File(FileHelper.getTempDir(), "sketchStats_" + System.currentTimeMillis() + ".ser");
+        FileHelper.serialize(stats, tempFile.getPath());
+        SketchStats deserialized = FileHelper.deserialize(tempFile.getPath());
+        assertEquals(stats.getLongCount(), deserialized.getLongCount());
+        assertEquals(stats.getMean(), deserialized.getMean(), 0);
+        assertEquals(stats.getMedian(), deserialized.getMedian(), 0);
+        assertEquals(stats.getPercentile(99), deserialized.getPercentile(99), 0);
+        assertEquals(stats.getDistinctCount(), deserialized.getDistinctCount());
+        // bounded size, independent of the number of values
+        assertTrue(tempFile.length() < 16000);
+    }
+
+    @Test
+    public void testNoValues() {
+        Stats stats = new SketchStats();
+        assertEquals(0, stats.getCount());
+        assertTrue(Double.isNaN(stats.getMax()));
+        assertTrue(Double.isNaN(stats.getMin()));
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertTrue(Double.isNaN(stats.getMedian()));
+        assertTrue(Double.isNaN(stats.getStandardDeviation()));
+        assertEquals(0, stats.getSum(), 0);
+        assertTrue(Double.isNaN(stats.getMse()));
+        assertTrue(Double.isNaN(stats.getRange()));
+    }
+
+}
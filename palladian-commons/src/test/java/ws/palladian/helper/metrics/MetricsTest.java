@@ -0,0 +1,90 @@
+package ws.palladian.helper.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ws.palladian.helper.math.Stats;
+
+public class MetricsTest {
+
+    @After
+    public void tearDown() {
+        Metrics.setRegistry(null);
+    }
+
+    @Test
+    public void testNoOpDefault() {
+        assertSame(NoOpMetricRegistry.INSTANCE, Metrics.getRegistry());
+        // no state, always the same instances
+        assertSame(Metrics.timer("a").time(), Metrics.timer("b").time());
+        assertSame(Metrics.counter("a"), Metrics.counter("b"));
+    }
+
+    @Test
+    public void testSimpleMetricRegistry() {
+        SimpleMetricRegistry registry = new SimpleMetricRegistry();
+        Metrics.setRegistry(registry);
+        String name = Metrics.name(MetricsTest.class, "test");
+        assertEquals("ws.palladian.helper.metrics.MetricsTest.test", name);
+
+        Metrics.counter(name).increment();
+        Metrics.counter(name).increment(2);
+        assertEquals(3, registry.getCount(name));
+        assertEquals(0, registry.getCount("unknown"));
+
+        for (int i = 1; i <= 100; i++) {
+            Metrics.histogram(name).update(i);
+        }
+        Stats histogramStats = registry.getHistogramStats(name);
+        assertEquals(100, histogramStats.getCount());
+        assertEquals(50.5, histogramStats.getMedian(), 0);
+        assertNull(registry.getHistogramStats("unknown"));
+
+        Metrics.timer(name).update(2, TimeUnit.SECONDS);
+        Timer.Context context = Metrics.timer(name).time();
+        context.close();
+        context.close(); // only recorded once
+        Stats timerStats = registry.getTimerStats(name);
+        assertEquals(2, timerStats.getCount());
+        assertEquals(2000, timerStats.getMax(), 0);
+        assertTrue(timerStats.getMin() < 1000);
+
+        assertTrue(registry.toString().contains(name + ": count=3"));
+        registry.clear();
+        assertEquals(0, registry.getCount(name));
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final SimpleMetricRegistry registry = new SimpleMetricRegistry();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        registry.counter("counter").increment();
+                        registry.histogram("histogram").update(i);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, registry.getCount("counter"));
+        assertEquals(40000, registry.getHistogramStats("histogram").getCount());
+    }
+
+}
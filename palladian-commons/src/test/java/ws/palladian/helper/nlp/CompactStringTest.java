@@ -0,0 +1,35 @@
+package ws.palladian.helper.nlp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CompactStringTest {
+
+    @Test
+    public void testCompactString() {
+        CompactString latin1 = CompactString.valueOf("Caf\u00e9");
+        assertEquals(4, latin1.length());
+        assertEquals(4, latin1.getNumBytes());
+        assertEquals('\u00e9', latin1.charAt(3));
+        assertEquals("Caf\u00e9", latin1.toString());
+        assertEquals("Caf\u00e9".hashCode(), latin1.hashCode());
+        assertEquals(latin1, CompactString.valueOf("Caf\u00e9"));
+
+        CompactString utf8 = CompactString.valueOf("\u0141\u00f3d\u017a \ud83d\ude00");
+        assertEquals(7, utf8.length());
+        assertEquals('\u00f3', utf8.charAt(1));
+        assertEquals("\u0141\u00f3d\u017a \ud83d\ude00", utf8.toString());
+        assertEquals("\u0141\u00f3d\u017a \ud83d\ude00".hashCode(), utf8.hashCode());
+        assertEquals(utf8, CompactString.valueOf("\u0141\u00f3d\u017a \ud83d\ude00"));
+
+        assertEquals("", CompactString.valueOf("").toString());
+        assertEquals(Integer.signum("abc".compareTo("abd")),
+                Integer.signum(CompactString.valueOf("abc").compareTo(CompactString.valueOf("abd"))));
+        assertEquals(Integer.signum("\u00ff".compareTo("a")),
+                Integer.signum(CompactString.valueOf("\u00ff").compareTo(CompactString.valueOf("a"))));
+        assertEquals(Integer.signum("\u0141\u00f3d\u017a".compareTo("Caf\u00e9")),
+                Integer.signum(CompactString.valueOf("\u0141\u00f3d\u017a").compareTo(latin1)));
+    }
+
+}
@@ -0,0 +1,38 @@
+package ws.palladian.helper.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class StringInternerTest {
+
+    @Test
+    public void testStringInterner() {
+        StringInterner interner = new StringInterner(3);
+        String string1 = new String("palladian");
+        String string2 = new String("palladian");
+        assertNotSame(string1, string2);
+        assertSame(string1, interner.intern(string1));
+        assertSame(string1, interner.intern(string2));
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+
+        Set<String> strings = interner.internAll(Arrays.asList(new String("palladian"), "toolkit"));
+        assertEquals(2, strings.size());
+        for (String string : strings) {
+            assertSame(interner.intern(new String(string)), string);
+        }
+        assertSame(string1, interner.intern(new String("palladian")));
+
+        interner.clear();
+        assertEquals(0, interner.size());
+        assertSame(string2, interner.intern(string2));
+    }
+
+}
@@ -0,0 +1,164 @@
+package ws.palladian.helper.normalization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.junit.Test;
+
+import ws.palladian.helper.html.HtmlHelper;
+import ws.palladian.helper.nlp.StringHelper;
+
+/**
+ * Test the {@link TextNormalizer}, and that the helper methods which are based on it behave exactly like their previous,
+ * regular expression based implementations (see the <code>legacy</code> methods).
+ */
+public class TextNormalizerTest {
+
+    /** Fragments for creating random texts, with a focus on edge cases. */
+    private static final String[] FRAGMENTS = {"<", ">", "<b>", "</B>", "<!--", "-->", "<!-->", "<script>",
+            "<SCRIPT type=\"x\">", "</script>", "</Script >", "<style>", "</style>", "<scrip", "&", ";", "&amp;",
+            "&AMP;", "&nbsp;", "&#10", "&#10;", "&#x41;", "&#X6a;", "&#-5;", "&#-1;", "&#+66;", "&#65536;", "&#;",
+            "&#x;", "&foo;", "&lt;b&gt;", "&euro;", "&apos;", " ", "  ", "\n", "\r\n", "\t", "\u00a0", "\u2028",
+            "\u2029", "a", "B", "text", "\u00e9", "\u00c4", ".", "!", "?", "\"", "'", ")", "\u2033", "-", "#", "\u00bb",
+            "\u201c", "\u0000", "\u001f"};
+
+    private static final Pattern LEGACY_STRIP_ALL_TAGS = Pattern.compile(
+            "<!--.*?-->|<script.*?>.*?</script>|<style.*?>.*?</style>|<[^<]*?>",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern LEGACY_MULTIPLE_WHITESPACES = Pattern.compile("[ ]{2,}");
+
+    private static String legacyStripHtmlTags(String htmlText, String replacement) {
+        return LEGACY_STRIP_ALL_TAGS.matcher(htmlText).replaceAll(replacement);
+    }
+
+    private static String legacyRemoveControlCharacters(String string) {
+        string = string.replace("\u2028", "\n");
+        string = string.replace("&#10", "\n");
+        for (int i = 0, l = string.length(); i < l; ++i) {
+            if (string.charAt(i) < 33) {
+                string = string.replace(string.charAt(i), ' ');
+            }
+        }
+        return string;
+    }
+
+    private static String legacyRemoveDoubleWhitespaces(String text) {
+        return LEGACY_MULTIPLE_WHITESPACES.matcher(text).replaceAll(" ");
+    }
+
+    private static String legacyTrim(String inputString, String keepCharacters) {
+        String string = inputString.trim();
+        if (string.length() == 0) {
+            return string;
+        }
+        string = StringEscapeUtils.unescapeHtml(string);
+        String[] unwanted = {",", ".", ":", ";", "!", "|", "?", "\u00ac", "\u00a0", "\u00a0", "#", "-", "\'", "\"", "*", "/", "\\", "@", "<", ">", "=", "\u00b7", "^", "_", "+", "\u00bb", "\uffc2", "\u2022", "\u201d", "\u201c", "\u00b4", "`", "\u00af", "~", "\u00ae", "\u2122", "\u25cb"};
+        boolean deleteFirst = true;
+        boolean deleteLast = true;
+        while ((deleteFirst || deleteLast) && !string.isEmpty()) {
+            deleteFirst = false;
+            deleteLast = false;
+            Character first = string.charAt(0);
+            Character last = string.charAt(string.length() - 1);
+            for (String element : unwanted) {
+                if (keepCharacters.contains(element)) {
+                    continue;
+                }
+                if (first == element.charAt(0)
+                        || Character.getType(first) == Character.DIRECTIONALITY_RIGHT_TO_LEFT_EMBEDDING
+                        || Character.isSpaceChar(first)) {
+                    deleteFirst = true;
+                }
+                if (last == element.charAt(0)
+                        || Character.getType(last) == Character.DIRECTIONALITY_RIGHT_TO_LEFT_EMBEDDING
+                        || Character.isSpaceChar(last)) {
+                    deleteLast = true;
+                }
+                if (deleteFirst && deleteLast) {
+                    break;
+                }
+            }
+            if (deleteFirst) {
+                string = string.substring(1);
+            }
+            if (deleteLast && string.length() > 0) {
+                string = string.substring(0, string.length() - 1);
+            }
+            string = string.trim();
+        }
+        return string.trim();
+    }
+
+    private static String legacyCleanKeepFormat(String text, String keepCharacters) {
+        text = legacyStripHtmlTags(text, "");
+        text = StringEscapeUtils.unescapeHtml(text);
+        text = text.replaceAll("\u00A0", " ");
+        text = legacyRemoveDoubleWhitespaces(text);
+        text = legacyTrim(text, keepCharacters);
+        text = text.replace("\u2033", "\"");
+        if (text.startsWith(")")) {
+            text = text.substring(1);
+        }
+        return text;
+    }
+
+    private static String createText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int numFragments = random.nextInt(25);
+        for (int i = 0; i < numFragments; i++) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testEquivalence() {
+        Random random = new Random(1);
+        for (int i = 0; i < 50000; i++) {
+            String text = createText(random);
+            String message = "\"" + StringEscapeUtils.escapeJava(text) + "\"";
+            assertEquals(message, legacyStripHtmlTags(text, ""), HtmlHelper.stripHtmlTags(text));
+            assertEquals(message, legacyStripHtmlTags(text, " "), HtmlHelper.stripHtmlTags(text, " "));
+            assertEquals(message, StringEscapeUtils.unescapeHtml(text), TextNormalizer.DECODE_ENTITIES.normalize(text));
+            assertEquals(message, legacyRemoveControlCharacters(text), StringHelper.removeControlCharacters(text));
+            assertEquals(message, legacyRemoveDoubleWhitespaces(text), StringHelper.removeDoubleWhitespaces(text));
+            assertEquals(message, legacyTrim(text, ""), StringHelper.trim(text));
+            assertEquals(message, legacyTrim(text, ".?!"), StringHelper.trim(text, ".?!"));
+            assertEquals(message, legacyCleanKeepFormat(text, "\"."), StringHelper.cleanKeepFormat(text, "\"."));
+            assertEquals(message, legacyCleanKeepFormat(legacyRemoveControlCharacters(text), ".?!\u201c\u201d\""),
+                    StringHelper.clean(text));
+        }
+    }
+
+    @Test
+    public void testEntities() {
+        String[] entities = {"&quot;", "&amp;", "&lt;", "&gt;", "&nbsp;", "&auml;", "&Auml;", "&szlig;", "&euro;",
+                "&hellip;", "&mdash;", "&rsquo;", "&thetasym;", "&yuml;", "&Yuml;", "&apos;", "&Amp;", "&#8217;",
+                "&#x2019;", "&#xFFFF;", "&#x10000;", "&#2147483648;", "&#-2147483648;", "&#\u0665\u0666;"};
+        for (String entity : entities) {
+            assertEquals(entity, StringEscapeUtils.unescapeHtml(entity), TextNormalizer.DECODE_ENTITIES.normalize(entity));
+        }
+    }
+
+    @Test
+    public void testNormalize() {
+        TextNormalizer normalizer = new TextNormalizer.Builder().replaceControlCharacters().stripTags(" ")
+                .decodeEntities().replaceProtectedSpaces().collapseSpaces().lowerCase().create();
+        assertEquals(" caf\u00e9 & cr\u00e8me br\u00fbl\u00e9e ",
+                normalizer.normalize("<p>Caf&eacute; &amp;&nbsp;<b>Cr\u00e8me</b>\nBR\u00dbL\u00c9E</p>"));
+
+        StringBuilder builder = new StringBuilder("text: ");
+        assertSame(builder, TextNormalizer.STRIP_TAGS.normalize("<i>hello</i> world", builder));
+        assertEquals("text: hello world", builder.toString());
+
+        // nothing to do, the same instance is returned
+        String text = "nothing to normalize here";
+        assertSame(text, TextNormalizer.CLEAN.normalize(text));
+    }
+
+}
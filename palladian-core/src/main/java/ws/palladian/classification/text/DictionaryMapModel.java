@@ -1,5 +1,6 @@
 package ws.palladian.classification.text;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -13,8 +14,17 @@ import org.apache.commons.lang3.Validate;
 
 import ws.palladian.core.CategoryEntries;
 import ws.palladian.helper.collection.AbstractIterator2;
+import ws.palladian.helper.nlp.CompactString;
+import ws.palladian.helper.nlp.StringInterner;
 import java.util.function.Predicate;
 
+/**
+ * <p>
+ * A {@link DictionaryModel} which keeps the terms in a hash map. Optionally, the terms can be stored as
+ * {@link CompactString}s, which need about half the memory for Latin-1 text, at the expense of a conversion for each
+ * lookup (see {@link Builder#setCompactTerms(boolean)}).
+ * </p>
+ */
 public class DictionaryMapModel extends AbstractDictionaryModel {
 
 	private static final long serialVersionUID = 1L;
@@ -22,7 +32,8 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 	public static final class Builder implements DictionaryBuilder {
 		private String name;
 		private FeatureSetting featureSetting;
-		private Map<String, LinkedCategoryEntries> dictionary = new HashMap<>();
+		private Map<Object, LinkedCategoryEntries> dictionary = new HashMap<>();
+		private boolean compactTerms;
 		/** Counter for categories based on documents. */
 		private final CountingCategoryEntriesBuilder documentCountBuilder = new CountingCategoryEntriesBuilder();
 		/** Counter for categories based on terms. */
@@ -45,6 +56,18 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 			return this;
 		}
 
+		/**
+		 * Store the terms as {@link CompactString}s instead of {@link String}s.
+		 * 
+		 * @param compactTerms <code>true</code> to store compact terms.
+		 * @return The builder.
+		 */
+		public Builder setCompactTerms(boolean compactTerms) {
+			Validate.validState(dictionary.isEmpty(), "must be set before adding documents");
+			this.compactTerms = compactTerms;
+			return this;
+		}
+
 		@Override
 		public DictionaryBuilder addDocument(Collection<String> terms, String category) {
 			return addDocument(terms, category, 1);
@@ -53,10 +76,11 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 		@Override
 		public DictionaryBuilder addDocument(Collection<String> terms, String category, int weight) {
 			for (String term : terms) {
-				LinkedCategoryEntries categoryEntries = dictionary.get(term);
+				Object key = compactTerms ? CompactString.valueOf(term) : term;
+				LinkedCategoryEntries categoryEntries = dictionary.get(key);
 				if (categoryEntries == null) {
 					categoryEntries = new LinkedCategoryEntries();
-					dictionary.put(term, categoryEntries);
+					dictionary.put(key, categoryEntries);
 				}
 				categoryEntries.increment(category, weight);
 				termCountBuilder.add(category, weight);
@@ -79,7 +103,9 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 
 	private transient String name;
 	private transient FeatureSetting featureSetting;
-	private transient Map<String, LinkedCategoryEntries> dictionary;
+	/** The terms, either as {@link String} or {@link CompactString} keys. */
+	private transient Map<Object, LinkedCategoryEntries> dictionary;
+	private transient boolean compactTerms;
 	private transient CategoryEntries documentCounts;
 	private transient CategoryEntries termCounts;
 
@@ -88,6 +114,7 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 		this.name = builder.name;
 		this.featureSetting = builder.featureSetting;
 		this.dictionary = builder.dictionary;
+		this.compactTerms = builder.compactTerms;
 		this.documentCounts = builder.documentCountBuilder.create();
 		this.termCounts = builder.termCountBuilder.create();
 	}
@@ -105,7 +132,7 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 	@Override
 	public CategoryEntries getCategoryEntries(String term) {
 		Validate.notNull(term, "term must not be null");
-		LinkedCategoryEntries entries = dictionary.get(term);
+		LinkedCategoryEntries entries = dictionary.get(compactTerms ? CompactString.valueOf(term) : term);
 		return entries != null ? entries : CategoryEntries.EMPTY;
 	}
 
@@ -127,13 +154,13 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 	@Override
 	public Iterator<DictionaryEntry> iterator() {
 		return new AbstractIterator2<DictionaryEntry>() {
-			final Iterator<Entry<String, LinkedCategoryEntries>> it = dictionary.entrySet().iterator();
+			final Iterator<Entry<Object, LinkedCategoryEntries>> it = dictionary.entrySet().iterator();
 
 			@Override
 			protected DictionaryEntry getNext() {
 				if (it.hasNext()) {
-					Entry<String, LinkedCategoryEntries> entry = it.next();
-					return new ImmutableDictionaryEntry(entry.getKey(), entry.getValue());
+					Entry<Object, LinkedCategoryEntries> entry = it.next();
+					return new ImmutableDictionaryEntry(entry.getKey().toString(), entry.getValue());
 				}
 				return finished();
 			}
@@ -149,8 +176,12 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 	// of existing models still works (we keep a serialized form of each version
 	// from now on for the tests).
 
+	// The compact flag is appended after the common data, so that models which were
+	// serialized before it was introduced can still be read.
+
 	private void writeObject(ObjectOutputStream out) throws IOException {
 		writeObject_(out);
+		out.writeBoolean(compactTerms);
 	}
 
 	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
@@ -165,7 +196,7 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 		int numCategories = in.readInt();
 		CountingCategoryEntriesBuilder documentCountBuilder = new CountingCategoryEntriesBuilder();
 		for (int i = 0; i < numCategories; i++) {
-			String categoryName = (String) in.readObject();
+			String categoryName = StringInterner.SHARED.intern((String) in.readObject());
 			int categoryCount = in.readInt();
 			documentCountBuilder.set(categoryName, categoryCount);
 			categoryIndices.put(i, categoryName);
@@ -191,6 +222,19 @@ public class DictionaryMapModel extends AbstractDictionaryModel {
 		featureSetting = (FeatureSetting) in.readObject();
 		// name
 		name = (String) in.readObject();
+		// compact terms
+		try {
+			compactTerms = in.readBoolean();
+		} catch (EOFException e) {
+			compactTerms = false;
+		}
+		if (compactTerms) {
+			Map<Object, LinkedCategoryEntries> compactDictionary = new HashMap<>();
+			for (Entry<Object, LinkedCategoryEntries> entry : dictionary.entrySet()) {
+				compactDictionary.put(CompactString.valueOf((String) entry.getKey()), entry.getValue());
+			}
+			dictionary = compactDictionary;
+		}
 	}
 
 }
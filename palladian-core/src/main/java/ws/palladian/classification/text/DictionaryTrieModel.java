@@ -19,6 +19,7 @@ import ws.palladian.core.Category;
 import ws.palladian.core.CategoryEntries;
 import ws.palladian.helper.collection.AbstractIterator2;
 import ws.palladian.helper.collection.Trie;
+import ws.palladian.helper.nlp.StringInterner;
 import java.util.function.Predicate;
 
 /**
@@ -269,7 +270,7 @@ public final class DictionaryTrieModel extends AbstractDictionaryModel {
         int numCategories = in.readInt();
         CountingCategoryEntriesBuilder documentCountBuilder = new CountingCategoryEntriesBuilder();
         for (int i = 0; i < numCategories; i++) {
-            String categoryName = (String)in.readObject();
+            String categoryName = StringInterner.SHARED.intern((String)in.readObject());
             int categoryCount = in.readInt();
             documentCountBuilder.set(categoryName, categoryCount);
             categoryIndices.put(i, categoryName);
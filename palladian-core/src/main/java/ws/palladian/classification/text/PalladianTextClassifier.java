@@ -19,6 +19,8 @@ import ws.palladian.core.InstanceBuilder;
 import ws.palladian.core.dataset.Dataset;
 import ws.palladian.core.value.TextValue;
 import ws.palladian.helper.collection.Bag;
+import ws.palladian.helper.metrics.Metrics;
+import ws.palladian.helper.metrics.Timer;
 import java.util.function.Function;
 
 /**
@@ -136,6 +138,13 @@ public class PalladianTextClassifier extends AbstractLearner<DictionaryModel> im
     
     public static final Scorer DEFAULT_SCORER = new DefaultScorer();
 
+    /** Names of the metrics, see {@link Metrics}. */
+    private static final String TRAIN_TIMER = Metrics.name(PalladianTextClassifier.class, "train");
+    private static final String TRAIN_DOCUMENTS = Metrics.name(PalladianTextClassifier.class, "train", "documents");
+    private static final String CLASSIFY_TIMER = Metrics.name(PalladianTextClassifier.class, "classify");
+    private static final String CLASSIFY_TERMS = Metrics.name(PalladianTextClassifier.class, "classify", "terms");
+    private static final String ERRORS = Metrics.name(PalladianTextClassifier.class, "errors");
+
     private final DictionaryBuilder dictionaryBuilder;
 
     private final FeatureSetting featureSetting;
@@ -194,23 +203,46 @@ public class PalladianTextClassifier extends AbstractLearner<DictionaryModel> im
     @Override
     public DictionaryModel train(Dataset dataset) {
         Validate.notNull(dataset, "dataset must not be null");
-        for (Instance instance : dataset) {
-            String targetClass = instance.getCategory();
-            TextValue textValue = (TextValue)instance.getVector().get(VECTOR_TEXT_IDENTIFIER);
-            Iterator<String> iterator = preprocessor.apply(textValue.getText());
-            Collection<String> terms = new HashSet<>();
-            while (iterator.hasNext() && terms.size() < featureSetting.getMaxTerms()) {
-                terms.add(iterator.next());
+        Timer.Context context = Metrics.timer(TRAIN_TIMER).time();
+        try {
+            int numDocuments = 0;
+            for (Instance instance : dataset) {
+                String targetClass = instance.getCategory();
+                TextValue textValue = (TextValue)instance.getVector().get(VECTOR_TEXT_IDENTIFIER);
+                Iterator<String> iterator = preprocessor.apply(textValue.getText());
+                Collection<String> terms = new HashSet<>();
+                while (iterator.hasNext() && terms.size() < featureSetting.getMaxTerms()) {
+                    terms.add(iterator.next());
+                }
+                dictionaryBuilder.addDocument(terms, targetClass, instance.getWeight());
+                numDocuments++;
             }
-            dictionaryBuilder.addDocument(terms, targetClass, instance.getWeight());
+            Metrics.counter(TRAIN_DOCUMENTS).increment(numDocuments);
+            return dictionaryBuilder.create();
+        } catch (RuntimeException e) {
+            Metrics.counter(ERRORS).increment();
+            throw e;
+        } finally {
+            context.close();
         }
-        return dictionaryBuilder.create();
     }
 
     @Override
     public CategoryEntries classify(FeatureVector featureVector, DictionaryModel model) {
         Validate.notNull(featureVector, "featureVector must not be null");
         Validate.notNull(model, "model must not be null");
+        Timer.Context context = Metrics.timer(CLASSIFY_TIMER).time();
+        try {
+            return classifyInternal(featureVector, model);
+        } catch (RuntimeException e) {
+            Metrics.counter(ERRORS).increment();
+            throw e;
+        } finally {
+            context.close();
+        }
+    }
+
+    private CategoryEntries classifyInternal(FeatureVector featureVector, DictionaryModel model) {
         CategoryEntriesBuilder builder = new CategoryEntriesBuilder();
         TextValue textValue = (TextValue)featureVector.get(VECTOR_TEXT_IDENTIFIER);
         Iterator<String> iterator = preprocessor.apply(textValue.getText());
@@ -218,6 +250,7 @@ public class PalladianTextClassifier extends AbstractLearner<DictionaryModel> im
         while (iterator.hasNext() && termCounts.uniqueItems().size() < featureSetting.getMaxTerms()) {
             termCounts.add(iterator.next());
         }
+        Metrics.histogram(CLASSIFY_TERMS).update(termCounts.uniqueItems().size());
         final CategoryEntries termSums = model.getTermCounts();
         final int numUniqueTerms = model.getNumUniqTerms();
         final int numDocs = model.getNumDocuments();
@@ -28,7 +28,7 @@ import ws.palladian.helper.collection.CollectionHelper;
 import ws.palladian.helper.io.CloseableIterator;
 import ws.palladian.helper.io.CsvReader;
 import ws.palladian.helper.io.FileHelper;
-import ws.palladian.helper.nlp.StringPool;
+import ws.palladian.helper.nlp.StringInterner;
 
 /**
  * <p>
@@ -140,7 +140,7 @@ public class CsvDatasetReader extends AbstractDataset {
             	if (config.isTrim()) {
             		value = value.trim();
             	}
-				targetClass = stringPool.get(value);
+				targetClass = StringInterner.SHARED.intern(value);
 			} else {
 				targetClass = Instance.NO_CATEGORY_DUMMY;
 			}
@@ -166,9 +166,6 @@ public class CsvDatasetReader extends AbstractDataset {
     
     private final int expectedColumns;
 
-    /** Save some memory when reading datasets with nominal values. */
-    private final StringPool stringPool = new StringPool();
-    
     /** The parsers to use; they are auto-detected from the first line, in case not explicitly specified. */
     private final ValueParser[] parsers;
 	
@@ -4,15 +4,14 @@ import java.util.Locale;
 
 import ws.palladian.core.dataset.statistics.DatasetStatistics.ValueStatistics;
 import ws.palladian.core.value.NumericValue;
-import ws.palladian.helper.math.SlimStats;
-import ws.palladian.helper.math.Stats;
+import ws.palladian.helper.math.SketchStats;
 
 public class NumericValueStatistics implements ValueStatistics {
 
 	public static class NumericValueStatisticsBuilder
 			extends AbstractValueStatisticsBuilder<NumericValue, NumericValueStatistics> {
 
-		private final SlimStats stats = new SlimStats();
+		private final SketchStats stats = new SketchStats();
 
 		public NumericValueStatisticsBuilder() {
 			super(NumericValue.class);
@@ -30,11 +29,11 @@ public class NumericValueStatistics implements ValueStatistics {
 	}
 
 	private final int numNullValues;
-	private final Stats stats;
+	private final SketchStats stats;
 
 	protected NumericValueStatistics(NumericValueStatisticsBuilder builder) {
 		numNullValues = builder.getNumNullValues();
-		stats = new SlimStats(builder.stats);
+		stats = new SketchStats(builder.stats);
 	}
 
 	@Override
@@ -58,6 +57,28 @@ public class NumericValueStatistics implements ValueStatistics {
 		return stats.getMax();
 	}
 
+	/**
+	 * @return The (approximate) median.
+	 */
+	public double getMedian() {
+		return stats.getMedian();
+	}
+
+	/**
+	 * @param p The percentile, in range [0,100].
+	 * @return The (approximate) percentile.
+	 */
+	public double getPercentile(int p) {
+		return stats.getPercentile(p);
+	}
+
+	/**
+	 * @return The estimated number of distinct values.
+	 */
+	public long getNumDistinctValues() {
+		return stats.getDistinctCount();
+	}
+
 	@Override
 	public String toString() {
 		return String.format(Locale.US, "mean=%.2f, stdDev=%.2f, min=%.2f, max=%.2f, numNullValues=%s", getMean(),
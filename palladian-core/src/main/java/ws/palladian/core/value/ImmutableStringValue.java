@@ -7,6 +7,7 @@ import org.apache.commons.lang3.Validate;
 
 import ws.palladian.core.value.io.AbstractValueParser;
 import ws.palladian.core.value.io.ValueParser;
+import ws.palladian.helper.nlp.StringInterner;
 
 public final class ImmutableStringValue extends AbstractValue implements NominalValue {
 	
@@ -36,7 +37,8 @@ public final class ImmutableStringValue extends AbstractValue implements Nominal
     	}
     	ImmutableStringValue value = CACHE.get(string);
     	if (value == null) {
-    		final ImmutableStringValue newValue = new ImmutableStringValue(string);
+    		// the cache is cleared regularly, make sure that the strings are shared nonetheless
+    		final ImmutableStringValue newValue = new ImmutableStringValue(StringInterner.SHARED.intern(string));
     		value = CACHE.putIfAbsent(string, newValue);
     		if (value == null) {
     			value = newValue;
@@ -0,0 +1,297 @@
+package ws.palladian.extraction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.core.Annotation;
+import ws.palladian.core.ImmutableAnnotation;
+import ws.palladian.core.Tagger;
+
+/**
+ * <p>
+ * Compiled multi-pattern matcher for dictionaries of (multi-token) entries, implemented as an Aho-Corasick automaton
+ * over token sequences. In contrast to running one search per dictionary entry, all entries are found in one linear
+ * pass over the text, independent of the dictionary's size.
+ * </p>
+ *
+ * <p>
+ * Text and dictionary entries are split into tokens, where a token is either a maximal sequence of letters, digits and
+ * underscores, or a single other non-whitespace character. An entry matches, if its token sequence occurs in the text,
+ * where tokens which are written without whitespace in the entry (e.g. "U.S.") must also be written without whitespace
+ * in the text, and the match is not part of a longer word. Differences in the amount of whitespace are ignored.
+ * </p>
+ *
+ * <p>
+ * {@link #getAnnotations(String)} returns <b>all</b> matches, including overlapping ones. Instances are immutable and
+ * can be shared between threads.
+ * </p>
+ */
+public final class DictionaryAutomaton implements Tagger {
+
+    /** Marker for states without associated dictionary entry. */
+    private static final int NO_ENTRY = -1;
+
+    /** Mapping from (normalized) token values to their ids. */
+    private final Map<String, Integer> vocabulary;
+
+    /** Token ids of outgoing transitions per state, sorted ascending. */
+    private final int[][] transitionTokens;
+
+    /** Target states of outgoing transitions per state, aligned with {@link #transitionTokens}. */
+    private final int[][] transitionTargets;
+
+    /** Failure link per state. */
+    private final int[] failure;
+
+    /** Index of the entry which ends in the state, or {@link #NO_ENTRY}. */
+    private final int[] entryAtState;
+
+    /** Next state on the failure path which has an entry, or zero. */
+    private final int[] outputLink;
+
+    /** Number of tokens per entry. */
+    private final int[] entryLengths;
+
+    /** Whitespace flags per entry; <code>true</code> means, a token directly follows its predecessor. */
+    private final boolean[][] entryAttached;
+
+    /** Tag per entry. */
+    private final String[] entryTags;
+
+    private final boolean caseSensitive;
+
+    /**
+     * Create a new automaton.
+     *
+     * @param dictionary The dictionary, mapping entries to their tags, not <code>null</code>. In case several entries
+     *            are equal after normalization (i.e. lower casing, if not case sensitive), the first one is kept.
+     * @param caseSensitive <code>true</code> to match case sensitively.
+     */
+    public DictionaryAutomaton(Map<String, String> dictionary, boolean caseSensitive) {
+        Validate.notNull(dictionary, "dictionary must not be null");
+        this.caseSensitive = caseSensitive;
+        this.vocabulary = new HashMap<>();
+
+        List<Map<Integer, Integer>> goTo = new ArrayList<>();
+        goTo.add(new HashMap<Integer, Integer>());
+        List<Integer> entries = new ArrayList<>();
+        entries.add(NO_ENTRY);
+        List<Integer> lengths = new ArrayList<>();
+        List<boolean[]> attached = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+
+        for (Entry<String, String> dictionaryEntry : dictionary.entrySet()) {
+            List<int[]> tokens = tokenize(dictionaryEntry.getKey());
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            boolean[] attachedFlags = new boolean[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                int[] token = tokens.get(i);
+                String value = normalize(dictionaryEntry.getKey().substring(token[0], token[1]));
+                Integer tokenId = vocabulary.get(value);
+                if (tokenId == null) {
+                    tokenId = vocabulary.size();
+                    vocabulary.put(value, tokenId);
+                }
+                attachedFlags[i] = i > 0 && token[0] == tokens.get(i - 1)[1];
+                Integer next = goTo.get(state).get(tokenId);
+                if (next == null) {
+                    next = goTo.size();
+                    goTo.add(new HashMap<Integer, Integer>());
+                    entries.add(NO_ENTRY);
+                    goTo.get(state).put(tokenId, next);
+                }
+                state = next;
+            }
+            if (entries.get(state) == NO_ENTRY) {
+                entries.set(state, tags.size());
+                lengths.add(tokens.size());
+                attached.add(attachedFlags);
+                tags.add(dictionaryEntry.getValue());
+            }
+        }
+
+        int numStates = goTo.size();
+        this.transitionTokens = new int[numStates][];
+        this.transitionTargets = new int[numStates][];
+        for (int state = 0; state < numStates; state++) {
+            Map<Integer, Integer> transitions = goTo.get(state);
+            int[] tokens = new int[transitions.size()];
+            int index = 0;
+            for (Integer token : transitions.keySet()) {
+                tokens[index++] = token;
+            }
+            Arrays.sort(tokens);
+            int[] targets = new int[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                targets[i] = transitions.get(tokens[i]);
+            }
+            transitionTokens[state] = tokens;
+            transitionTargets[state] = targets;
+        }
+        this.entryAtState = new int[numStates];
+        for (int state = 0; state < numStates; state++) {
+            entryAtState[state] = entries.get(state);
+        }
+        this.entryLengths = new int[lengths.size()];
+        for (int i = 0; i < lengths.size(); i++) {
+            entryLengths[i] = lengths.get(i);
+        }
+        this.entryAttached = attached.toArray(new boolean[attached.size()][]);
+        this.entryTags = tags.toArray(new String[tags.size()]);
+
+        // breadth first traversal to compute the failure and output links
+        this.failure = new int[numStates];
+        this.outputLink = new int[numStates];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int target : transitionTargets[0]) {
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] tokens = transitionTokens[state];
+            int[] targets = transitionTargets[state];
+            for (int i = 0; i < tokens.length; i++) {
+                int target = targets[i];
+                int fallback = failure[state];
+                int next;
+                while ((next = transition(fallback, tokens[i])) == NO_ENTRY && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[target] = next == NO_ENTRY || next == target ? 0 : next;
+                outputLink[target] = entryAtState[failure[target]] != NO_ENTRY ? failure[target]
+                        : outputLink[failure[target]];
+                queue.add(target);
+            }
+        }
+    }
+
+    /**
+     * Get the state reached from the given state with the given token.
+     *
+     * @return The target state, or {@link #NO_ENTRY} in case there is no transition.
+     */
+    private int transition(int state, int tokenId) {
+        int index = Arrays.binarySearch(transitionTokens[state], tokenId);
+        return index >= 0 ? transitionTargets[state][index] : NO_ENTRY;
+    }
+
+    private String normalize(String token) {
+        return caseSensitive ? token : token.toLowerCase();
+    }
+
+    private static boolean isWordCharacter(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_';
+    }
+
+    /**
+     * Split a text into tokens.
+     *
+     * @param text The text.
+     * @return List with start and end offsets of the tokens.
+     */
+    static List<int[]> tokenize(String text) {
+        List<int[]> tokens = new ArrayList<>();
+        int length = text.length();
+        int index = 0;
+        while (index < length) {
+            char ch = text.charAt(index);
+            if (Character.isWhitespace(ch)) {
+                index++;
+            } else if (isWordCharacter(ch)) {
+                int start = index;
+                while (index < length && isWordCharacter(text.charAt(index))) {
+                    index++;
+                }
+                tokens.add(new int[] { start, index });
+            } else {
+                tokens.add(new int[] { index, index + 1 });
+                index++;
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public List<Annotation> getAnnotations(String text) {
+        Validate.notNull(text, "text must not be null");
+        List<Annotation> annotations = new ArrayList<>();
+        if (entryTags.length == 0) {
+            return annotations;
+        }
+        List<int[]> tokens = tokenize(text);
+        int state = 0;
+        for (int tokenIndex = 0; tokenIndex < tokens.size(); tokenIndex++) {
+            int[] token = tokens.get(tokenIndex);
+            Integer tokenId = vocabulary.get(normalize(text.substring(token[0], token[1])));
+            if (tokenId == null) {
+                state = 0;
+                continue;
+            }
+            int next;
+            while ((next = transition(state, tokenId)) == NO_ENTRY && state != 0) {
+                state = failure[state];
+            }
+            state = next == NO_ENTRY ? 0 : next;
+            for (int current = state; current != 0; current = outputLink[current]) {
+                int entry = entryAtState[current];
+                if (entry != NO_ENTRY) {
+                    Annotation annotation = createAnnotation(text, tokens, tokenIndex, entry);
+                    if (annotation != null) {
+                        annotations.add(annotation);
+                    }
+                }
+            }
+        }
+        return annotations;
+    }
+
+    private Annotation createAnnotation(String text, List<int[]> tokens, int lastToken, int entry) {
+        int firstToken = lastToken - entryLengths[entry] + 1;
+        boolean[] attached = entryAttached[entry];
+        for (int i = 1; i < attached.length; i++) {
+            boolean textAttached = tokens.get(firstToken + i)[0] == tokens.get(firstToken + i - 1)[1];
+            if (attached[i] != textAttached) {
+                return null;
+            }
+        }
+        int start = tokens.get(firstToken)[0];
+        int end = tokens.get(lastToken)[1];
+        // do not match within words, e.g. "U.S." in "U.S.A"
+        if (start > 0 && isWordCharacter(text.charAt(start - 1)) && !isWordCharacter(text.charAt(start))) {
+            return null;
+        }
+        if (end < text.length() && isWordCharacter(text.charAt(end)) && !isWordCharacter(text.charAt(end - 1))) {
+            return null;
+        }
+        return new ImmutableAnnotation(start, text.substring(start, end), entryTags[entry]);
+    }
+
+    /**
+     * @return The number of entries in this automaton.
+     */
+    public int size() {
+        return entryTags.length;
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryAutomaton [size=" + entryTags.length + ", states=" + failure.length + ", caseSensitive="
+                + caseSensitive + "]";
+    }
+
+}
@@ -5,19 +5,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import ws.palladian.core.Annotation;
-import ws.palladian.core.ImmutableAnnotation;
 import ws.palladian.core.Tagger;
 import ws.palladian.extraction.entity.Annotations;
 
 /**
- * Annotates a text based on a given dictionary.
+ * Annotates a text based on a given dictionary. The dictionary is compiled into a {@link DictionaryAutomaton}, so that
+ * tagging takes one pass over the text, independent of the dictionary's size. Nested matches are removed, i.e. the
+ * longest match wins.
  * 
  * @author Philipp Katz
  */
@@ -27,6 +26,8 @@ public class DictionaryTagger implements Tagger {
 
     private final boolean caseSensitive;
 
+    private final DictionaryAutomaton automaton;
+
     public DictionaryTagger(Set<String> dictionary) {
         this(dictionary, StringUtils.EMPTY);
     }
@@ -39,31 +40,29 @@ public class DictionaryTagger implements Tagger {
             this.dictionary.put(entry, tagName);
         }
         this.caseSensitive = false;
+        this.automaton = createAutomaton(this.dictionary, caseSensitive);
     }
 
     public DictionaryTagger(Map<String, String> dictionary, boolean caseSensitive) {
         Validate.notNull(dictionary, "dictionary must not be null");
         this.dictionary = new LinkedHashMap<String, String>(dictionary);
         this.caseSensitive = caseSensitive;
+        this.automaton = createAutomaton(this.dictionary, caseSensitive);
     }
 
-    @Override
-    public List<Annotation> getAnnotations(String text) {
-        Annotations<Annotation> annotations = new Annotations<Annotation>();
-        int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
+    private static DictionaryAutomaton createAutomaton(Map<String, String> dictionary, boolean caseSensitive) {
+        Map<String, String> entries = new LinkedHashMap<>();
         for (Entry<String, String> dictionaryEntry : dictionary.entrySet()) {
-            String dictionaryString = dictionaryEntry.getKey();
-            if (dictionaryString.length() > 1) {
-                String tagName = dictionaryEntry.getValue();
-                String patternString = "(?<!\\w)" + Pattern.quote(dictionaryString) + "(?!\\w)";
-                Pattern pattern = Pattern.compile(patternString, flags);
-                Matcher matcher = pattern.matcher(text);
-                while (matcher.find()) {
-                    Annotation annotation = new ImmutableAnnotation(matcher.start(), matcher.group(), tagName);
-                    annotations.add(annotation);
-                }
+            if (dictionaryEntry.getKey().length() > 1) {
+                entries.put(dictionaryEntry.getKey(), dictionaryEntry.getValue());
             }
         }
+        return new DictionaryAutomaton(entries, caseSensitive);
+    }
+
+    @Override
+    public List<Annotation> getAnnotations(String text) {
+        Annotations<Annotation> annotations = new Annotations<Annotation>(automaton.getAnnotations(text));
         annotations.removeNested();
         return annotations;
     }
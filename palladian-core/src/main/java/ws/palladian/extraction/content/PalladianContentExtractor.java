@@ -1,16 +1,30 @@
 package ws.palladian.extraction.content;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 
+import nu.validator.htmlparser.common.XmlViolationPolicy;
+import nu.validator.htmlparser.sax.HtmlParser;
+
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
+import ws.palladian.extraction.content.TextBlockHandler.ImageCandidate;
+import ws.palladian.extraction.content.TextBlockHandler.TextBlock;
 import ws.palladian.extraction.date.PageDateType;
 import ws.palladian.extraction.date.WebPageDateEvaluator;
 import ws.palladian.extraction.multimedia.ImageHandler;
@@ -25,6 +39,7 @@ import ws.palladian.helper.io.FileHelper;
 import ws.palladian.helper.math.MathHelper;
 import ws.palladian.helper.nlp.StringHelper;
 import ws.palladian.retrieval.DocumentRetriever;
+import ws.palladian.retrieval.HttpResult;
 import ws.palladian.retrieval.ImageSizeComparator;
 import ws.palladian.retrieval.PageAnalyzer;
 import ws.palladian.retrieval.XPathSet;
@@ -105,6 +120,17 @@ public class PalladianContentExtractor extends WebPageContentExtractor {
 
     private List<WebImage> imageUrls;
 
+    /**
+     * Whether to process documents given as file or HTTP result in streaming mode, see
+     * {@link #setDocumentStreaming(InputSource)}.
+     */
+    private boolean streaming = false;
+
+    /**
+     * The title determined in streaming mode.
+     */
+    private String streamingResultTitle;
+
     static {
         MAIN_NODE_HINTS.add("articleText");
         MAIN_NODE_HINTS.add("article_body");
@@ -149,7 +175,150 @@ public class PalladianContentExtractor extends WebPageContentExtractor {
         mainContentHtml = "";
         mainContentText = "";
         fullTextContent = "";
+        streamingResultTitle = null;
+
+        return this;
+    }
+
+    /**
+     * <p>
+     * Enable or disable the streaming mode for documents which are given as {@link File}, {@link HttpResult}, URL, or
+     * location string. See {@link #setDocumentStreaming(InputSource)} for details.
+     * </p>
+     *
+     * @param streaming <code>true</code> to enable streaming mode.
+     * @return This instance.
+     */
+    public PalladianContentExtractor setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    @Override
+    public WebPageContentExtractor setDocument(HttpResult httpResult) throws PageContentExtractorException {
+        if (!streaming) {
+            return super.setDocument(httpResult);
+        }
+        InputSource inputSource = new InputSource(new ByteArrayInputStream(httpResult.getContent()));
+        inputSource.setSystemId(httpResult.getUrl());
+        String charset = httpResult.getCharset();
+        try {
+            if (charset != null && Charset.isSupported(charset)) {
+                inputSource.setEncoding(charset);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Unsupported charset {}", charset);
+        }
+        return setDocumentStreaming(inputSource);
+    }
+
+    @Override
+    public WebPageContentExtractor setDocument(File file) throws PageContentExtractorException {
+        if (!streaming) {
+            return super.setDocument(file);
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            InputSource inputSource = new InputSource(inputStream);
+            inputSource.setSystemId(file.toURI().toString());
+            return setDocumentStreaming(inputSource);
+        } catch (IOException e) {
+            throw new PageContentExtractorException("error reading the file " + file, e);
+        }
+    }
+
+    /**
+     * <p>
+     * Process a document in streaming mode. In contrast to {@link #setDocument(Document)}, no DOM is built; instead, the
+     * HTML is split into text blocks in one SAX pass and each block is classified as content or boilerplate based on
+     * its text density and link density. This needs considerably less memory and time, but the result is only
+     * available as text ({@link #getResultText()}, {@link #getSentences()}, {@link #getComments()},
+     * {@link #getEntireTextContent()}), images ({@link #getImages()}) and title ({@link #getResultTitle()}); the
+     * {@link #getResultNode()} and {@link #getDocument()} are <code>null</code> and methods which need the DOM (e.g.
+     * {@link #getPublishDate()}, {@link #detectLanguage()}, {@link #getDominantImage()}) are not available.
+     * </p>
+     *
+     * @param inputSource The input source with the HTML; the system ID is used for resolving relative image URLs.
+     * @return This instance.
+     * @throws PageContentExtractorException In case the document could not be read.
+     */
+    public PalladianContentExtractor setDocumentStreaming(InputSource inputSource) throws PageContentExtractorException {
+        setDocumentOnly(null);
+        TextBlockHandler handler = new TextBlockHandler();
+        try {
+            HtmlParser parser = new HtmlParser(XmlViolationPolicy.ALLOW);
+            parser.setContentHandler(handler);
+            parser.parse(inputSource);
+        } catch (SAXException | IOException e) {
+            throw new PageContentExtractorException("error parsing the document " + inputSource.getSystemId(), e);
+        }
+        List<TextBlock> blocks = handler.getBlocks();
+        TextBlockHandler.classify(blocks);
+
+        int[] mainRegion = TextBlockHandler.getMainRegion(blocks);
+        if (mainRegion == null) {
+            mainRegion = new int[] {-1, -1};
+        }
+        StringBuilder fullText = new StringBuilder();
+        StringBuilder cleanText = new StringBuilder();
+        StringBuilder contentText = new StringBuilder();
+        for (int i = 0; i < blocks.size(); i++) {
+            TextBlock block = blocks.get(i);
+            fullText.append(block.getText()).append('\n');
+            if (!block.isBoilerplate() && !block.isComment()) {
+                cleanText.append(block.getText()).append('\n');
+            }
+            if (block.isContent() && i >= mainRegion[0] && i <= mainRegion[1]) {
+                contentText.append(block.getText()).append("\n\n");
+            }
+        }
+        fullTextContent = fullText.toString();
+        sentences = Tokenizer.getSentences(cleanText.toString(), true);
+        comments = new ArrayList<>(handler.getComments());
+
+        // if we didn't get clean text, take the whole text
+        mainContentText = contentText.toString();
+        if (mainContentText.trim().length() < 100) {
+            mainContentText = cleanText.toString();
+        }
+        if (mainContentText.trim().length() < 100) {
+            mainContentText = fullTextContent;
+        }
+
+        // take the images within the main content region, or all images, if there are none
+        String baseUrl = StringUtils.defaultString(handler.getBaseUrl());
+        List<ImageCandidate> candidates = new ArrayList<>();
+        for (ImageCandidate candidate : handler.getImages()) {
+            if (candidate.getBlockIndex() >= mainRegion[0]
+                    && candidate.getBlockIndex() <= mainRegion[1]) {
+                candidates.add(candidate);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(handler.getImages());
+        }
+        imageUrls = new ArrayList<>();
+        for (ImageCandidate candidate : candidates) {
+            WebImage image = createImage(candidate.getAttribute("src"), candidate.getAttribute("alt"),
+                    candidate.getAttribute("title"), candidate.getAttribute("width"), candidate.getAttribute("height"),
+                    candidate.getAttribute("style"), baseUrl, inputSource.getSystemId());
+            if (image != null) {
+                imageUrls.add(image);
+            }
+        }
 
+        // take the last headline as we assume this to be the most specific, or the title
+        String title = StringHelper.clean(StringUtils.defaultString(CollectionHelper.getLast(handler.getHeadlines()))
+                .replaceAll("\n+", " - "));
+        if (title.isEmpty() && handler.getTitle() != null) {
+            title = handler.getTitle().replaceAll("\\|.*", "").trim();
+        } else if (title.isEmpty()) {
+            title = StringHelper.getFirstWords(mainContentText, 20);
+        }
+        streamingResultTitle = title;
         return this;
     }
 
@@ -595,64 +764,85 @@ public class PalladianContentExtractor extends WebPageContentExtractor {
                 }
 
                 NamedNodeMap nnm = node.getAttributes();
-                BasicWebImage.Builder builder = new BasicWebImage.Builder();
-                String imageUrl = nnm.getNamedItem("src").getTextContent();
-
-                if (!imageUrl.startsWith("http")) {
-                    if (base.isEmpty()) {
-                        imageUrl = UrlHelper.makeFullUrl(webDocument.getDocumentURI(), null, imageUrl);
-                    } else {
-                        imageUrl = UrlHelper.makeFullUrl(base, null, imageUrl);
-                    }
+                WebImage image = createImage(getAttribute(nnm, "src"), getAttribute(nnm, "alt"),
+                        getAttribute(nnm, "title"), getAttribute(nnm, "width"), getAttribute(nnm, "height"),
+                        getAttribute(nnm, "style"), base, webDocument.getDocumentURI());
+                if (image != null) {
+                    imageUrls.add(image);
                 }
-                builder.setImageUrl(imageUrl);
-                builder.setFileType(FileHelper.getFileType(imageUrl));
 
-                if (nnm.getNamedItem("alt") != null) {
-                    builder.setSummary(nnm.getNamedItem("alt").getTextContent());
-                }
-                if (nnm.getNamedItem("title") != null) {
-                    builder.setTitle(nnm.getNamedItem("title").getTextContent());
-                }
+            } catch (NullPointerException e) {
+                LOGGER.debug("an image has not all necessary attributes");
+            }
+        }
 
-                boolean widthOrHeightFound = false;
-                if (nnm.getNamedItem("width") != null) {
-                    String w = nnm.getNamedItem("width").getTextContent();
-                    builder.setWidth(getImageSize(w));
-                    widthOrHeightFound = true;
-                }
-                if (nnm.getNamedItem("height") != null) {
-                    String h = nnm.getNamedItem("height").getTextContent();
-                    builder.setHeight(getImageSize(h));
-                    widthOrHeightFound = true;
-                }
+        return imageUrls;
+    }
 
-                // maybe there is some inline css about width and height?
-                if (!widthOrHeightFound) {
-                    Node style = nnm.getNamedItem("style");
-                    if (style != null) {
-                        String styleText = style.getTextContent();
-                        String widthText = StringHelper.getSubstringBetween(styleText, "width:", "px").trim();
-                        String heightText = StringHelper.getSubstringBetween(styleText, "height:", "px").trim();
-                        if (!widthText.isEmpty()) {
-                            builder.setWidth(MathHelper.parseStringNumber(widthText, 0.0).intValue());
-                        }
-                        if (!heightText.isEmpty()) {
-                            builder.setHeight(MathHelper.parseStringNumber(heightText, 0.0).intValue());
-                        }
-                    }
+    private static String getAttribute(NamedNodeMap attributes, String name) {
+        Node attribute = attributes.getNamedItem(name);
+        return attribute != null ? attribute.getTextContent() : null;
+    }
+
+    /**
+     * Create an image from the attributes of an <code>img</code> element.
+     *
+     * @return The image, or <code>null</code> in case there is no <code>src</code>, or the size could not be parsed.
+     */
+    private WebImage createImage(String src, String alt, String title, String width, String height, String style,
+            String base, String documentUri) {
+        if (src == null) {
+            LOGGER.debug("an image has not all necessary attributes");
+            return null;
+        }
+        try {
+            BasicWebImage.Builder builder = new BasicWebImage.Builder();
+            String imageUrl = src;
+
+            if (!imageUrl.startsWith("http")) {
+                if (base.isEmpty()) {
+                    imageUrl = UrlHelper.makeFullUrl(documentUri, null, imageUrl);
+                } else {
+                    imageUrl = UrlHelper.makeFullUrl(base, null, imageUrl);
                 }
+            }
+            builder.setImageUrl(imageUrl);
+            builder.setFileType(FileHelper.getFileType(imageUrl));
 
-                imageUrls.add(builder.create());
+            if (alt != null) {
+                builder.setSummary(alt);
+            }
+            if (title != null) {
+                builder.setTitle(title);
+            }
 
-            } catch (NumberFormatException e) {
-                LOGGER.debug(e.getMessage());
-            } catch (NullPointerException e) {
-                LOGGER.debug("an image has not all necessary attributes");
+            boolean widthOrHeightFound = false;
+            if (width != null) {
+                builder.setWidth(getImageSize(width));
+                widthOrHeightFound = true;
+            }
+            if (height != null) {
+                builder.setHeight(getImageSize(height));
+                widthOrHeightFound = true;
             }
-        }
 
-        return imageUrls;
+            // maybe there is some inline css about width and height?
+            if (!widthOrHeightFound && style != null) {
+                String widthText = StringHelper.getSubstringBetween(style, "width:", "px").trim();
+                String heightText = StringHelper.getSubstringBetween(style, "height:", "px").trim();
+                if (!widthText.isEmpty()) {
+                    builder.setWidth(MathHelper.parseStringNumber(widthText, 0.0).intValue());
+                }
+                if (!heightText.isEmpty()) {
+                    builder.setHeight(MathHelper.parseStringNumber(heightText, 0.0).intValue());
+                }
+            }
+
+            return builder.create();
+        } catch (NumberFormatException e) {
+            LOGGER.debug(e.getMessage());
+            return null;
+        }
     }
 
     private int getImageSize(String attributeText) throws NumberFormatException {
@@ -704,6 +894,9 @@ public class PalladianContentExtractor extends WebPageContentExtractor {
     }
 
     public String getResultTitle(Collection<String> excludeNodes) {
+        if (streamingResultTitle != null) {
+            return streamingResultTitle;
+        }
         // try to get it from the biggest headline, take last one as we assume this to be the most specific
         List<Node> xhtmlNodes = XPathHelper.getXhtmlNodes(getDocument(), "//h1[not(ancestor::header) and not(ancestor::footer)]");
 
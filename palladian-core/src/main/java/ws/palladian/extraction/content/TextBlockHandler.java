@@ -0,0 +1,513 @@
+package ws.palladian.extraction.content;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * <p>
+ * SAX handler, which splits an HTML document into text blocks in one pass, without building a DOM. A text block is
+ * the text between two block level elements (paragraphs, headlines, list items, divs, ...). For each block, the number
+ * of words, the number of words within links and the text density (i.e. the average number of words per line, when
+ * wrapping the text after {@value #LINE_WIDTH} characters) are determined, which allow to classify blocks as content or
+ * boilerplate using {@link #classify(List)}, following the approach of Kohlschütter et al.
+ * </p>
+ *
+ * <p>
+ * Text in scripts, styles, etc. is skipped. Text within headers, footers, navigations and sidebars is marked as
+ * boilerplate and comment sections are collected separately, equivalent to the DOM cleaning in
+ * {@link PalladianContentExtractor}. Additionally, images, the document's title, the <code>h1</code> headlines and the
+ * <code>base</code> URL are collected.
+ * </p>
+ *
+ * @see <a href="http://www.l3s.de/~kohlschuetter/publications/wsdm187-kohlschuetter.pdf">Boilerplate Detection using
+ *      Shallow Text Features</a>
+ */
+final class TextBlockHandler extends DefaultHandler {
+
+    /** The number of characters after which lines are wrapped for calculating the text density. */
+    static final int LINE_WIDTH = 80;
+
+    /** The maximum number of non-content blocks between two content blocks within the main content region. */
+    static final int MAX_REGION_GAP = 5;
+
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList("address", "article", "aside",
+            "blockquote", "body", "br", "caption", "center", "dd", "details", "dialog", "div", "dl", "dt",
+            "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr",
+            "html", "li", "main", "nav", "ol", "p", "pre", "section", "summary", "table", "td", "th", "tr", "ul"));
+
+    private static final Set<String> IGNORED_ELEMENTS = new HashSet<>(Arrays.asList("applet", "button", "canvas",
+            "embed", "iframe", "noscript", "object", "option", "script", "select", "style", "svg", "template",
+            "textarea"));
+
+    private static final Set<String> BOILERPLATE_ELEMENTS = new HashSet<>(Arrays.asList("header", "nav", "footer"));
+
+    /** Lower case ids of divs, which are considered as boilerplate. */
+    private static final Set<String> BOILERPLATE_IDS = new HashSet<>(Arrays.asList("head", "pageheader", "header",
+            "foot", "footer", "pagefooter", "sidebar"));
+
+    private static final Set<String> COMMENT_ELEMENTS = new HashSet<>(Arrays.asList("div", "p", "section", "ol",
+            "ul", "li"));
+
+    // flags for the elements on the stack
+
+    private static final int IGNORED = 1;
+    private static final int BOILERPLATE = 2;
+    private static final int COMMENT = 4;
+    private static final int LINK = 8;
+    private static final int TITLE = 16;
+    private static final int H1 = 32;
+    private static final int HEAD = 64;
+    private static final int HEADER_OR_FOOTER = 128;
+
+    /** A block of text with its features. */
+    static final class TextBlock {
+
+        private final String text;
+        private final int numWords;
+        private final int numLinkedWords;
+        private final double textDensity;
+        private final boolean boilerplate;
+        private final boolean comment;
+        private boolean content;
+
+        TextBlock(String text, int numWords, int numLinkedWords, boolean boilerplate, boolean comment) {
+            this.text = text;
+            this.numWords = numWords;
+            this.numLinkedWords = numLinkedWords;
+            this.textDensity = calculateTextDensity(text);
+            this.boilerplate = boilerplate;
+            this.comment = comment;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        int getNumWords() {
+            return numWords;
+        }
+
+        /** @return The ratio of words within links. */
+        double getLinkDensity() {
+            return numWords > 0 ? (double)numLinkedWords / numWords : 0;
+        }
+
+        /** @return The average number of words per wrapped line, excluding the last line of multi-line blocks. */
+        double getTextDensity() {
+            return textDensity;
+        }
+
+        /** @return <code>true</code>, in case the block is within a header, footer, navigation or sidebar. */
+        boolean isBoilerplate() {
+            return boilerplate;
+        }
+
+        /** @return <code>true</code>, in case the block is within a comment section. */
+        boolean isComment() {
+            return comment;
+        }
+
+        /** @return <code>true</code>, in case the block was classified as content. */
+        boolean isContent() {
+            return content;
+        }
+
+        @Override
+        public String toString() {
+            return "TextBlock [words=" + numWords + ", linkDensity=" + getLinkDensity() + ", textDensity="
+                    + textDensity + ", content=" + content + ", text=" + text + "]";
+        }
+
+    }
+
+    /** An image, with the index of the next text block, which allows to relate it to the content blocks. */
+    static final class ImageCandidate {
+
+        private final Map<String, String> attributes;
+        private final int blockIndex;
+
+        ImageCandidate(Map<String, String> attributes, int blockIndex) {
+            this.attributes = attributes;
+            this.blockIndex = blockIndex;
+        }
+
+        String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        int getBlockIndex() {
+            return blockIndex;
+        }
+
+    }
+
+    private final List<TextBlock> blocks = new ArrayList<>();
+    private final List<ImageCandidate> images = new ArrayList<>();
+    private final List<String> comments = new ArrayList<>();
+    private final List<String> headlines = new ArrayList<>();
+
+    /** Flags for the currently open elements. */
+    private final Deque<Integer> elementFlags = new ArrayDeque<>();
+
+    // the number of open elements with the respective flag
+    private int ignoredDepth;
+    private int boilerplateDepth;
+    private int commentDepth;
+    private int linkDepth;
+    private int titleDepth;
+    private int h1Depth;
+    private int headDepth;
+    private int headerOrFooterDepth;
+
+    // the current block
+    private final StringBuilder blockText = new StringBuilder();
+    private int numWords;
+    private int numLinkedWords;
+    private boolean inWord;
+
+    private final StringBuilder commentText = new StringBuilder();
+    private final StringBuilder titleText = new StringBuilder();
+    private final StringBuilder headlineText = new StringBuilder();
+    private String title;
+    private String baseUrl;
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        String name = localName.toLowerCase();
+        if (BLOCK_ELEMENTS.contains(name)) {
+            flushBlock();
+        }
+        int flags = 0;
+        if (IGNORED_ELEMENTS.contains(name)) {
+            flags |= IGNORED;
+        }
+        if (name.equals("head")) {
+            flags |= HEAD;
+        }
+        if (name.equals("title") && headDepth > 0) {
+            flags |= TITLE;
+        }
+        if (name.equals("header") || name.equals("footer")) {
+            flags |= HEADER_OR_FOOTER;
+        }
+        String id = attributes.getValue("id");
+        if (BOILERPLATE_ELEMENTS.contains(name)
+                || name.equals("div") && id != null && BOILERPLATE_IDS.contains(id.toLowerCase())) {
+            flags |= BOILERPLATE;
+        }
+        if (COMMENT_ELEMENTS.contains(name) && isCommentSection(attributes.getValue("class"), id)) {
+            flags |= COMMENT;
+        }
+        if (name.equals("a") && attributes.getValue("href") != null) {
+            flags |= LINK;
+        }
+        if (name.equals("h1") && headerOrFooterDepth == 0) {
+            flags |= H1;
+        }
+        updateDepths(flags, 1);
+        elementFlags.push(flags);
+
+        if (name.equals("base") && baseUrl == null) {
+            baseUrl = attributes.getValue("href");
+        } else if (name.equals("img") && ignoredDepth == 0 && boilerplateDepth == 0 && commentDepth == 0) {
+            Map<String, String> imageAttributes = new HashMap<>();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                imageAttributes.put(attributes.getLocalName(i).toLowerCase(), attributes.getValue(i));
+            }
+            images.add(new ImageCandidate(imageAttributes, blocks.size()));
+        }
+    }
+
+    /** Equivalent to the comment XPath in {@link PalladianContentExtractor}. */
+    private static boolean isCommentSection(String cssClass, String id) {
+        if (cssClass != null) {
+            if (cssClass.equals("comment") || cssClass.contains("comment ") || cssClass.contains(" comment")
+                    || cssClass.contains("comments ") || cssClass.contains(" comments")) {
+                return true;
+            }
+        }
+        return id != null && (id.contains("comments") || id.equals("disqus_thread"));
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        String name = localName.toLowerCase();
+        if (BLOCK_ELEMENTS.contains(name)) {
+            flushBlock();
+        }
+        int flags = elementFlags.isEmpty() ? 0 : elementFlags.pop();
+        if ((flags & COMMENT) != 0 && commentDepth == 1) {
+            String comment = normalizeWhitespace(commentText);
+            if (!comment.isEmpty()) {
+                comments.add(comment);
+            }
+            commentText.setLength(0);
+        }
+        if ((flags & TITLE) != 0 && title == null) {
+            title = normalizeWhitespace(titleText);
+        }
+        if ((flags & H1) != 0 && h1Depth == 1) {
+            headlines.add(normalizeWhitespace(headlineText));
+            headlineText.setLength(0);
+        }
+        updateDepths(flags, -1);
+    }
+
+    private void updateDepths(int flags, int delta) {
+        if ((flags & IGNORED) != 0) {
+            ignoredDepth += delta;
+        }
+        if ((flags & BOILERPLATE) != 0) {
+            boilerplateDepth += delta;
+        }
+        if ((flags & COMMENT) != 0) {
+            commentDepth += delta;
+        }
+        if ((flags & LINK) != 0) {
+            linkDepth += delta;
+        }
+        if ((flags & TITLE) != 0) {
+            titleDepth += delta;
+        }
+        if ((flags & H1) != 0) {
+            h1Depth += delta;
+        }
+        if ((flags & HEAD) != 0) {
+            headDepth += delta;
+        }
+        if ((flags & HEADER_OR_FOOTER) != 0) {
+            headerOrFooterDepth += delta;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (ignoredDepth > 0) {
+            return;
+        }
+        if (titleDepth > 0) {
+            titleText.append(ch, start, length);
+            return;
+        }
+        if (headDepth > 0) {
+            return;
+        }
+        if (h1Depth > 0) {
+            headlineText.append(ch, start, length);
+        }
+        if (commentDepth > 0) {
+            commentText.append(ch, start, length);
+        }
+        for (int i = start; i < start + length; i++) {
+            char current = ch[i];
+            if (Character.isWhitespace(current) || Character.isSpaceChar(current)) {
+                if (inWord) {
+                    blockText.append(' ');
+                }
+                inWord = false;
+            } else {
+                if (!inWord) {
+                    numWords++;
+                    if (linkDepth > 0) {
+                        numLinkedWords++;
+                    }
+                }
+                inWord = true;
+                blockText.append(current);
+            }
+        }
+    }
+
+    @Override
+    public void endDocument() {
+        flushBlock();
+    }
+
+    private void flushBlock() {
+        if (numWords > 0) {
+            String text = blockText.toString().trim();
+            blocks.add(new TextBlock(text, numWords, numLinkedWords, boilerplateDepth > 0, commentDepth > 0));
+        }
+        blockText.setLength(0);
+        numWords = 0;
+        numLinkedWords = 0;
+        inWord = false;
+        if (commentDepth > 0 && commentText.length() > 0) {
+            commentText.append('\n');
+        }
+    }
+
+    private static String normalizeWhitespace(CharSequence text) {
+        StringBuilder result = new StringBuilder();
+        boolean whitespace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char current = text.charAt(i);
+            if (current == '\n') {
+                if (result.length() > 0 && result.charAt(result.length() - 1) != '\n') {
+                    // remove trailing space before the line break
+                    if (result.charAt(result.length() - 1) == ' ') {
+                        result.setLength(result.length() - 1);
+                    }
+                    result.append('\n');
+                }
+                whitespace = false;
+            } else if (Character.isWhitespace(current) || Character.isSpaceChar(current)) {
+                whitespace = true;
+            } else {
+                if (whitespace && result.length() > 0 && result.charAt(result.length() - 1) != '\n') {
+                    result.append(' ');
+                }
+                whitespace = false;
+                result.append(current);
+            }
+        }
+        return result.toString().trim();
+    }
+
+    /**
+     * Calculate the text density, i.e. the average number of words per line, when wrapping the text after
+     * {@link #LINE_WIDTH} characters. For multi-line blocks, the last line is not considered, as it is usually not
+     * completely filled.
+     */
+    static double calculateTextDensity(String text) {
+        int numWords = 0;
+        int numLines = 1;
+        int numWordsCurrentLine = 0;
+        int currentLineLength = -1;
+        int index = 0;
+        while (index < text.length()) {
+            int end = text.indexOf(' ', index);
+            if (end == -1) {
+                end = text.length();
+            }
+            int wordLength = end - index;
+            index = end + 1;
+            if (wordLength == 0) {
+                continue;
+            }
+            numWords++;
+            currentLineLength += wordLength + 1;
+            if (currentLineLength > LINE_WIDTH) {
+                numLines++;
+                currentLineLength = wordLength;
+                numWordsCurrentLine = 1;
+            } else {
+                numWordsCurrentLine++;
+            }
+        }
+        if (numLines == 1) {
+            return numWords;
+        }
+        return (double)(numWords - numWordsCurrentLine) / (numLines - 1);
+    }
+
+    /**
+     * Classify the given blocks as content or boilerplate, using the text and link density of each block and its
+     * neighbors (the "DensityRulesClassifier" from Kohlschütter et al.). Blocks in headers, footers, navigations,
+     * sidebars and comment sections are never content.
+     *
+     * @param blocks The blocks to classify.
+     */
+    static void classify(List<TextBlock> blocks) {
+        for (int i = 0; i < blocks.size(); i++) {
+            TextBlock previous = i > 0 ? blocks.get(i - 1) : null;
+            TextBlock current = blocks.get(i);
+            TextBlock next = i < blocks.size() - 1 ? blocks.get(i + 1) : null;
+            double previousLinkDensity = previous != null ? previous.getLinkDensity() : 0;
+            double previousTextDensity = previous != null ? previous.getTextDensity() : 0;
+            double nextTextDensity = next != null ? next.getTextDensity() : 0;
+            boolean content;
+            if (current.getLinkDensity() <= 0.333333) {
+                if (previousLinkDensity <= 0.555556) {
+                    if (current.getTextDensity() <= 9) {
+                        if (nextTextDensity <= 10) {
+                            content = previousTextDensity > 4;
+                        } else {
+                            content = true;
+                        }
+                    } else {
+                        content = nextTextDensity != 0;
+                    }
+                } else {
+                    content = nextTextDensity > 11;
+                }
+            } else {
+                content = false;
+            }
+            current.content = content && !current.isBoilerplate() && !current.isComment();
+        }
+    }
+
+    /**
+     * Determine the main content region, i.e. the sequence of content blocks around the content block with the most
+     * words, where content blocks are separated by at most {@link #MAX_REGION_GAP} other blocks.
+     *
+     * @param blocks The classified blocks.
+     * @return The indices of the first and the last content block in the region, or <code>null</code> in case there are
+     *         no content blocks.
+     */
+    static int[] getMainRegion(List<TextBlock> blocks) {
+        int largestBlock = -1;
+        for (int i = 0; i < blocks.size(); i++) {
+            if (blocks.get(i).isContent()
+                    && (largestBlock == -1 || blocks.get(i).getNumWords() > blocks.get(largestBlock).getNumWords())) {
+                largestBlock = i;
+            }
+        }
+        if (largestBlock == -1) {
+            return null;
+        }
+        int start = largestBlock;
+        for (int i = largestBlock - 1; i >= 0 && start - i <= MAX_REGION_GAP + 1; i--) {
+            if (blocks.get(i).isContent()) {
+                start = i;
+            }
+        }
+        int end = largestBlock;
+        for (int i = largestBlock + 1; i < blocks.size() && i - end <= MAX_REGION_GAP + 1; i++) {
+            if (blocks.get(i).isContent()) {
+                end = i;
+            }
+        }
+        return new int[] {start, end};
+    }
+
+    List<TextBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    List<ImageCandidate> getImages() {
+        return Collections.unmodifiableList(images);
+    }
+
+    List<String> getComments() {
+        return Collections.unmodifiableList(comments);
+    }
+
+    /** @return The texts of the <code>h1</code> headlines, which are not within a header or footer. */
+    List<String> getHeadlines() {
+        return Collections.unmodifiableList(headlines);
+    }
+
+    /** @return The text of the <code>title</code> element, or <code>null</code>. */
+    String getTitle() {
+        return title;
+    }
+
+    /** @return The URL of the <code>base</code> element, or <code>null</code>. */
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+}
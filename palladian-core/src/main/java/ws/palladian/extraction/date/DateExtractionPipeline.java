@@ -0,0 +1,413 @@
+package ws.palladian.extraction.date;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import ws.palladian.extraction.date.comparators.RatedDateComparator;
+import ws.palladian.extraction.date.dates.ContentDate;
+import ws.palladian.extraction.date.dates.MetaDate;
+import ws.palladian.extraction.date.dates.RatedDate;
+import ws.palladian.extraction.date.dates.StructureDate;
+import ws.palladian.extraction.date.dates.UrlDate;
+import ws.palladian.extraction.date.getter.ArchiveDateGetter;
+import ws.palladian.extraction.date.getter.ContentDateGetter;
+import ws.palladian.extraction.date.getter.HeadDateGetter;
+import ws.palladian.extraction.date.getter.HttpDateGetter;
+import ws.palladian.extraction.date.getter.ReferenceDateGetter;
+import ws.palladian.extraction.date.getter.StructureDateGetter;
+import ws.palladian.extraction.date.getter.TechniqueDateGetter;
+import ws.palladian.extraction.date.getter.UrlDateGetter;
+import ws.palladian.helper.date.ExtractedDate;
+import ws.palladian.helper.html.HtmlHelper;
+import ws.palladian.retrieval.DocumentRetriever;
+import ws.palladian.retrieval.HttpResult;
+
+/**
+ * <p>
+ * Extracts the dates of a web page using several {@link TechniqueDateGetter}s at once. The getters working on the DOM
+ * (content, structure, <code>head</code> and URL) share a single traversal of the document, instead of querying the
+ * document separately. Getters which need network access (e.g. HTTP headers, archive, references) are run
+ * asynchronously using the supplied {@link ExecutorService} while the document is traversed; each of them has its
+ * individual timeout and the whole extraction has a deadline. Getters which did not finish in time are cancelled, and
+ * the dates are rated with whatever has arrived until then (dates from HTTP headers e.g. influence the
+ * {@link ContentDate#isInMetaDates()} feature).
+ * </p>
+ *
+ * <p>
+ * The pipeline itself is thread safe, the executor is not shut down by the pipeline.
+ * </p>
+ *
+ * @see WebPageDateEvaluator
+ */
+public final class DateExtractionPipeline {
+
+    /** The logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DateExtractionPipeline.class);
+
+    /** The default deadline in milliseconds. */
+    public static final long DEFAULT_DEADLINE = TimeUnit.SECONDS.toMillis(10);
+
+    /** A network-bound getter with its timeout in milliseconds. */
+    private static final class AsyncGetter {
+        final TechniqueDateGetter<? extends ExtractedDate> getter;
+        final long timeout;
+
+        AsyncGetter(TechniqueDateGetter<? extends ExtractedDate> getter, long timeout) {
+            this.getter = getter;
+            this.timeout = timeout;
+        }
+    }
+
+    /** The result of an extraction. */
+    public static final class Result {
+
+        private final List<ExtractedDate> dates;
+        private final List<ContentDate> contentDates;
+        private final List<TechniqueDateGetter<?>> timedOut;
+
+        Result(List<ExtractedDate> dates, List<ContentDate> contentDates, List<TechniqueDateGetter<?>> timedOut) {
+            this.dates = dates;
+            this.contentDates = contentDates;
+            this.timedOut = timedOut;
+        }
+
+        /** @return All extracted dates of all getters which finished in time. */
+        public List<ExtractedDate> getDates() {
+            return Collections.unmodifiableList(dates);
+        }
+
+        /** @return The {@link ContentDate}s, with their features set. */
+        public List<ContentDate> getContentDates() {
+            return Collections.unmodifiableList(contentDates);
+        }
+
+        /** @return The asynchronous getters which did not deliver their dates until their timeout or the deadline. */
+        public List<TechniqueDateGetter<?>> getTimedOut() {
+            return Collections.unmodifiableList(timedOut);
+        }
+
+        /** @return <code>true</code>, in case all asynchronous getters finished in time. */
+        public boolean isComplete() {
+            return timedOut.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Result [#dates=" + dates.size() + ", #timedOut=" + timedOut.size() + "]";
+        }
+
+    }
+
+    /** Collects the nodes of interest during the traversal. */
+    private static final class Traversal {
+        final List<Node> textNodes = new ArrayList<>();
+        final List<MetaDate> headDates = new ArrayList<>();
+        final List<StructureDate> structureDates = new ArrayList<>();
+        final Map<Node, StructureDate> structureDateMap = new IdentityHashMap<>();
+        boolean inBody;
+        boolean bodySeen;
+    }
+
+    private final ExecutorService executor;
+
+    private final long deadline;
+
+    private final List<AsyncGetter> asyncGetters = new ArrayList<>();
+
+    private final ContentDateGetter contentDateGetter = new ContentDateGetter();
+
+    private final UrlDateGetter urlDateGetter = new UrlDateGetter();
+
+    /**
+     * <p>
+     * Create a new pipeline with the {@link #DEFAULT_DEADLINE} and the {@link HttpDateGetter},
+     * {@link ArchiveDateGetter} and {@link ReferenceDateGetter} as asynchronous getters.
+     * </p>
+     *
+     * @param executor The executor for running the asynchronous getters, not <code>null</code>.
+     * @return The pipeline.
+     */
+    public static DateExtractionPipeline createDefault(ExecutorService executor) {
+        DateExtractionPipeline pipeline = new DateExtractionPipeline(executor, DEFAULT_DEADLINE, TimeUnit.MILLISECONDS);
+        pipeline.addAsyncGetter(new HttpDateGetter(), 3, TimeUnit.SECONDS);
+        pipeline.addAsyncGetter(new ArchiveDateGetter(), 10, TimeUnit.SECONDS);
+        pipeline.addAsyncGetter(new ReferenceDateGetter(), 10, TimeUnit.SECONDS);
+        return pipeline;
+    }
+
+    /**
+     * <p>
+     * Create a new pipeline without asynchronous getters.
+     * </p>
+     *
+     * @param executor The executor for running the asynchronous getters, not <code>null</code>.
+     * @param deadline The maximum time to wait for the asynchronous getters, measured from the start of an extraction.
+     * @param unit The time unit of the deadline, not <code>null</code>.
+     */
+    public DateExtractionPipeline(ExecutorService executor, long deadline, TimeUnit unit) {
+        Validate.notNull(executor, "executor must not be null");
+        Validate.isTrue(deadline >= 0, "deadline must be greater/equal zero");
+        Validate.notNull(unit, "unit must not be null");
+        this.executor = executor;
+        this.deadline = unit.toMillis(deadline);
+    }
+
+    /**
+     * <p>
+     * Add a getter which is run asynchronously. As the DOM must not be accessed concurrently, the getter does not
+     * receive the document itself: the {@link ReferenceDateGetter} gets the links of the document, the
+     * {@link HttpDateGetter} and {@link ArchiveDateGetter} get the document's {@link HttpResult} or URL, and all other
+     * getters get a copy of the document. {@link MetaDate}s returned by the getter are considered when setting the features of the
+     * {@link ContentDate}s.
+     * </p>
+     *
+     * @param getter The getter, not <code>null</code>.
+     * @param timeout The maximum time to wait for the getter.
+     * @param unit The time unit of the timeout, not <code>null</code>.
+     * @return This instance, for method chaining.
+     */
+    public DateExtractionPipeline addAsyncGetter(TechniqueDateGetter<? extends ExtractedDate> getter, long timeout,
+            TimeUnit unit) {
+        Validate.notNull(getter, "getter must not be null");
+        Validate.isTrue(timeout >= 0, "timeout must be greater/equal zero");
+        Validate.notNull(unit, "unit must not be null");
+        synchronized (asyncGetters) {
+            asyncGetters.add(new AsyncGetter(getter, unit.toMillis(timeout)));
+        }
+        return this;
+    }
+
+    /**
+     * <p>
+     * Extract all dates from the given document. This method blocks until all asynchronous getters have finished,
+     * timed out, or the deadline has passed.
+     * </p>
+     *
+     * @param document The document, not <code>null</code>.
+     * @return The result.
+     */
+    public Result extract(final Document document) {
+        Validate.notNull(document, "document must not be null");
+
+        long start = System.currentTimeMillis();
+        long deadlineTime = start + deadline;
+
+        // start the network-bound getters first, so that they run while we traverse the document
+        List<AsyncGetter> getters;
+        synchronized (asyncGetters) {
+            getters = new ArrayList<>(asyncGetters);
+        }
+        // the DOM is not thread safe, not even for reading, so the values needed by the getters are extracted here
+        final String url = document.getDocumentURI();
+        final HttpResult httpResult = (HttpResult)document.getUserData(DocumentRetriever.HTTP_RESULT_KEY);
+        Set<String> links = null;
+        List<Future<? extends List<? extends ExtractedDate>>> futures = new ArrayList<>();
+        for (AsyncGetter asyncGetter : getters) {
+            Callable<List<? extends ExtractedDate>> task;
+            if (asyncGetter.getter instanceof ReferenceDateGetter) {
+                if (links == null) {
+                    links = HtmlHelper.getLinks(document, true, true);
+                }
+                task = createTask((ReferenceDateGetter)asyncGetter.getter, links);
+            } else if (asyncGetter.getter instanceof HttpDateGetter
+                    || asyncGetter.getter instanceof ArchiveDateGetter) {
+                task = createTask(asyncGetter.getter, url, httpResult);
+            } else {
+                task = createTask(asyncGetter.getter, (Document)document.cloneNode(true));
+            }
+            futures.add(executor.submit(task));
+        }
+
+        // one pass over the DOM for text nodes, head and structure dates
+        Traversal traversal = new Traversal();
+        traverse(document, 0, traversal);
+        List<UrlDate> urlDates = Collections.emptyList();
+        if (document.getDocumentURI() != null) {
+            urlDates = urlDateGetter.getDates(document.getDocumentURI());
+        }
+        List<ContentDate> contentDates = contentDateGetter.getContentDates(document, traversal.textNodes,
+                traversal.structureDateMap);
+
+        // collect what arrives until the timeouts or the deadline
+        List<ExtractedDate> asyncDates = new ArrayList<>();
+        List<TechniqueDateGetter<?>> timedOut = new ArrayList<>();
+        boolean interrupted = false;
+        for (int i = 0; i < getters.size(); i++) {
+            AsyncGetter asyncGetter = getters.get(i);
+            Future<? extends List<? extends ExtractedDate>> future = futures.get(i);
+            if (interrupted) {
+                future.cancel(true);
+                timedOut.add(asyncGetter.getter);
+                continue;
+            }
+            long waitTime = Math.min(start + asyncGetter.timeout, deadlineTime) - System.currentTimeMillis();
+            try {
+                asyncDates.addAll(future.get(Math.max(0, waitTime), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                LOGGER.debug("{} did not finish in time", asyncGetter.getter.getClass().getSimpleName());
+                future.cancel(true);
+                timedOut.add(asyncGetter.getter);
+            } catch (ExecutionException e) {
+                LOGGER.warn("Exception from {}: {}", asyncGetter.getter.getClass().getSimpleName(), e.getCause()
+                        .toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                timedOut.add(asyncGetter.getter);
+                interrupted = true;
+            }
+        }
+
+        List<MetaDate> metaDates = new ArrayList<>(traversal.headDates);
+        for (ExtractedDate date : asyncDates) {
+            if (date instanceof MetaDate) {
+                metaDates.add((MetaDate)date);
+            }
+        }
+        contentDateGetter.setFeatures(contentDates, metaDates, urlDates);
+
+        List<ExtractedDate> dates = new ArrayList<>();
+        dates.addAll(contentDates);
+        dates.addAll(traversal.structureDates);
+        dates.addAll(traversal.headDates);
+        dates.addAll(urlDates);
+        dates.addAll(asyncDates);
+        LOGGER.debug("Extraction took {} ms, {} getters timed out", System.currentTimeMillis() - start,
+                timedOut.size());
+        return new Result(dates, contentDates, timedOut);
+    }
+
+    private static Callable<List<? extends ExtractedDate>> createTask(final ReferenceDateGetter getter,
+            final Set<String> links) {
+        return new Callable<List<? extends ExtractedDate>>() {
+            @Override
+            public List<? extends ExtractedDate> call() throws Exception {
+                return getter.getDates(links);
+            }
+        };
+    }
+
+    private static Callable<List<? extends ExtractedDate>> createTask(
+            final TechniqueDateGetter<? extends ExtractedDate> getter, final String url, final HttpResult httpResult) {
+        return new Callable<List<? extends ExtractedDate>>() {
+            @Override
+            public List<? extends ExtractedDate> call() throws Exception {
+                if (httpResult != null) {
+                    return getter.getDates(httpResult);
+                }
+                if (url != null) {
+                    return getter.getDates(url);
+                }
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    private static Callable<List<? extends ExtractedDate>> createTask(
+            final TechniqueDateGetter<? extends ExtractedDate> getter, final Document copy) {
+        return new Callable<List<? extends ExtractedDate>>() {
+            @Override
+            public List<? extends ExtractedDate> call() throws Exception {
+                return getter.getDates(copy);
+            }
+        };
+    }
+
+    /**
+     * <p>
+     * Extract and rate the dates of the given document.
+     * </p>
+     *
+     * @param document The document, not <code>null</code>.
+     * @param type The type of dates to rate, not <code>null</code>.
+     * @return The rated dates, sorted by rate descending.
+     * @see WebPageDateEvaluator#rate(List, PageDateType)
+     */
+    public List<RatedDate<ExtractedDate>> getDates(Document document, PageDateType type) {
+        Validate.notNull(type, "type must not be null");
+        List<RatedDate<ExtractedDate>> ratedDates = WebPageDateEvaluator.rate(extract(document).getDates(), type);
+        Collections.sort(ratedDates, RatedDateComparator.INSTANCE);
+        return ratedDates;
+    }
+
+    /**
+     * <p>
+     * Get the best rated date of the given document.
+     * </p>
+     *
+     * @param document The document, not <code>null</code>.
+     * @param type The type of dates to rate, not <code>null</code>.
+     * @return The best rated date, or <code>null</code> in case no date was found.
+     */
+    public RatedDate<ExtractedDate> getBestDate(Document document, PageDateType type) {
+        List<RatedDate<ExtractedDate>> dates = getDates(document, type);
+        return dates.isEmpty() ? null : dates.get(0);
+    }
+
+    /**
+     * Traverse the tree in document order; this combines the logic of {@link ContentDateGetter} (all text nodes),
+     * {@link HeadDateGetter} (<code>meta</code> elements in <code>head</code>) and {@link StructureDateGetter}
+     * (attributes within <code>body</code>).
+     */
+    private static void traverse(Node node, int depth, Traversal traversal) {
+        short nodeType = node.getNodeType();
+        if (nodeType == Node.TEXT_NODE) {
+            traversal.textNodes.add(node);
+            return;
+        }
+        String nodeName = node.getNodeName().toLowerCase();
+        boolean body = false;
+        if (nodeType == Node.ELEMENT_NODE) {
+            if (!traversal.bodySeen && nodeName.equals("body")) {
+                // only the first body is considered
+                traversal.inBody = true;
+                traversal.bodySeen = true;
+                body = true;
+                depth = 0;
+            }
+            if (traversal.inBody && !nodeName.equals("script") && !nodeName.equals("img")) {
+                StructureDate date = StructureDateGetter.getDate(node);
+                if (date != null) {
+                    date.setStructureDepth(depth);
+                    traversal.structureDates.add(date);
+                }
+                traversal.structureDateMap.put(node, date);
+            }
+            Node parent = node.getParentNode();
+            if (nodeName.equals("meta") && parent != null && parent.getNodeName().equalsIgnoreCase("head")) {
+                MetaDate date = HeadDateGetter.getDate(node);
+                if (date != null) {
+                    traversal.headDates.add(date);
+                }
+            }
+        }
+        // text nodes within script are not considered by any getter
+        if (!nodeName.equals("script")) {
+            NodeList childNodes = node.getChildNodes();
+            for (int i = 0; i < childNodes.getLength(); i++) {
+                traverse(childNodes.item(i), depth + 1, traversal);
+            }
+        }
+        if (body) {
+            traversal.inBody = false;
+        }
+    }
+
+}
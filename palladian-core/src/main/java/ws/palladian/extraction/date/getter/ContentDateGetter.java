@@ -20,6 +20,7 @@ import ws.palladian.extraction.date.comparators.ContentDateComparator;
 import ws.palladian.extraction.date.comparators.DateComparator;
 import ws.palladian.extraction.date.dates.ContentDate;
 import ws.palladian.extraction.date.dates.MetaDate;
+import ws.palladian.extraction.date.dates.StructureDate;
 import ws.palladian.extraction.date.dates.UrlDate;
 import ws.palladian.extraction.date.helper.DateExtractionHelper;
 import ws.palladian.helper.constants.DateFormat;
@@ -47,12 +48,25 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
 
     @Override
     public List<ContentDate> getDates(Document document) {
-        List<ContentDate> result = getContentDates(document);
-        setFeatures(result, document);
+        List<Node> textNodes = XPathHelper.getNodes(document, "//text()");
+        List<ContentDate> result = getContentDates(document, textNodes, null);
+        List<MetaDate> metaDates = metaDateGetter.getDates(document);
+        List<UrlDate> urlDates = urlDateGetter.getDates(document.getDocumentURI());
+        setFeatures(result, metaDates, urlDates);
         return result;
     }
 
-    private void setFeatures(List<ContentDate> dates, Document document) {
+    /**
+     * <p>
+     * Set the features of the given {@link ContentDate}s, which depend on all dates of the document and on the dates
+     * found by other techniques.
+     * </p>
+     * 
+     * @param dates The dates extracted via {@link #getContentDates(Document, List, Map)}, not <code>null</code>.
+     * @param metaDates The dates from HTTP headers and the document's <code>head</code>, not <code>null</code>.
+     * @param urlDates The dates from the document's URL, not <code>null</code>.
+     */
+    public void setFeatures(List<ContentDate> dates, List<MetaDate> metaDates, List<UrlDate> urlDates) {
 
         List<ContentDate> posOrder = new ArrayList<>();
         List<ContentDate> ageOrder = new ArrayList<>();
@@ -66,9 +80,6 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
         Collections.sort(posOrder, ContentDateComparator.INSTANCE);
         Collections.sort(ageOrder, new DateComparator());
 
-        List<MetaDate> metaDates = metaDateGetter.getDates(document);
-        List<UrlDate> urlDates = urlDateGetter.getDates(document.getDocumentURI());
-
         for (ContentDate date : dates) {
 
             date.setRelSize(1.0 / dates.size());
@@ -108,16 +119,22 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
     }
 
     /**
-     * Get dates of text-nodes of body part of document.
+     * <p>
+     * Get dates of the text nodes of a document, without the features set by
+     * {@link #setFeatures(List, List, List)}. This allows callers which already traversed the document to supply the
+     * text nodes and the structure dates of the elements.
+     * </p>
      * 
-     * @param document
-     *            Document to be searched.
+     * @param document Document to be searched, not <code>null</code>.
+     * @param textNodes All text nodes of the document in document order, not <code>null</code>.
+     * @param structureDates The structure dates of the document's elements, or <code>null</code> to determine them
+     *            on demand. Elements without structure date may map to <code>null</code>.
      * @return List of dates.
      */
-    private List<ContentDate> getContentDates(Document document) {
+    public List<ContentDate> getContentDates(Document document, List<? extends Node> textNodes,
+            Map<Node, StructureDate> structureDates) {
 
         List<ContentDate> dates = new ArrayList<>();
-        List<Node> textNodes = XPathHelper.getNodes(document, "//text()");
 
         if (textNodes.isEmpty()) {
             return dates;
@@ -137,7 +154,7 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
                 Node parent = textNode.getParentNode();
                 String parentName = parent.getNodeName().toLowerCase();
                 if (parent.getNodeType() != Node.COMMENT_NODE && !Arrays.asList("script", "style").contains(parentName)) {
-                    dates.addAll(checkTextNode((Text)textNode, documentString, contentKeywords));
+                    dates.addAll(checkTextNode((Text)textNode, documentString, contentKeywords, structureDates));
                 }
             }
         }
@@ -153,9 +170,11 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
      * @param textNode The Text Node which to check, not <code>null</code>.
      * @param documentString The String representation of the document.
      * @param contentKeywords {@link Map} with keywords and occurrence indices, not <code>null</code>.
+     * @param structureDates Already determined structure dates, or <code>null</code>.
      * @return {@link List} of {@link ContentDate}s extracted from the Node, or an empty List. Never <code>null</code>.
      */
-    private List<ContentDate> checkTextNode(Text textNode, String documentString, Map<Integer, String> contentKeywords) {
+    private List<ContentDate> checkTextNode(Text textNode, String documentString,
+            Map<Integer, String> contentKeywords, Map<Node, StructureDate> structureDates) {
 
         String text = replaceHtmlSymbols(textNode.getNodeValue());
 
@@ -174,9 +193,9 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
 
         for (ContentDate date : dates) {
 
-            boolean hasStructureDate = StructureDateGetter.getDate(tag) != null;
+            boolean hasStructureDate = getStructureDate(tag, structureDates) != null;
             if (!hasStructureDate && tag != parent) {
-                hasStructureDate |= StructureDateGetter.getDate(parent) != null;
+                hasStructureDate |= getStructureDate(parent, structureDates) != null;
             }
 
             date.setHasStructureDate(hasStructureDate);
@@ -221,6 +240,13 @@ public class ContentDateGetter extends TechniqueDateGetter<ContentDate> {
         return dates;
     }
 
+    private static StructureDate getStructureDate(Node node, Map<Node, StructureDate> structureDates) {
+        if (structureDates != null && structureDates.containsKey(node)) {
+            return structureDates.get(node);
+        }
+        return StructureDateGetter.getDate(node);
+    }
+
     /**
      * <p>
      * Find all content keywords in a text.
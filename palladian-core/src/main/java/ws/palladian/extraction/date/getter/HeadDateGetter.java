@@ -33,33 +33,51 @@ public class HeadDateGetter extends TechniqueDateGetter<MetaDate> {
 
         List<Node> metaNodes = XPathHelper.getXhtmlNodes(document, "//head/meta");
         for (Node metaNode : metaNodes) {
-            NamedNodeMap nodeAttributes = metaNode.getAttributes();
-            Node nameAttribute = getNameAttribute(nodeAttributes);
-            Node contentAttribute = nodeAttributes.getNamedItem("content");
-            if (nameAttribute == null || contentAttribute == null) {
-                continue;
+            MetaDate date = getDate(metaNode);
+            if (date != null) {
+                dates.add(date);
             }
-            String keyword = KeyWords.searchKeyword(nameAttribute.getNodeValue(), KeyWords.HEAD_KEYWORDS);
-            if (keyword == null) {
-                continue;
-            }
-            ExtractedDate date = DateParser.findDate(contentAttribute.getNodeValue(), RegExp.HTML_HEAD_DATES);
-            if (date == null) {
-                continue;
-            }
-            dates.add(new MetaDate(date, keyword));
         }
 
         return dates;
     }
 
+    /**
+     * <p>
+     * Extract a {@link MetaDate} from a single <code>meta</code> element.
+     * </p>
+     * 
+     * @param metaNode The <code>meta</code> element, not <code>null</code>.
+     * @return The date, or <code>null</code> in case the element contains no date.
+     */
+    public static MetaDate getDate(Node metaNode) {
+        NamedNodeMap nodeAttributes = metaNode.getAttributes();
+        if (nodeAttributes == null) {
+            return null;
+        }
+        Node nameAttribute = getNameAttribute(nodeAttributes);
+        Node contentAttribute = nodeAttributes.getNamedItem("content");
+        if (nameAttribute == null || contentAttribute == null) {
+            return null;
+        }
+        String keyword = KeyWords.searchKeyword(nameAttribute.getNodeValue(), KeyWords.HEAD_KEYWORDS);
+        if (keyword == null) {
+            return null;
+        }
+        ExtractedDate date = DateParser.findDate(contentAttribute.getNodeValue(), RegExp.HTML_HEAD_DATES);
+        if (date == null) {
+            return null;
+        }
+        return new MetaDate(date, keyword);
+    }
+
     /**
      * Get the name of the meta element, try out different possibilities.
      * 
      * @param nodeAttributes
      * @return
      */
-    private Node getNameAttribute(NamedNodeMap nodeAttributes) {
+    private static Node getNameAttribute(NamedNodeMap nodeAttributes) {
         for (String name : Arrays.asList("name", "http-equiv", "property", "itemprop")) {
             Node nameAttribute = nodeAttributes.getNamedItem(name);
             if (nameAttribute != null) {
@@ -1,9 +1,9 @@
 package ws.palladian.extraction.date.getter;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import org.w3c.dom.Document;
 
@@ -39,8 +39,19 @@ public class ReferenceDateGetter extends TechniqueDateGetter<ReferenceDate> {
 
     @Override
     public List<ReferenceDate> getDates(Document document) {
+        return getDates(HtmlHelper.getLinks(document, true, true));
+    }
+
+    /**
+     * <p>
+     * Extract dates from the linked pages.
+     * </p>
+     * 
+     * @param links The URLs of the linked pages, not <code>null</code>.
+     * @return The extracted dates, or an empty list. Never <code>null</code>.
+     */
+    public List<ReferenceDate> getDates(Collection<String> links) {
         List<ReferenceDate> result = new ArrayList<ReferenceDate>();
-        Set<String> links = HtmlHelper.getLinks(document, true, true);
 
         for (String link : links) {
             List<ContentDate> contentDates = contentDateGetter.getDates(link);
@@ -11,7 +11,9 @@ import java.util.regex.Pattern;
 import ws.palladian.core.Annotation;
 import ws.palladian.extraction.entity.FileFormatParser;
 import ws.palladian.extraction.entity.TaggingFormat;
+import ws.palladian.extraction.sentence.SentenceSegmenter;
 import ws.palladian.extraction.token.Tokenizer;
+import ws.palladian.helper.constants.Language;
 import ws.palladian.helper.io.FileHelper;
 import ws.palladian.helper.nlp.StringHelper;
 
@@ -28,14 +30,15 @@ public final class NerHelper {
         }
 
         List<String> chunks = new ArrayList<String>();
-        List<String> sentences = Tokenizer.getSentences(text);
+        SentenceSegmenter.Spans sentences = Tokenizer.getSentenceSpans(text, Language.ENGLISH);
         StringBuilder currentChunk = new StringBuilder(maxChunkLength);
-        for (String sentence : sentences) {
-            if (currentChunk.length() + sentence.length() > maxChunkLength && currentChunk.length() > 0) {
+        while (sentences.next()) {
+            int length = sentences.getEnd() - sentences.getStart();
+            if (currentChunk.length() + length > maxChunkLength && currentChunk.length() > 0) {
                 chunks.add(currentChunk.toString());
                 currentChunk = new StringBuilder();
             }
-            currentChunk.append(sentence).append(" ");
+            currentChunk.append(text, sentences.getStart(), sentences.getEnd()).append(" ");
         }
         chunks.add(currentChunk.toString());
         return chunks;
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -66,6 +67,8 @@ import java.util.function.Predicate;
 import ws.palladian.helper.io.FileHelper;
 import ws.palladian.helper.io.LineAction;
 import ws.palladian.helper.math.MathHelper;
+import ws.palladian.helper.metrics.Metrics;
+import ws.palladian.helper.metrics.Timer;
 import ws.palladian.helper.nlp.StringHelper;
 
 /**
@@ -104,6 +107,10 @@ import ws.palladian.helper.nlp.StringHelper;
  * <li>window size of the Annotation: {@link #WINDOW_SIZE}
  * </ul>
  * 
+ * <p>
+ * {@link #getAnnotations(String)} can be called concurrently on one shared instance (and thus one model in memory), as
+ * long as the model and the tagging settings are not modified at the same time.
+ * 
  * @author David Urbansky
  * @author Philipp Katz
  */
@@ -114,6 +121,60 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
 
     private final static String NO_ENTITY = "###NO_ENTITY###";
 
+    /** Names of the metrics, see {@link Metrics}. */
+    private static final String TIMER = Metrics.name(PalladianNer.class, "getAnnotations");
+    private static final String TRAIN_TIMER = Metrics.name(PalladianNer.class, "train");
+    private static final String CHARACTERS = Metrics.name(PalladianNer.class, "characters");
+    private static final String ANNOTATIONS = Metrics.name(PalladianNer.class, "annotations");
+    private static final String ERRORS = Metrics.name(PalladianNer.class, "errors");
+
+    /** Patterns matching texts which consist of date fragments only, e.g. "June". */
+    private static final Pattern[] DATE_FRAGMENT_PATTERNS = new Pattern[RegExp.DATE_FRAGMENTS.length];
+
+    /** Patterns matching date fragments at the beginning of a text. */
+    private static final Pattern[] BEGIN_DATE_FRAGMENT_PATTERNS = new Pattern[RegExp.DATE_FRAGMENTS.length];
+
+    /** Patterns matching date fragments at the end of a text. */
+    private static final Pattern[] END_DATE_FRAGMENT_PATTERNS = new Pattern[RegExp.DATE_FRAGMENTS.length];
+
+    static {
+        for (int i = 0; i < RegExp.DATE_FRAGMENTS.length; i++) {
+            String dateFragment = RegExp.DATE_FRAGMENTS[i];
+            String regExp = "(?:" + dateFragment + ")\\.?";
+            DATE_FRAGMENT_PATTERNS[i] = Pattern.compile(dateFragment);
+            BEGIN_DATE_FRAGMENT_PATTERNS[i] = Pattern.compile("^" + regExp + " ");
+            END_DATE_FRAGMENT_PATTERNS[i] = Pattern.compile(" " + regExp + "$");
+        }
+    }
+
+    /**
+     * Buffers for collecting the changes during pre processing, which are reused between invocations. As one tagger
+     * instance may be used by several threads, there is one instance per thread.
+     */
+    private static final class Scratch {
+        private final Set<Annotation> toAdd = new HashSet<>();
+        private final Set<Annotation> toRemove = new HashSet<>();
+
+        /** @return The empty set for annotations to add. */
+        Set<Annotation> toAdd() {
+            toAdd.clear();
+            return toAdd;
+        }
+
+        /** @return The empty set for annotations to remove. */
+        Set<Annotation> toRemove() {
+            toRemove.clear();
+            return toRemove;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
     private PalladianNerTrainingSettings trainingSettings;
 
     private PalladianNerModel model;
@@ -292,6 +353,7 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
             }
         });
         model.entityDictionary = entityDictionaryBuilder.create();
+        model.entityDictionaryChanged();
         LOGGER.info("Added {} entities to the dictionary", model.entityDictionary.getNumTerms());
     }
 
@@ -318,9 +380,15 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
      * @param modelFilePath The path where the model should be saved to.
      */
     public void train(List<Annotation> annotations, String modelFilePath) {
-        model.entityDictionary = buildEntityDictionary(annotations);
-        model.annotationDictionary = buildAnnotationDictionary(annotations);
-        saveModel(modelFilePath);
+        Timer.Context context = Metrics.timer(TRAIN_TIMER).time();
+        try {
+            model.entityDictionary = buildEntityDictionary(annotations);
+            model.entityDictionaryChanged();
+            model.annotationDictionary = buildAnnotationDictionary(annotations);
+            saveModel(modelFilePath);
+        } finally {
+            context.close();
+        }
     }
 
     private DictionaryModel buildEntityDictionary(Iterable<Annotation> annotations) {
@@ -457,6 +525,21 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
 
     @Override
     public List<ClassifiedAnnotation> getAnnotations(String inputText) {
+        Timer.Context context = Metrics.timer(TIMER).time();
+        try {
+            List<ClassifiedAnnotation> annotations = getAllAnnotations(inputText);
+            Metrics.counter(CHARACTERS).increment(inputText.length());
+            Metrics.histogram(ANNOTATIONS).update(annotations.size());
+            return annotations;
+        } catch (RuntimeException e) {
+            Metrics.counter(ERRORS).increment();
+            throw e;
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<ClassifiedAnnotation> getAllAnnotations(String inputText) {
         Annotations<ClassifiedAnnotation> annotations = getAnnotationsInternal(inputText);
         // recognize and add URLs, remove annotations that were part of a URL
         if (taggingSettings.isTagUrls()) {
@@ -468,6 +551,11 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
             LOGGER.info("Tagging dates");
             annotations.addAll(getAnnotations(DateAndTimeTagger.DEFAULT, inputText));
         }
+        // add all entries from the entity dictionary, nested annotations are removed afterwards
+        if (taggingSettings.isTagEntityDictionary()) {
+            LOGGER.debug("Tagging entity dictionary");
+            annotations.addAll(getAnnotations(model.getEntityAutomaton(true), inputText));
+        }
         annotations.removeNested();
         return annotations;
     }
@@ -498,8 +586,11 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
         if (taggingSettings.isSwitchTagAnnotationsUsingContext() && model.contextDictionary != null) {
             Annotations<ClassifiedAnnotation> switched = new Annotations<ClassifiedAnnotation>();
             int changed = 0;
+            FeatureSetting featureSetting = model.contextDictionary.getFeatureSetting();
+            Scorer scorer = new ExperimentalScorers.CategoryEqualizationScorer();
+            PalladianTextClassifier contextClassifier = new PalladianTextClassifier(featureSetting, scorer);
             for (ClassifiedAnnotation annotation : annotations) {
-                ClassifiedAnnotation result = applyContextAnalysis(annotation, text);
+                ClassifiedAnnotation result = applyContextAnalysis(annotation, text, contextClassifier);
                 if (!result.sameTag(annotation)) {
                     LOGGER.debug("Changed {} from {} to {}, context: {}", annotation.getValue(), annotation.getTag(),
                             result.getTag(), NerHelper.getCharacterContext(annotation, text, PalladianNerTrainingSettings.WINDOW_SIZE));
@@ -626,8 +717,9 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
     }
 
     private void fixStartErrorsWithCaseDictionary(Set<Annotation> annotations) {
-        Set<Annotation> toAdd = new HashSet<>();
-        Set<Annotation> toRemove = new HashSet<>();
+        Scratch scratch = SCRATCH.get();
+        Set<Annotation> toAdd = scratch.toAdd();
+        Set<Annotation> toRemove = scratch.toRemove();
         for (Annotation annotation : annotations) {
             String value = annotation.getValue();
             String[] parts = value.split("\\s");
@@ -668,8 +760,9 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
     }
 
     private static void removeDateFragments(Set<Annotation> annotations) {
-        Set<Annotation> toAdd = new HashSet<>();
-        Set<Annotation> toRemove = new HashSet<>();
+        Scratch scratch = SCRATCH.get();
+        Set<Annotation> toAdd = scratch.toAdd();
+        Set<Annotation> toRemove = scratch.toRemove();
         for (Annotation annotation : annotations) {
             Annotation result = removeDateFragment(annotation);
             if (result != null) {
@@ -693,8 +786,9 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
     }
 
     private void unwrapWithContext(Set<Annotation> annotations) {
-        Set<Annotation> toAdd = new HashSet<>();
-        Set<Annotation> toRemove = new HashSet<>();
+        Scratch scratch = SCRATCH.get();
+        Set<Annotation> toAdd = scratch.toAdd();
+        Set<Annotation> toRemove = scratch.toRemove();
         for (Annotation annotation : annotations) {
             String entity = annotation.getValue();
             // do not unwrap, in case we have the value in the entity dictionary
@@ -772,8 +866,9 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
     }
 
     private void unwrapEntities(Set<Annotation> annotations) {
-        Set<Annotation> toAdd = new HashSet<>();
-        Set<Annotation> toRemove = new HashSet<>();
+        Scratch scratch = SCRATCH.get();
+        Set<Annotation> toAdd = scratch.toAdd();
+        Set<Annotation> toRemove = scratch.toRemove();
         for (Annotation annotation : annotations) {
             boolean isAllUppercase = StringHelper.isCompletelyUppercase(annotation.getValue());
             if (isAllUppercase) {
@@ -789,12 +884,10 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
         LOGGER.debug("Unwrapping removed {}, added {} entities", toRemove.size(), toAdd.size());
     }
 
-    private ClassifiedAnnotation applyContextAnalysis(ClassifiedAnnotation annotation, String text) {
+    private ClassifiedAnnotation applyContextAnalysis(ClassifiedAnnotation annotation, String text,
+            PalladianTextClassifier classifier) {
         CategoryEntriesBuilder builder = new CategoryEntriesBuilder();
         builder.add(annotation.getCategoryEntries());
-        FeatureSetting featureSetting = model.contextDictionary.getFeatureSetting();
-        Scorer scorer = new ExperimentalScorers.CategoryEqualizationScorer();
-        PalladianTextClassifier classifier = new PalladianTextClassifier(featureSetting, scorer);
         String context = NerHelper.getCharacterContext(annotation, text, PalladianNerTrainingSettings.WINDOW_SIZE);
         if (context.trim().length() > 2) {
             CategoryEntries contextClassification = classifier.classify(context, model.contextDictionary);
@@ -810,8 +903,8 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
      * @return <code>true</code> in case the text is a date fragment.
      */
     static boolean isDateFragment(String value) {
-        for (String dateFragment : RegExp.DATE_FRAGMENTS) {
-            if (StringUtils.isBlank(value.replaceAll(dateFragment, " "))) {
+        for (Pattern dateFragmentPattern : DATE_FRAGMENT_PATTERNS) {
+            if (StringUtils.isBlank(dateFragmentPattern.matcher(value).replaceAll(" "))) {
                 return true;
             }
         }
@@ -828,17 +921,14 @@ public class PalladianNer extends TrainableNamedEntityRecognizer implements Clas
     static Annotation removeDateFragment(Annotation annotation) {
         String newValue = annotation.getValue();
         int newOffset = annotation.getStartPosition();
-        for (String dateFragment : RegExp.DATE_FRAGMENTS) {
-            String regExp = "(?:" + dateFragment + ")\\.?";
-            String beginRegExp = "^" + regExp + " ";
-            String endRegExp = " " + regExp + "$";
+        for (int i = 0; i < DATE_FRAGMENT_PATTERNS.length; i++) {
             int textLength = newValue.length();
-            if (StringHelper.countRegexMatches(newValue, beginRegExp) > 0) {
-                newValue = newValue.replaceAll(beginRegExp, " ").trim();
+            if (BEGIN_DATE_FRAGMENT_PATTERNS[i].matcher(newValue).find()) {
+                newValue = BEGIN_DATE_FRAGMENT_PATTERNS[i].matcher(newValue).replaceAll(" ").trim();
                 newOffset += textLength - newValue.length();
             }
-            if (StringHelper.countRegexMatches(newValue, endRegExp) > 0) {
-                newValue = newValue.replaceAll(endRegExp, " ").trim();
+            if (END_DATE_FRAGMENT_PATTERNS[i].matcher(newValue).find()) {
+                newValue = END_DATE_FRAGMENT_PATTERNS[i].matcher(newValue).replaceAll(" ").trim();
             }
         }
         if (annotation.getValue().equals(newValue)) {
@@ -1,17 +1,30 @@
 package ws.palladian.extraction.entity.tagger;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 
 import ws.palladian.classification.text.DictionaryModel;
 import ws.palladian.classification.text.DictionaryModel.DictionaryEntry;
+import ws.palladian.core.CategoryEntries;
+import ws.palladian.extraction.DictionaryAutomaton;
 import ws.palladian.extraction.entity.tagger.PalladianNerTrainingSettings.LanguageMode;
 import ws.palladian.extraction.entity.tagger.PalladianNerTrainingSettings.TrainingMode;
+import ws.palladian.helper.nlp.StringInterner;
 
+/**
+ * The model of the {@link PalladianNer}. After training or loading, the model is not modified any more, so that one
+ * instance can be shared by several threads. The lookup structures derived from the dictionaries are built once and are
+ * immutable afterwards.
+ */
 public final class PalladianNerModel implements Serializable {
 
     /** The serial version id. */
@@ -41,7 +54,13 @@ public final class PalladianNerModel implements Serializable {
     TrainingMode trainingMode;
 
     /** Cache for the case insensitive entity dictionary. */
-    transient Set<String> entityValuesCaseInsensitive = null;
+    private transient volatile Set<String> entityValuesCaseInsensitive = null;
+
+    /** Cache for the case sensitive entity dictionary automaton. */
+    private transient volatile DictionaryAutomaton entityAutomaton = null;
+
+    /** Cache for the case insensitive entity dictionary automaton. */
+    private transient volatile DictionaryAutomaton entityAutomatonCaseInsensitive = null;
 
     /**
      * @return The tags which are supported by this model.
@@ -61,14 +80,101 @@ public final class PalladianNerModel implements Serializable {
      * @return
      */
     public boolean entityDictionaryContains(String value) {
-        if (entityValuesCaseInsensitive == null) {
-            Set<String> values = new HashSet<>();
-            for (DictionaryEntry entry : entityDictionary) {
-                values.add(entry.getTerm().toLowerCase());
+        Set<String> values = entityValuesCaseInsensitive;
+        if (values == null) {
+            synchronized (this) {
+                values = entityValuesCaseInsensitive;
+                if (values == null) {
+                    values = createEntityValuesCaseInsensitive();
+                    entityValuesCaseInsensitive = values;
+                }
+            }
+        }
+        return values.contains(value.toLowerCase());
+    }
+
+    private Set<String> createEntityValuesCaseInsensitive() {
+        Set<String> values = new HashSet<>();
+        for (DictionaryEntry entry : entityDictionary) {
+            values.add(StringInterner.SHARED.intern(entry.getTerm().toLowerCase()));
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    /**
+     * Discard the lookup structures derived from the entity dictionary; must be called, after the entity dictionary
+     * was replaced.
+     */
+    synchronized void entityDictionaryChanged() {
+        entityValuesCaseInsensitive = null;
+        entityAutomaton = null;
+        entityAutomatonCaseInsensitive = null;
+    }
+
+    /**
+     * Get an automaton for finding all entries of the entity dictionary within a text in one pass. Each entry is tagged
+     * with its most likely tag (with respect to the concept likelihood order, if available).
+     * 
+     * @param caseSensitive <code>true</code> to match case sensitively.
+     * @return The automaton.
+     */
+    public DictionaryAutomaton getEntityAutomaton(boolean caseSensitive) {
+        DictionaryAutomaton automaton = caseSensitive ? entityAutomaton : entityAutomatonCaseInsensitive;
+        if (automaton == null) {
+            synchronized (this) {
+                automaton = caseSensitive ? entityAutomaton : entityAutomatonCaseInsensitive;
+                if (automaton == null) {
+                    automaton = createEntityAutomaton(caseSensitive);
+                    if (caseSensitive) {
+                        entityAutomaton = automaton;
+                    } else {
+                        entityAutomatonCaseInsensitive = automaton;
+                    }
+                }
+            }
+        }
+        return automaton;
+    }
+
+    private DictionaryAutomaton createEntityAutomaton(boolean caseSensitive) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (DictionaryEntry entry : entityDictionary) {
+            String tag = getMostLikelyTag(entry.getCategoryEntries());
+            if (tag != null) {
+                entries.put(entry.getTerm(), tag);
             }
-            entityValuesCaseInsensitive = values;
         }
-        return entityValuesCaseInsensitive.contains(value.toLowerCase());
+        return new DictionaryAutomaton(entries, caseSensitive);
+    }
+
+    /**
+     * Get the most likely tag from the given category entries. In case a concept likelihood order is available, the
+     * first concept from this order which has a probability greater zero is returned.
+     * 
+     * @param categoryEntries The category entries.
+     * @return The most likely tag, or <code>null</code> in case the category entries are empty.
+     */
+    String getMostLikelyTag(CategoryEntries categoryEntries) {
+        if (conceptLikelihoodOrder != null) {
+            for (String conceptName : conceptLikelihoodOrder) {
+                if (categoryEntries.getProbability(conceptName) > 0) {
+                    return conceptName;
+                }
+            }
+        }
+        return categoryEntries.getMostLikelyCategory();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // the token sets overlap with each other and with the entity values
+        lowerCaseDictionary = StringInterner.SHARED.internAll(lowerCaseDictionary);
+        leftContexts = StringInterner.SHARED.internAll(leftContexts);
+        removeAnnotations = StringInterner.SHARED.internAll(removeAnnotations);
+        // build the lookup structure now, instead of lazily on the first (potentially concurrent) access
+        if (entityDictionary != null) {
+            entityValuesCaseInsensitive = createEntityValuesCaseInsensitive();
+        }
     }
 
     @Override
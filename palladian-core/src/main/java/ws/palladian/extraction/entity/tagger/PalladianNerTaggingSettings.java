@@ -21,6 +21,7 @@ public final class PalladianNerTaggingSettings {
     private boolean unwrapEntitiesWithContext;
     private boolean tagUrls;
     private boolean tagDates;
+    private boolean tagEntityDictionary;
 
     public PalladianNerTaggingSettings(LanguageMode languageMode, TrainingMode trainingMode) {
         Validate.notNull(languageMode, "languageMode must not be null");
@@ -36,6 +37,7 @@ public final class PalladianNerTaggingSettings {
         unwrapEntitiesWithContext = languageMode == English;
         tagUrls = false;
         tagDates = false;
+        tagEntityDictionary = false;
     }
 
     public boolean isRemoveDates() {
@@ -126,6 +128,18 @@ public final class PalladianNerTaggingSettings {
         this.tagDates = tagDates;
     }
 
+    public boolean isTagEntityDictionary() {
+        return tagEntityDictionary;
+    }
+
+    /**
+     * @param tagEntityDictionary <code>true</code> to additionally tag all entries from the entity dictionary which
+     *            occur in the text (case sensitively, in one pass using a {@link ws.palladian.extraction.DictionaryAutomaton}).
+     */
+    public void setTagEntityDictionary(boolean tagEntityDictionary) {
+        this.tagEntityDictionary = tagEntityDictionary;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -151,6 +165,8 @@ public final class PalladianNerTaggingSettings {
         builder.append(tagUrls);
         builder.append(", tagDates=");
         builder.append(tagDates);
+        builder.append(", tagEntityDictionary=");
+        builder.append(tagEntityDictionary);
         builder.append("]");
         return builder.toString();
     }
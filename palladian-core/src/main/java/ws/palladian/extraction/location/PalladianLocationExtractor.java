@@ -19,6 +19,8 @@ import ws.palladian.helper.collection.MultiMap;
 import ws.palladian.helper.constants.Language;
 import ws.palladian.helper.html.HtmlHelper;
 import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.metrics.Metrics;
+import ws.palladian.helper.metrics.Timer;
 import ws.palladian.persistence.DatabaseManagerFactory;
 
 /**
@@ -41,6 +43,15 @@ public class PalladianLocationExtractor extends LocationExtractor {
 
     private static final CoordinateTagger coordinateTagger = CoordinateTagger.INSTANCE;
 
+    /** Names of the metrics, see {@link Metrics}. */
+    private static final String TIMER = Metrics.name(PalladianLocationExtractor.class, "getAnnotations");
+    private static final String CANDIDATES_TIMER = Metrics.name(PalladianLocationExtractor.class, "candidates");
+    private static final String LOOKUP_TIMER = Metrics.name(PalladianLocationExtractor.class, "lookup");
+    private static final String DISAMBIGUATION_TIMER = Metrics.name(PalladianLocationExtractor.class, "disambiguation");
+    private static final String CHARACTERS = Metrics.name(PalladianLocationExtractor.class, "characters");
+    private static final String ANNOTATIONS = Metrics.name(PalladianLocationExtractor.class, "annotations");
+    private static final String ERRORS = Metrics.name(PalladianLocationExtractor.class, "errors");
+
     public PalladianLocationExtractor(LocationSource locationSource, ClassifyingTagger tagger,
             LocationDisambiguation disambiguation) {
         this.locationSource = locationSource;
@@ -58,13 +69,46 @@ public class PalladianLocationExtractor extends LocationExtractor {
 
     @Override
     public List<LocationAnnotation> getAnnotations(String text) {
-        List<ClassifiedAnnotation> classifiedEntities = tagger.getAnnotations(text);
+        Timer.Context context = Metrics.timer(TIMER).time();
+        try {
+            List<LocationAnnotation> result = getAnnotationsInternal(text);
+            Metrics.counter(CHARACTERS).increment(text.length());
+            Metrics.histogram(ANNOTATIONS).update(result.size());
+            return result;
+        } catch (RuntimeException e) {
+            Metrics.counter(ERRORS).increment();
+            throw e;
+        } finally {
+            context.close();
+        }
+    }
 
-        MultiMap<ClassifiedAnnotation, Location> locations = fetchLocations(locationSource, classifiedEntities);
+    private List<LocationAnnotation> getAnnotationsInternal(String text) {
+        List<ClassifiedAnnotation> classifiedEntities;
+        Timer.Context candidatesContext = Metrics.timer(CANDIDATES_TIMER).time();
+        try {
+            classifiedEntities = tagger.getAnnotations(text);
+        } finally {
+            candidatesContext.close();
+        }
+
+        MultiMap<ClassifiedAnnotation, Location> locations;
+        Timer.Context lookupContext = Metrics.timer(LOOKUP_TIMER).time();
+        try {
+            locations = fetchLocations(locationSource, classifiedEntities);
+        } finally {
+            lookupContext.close();
+        }
 
         Annotations<LocationAnnotation> result = new Annotations<>();
 
-        List<LocationAnnotation> locationEntities = disambiguation.disambiguate(text, locations);
+        List<LocationAnnotation> locationEntities;
+        Timer.Context disambiguationContext = Metrics.timer(DISAMBIGUATION_TIMER).time();
+        try {
+            locationEntities = disambiguation.disambiguate(text, locations);
+        } finally {
+            disambiguationContext.close();
+        }
         result.addAll(locationEntities);
 
         // last step, recognize streets. For also extracting ZIP codes, this needs to be better integrated into above's
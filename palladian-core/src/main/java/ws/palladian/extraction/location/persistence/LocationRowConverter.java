@@ -12,6 +12,7 @@ import ws.palladian.extraction.location.Location;
 import ws.palladian.extraction.location.LocationBuilder;
 import ws.palladian.extraction.location.LocationType;
 import ws.palladian.helper.constants.Language;
+import ws.palladian.helper.nlp.StringInterner;
 import ws.palladian.persistence.RowConverter;
 import ws.palladian.persistence.helper.SqlHelper;
 
@@ -19,7 +20,8 @@ import ws.palladian.persistence.helper.SqlHelper;
  * {@link RowConverter} from the location database schema to a {@link Location} instance. Supports a full and a simple
  * mode; {@link #FULL} converts {@link AlternativeName}s and requires a sophisticated query (used by the prepared
  * statement as defined in the database schema). {@link #SIMPLE} on the other hand only converts the locations table,
- * omitting the alternative names.
+ * omitting the alternative names. The names are interned, as they are repeated many times (e.g. the same alternative
+ * name for various languages, or common place names).
  * 
  * @author Philipp Katz
  */
@@ -40,7 +42,7 @@ public final class LocationRowConverter implements RowConverter<Location> {
         LocationBuilder builder = new LocationBuilder();
         builder.setId(resultSet.getInt("id"));
         builder.setType(LocationType.map(resultSet.getString("type")));
-        builder.setPrimaryName(resultSet.getString("name"));
+        builder.setPrimaryName(StringInterner.SHARED.intern(resultSet.getString("name")));
 
         String alternativesString = resultSet.getString("alternatives");
         if (alternativesString != null) {
@@ -53,7 +55,7 @@ public final class LocationRowConverter implements RowConverter<Location> {
                 if (parts.length > 1) {
                     language = Language.getByIso6391(parts[1]);
                 }
-                builder.addAlternativeName(parts[0], language);
+                builder.addAlternativeName(StringInterner.SHARED.intern(parts[0]), language);
             }
         }
 
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
@@ -15,14 +16,17 @@ import org.apache.commons.lang3.Validate;
 import ws.palladian.extraction.location.Location;
 import ws.palladian.extraction.location.LocationSource;
 import ws.palladian.helper.collection.DefaultMultiMap;
-import ws.palladian.helper.collection.LruMap;
 import ws.palladian.helper.collection.MultiMap;
+import ws.palladian.helper.collection.TinyLfuCache;
+import ws.palladian.helper.collection.TinyLfuCache.CacheStats;
 import ws.palladian.helper.constants.Language;
 import ws.palladian.helper.geo.GeoCoordinate;
 
 /**
  * <p>
- * Cache decorator, useful for Web- and database-based {@link LocationSource}s.
+ * Cache decorator, useful for Web- and database-based {@link LocationSource}s. The caches are thread safe and use
+ * the frequency-aware {@link TinyLfuCache}; concurrent lookups of the same coordinate are passed to the wrapped source
+ * only once.
  * </p>
  * 
  * @author Philipp Katz
@@ -32,27 +36,21 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
     /** The default cache size to use in case not specified. */
     public static final int DEFAULT_CACHE_SIZE = 5000;
 
-    private final LruMap<String, Collection<Location>> nameCache;
+    private final TinyLfuCache<String, Collection<Location>> nameCache;
 
-    private final LruMap<Integer, Location> idCache;
-    
-    private final LruMap<String, List<Location>> coordinateCache;
+    private final TinyLfuCache<Integer, Location> idCache;
+
+    private final TinyLfuCache<String, List<Location>> coordinateCache;
 
     private final LocationSource wrapped;
 
     private final int size;
 
-    /** Number of items for which we had a cache hit. */
-    private int cacheHits = 0;
-
-    /** Number of items for which we had a cache miss. */
-    private int cacheMisses = 0;
-
     /** Number of total requests. */
-    private int requests = 0;
+    private final AtomicInteger requests = new AtomicInteger();
 
     /** Number of total requests which had to be passed to the wrapped source. */
-    private int passedRequests = 0;
+    private final AtomicInteger passedRequests = new AtomicInteger();
 
     /**
      * <p>
@@ -66,9 +64,9 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
         Validate.notNull(wrapped, "wrapped must not be null");
         Validate.isTrue(size > 0, "size must be greater zero");
         this.wrapped = wrapped;
-        this.nameCache = LruMap.insertionOrder(size);
-        this.idCache = LruMap.insertionOrder(size);
-        this.coordinateCache = LruMap.insertionOrder(size);
+        this.nameCache = new TinyLfuCache.Builder<String, Collection<Location>>().setMaximumSize(size).create();
+        this.idCache = new TinyLfuCache.Builder<Integer, Location>().setMaximumSize(size).create();
+        this.coordinateCache = new TinyLfuCache.Builder<String, List<Location>>().setMaximumSize(size).create();
         this.size = size;
     }
 
@@ -87,23 +85,21 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
     public MultiMap<String, Location> getLocations(Collection<String> locationNames, Set<Language> languages) {
         MultiMap<String, Location> result = DefaultMultiMap.createWithSet();
         Set<String> needsLookup = new HashSet<>();
-        requests++;
+        requests.incrementAndGet();
 
         for (String locationName : locationNames) {
             String identifier = createIdentifier(languages, locationName);
             Collection<Location> cachedLocations = nameCache.get(identifier);
             if (cachedLocations != null) {
                 result.put(locationName, cachedLocations);
-                cacheHits++;
             } else {
                 needsLookup.add(locationName);
-                cacheMisses++;
             }
         }
 
         // get the unresolved names from the underlying location source
         if (needsLookup.size() > 0) {
-            passedRequests++;
+            passedRequests.incrementAndGet();
             MultiMap<String, Location> retrievedLocations = wrapped.getLocations(needsLookup, languages);
             for (String locationName : needsLookup) {
                 Collection<Location> locations = retrievedLocations.get(locationName);
@@ -133,25 +129,24 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
     public List<Location> getLocations(List<Integer> locationIds) {
         Map<Integer, Location> tempResult = new HashMap<>();
         Set<Integer> needsLookup = new HashSet<>();
-        requests++;
+        requests.incrementAndGet();
 
         for (Integer locationId : locationIds) {
             Location cachedLocation = idCache.get(locationId);
             if (cachedLocation != null) {
                 tempResult.put(locationId, cachedLocation);
-                cacheHits++;
             } else {
                 needsLookup.add(locationId);
-                cacheMisses++;
             }
         }
 
         // get the unresolved IDs from the underlying location source
         if (needsLookup.size() > 0) {
-            passedRequests++;
+            passedRequests.incrementAndGet();
             List<Location> retrievedLocations = wrapped.getLocations(new ArrayList<Integer>(needsLookup));
             for (Location location : retrievedLocations) {
                 tempResult.put(location.getId(), location);
+                idCache.put(location.getId(), location);
             }
         }
 
@@ -165,14 +160,11 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
     @Override
     public List<Location> getLocations(GeoCoordinate coordinate, double distance) {
         String identifier = coordinate.getLatitude() + "#" + coordinate.getLongitude() + "#" + distance;
-        List<Location> locations = coordinateCache.get(identifier);
-        requests++;
-        if (locations == null) {
-            locations = wrapped.getLocations(coordinate, distance);
-            coordinateCache.put(identifier, locations);
-            passedRequests++;
-        }
-        return locations;
+        requests.incrementAndGet();
+        return coordinateCache.get(identifier, key -> {
+            passedRequests.incrementAndGet();
+            return wrapped.getLocations(coordinate, distance);
+        });
     }
 
     @Override
@@ -182,8 +174,10 @@ public final class CachingLocationSource extends MultiQueryLocationSource {
         stringBuilder.append(" (");
         stringBuilder.append(wrapped);
         stringBuilder.append(", MaxCacheSize=").append(size);
-        stringBuilder.append(", Hits=").append(cacheHits);
-        stringBuilder.append(", Misses=").append(cacheMisses);
+        CacheStats nameStats = nameCache.getStats();
+        CacheStats idStats = idCache.getStats();
+        stringBuilder.append(", Hits=").append(nameStats.getHitCount() + idStats.getHitCount());
+        stringBuilder.append(", Misses=").append(nameStats.getMissCount() + idStats.getMissCount());
         stringBuilder.append(", Requests=").append(requests);
         stringBuilder.append(", PassedRequests=").append(passedRequests);
         stringBuilder.append(", NameCacheSize=").append(nameCache.size());
@@ -19,6 +19,7 @@ import ws.palladian.helper.collection.DefaultMultiMap;
 import ws.palladian.helper.collection.MultiMap;
 import ws.palladian.helper.constants.Language;
 import ws.palladian.helper.geo.GeoCoordinate;
+import ws.palladian.helper.nlp.StringInterner;
 
 /**
  * <p>
@@ -112,7 +113,7 @@ public class CollectionLocationStore extends SingleQueryLocationSource implement
 
         public MutableLocation(Location location) {
             this.id = location.getId();
-            this.primaryName = location.getPrimaryName();
+            this.primaryName = StringInterner.SHARED.intern(location.getPrimaryName());
             this.alternativeNames = new HashSet<>(location.getAlternativeNames());
             this.type = location.getType();
             this.coordinate = location.getCoordinate();
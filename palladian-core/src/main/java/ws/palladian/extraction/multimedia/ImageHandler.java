@@ -5,6 +5,9 @@ import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sun.misc.BASE64Decoder;
+import ws.palladian.extraction.multimedia.hash.BkTree;
+import ws.palladian.extraction.multimedia.hash.DifferenceHash;
+import ws.palladian.extraction.multimedia.hash.PerceptualHash;
 import ws.palladian.helper.StopWatch;
 import ws.palladian.helper.collection.Bag;
 import ws.palladian.helper.collection.CollectionHelper;
@@ -81,6 +84,7 @@ public class ImageHandler {
      * @author David Urbansky
      */
     private static final class ExtractedImage extends BasicWebImage {
+        private static final long serialVersionUID = 1L;
         private int rankCount = 1;
         private int duplicateCount = 0;
         private final BufferedImage imageContent;
@@ -113,10 +117,28 @@ public class ImageHandler {
         long totalGreen = 0L;
         long totalBlue = 0L;
         int population;
+        /** Lab value of the center, cached until the next pixel is added. */
+        double[] centerLab;
+
+        void add(int red, int green, int blue) {
+            totalRed += red;
+            totalGreen += green;
+            totalBlue += blue;
+            population++;
+            centerLab = null;
+        }
 
         public Color getCenterColor() {
             return new Color((int)((double)totalRed / population), (int)((double)totalGreen / population), (int)((double)totalBlue / population));
         }
+
+        double[] getCenterLab(ColorSpaceConverter converter) {
+            if (centerLab == null) {
+                Color center = getCenterColor();
+                centerLab = converter.rgbToLab(center.getRed(), center.getGreen(), center.getBlue());
+            }
+            return centerLab;
+        }
     }
 
     /**
@@ -959,6 +981,68 @@ public class ImageHandler {
         return selectedImages;
     }
 
+    /**
+     * <p>
+     * Given a set of images, we cluster them by similarity of their perceptual hashes in order to remove duplicates. In
+     * contrast to {@link #clusterImagesAndPickRepresentatives(Collection)}, each image is only decoded and hashed once,
+     * and duplicates are looked up in a {@link BkTree} instead of comparing all pairs of images. In each cluster, we
+     * pick the image with the highest resolution. Images which cannot be loaded are ignored.
+     * </p>
+     *
+     * @param imageUrls A collection of image URLs.
+     * @param perceptualHash The hash function, e.g. {@link DifferenceHash#INSTANCE}, not <code>null</code>.
+     * @param maxDistance The maximum Hamming distance between the hashes of two duplicates.
+     * @return A set of image URLs that all represent different images (the highest resolving images per cluster).
+     */
+    public static Set<String> clusterImagesAndPickRepresentatives(Collection<String> imageUrls,
+            PerceptualHash perceptualHash, int maxDistance) {
+        Validate.notNull(imageUrls, "imageUrls must not be null");
+        Validate.notNull(perceptualHash, "perceptualHash must not be null");
+
+        List<String> urls = new ArrayList<>();
+        List<Long> hashes = new ArrayList<>();
+        List<Integer> pixelCounts = new ArrayList<>();
+        BkTree<Integer> index = new BkTree<>();
+        for (String imageUrl : imageUrls) {
+            BufferedImage loadedImage = load(imageUrl);
+            if (loadedImage == null) {
+                LOGGER.debug("could not load {}, ignoring", imageUrl);
+                continue;
+            }
+            long hash = perceptualHash.hash(loadedImage);
+            index.add(hash, urls.size());
+            urls.add(imageUrl);
+            hashes.add(hash);
+            pixelCounts.add(getPixelCount(loadedImage));
+        }
+
+        Set<String> selectedImages = new HashSet<>();
+        boolean[] clustered = new boolean[urls.size()];
+        for (int i = 0; i < urls.size(); i++) {
+            if (clustered[i]) {
+                continue;
+            }
+            List<Integer> cluster = new ArrayList<>();
+            for (BkTree.Match<Integer> match : index.search(hashes.get(i), maxDistance)) {
+                if (!clustered[match.getValue()]) {
+                    cluster.add(match.getValue());
+                }
+            }
+            Collections.sort(cluster);
+            int highestPixelCount = -1;
+            String highestResolutionImageUrl = null;
+            for (Integer imageId : cluster) {
+                clustered[imageId] = true;
+                if (pixelCounts.get(imageId) > highestPixelCount) {
+                    highestResolutionImageUrl = urls.get(imageId);
+                    highestPixelCount = pixelCounts.get(imageId);
+                }
+            }
+            selectedImages.add(highestResolutionImageUrl);
+        }
+        return selectedImages;
+    }
+
     private static int getPixelCount(BufferedImage image) {
         return image.getWidth() * image.getHeight();
     }
@@ -982,34 +1066,36 @@ public class ImageHandler {
 
         List<ColorCluster> clusters = new ArrayList<>();
 
-        for (int i = 0; i < bufferedImage.getWidth(); i++) {
-            ol: for (int j = 0; j < bufferedImage.getHeight(); j++) {
+        // work on the raw pixel values; the Lab values of the pixels and the cluster centers are only calculated once
+        PixelBuffer pixels = PixelBuffer.of(bufferedImage);
+        ColorSpaceConverter converter = new ColorSpaceConverter();
 
-                Color c1 = new Color(bufferedImage.getRGB(i, j));
+        for (int i = 0; i < pixels.getWidth(); i++) {
+            ol: for (int j = 0; j < pixels.getHeight(); j++) {
+
+                int rgb = pixels.getRGB(i, j);
+                int red = PixelBuffer.red(rgb);
+                int green = PixelBuffer.green(rgb);
+                int blue = PixelBuffer.blue(rgb);
 
                 // discard too white and too dark
-                if ((c1.getRed() > upperBound && c1.getGreen() > upperBound && c1.getBlue() > upperBound)
-                        || (c1.getRed() < lowerBound && c1.getGreen() < lowerBound && c1.getBlue() < lowerBound)) {
+                if ((red > upperBound && green > upperBound && blue > upperBound)
+                        || (red < lowerBound && green < lowerBound && blue < lowerBound)) {
                     continue;
                 }
 
                 // check whether we can add the color to an existing cluster or to open a new one
+                double[] lab = converter.rgbToLab(red, green, blue);
                 for (ColorCluster cluster : clusters) {
-                    double distance = colorDistance(cluster.getCenterColor(), c1);
+                    double distance = labDistance(cluster.getCenterLab(converter), lab);
                     if (distance < maxClusterDistance) {
-                        cluster.totalRed += c1.getRed();
-                        cluster.totalGreen += c1.getGreen();
-                        cluster.totalBlue += c1.getBlue();
-                        cluster.population++;
+                        cluster.add(red, green, blue);
                         continue ol;
                     }
                 }
 
                 ColorCluster newCluster = new ColorCluster();
-                newCluster.totalRed += c1.getRed();
-                newCluster.totalGreen += c1.getGreen();
-                newCluster.totalBlue += c1.getBlue();
-                newCluster.population++;
+                newCluster.add(red, green, blue);
                 clusters.add(newCluster);
             }
         }
@@ -1060,7 +1146,10 @@ public class ImageHandler {
     private static double colorDistance(Color color1, Color color2) {
         double[] lab1 = new ColorSpaceConverter().rgbToLab(color1.getRed(), color1.getGreen(), color1.getBlue());
         double[] lab2 = new ColorSpaceConverter().rgbToLab(color2.getRed(), color2.getGreen(), color2.getBlue());
+        return labDistance(lab1, lab2);
+    }
 
+    private static double labDistance(double[] lab1, double[] lab2) {
         double lDistance = Math.pow(lab1[0] - lab2[0], 2);
         double aDistance = Math.pow(lab1[1] - lab2[1], 2);
         double bDistance = Math.pow(lab1[2] - lab2[2], 2);
@@ -1097,20 +1186,28 @@ public class ImageHandler {
 
     public static BufferedImage pixelate(BufferedImage image, int boxSize, Collection<Color> colorPalette) {
 
+        // the boxes' top left pixels are never overwritten by preceding boxes, so we can read them upfront
+        PixelBuffer pixels = PixelBuffer.of(image);
+        Map<Integer, Color> nearestColors = new HashMap<>();
+        Graphics imageGraphics = image.getGraphics();
+
         for (int w = 0; w < image.getWidth(); w += boxSize) {
             for (int h = 0; h < image.getHeight(); h += boxSize) {
-                Color color = new Color(image.getRGB(w, h));
-
-                if (colorPalette != null) {
-                    color = getNearestColor(color, colorPalette);
+                int rgb = pixels.getRGB(w, h);
+                Color color = nearestColors.get(rgb);
+                if (color == null) {
+                    color = new Color(rgb);
+                    if (colorPalette != null) {
+                        color = getNearestColor(color, colorPalette);
+                    }
+                    nearestColors.put(rgb, color);
                 }
 
-                Graphics imageGraphics = image.getGraphics();
-
                 imageGraphics.setColor(color);
                 imageGraphics.fillRect(w, h, boxSize, boxSize);
             }
         }
+        imageGraphics.dispose();
 
         return image;
     }
@@ -1118,9 +1215,10 @@ public class ImageHandler {
     public static LinkedHashMap<Color, Integer> getColorFrequencies(BufferedImage image) {
 
         Bag<Color> colorCounter = new Bag<>();
-        for (int x = 0; x < image.getWidth(); x++) {
-            for (int y = 0; y < image.getHeight(); y++) {
-                int rgb = image.getRGB(x, y);
+        PixelBuffer pixels = PixelBuffer.of(image);
+        for (int x = 0; x < pixels.getWidth(); x++) {
+            for (int y = 0; y < pixels.getHeight(); y++) {
+                int rgb = pixels.getRGB(x, y);
                 colorCounter.add(new Color(rgb));
             }
         }
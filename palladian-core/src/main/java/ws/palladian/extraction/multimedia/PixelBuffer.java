@@ -0,0 +1,212 @@
+package ws.palladian.extraction.multimedia;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * <p>
+ * The pixels of an image as packed ARGB <code>int</code> array in row-major order, with the same values which are
+ * returned by {@link BufferedImage#getRGB(int, int)}. Feature extractors which need to look at each pixel should
+ * extract this buffer once and work on the primitive values, instead of calling {@link BufferedImage#getRGB(int, int)}
+ * and creating a {@link Color} for each pixel.
+ * </p>
+ *
+ * <p>
+ * For images of type {@link BufferedImage#TYPE_INT_ARGB}, {@link BufferedImage#TYPE_INT_RGB},
+ * {@link BufferedImage#TYPE_3BYTE_BGR} and {@link BufferedImage#TYPE_4BYTE_ABGR} the values are read directly from
+ * the underlying {@link DataBufferInt} or {@link DataBufferByte}; all other types are converted via the image's color
+ * model in one bulk call.
+ * </p>
+ */
+public final class PixelBuffer {
+
+    private final int width;
+
+    private final int height;
+
+    private final int[] pixels;
+
+    private PixelBuffer(int width, int height, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * <p>
+     * Extract the pixels of the given image. The buffer is a snapshot, later changes of the image are not reflected.
+     * </p>
+     *
+     * @param image The image, not <code>null</code>.
+     * @return The buffer with the image's pixels.
+     */
+    public static PixelBuffer of(BufferedImage image) {
+        Validate.notNull(image, "image must not be null");
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int numPixels = width * height;
+        WritableRaster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        // direct access is only possible for images which are no sub images of other images
+        boolean direct = raster.getParent() == null && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0 && dataBuffer.getNumBanks() == 1
+                && dataBuffer.getOffset() == 0;
+        int[] pixels = new int[numPixels];
+        if (direct) {
+            switch (image.getType()) {
+                case BufferedImage.TYPE_INT_ARGB:
+                    if (dataBuffer.getSize() == numPixels) {
+                        System.arraycopy(((DataBufferInt)dataBuffer).getData(), 0, pixels, 0, numPixels);
+                        return new PixelBuffer(width, height, pixels);
+                    }
+                    break;
+                case BufferedImage.TYPE_INT_RGB:
+                    if (dataBuffer.getSize() == numPixels) {
+                        int[] data = ((DataBufferInt)dataBuffer).getData();
+                        for (int i = 0; i < numPixels; i++) {
+                            pixels[i] = 0xff000000 | data[i];
+                        }
+                        return new PixelBuffer(width, height, pixels);
+                    }
+                    break;
+                case BufferedImage.TYPE_3BYTE_BGR:
+                    if (dataBuffer.getSize() == 3 * numPixels) {
+                        byte[] data = ((DataBufferByte)dataBuffer).getData();
+                        for (int i = 0, j = 0; i < numPixels; i++, j += 3) {
+                            pixels[i] = 0xff000000 | (data[j + 2] & 0xff) << 16 | (data[j + 1] & 0xff) << 8
+                                    | data[j] & 0xff;
+                        }
+                        return new PixelBuffer(width, height, pixels);
+                    }
+                    break;
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                    if (dataBuffer.getSize() == 4 * numPixels) {
+                        byte[] data = ((DataBufferByte)dataBuffer).getData();
+                        for (int i = 0, j = 0; i < numPixels; i++, j += 4) {
+                            pixels[i] = (data[j] & 0xff) << 24 | (data[j + 3] & 0xff) << 16
+                                    | (data[j + 2] & 0xff) << 8 | data[j + 1] & 0xff;
+                        }
+                        return new PixelBuffer(width, height, pixels);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (numPixels > 0) {
+            image.getRGB(0, 0, width, height, pixels, 0, width);
+        }
+        return new PixelBuffer(width, height, pixels);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The number of pixels.
+     */
+    public int size() {
+        return pixels.length;
+    }
+
+    /**
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The packed ARGB value at the given coordinate, equal to {@link BufferedImage#getRGB(int, int)}.
+     */
+    public int getRGB(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    /**
+     * @return The packed ARGB values of all pixels in row-major order. The array is not copied, callers must not
+     *         modify it.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public static int red(int rgb) {
+        return (rgb >> 16) & 0xff;
+    }
+
+    public static int green(int rgb) {
+        return (rgb >> 8) & 0xff;
+    }
+
+    public static int blue(int rgb) {
+        return rgb & 0xff;
+    }
+
+    /**
+     * <p>
+     * Get the HSB brightness of a pixel, same as {@link ColorSpaceConverter#rgbToHsb(Color)}<code>[2]</code>.
+     * </p>
+     *
+     * @param rgb The packed RGB value.
+     * @return The brightness in range [0,1].
+     */
+    public static float brightness(int rgb) {
+        int cmax = Math.max(Math.max(red(rgb), green(rgb)), blue(rgb));
+        return cmax / 255.0f;
+    }
+
+    /**
+     * <p>
+     * Convert all pixels to HSB in bulk.
+     * </p>
+     *
+     * @return Array with hue, saturation and brightness for each pixel, i.e. three consecutive values per pixel in
+     *         range [0,1] (see {@link Color#RGBtoHSB(int, int, int, float[])}).
+     */
+    public float[] toHsb() {
+        float[] result = new float[3 * pixels.length];
+        float[] hsb = new float[3];
+        for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+            int rgb = pixels[i];
+            Color.RGBtoHSB(red(rgb), green(rgb), blue(rgb), hsb);
+            result[j] = hsb[0];
+            result[j + 1] = hsb[1];
+            result[j + 2] = hsb[2];
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Convert all pixels to the CIE Lab color space (D65) in bulk.
+     * </p>
+     *
+     * @return Array with L, a and b for each pixel, i.e. three consecutive values per pixel (see
+     *         {@link ColorSpaceConverter#rgbToLab(int, int, int)}).
+     */
+    public double[] toLab() {
+        ColorSpaceConverter converter = new ColorSpaceConverter();
+        double[] result = new double[3 * pixels.length];
+        for (int i = 0, j = 0; i < pixels.length; i++, j += 3) {
+            int rgb = pixels[i];
+            double[] lab = converter.rgbToLab(red(rgb), green(rgb), blue(rgb));
+            result[j] = lab[0];
+            result[j + 1] = lab[1];
+            result[j + 2] = lab[2];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PixelBuffer [width=" + width + ", height=" + height + "]";
+    }
+
+}
@@ -0,0 +1,46 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.awt.image.BufferedImage;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
+/**
+ * <p>
+ * Average hash; the image is reduced to 8x8 grayscale pixels, each bit signifies whether the pixel is brighter than
+ * the mean.
+ * </p>
+ *
+ * @see <a href="http://www.hackerfactor.com/blog/index.php?/archives/432-Looks-Like-It.html">Looks Like It</a>
+ */
+public final class AverageHash implements PerceptualHash {
+
+    public static final AverageHash INSTANCE = new AverageHash();
+
+    private AverageHash() {
+        // singleton
+    }
+
+    @Override
+    public long hash(BufferedImage image) {
+        Validate.notNull(image, "image must not be null");
+        double[] values = PerceptualHashes.grayscaleThumbnail(PixelBuffer.of(image), 8, 8);
+        double mean = 0;
+        for (double value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        long hash = 0;
+        for (double value : values) {
+            hash = hash << 1 | (value > mean ? 1 : 0);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "AverageHash";
+    }
+
+}
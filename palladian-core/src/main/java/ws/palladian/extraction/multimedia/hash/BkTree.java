@@ -0,0 +1,187 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A BK-tree for 64 bit hashes under the Hamming distance (see {@link PerceptualHashes#distance(long, long)}), which
+ * allows to retrieve all hashes within a given radius of a query hash without comparing the query to all entries. Each
+ * node's children are keyed by their distance to the node; due to the triangle inequality, only children with a key
+ * in <code>[d - radius, d + radius]</code> need to be visited, where <code>d</code> is the distance between the node
+ * and the query.
+ * </p>
+ *
+ * <p>
+ * The nodes are stored in parallel primitive arrays, with first-child/next-sibling links, which keeps the tree compact
+ * when indexing millions of hashes. The tree is {@link Serializable} (provided the values are), so it can be persisted
+ * using {@link ws.palladian.helper.io.FileHelper#serialize(Serializable, String)}. This class is not thread safe.
+ * </p>
+ *
+ * @param <V> Type of the values associated with the hashes.
+ * @see <a href="https://en.wikipedia.org/wiki/BK-tree">BK-tree</a>
+ */
+public final class BkTree<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int NONE = -1;
+
+    /** A hash and its value found by a query. */
+    public static final class Match<V> {
+
+        private final long hash;
+        private final V value;
+        private final int distance;
+
+        Match(long hash, V value, int distance) {
+            this.hash = hash;
+            this.value = value;
+            this.distance = distance;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /** @return The Hamming distance to the query hash. */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return PerceptualHashes.toHex(hash) + "=" + value + " (distance=" + distance + ")";
+        }
+
+    }
+
+    private long[] hashes = new long[16];
+
+    private Object[] values = new Object[16];
+
+    /** The distance of each node to its parent, i.e. the key in the parent's children. */
+    private byte[] keys = new byte[16];
+
+    private int[] firstChild = new int[16];
+
+    private int[] nextSibling = new int[16];
+
+    private int size;
+
+    /**
+     * <p>
+     * Add a hash with its value. Duplicate hashes are allowed, each added entry is returned by queries.
+     * </p>
+     *
+     * @param hash The hash.
+     * @param value The value, may be <code>null</code>.
+     */
+    public void add(long hash, V value) {
+        int newNode = createNode(hash, value);
+        if (newNode == 0) {
+            return;
+        }
+        int node = 0;
+        for (;;) {
+            int distance = PerceptualHashes.distance(hash, hashes[node]);
+            int child = firstChild[node];
+            int lastChild = NONE;
+            while (child != NONE && keys[child] != distance) {
+                lastChild = child;
+                child = nextSibling[child];
+            }
+            if (child == NONE) {
+                keys[newNode] = (byte)distance;
+                if (lastChild == NONE) {
+                    firstChild[node] = newNode;
+                } else {
+                    nextSibling[lastChild] = newNode;
+                }
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private int createNode(long hash, V value) {
+        if (size == hashes.length) {
+            int newCapacity = size * 2;
+            hashes = Arrays.copyOf(hashes, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            firstChild = Arrays.copyOf(firstChild, newCapacity);
+            nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+        }
+        int node = size++;
+        hashes[node] = hash;
+        values[node] = value;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        return node;
+    }
+
+    /**
+     * <p>
+     * Find all entries within the given Hamming distance to the query.
+     * </p>
+     *
+     * @param hash The query hash.
+     * @param radius The maximum distance, greater/equal zero.
+     * @return The matches, sorted by ascending distance, or an empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Match<V>> search(long hash, int radius) {
+        Validate.isTrue(radius >= 0, "radius must be greater/equal zero");
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<Match<V>> matches = new ArrayList<>();
+        int[] stack = new int[16];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            int distance = PerceptualHashes.distance(hash, hashes[node]);
+            if (distance <= radius) {
+                matches.add(new Match<>(hashes[node], (V)values[node], distance));
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(keys[child] - distance) <= radius) {
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                    }
+                    stack[stackSize++] = child;
+                }
+            }
+        }
+        Collections.sort(matches, new Comparator<Match<V>>() {
+            @Override
+            public int compare(Match<V> m1, Match<V> m2) {
+                return Integer.compare(m1.distance, m2.distance);
+            }
+        });
+        return matches;
+    }
+
+    /** @return The number of entries in this tree. */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "BkTree [size=" + size + "]";
+    }
+
+}
@@ -0,0 +1,51 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.awt.image.BufferedImage;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
+/**
+ * <p>
+ * Block mean value hash, following the blockhash algorithm; the image is divided into 8x8 blocks, each bit signifies
+ * whether the block's mean value is brighter than the median of its horizontal band (the blocks are grouped into four
+ * bands of two rows each). For images which are dominated by black or white, blocks equal to the median are set in
+ * case the median is in the upper half of the value range, so that the hash does not degenerate.
+ * </p>
+ *
+ * @see <a href="http://blockhash.io">blockhash.io</a>
+ */
+public final class BlockMeanHash implements PerceptualHash {
+
+    public static final BlockMeanHash INSTANCE = new BlockMeanHash();
+
+    private static final int NUM_BANDS = 4;
+
+    private BlockMeanHash() {
+        // singleton
+    }
+
+    @Override
+    public long hash(BufferedImage image) {
+        Validate.notNull(image, "image must not be null");
+        double[] values = PerceptualHashes.grayscaleThumbnail(PixelBuffer.of(image), 8, 8);
+        int bandSize = values.length / NUM_BANDS;
+        long hash = 0;
+        for (int band = 0; band < NUM_BANDS; band++) {
+            double median = PerceptualHashes.median(values, band * bandSize, (band + 1) * bandSize);
+            for (int i = band * bandSize; i < (band + 1) * bandSize; i++) {
+                double value = values[i];
+                boolean bit = value > median || Math.abs(value - median) < 1 && median > 127.5;
+                hash = hash << 1 | (bit ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockMeanHash";
+    }
+
+}
@@ -0,0 +1,44 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.awt.image.BufferedImage;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
+/**
+ * <p>
+ * Difference (gradient) hash; the image is reduced to 9x8 grayscale pixels, each bit signifies whether a pixel is
+ * darker than its right neighbor.
+ * </p>
+ *
+ * @see <a href="http://www.hackerfactor.com/blog/index.php?/archives/529-Kind-of-Like-That.html">Kind of Like
+ *      That</a>
+ */
+public final class DifferenceHash implements PerceptualHash {
+
+    public static final DifferenceHash INSTANCE = new DifferenceHash();
+
+    private DifferenceHash() {
+        // singleton
+    }
+
+    @Override
+    public long hash(BufferedImage image) {
+        Validate.notNull(image, "image must not be null");
+        double[] values = PerceptualHashes.grayscaleThumbnail(PixelBuffer.of(image), 9, 8);
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash = hash << 1 | (values[y * 9 + x] < values[y * 9 + x + 1] ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DifferenceHash";
+    }
+
+}
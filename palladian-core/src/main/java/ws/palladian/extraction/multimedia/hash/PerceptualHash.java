@@ -0,0 +1,21 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * <p>
+ * A perceptual hash maps an image to a 64 bit fingerprint, so that visually similar images (e.g. scaled, recompressed
+ * or slightly modified versions) have hashes with a small Hamming distance (see
+ * {@link PerceptualHashes#distance(long, long)}). Hashes can be indexed using a {@link BkTree}, which allows to find
+ * near-duplicates without comparing all pairs of images.
+ * </p>
+ */
+public interface PerceptualHash {
+
+    /**
+     * @param image The image, not <code>null</code>.
+     * @return The 64 bit hash of the image.
+     */
+    long hash(BufferedImage image);
+
+}
@@ -0,0 +1,107 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
+/**
+ * <p>
+ * Utility functionality for {@link PerceptualHash}es.
+ * </p>
+ */
+public final class PerceptualHashes {
+
+    private PerceptualHashes() {
+        // utility class
+    }
+
+    /**
+     * <p>
+     * Calculate the Hamming distance between two hashes, i.e. the number of different bits.
+     * </p>
+     *
+     * @param hash1 The first hash.
+     * @param hash2 The second hash.
+     * @return The distance in range [0,64].
+     */
+    public static int distance(long hash1, long hash2) {
+        return Long.bitCount(hash1 ^ hash2);
+    }
+
+    /**
+     * @param hash The hash.
+     * @return The hash as hexadecimal string with 16 digits.
+     */
+    public static String toHex(long hash) {
+        String hex = Long.toHexString(hash);
+        StringBuilder builder = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            builder.append('0');
+        }
+        return builder.append(hex).toString();
+    }
+
+    /**
+     * @param hex The hexadecimal string with up to 16 digits, as created by {@link #toHex(long)}, not
+     *            <code>null</code>.
+     * @return The hash.
+     */
+    public static long fromHex(String hex) {
+        Validate.notEmpty(hex, "hex must not be empty");
+        Validate.isTrue(hex.length() <= 16, "hex must not be longer than 16 digits");
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    /**
+     * <p>
+     * Scale the image down to the given size using area averaging and convert it to grayscale in one pass.
+     * </p>
+     *
+     * @param pixels The image's pixels, not <code>null</code>.
+     * @param width The target width.
+     * @param height The target height.
+     * @return The luminance values of the scaled image in row-major order, in range [0,255].
+     */
+    static double[] grayscaleThumbnail(PixelBuffer pixels, int width, int height) {
+        int sourceWidth = pixels.getWidth();
+        int sourceHeight = pixels.getHeight();
+        Validate.isTrue(sourceWidth > 0 && sourceHeight > 0, "image must not be empty");
+        int[] data = pixels.getPixels();
+        double[] result = new double[width * height];
+        for (int y = 0; y < height; y++) {
+            int startY = y * sourceHeight / height;
+            int endY = Math.max(startY + 1, (y + 1) * sourceHeight / height);
+            for (int x = 0; x < width; x++) {
+                int startX = x * sourceWidth / width;
+                int endX = Math.max(startX + 1, (x + 1) * sourceWidth / width);
+                double sum = 0;
+                for (int sy = startY; sy < endY; sy++) {
+                    int offset = sy * sourceWidth;
+                    for (int sx = startX; sx < endX; sx++) {
+                        sum += luminance(data[offset + sx]);
+                    }
+                }
+                result[y * width + x] = sum / ((endY - startY) * (endX - startX));
+            }
+        }
+        return result;
+    }
+
+    private static double luminance(int rgb) {
+        // transparent pixels are considered as white
+        if ((rgb >>> 24) == 0) {
+            return 255;
+        }
+        return 0.299 * PixelBuffer.red(rgb) + 0.587 * PixelBuffer.green(rgb) + 0.114 * PixelBuffer.blue(rgb);
+    }
+
+    static double median(double[] values, int from, int to) {
+        double[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 0 ? (sorted[middle - 1] + sorted[middle]) / 2 : sorted[middle];
+    }
+
+}
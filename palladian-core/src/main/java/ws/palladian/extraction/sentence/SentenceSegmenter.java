@@ -0,0 +1,515 @@
+package ws.palladian.extraction.sentence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.core.Annotation;
+import ws.palladian.extraction.entity.DateAndTimeTagger;
+import ws.palladian.extraction.entity.SmileyTagger;
+import ws.palladian.extraction.entity.UrlTagger;
+import ws.palladian.extraction.token.Tokenizer;
+import ws.palladian.helper.constants.DateFormat;
+import ws.palladian.helper.constants.Language;
+import ws.palladian.helper.constants.RegExp;
+
+/**
+ * <p>
+ * Incremental sentence segmenter which produces the same sentence boundaries as the regular expressions
+ * {@link Tokenizer#SENTENCE_SPLIT_REGEX_EN} and {@link Tokenizer#SENTENCE_SPLIT_REGEX_DE} (and thus, the
+ * {@link PalladianSentenceDetector}), but scans the text in one pass instead. Sentence delimiters are only inspected
+ * at the characters <code>.</code>, <code>?</code> and <code>!</code>; the abbreviations which prevent a split are
+ * compiled into a trie over the reversed abbreviations, so that checking the text before a delimiter takes time
+ * proportional to the length of the longest abbreviation, independent of the number of abbreviations.
+ * </p>
+ *
+ * <p>
+ * The text is consumed lazily, either from a {@link CharSequence} or from a {@link Reader}, and sentences are returned
+ * as offsets via {@link Spans}, no substrings are created. URLs, dates and smileys (which must not be split) are
+ * recognized within a sliding window around the current position. Results are therefore identical to the
+ * {@link PalladianSentenceDetector}, except for such entities longer than several hundred characters.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and can be shared between threads, {@link Spans} must not be shared.
+ * </p>
+ */
+public final class SentenceSegmenter {
+
+    /** Abbreviations (in a regex-like syntax, see {@link #parse(String)}) after which English text is not split. */
+    private static final String[] ABBREVIATIONS_EN = {"\\.", "\\(", "[A-Z]\\.[A-Z]", "St", "Mr", "mr", "Vers", "Dr",
+            "dr", "Prof", "Nr", "Rev", "Mrs", "mrs", "Jr", "jr", "vs", " eg", "e\\.g", "ca", "max", "Min", "etc",
+            " sq", " ft"};
+
+    /** Abbreviations (in a regex-like syntax, see {@link #parse(String)}) after which German text is not split. */
+    private static final String[] ABBREVIATIONS_DE = {"\\.", "\\(", "[A-Z]\\.[A-Z]", "St", "[mM]r", "[dD]r", "Ca",
+            "Mio", "Mind", "u\\.A", "Inkl", "Vers", "Prof", "[mM]s", "zusätzl", "äquiv", "komp", "quiet",
+            "elektr\\.", "[jJ]r", "vs", "ca", "engl", "evtl", "max", "mind.", "etc", "Nr", "Rev", " sog", " ident",
+            "bzw", "i\\.d\\.R", "v\\.a", "u\\.v\\.m", "o\\.k", "zzgl", "Min", "Keyb", "Elec", "bspw", "bsp", "m\\.E",
+            "bezügl", "bzgl", "inkl", "exkl", "ggf", "z\\.[bB]", "z\\.\\s[bB]", " max", " min", "\\s[a-z]",
+            "u\\.s\\.w", "u\\.a", "u\\.\\sa", "d\\.h"};
+
+    /** Domain endings, which prevent a split when following the delimiter. */
+    private static final String[] DOMAIN_ENDINGS = {"com", "de", "fr", "uk", "au", "ca", "cn", "org", "net"};
+
+    /** All date formats which include dots. */
+    private static final DateFormat[] DATES_WITH_DOTS = new DateFormat[] {RegExp.DATE_EU_D_MM, //
+            RegExp.DATE_EU_D_MM_Y, //
+            RegExp.DATE_EU_D_MM_Y_T, //
+            RegExp.DATE_EU_D_MMMM, //
+            RegExp.DATE_EU_D_MMMM_Y,//
+            RegExp.DATE_EU_D_MMMM_Y_T, //
+            RegExp.DATE_EU_MM_Y, //
+            RegExp.DATE_USA_MMMM_D_Y,//
+            RegExp.DATE_USA_MMMM_D_Y_SEP,//
+            RegExp.DATE_USA_MMMM_D_Y_T,//
+            RegExp.DATE_USA_MMMM_D, //
+            RegExp.DATE_EUSA_MMMM_Y, //
+            RegExp.DATE_EUSA_YYYY_MMM_D};
+
+    /** Tagger for the date formats. */
+    private static final DateAndTimeTagger DATE_TAGGER = new DateAndTimeTagger(DATES_WITH_DOTS);
+
+    /** Character which is used as replacement recognized entities (URLs, Dates, Emoticons). */
+    private static final char MASK_CHARACTER = 'M';
+
+    /** Returned when accessing characters outside the text. */
+    private static final int NO_CHARACTER = -1;
+
+    /** Number of characters for which entities are recognized at once. */
+    private static final int WINDOW_SIZE = 8192;
+
+    /** Number of characters at the end of a window which are not scanned, as entities might be cut off there. */
+    private static final int WINDOW_MARGIN = 256;
+
+    /** Number of characters before the current sentence which are included in the window. */
+    private static final int WINDOW_CONTEXT = 64;
+
+    /** Node in the trie of reversed abbreviations. */
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        /** Child for any character except line terminators. */
+        Node any;
+        boolean terminal;
+    }
+
+    private final boolean german;
+
+    private final Node abbreviations;
+
+    public SentenceSegmenter(Language language) {
+        Validate.notNull(language, "language must not be null");
+        this.german = language == Language.GERMAN;
+        this.abbreviations = new Node();
+        for (String abbreviation : german ? ABBREVIATIONS_DE : ABBREVIATIONS_EN) {
+            List<char[]> elements = parse(abbreviation);
+            insert(abbreviations, elements, elements.size() - 1);
+        }
+    }
+
+    /**
+     * Parse an abbreviation. Supported are literal characters, escaped characters (e.g. <code>\.</code>), character
+     * classes (e.g. <code>[a-z]</code>), <code>\s</code> for whitespace and <code>.</code> for any character except
+     * line terminators.
+     *
+     * @return The character alternatives for each position, <code>null</code> denotes any character.
+     */
+    private static List<char[]> parse(String abbreviation) {
+        List<char[]> elements = new ArrayList<>();
+        for (int i = 0; i < abbreviation.length(); i++) {
+            char ch = abbreviation.charAt(i);
+            if (ch == '\\') {
+                char escaped = abbreviation.charAt(++i);
+                elements.add(escaped == 's' ? new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}
+                        : new char[] {escaped});
+            } else if (ch == '[') {
+                StringBuilder alternatives = new StringBuilder();
+                while ((ch = abbreviation.charAt(++i)) != ']') {
+                    if (abbreviation.charAt(i + 1) == '-') {
+                        char to = abbreviation.charAt(i + 2);
+                        for (char c = ch; c <= to; c++) {
+                            alternatives.append(c);
+                        }
+                        i += 2;
+                    } else {
+                        alternatives.append(ch);
+                    }
+                }
+                elements.add(alternatives.toString().toCharArray());
+            } else if (ch == '.') {
+                elements.add(null);
+            } else {
+                elements.add(new char[] {ch});
+            }
+        }
+        return elements;
+    }
+
+    private static void insert(Node node, List<char[]> elements, int index) {
+        if (index < 0) {
+            node.terminal = true;
+            return;
+        }
+        char[] alternatives = elements.get(index);
+        if (alternatives == null) {
+            if (node.any == null) {
+                node.any = new Node();
+            }
+            insert(node.any, elements, index - 1);
+            return;
+        }
+        for (char ch : alternatives) {
+            Node child = node.children.get(ch);
+            if (child == null) {
+                child = new Node();
+                node.children.put(ch, child);
+            }
+            insert(child, elements, index - 1);
+        }
+    }
+
+    /**
+     * Segment the given text.
+     *
+     * @param text The text, not <code>null</code>. Must not be modified while iterating.
+     * @return The sentence spans.
+     */
+    public Spans segment(CharSequence text) {
+        Validate.notNull(text, "text must not be null");
+        return new Spans(text, null);
+    }
+
+    /**
+     * Segment the text from the given reader. Only a window around the current sentence is kept in memory. The
+     * reader is not closed.
+     *
+     * @param reader The reader, not <code>null</code>.
+     * @return The sentence spans.
+     */
+    public Spans segment(Reader reader) {
+        Validate.notNull(reader, "reader must not be null");
+        return new Spans(new StringBuilder(), reader);
+    }
+
+    /**
+     * <p>
+     * Cursor over the sentences of a text. Call {@link #next()} to advance to the next sentence, and then
+     * {@link #getStart()} and {@link #getEnd()} to get its offsets. Sentences are trimmed, i.e. they do not start or
+     * end with whitespace, and do not overlap.
+     * </p>
+     */
+    public final class Spans {
+
+        private final Reader reader;
+
+        /** The text, or the currently buffered part of it when reading from a {@link Reader}. */
+        private final CharSequence data;
+
+        /** Offset of the first character in {@link #data} within the whole text. */
+        private int dataOffset;
+
+        /** <code>true</code>, in case {@link #data} contains the end of the text. */
+        private boolean endOfText;
+
+        /** Recognized entities within the window, relative to {@link #windowStart}. */
+        private final BitSet masked = new BitSet();
+        private int windowStart;
+        private int windowEnd;
+
+        /** Position up to which the window can be scanned. */
+        private int scanLimit;
+
+        /** Start of the current (not yet finished) sentence. */
+        private int sentenceStart;
+
+        /** The position of the scan. */
+        private int position;
+
+        private int start = -1;
+        private int end = -1;
+
+        private boolean finished;
+
+        private Spans(CharSequence data, Reader reader) {
+            this.data = data;
+            this.reader = reader;
+            this.endOfText = reader == null;
+        }
+
+        /**
+         * Advance to the next sentence.
+         *
+         * @return <code>true</code> in case there was a further sentence, <code>false</code> at the end of the text.
+         * @throws IllegalStateException In case reading from the {@link Reader} failed.
+         */
+        public boolean next() {
+            while (!finished) {
+                if (position >= scanLimit) {
+                    slideWindow();
+                }
+                if (position >= scanLimit) {
+                    // end of the text, add last fragment, in case we could not split the whole text
+                    finished = true;
+                    if (setSpan(sentenceStart, position)) {
+                        return true;
+                    }
+                    break;
+                }
+                int matchEnd = matchAt(position);
+                if (matchEnd < 0) {
+                    position++;
+                    continue;
+                }
+                int fragmentStart = sentenceStart;
+                sentenceStart = position = matchEnd;
+                if (setSpan(fragmentStart, matchEnd)) {
+                    return true;
+                }
+            }
+            start = end = -1;
+            return false;
+        }
+
+        /** @return The start offset of the current sentence in the text. */
+        public int getStart() {
+            Validate.validState(start >= 0, "no current sentence");
+            return start;
+        }
+
+        /** @return The end offset (exclusive) of the current sentence in the text. */
+        public int getEnd() {
+            Validate.validState(end >= 0, "no current sentence");
+            return end;
+        }
+
+        /**
+         * @return A view on the current sentence, which is only valid until the next call to {@link #next()}.
+         */
+        public CharSequence getSentence() {
+            Validate.validState(start >= 0, "no current sentence");
+            return CharBuffer.wrap(data, start - dataOffset, end - dataOffset);
+        }
+
+        private boolean setSpan(int fragmentStart, int fragmentEnd) {
+            while (fragmentStart < fragmentEnd && Character.isWhitespace(get(fragmentStart))) {
+                fragmentStart++;
+            }
+            while (fragmentEnd > fragmentStart && Character.isWhitespace(get(fragmentEnd - 1))) {
+                fragmentEnd--;
+            }
+            if (fragmentStart == fragmentEnd) {
+                return false;
+            }
+            start = fragmentStart;
+            end = fragmentEnd;
+            return true;
+        }
+
+        /**
+         * Move the window, so that it starts shortly before the current position and recognize the entities within.
+         */
+        private void slideWindow() {
+            int newStart = Math.max(dataOffset, Math.max(sentenceStart - WINDOW_CONTEXT, position - WINDOW_MARGIN));
+            int newEnd = position + WINDOW_SIZE;
+            fill(newEnd + WINDOW_MARGIN);
+            int dataEnd = dataOffset + data.length();
+            newEnd = Math.min(newEnd, dataEnd);
+            // do not cut off within a token
+            while (newEnd < dataEnd && newEnd < position + WINDOW_SIZE + WINDOW_MARGIN
+                    && !Character.isWhitespace(data.charAt(newEnd - dataOffset))) {
+                newEnd++;
+            }
+            windowStart = newStart;
+            windowEnd = newEnd;
+            masked.clear();
+            String window = data.subSequence(windowStart - dataOffset, windowEnd - dataOffset).toString();
+            mask(UrlTagger.INSTANCE.getAnnotations(window));
+            mask(DATE_TAGGER.getAnnotations(window));
+            mask(SmileyTagger.INSTANCE.getAnnotations(window));
+            scanLimit = endOfText && windowEnd == dataEnd ? windowEnd : windowEnd - WINDOW_MARGIN;
+        }
+
+        private void mask(List<? extends Annotation> annotations) {
+            for (Annotation annotation : annotations) {
+                masked.set(annotation.getStartPosition(), annotation.getEndPosition());
+            }
+        }
+
+        /** Read from the {@link Reader} until the given offset is buffered, and drop text which is not needed. */
+        private void fill(int offset) {
+            if (reader == null) {
+                return;
+            }
+            StringBuilder buffer = (StringBuilder)data;
+            int discard = Math.min(sentenceStart, position - WINDOW_MARGIN) - WINDOW_CONTEXT - dataOffset;
+            if (discard > WINDOW_SIZE) {
+                buffer.delete(0, discard);
+                dataOffset += discard;
+            }
+            char[] chars = new char[WINDOW_SIZE];
+            try {
+                while (!endOfText && dataOffset + buffer.length() < offset) {
+                    int read = reader.read(chars);
+                    if (read == -1) {
+                        endOfText = true;
+                    } else {
+                        buffer.append(chars, 0, read);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("I/O exception while trying to read text", e);
+            }
+        }
+
+        /**
+         * Get the character at the given offset, where recognized entities are replaced by {@link #MASK_CHARACTER}.
+         *
+         * @return The character, or {@link #NO_CHARACTER} in case the offset is outside the buffered text.
+         */
+        private int get(int offset) {
+            int index = offset - dataOffset;
+            if (index < 0 || index >= data.length()) {
+                return NO_CHARACTER;
+            }
+            if (offset >= windowStart && offset < windowEnd && masked.get(offset - windowStart)) {
+                return MASK_CHARACTER;
+            }
+            return data.charAt(index);
+        }
+
+        /**
+         * Check, whether a sentence delimiter starts at the given position.
+         *
+         * @return The end of the delimiter, or -1 in case there is no delimiter at the position.
+         */
+        private int matchAt(int position) {
+            int ch = get(position);
+            if (ch != '.' && ch != '?' && ch != '!') {
+                return -1;
+            }
+            if (followsAbbreviation(abbreviations, position - 1)) {
+                return -1;
+            }
+            if (german) {
+                // delimiter, quote, whitespace, uppercase letter (the letter is included in the match)
+                int quote = get(position + 1);
+                if ((quote == '”' || quote == '"') && isWhitespace(get(position + 2))
+                        && isUppercase(get(position + 3)) && !isBlocked(position + 4)) {
+                    return position + 4;
+                }
+            } else {
+                // delimiter, one or more quotes, followed by whitespace and an uppercase letter
+                int quotesEnd = position + 1;
+                while (isQuote(get(quotesEnd))) {
+                    quotesEnd++;
+                }
+                if (quotesEnd > position + 1 && isWhitespace(get(quotesEnd))) {
+                    int next = quotesEnd;
+                    while (isWhitespace(get(next))) {
+                        next++;
+                    }
+                    if (isUppercase(get(next))) {
+                        return quotesEnd;
+                    }
+                }
+            }
+            int delimiterEnd = position + 1;
+            if (ch != '.') { // sequences of "?" or "!"
+                while (get(delimiterEnd) == ch) {
+                    delimiterEnd++;
+                }
+            }
+            return isBlocked(delimiterEnd) ? -1 : delimiterEnd;
+        }
+
+        /** Check, whether the text up to (including) the given offset ends with an abbreviation. */
+        private boolean followsAbbreviation(Node node, int offset) {
+            if (node.terminal) {
+                return true;
+            }
+            int ch = get(offset);
+            if (ch == NO_CHARACTER) {
+                return false;
+            }
+            Node child = node.children.get((char)ch);
+            if (child != null && followsAbbreviation(child, offset - 1)) {
+                return true;
+            }
+            return node.any != null && !isLineTerminator(ch) && followsAbbreviation(node.any, offset - 1);
+        }
+
+        /** Check, whether the text after a delimiter prevents a split (e.g. numbers, domain names, etc.). */
+        private boolean isBlocked(int offset) {
+            int ch = get(offset);
+            if (ch == '.' || ch >= '0' && ch <= '9' || ch == '"' || ch == '”' || ch == '\'' || ch == ')'
+                    || ch == '!' || ch == '?' || ch == '(') {
+                return true;
+            }
+            if (german && ch == ' ' && get(offset + 1) == 'B' && get(offset + 2) == '.') {
+                return true;
+            }
+            for (String ending : DOMAIN_ENDINGS) {
+                if (startsWith(offset, ending)) {
+                    int next = offset + ending.length();
+                    if (isWhitespace(get(next)) || get(next) == '/' && isWhitespace(get(next + 1))) {
+                        return true;
+                    }
+                }
+            }
+            // up to 15 letters followed by a dot or "()", e.g. "flash.stage.MovieClip()"
+            int length = 0;
+            while (length <= 15 && isAsciiLetter(get(offset + length))) {
+                length++;
+            }
+            if (length >= 1 && length <= 15) {
+                int next = get(offset + length);
+                return next == '.' || next == '(' && get(offset + length + 1) == ')';
+            }
+            return false;
+        }
+
+        private boolean startsWith(int offset, String string) {
+            for (int i = 0; i < string.length(); i++) {
+                if (get(offset + i) != string.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /** Whitespace as defined by <code>\s</code> in regular expressions. */
+    private static boolean isWhitespace(int ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+
+    private static boolean isLineTerminator(int ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+
+    private static boolean isQuote(int ch) {
+        return ch == '’' || ch == '”' || ch == '"';
+    }
+
+    private static boolean isUppercase(int ch) {
+        return ch >= 'A' && ch <= 'Z';
+    }
+
+    private static boolean isAsciiLetter(int ch) {
+        return ch >= 'A' && ch <= 'Z' || ch >= 'a' && ch <= 'z';
+    }
+
+    @Override
+    public String toString() {
+        return "SentenceSegmenter [language=" + (german ? Language.GERMAN : Language.ENGLISH) + "]";
+    }
+
+}
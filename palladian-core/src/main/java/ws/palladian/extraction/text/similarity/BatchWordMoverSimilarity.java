@@ -0,0 +1,307 @@
+package ws.palladian.extraction.text.similarity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+
+import ws.palladian.extraction.text.vector.FloatVectorUtil;
+import ws.palladian.extraction.text.vector.WordVectorDictionary;
+import ws.palladian.helper.collection.FixedSizePriorityQueue;
+
+/**
+ * Batch variant of the {@link WordMoverSimilarity}, intended for comparing a
+ * large number of texts with each other. Each text is converted into a
+ * {@link Document} exactly once; this looks up all token vectors from the
+ * dictionary, removes duplicates and normalizes them, so that the pairwise
+ * comparison is reduced to dot products over contiguous <code>float[]</code>
+ * arrays, which the JIT is able to vectorize.
+ *
+ * The similarity values are identical (except for floating point rounding) to
+ * those of {@link WordMoverSimilarity}. In addition, this class offers a cheap
+ * upper bound for the similarity (i.e. a lower bound for the relaxed word
+ * mover's distance) which is used by {@link #topK(Document, List, int)} to
+ * prune candidates without computing the full distance matrix.
+ *
+ * Instances are thread-safe, {@link Document}s are immutable.
+ */
+public class BatchWordMoverSimilarity extends AbstractWordVectorSimilarity {
+
+	/**
+	 * A text prepared for comparison, i.e. the normalized vectors of its
+	 * distinct, known tokens, stored in one row-major array.
+	 */
+	public static final class Document {
+
+		/** Row-major matrix with one normalized vector per distinct token. */
+		private final float[] vectors;
+
+		/** Number of occurrences in the text for each row in {@link #vectors}. */
+		private final int[] weights;
+
+		/** Number of tokens in the text, including those without vector. */
+		private final int numTokens;
+
+		/** Per-dimension minimum over all rows, used for the similarity bound. */
+		private final float[] min;
+
+		/** Per-dimension maximum over all rows, used for the similarity bound. */
+		private final float[] max;
+
+		private Document(float[] vectors, int[] weights, int numTokens, int dimension) {
+			this.vectors = vectors;
+			this.weights = weights;
+			this.numTokens = numTokens;
+			this.min = new float[dimension];
+			this.max = new float[dimension];
+			if (weights.length > 0) {
+				System.arraycopy(vectors, 0, min, 0, dimension);
+				System.arraycopy(vectors, 0, max, 0, dimension);
+			}
+			for (int row = 1; row < weights.length; row++) {
+				int offset = row * dimension;
+				for (int d = 0; d < dimension; d++) {
+					float value = vectors[offset + d];
+					min[d] = Math.min(min[d], value);
+					max[d] = Math.max(max[d], value);
+				}
+			}
+		}
+
+		/** @return The number of tokens in the text (including unknown ones). */
+		public int getNumTokens() {
+			return numTokens;
+		}
+
+		/** @return The number of distinct tokens for which a vector exists. */
+		public int getNumVectors() {
+			return weights.length;
+		}
+
+		@Override
+		public String toString() {
+			return "Document [numTokens=" + numTokens + ", numVectors=" + weights.length + "]";
+		}
+
+	}
+
+	/** A document from a corpus, together with its similarity to a query. */
+	public static final class ScoredDocument {
+
+		private final int index;
+		private final double similarity;
+
+		ScoredDocument(int index, double similarity) {
+			this.index = index;
+			this.similarity = similarity;
+		}
+
+		/** @return The index of the document in the searched corpus. */
+		public int getIndex() {
+			return index;
+		}
+
+		/** @return The similarity to the query. */
+		public double getSimilarity() {
+			return similarity;
+		}
+
+		@Override
+		public String toString() {
+			return index + "=" + similarity;
+		}
+
+	}
+
+	private static final Comparator<ScoredDocument> SIMILARITY_COMPARATOR = new Comparator<ScoredDocument>() {
+		@Override
+		public int compare(ScoredDocument d1, ScoredDocument d2) {
+			return Double.compare(d1.similarity, d2.similarity);
+		}
+	};
+
+	private final WordVectorDictionary dictionary;
+
+	public BatchWordMoverSimilarity(WordVectorDictionary dictionary) {
+		Validate.notNull(dictionary, "dictionary must not be null");
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Prepare a text for comparison. Callers which compare one text multiple
+	 * times should keep the returned {@link Document}.
+	 *
+	 * @param text The text, not <code>null</code>.
+	 * @return The prepared document.
+	 */
+	public Document prepare(String text) {
+		Objects.requireNonNull(text, "text must not be null");
+		List<String> tokens = preprocess(text);
+		Map<String, int[]> counts = new LinkedHashMap<>();
+		for (String token : tokens) {
+			int[] count = counts.get(token);
+			if (count == null) {
+				counts.put(token, new int[] { 1 });
+			} else {
+				count[0]++;
+			}
+		}
+		int dimension = dictionary.vectorSize();
+		List<float[]> vectors = new ArrayList<>(counts.size());
+		List<Integer> weights = new ArrayList<>(counts.size());
+		for (Entry<String, int[]> entry : counts.entrySet()) {
+			float[] vector = dictionary.getVector(entry.getKey());
+			if (vector == null) {
+				continue;
+			}
+			vectors.add(vector);
+			weights.add(entry.getValue()[0]);
+		}
+		float[] matrix = new float[vectors.size() * dimension];
+		int[] weightArray = new int[weights.size()];
+		for (int row = 0; row < vectors.size(); row++) {
+			float[] vector = vectors.get(row);
+			float magnitude = FloatVectorUtil.magnitude(vector);
+			int offset = row * dimension;
+			for (int d = 0; d < dimension; d++) {
+				matrix[offset + d] = vector[d] / magnitude;
+			}
+			weightArray[row] = weights.get(row);
+		}
+		return new Document(matrix, weightArray, tokens.size(), dimension);
+	}
+
+	@Override
+	public double getSimilarity(String i1, String i2) {
+		return getSimilarity(prepare(i1), prepare(i2));
+	}
+
+	/**
+	 * Calculate the similarity between two prepared documents.
+	 *
+	 * @param d1 The first document, not <code>null</code>.
+	 * @param d2 The second document, not <code>null</code>.
+	 * @return The similarity; same semantics as
+	 *         {@link WordMoverSimilarity#getSimilarity(String, String)}.
+	 */
+	public double getSimilarity(Document d1, Document d2) {
+		// the document with fewer tokens is the one being "moved"
+		if (d1.numTokens > d2.numTokens) {
+			return similarity(d2, d1);
+		}
+		return similarity(d1, d2);
+	}
+
+	private double similarity(Document source, Document target) {
+		int dimension = dictionary.vectorSize();
+		float[] sourceVectors = source.vectors;
+		float[] targetVectors = target.vectors;
+		int numTarget = target.weights.length;
+		double similarity = 0;
+		for (int i = 0; i < source.weights.length; i++) {
+			int sourceOffset = i * dimension;
+			float maxSimilarity = 0;
+			for (int j = 0; j < numTarget; j++) {
+				int targetOffset = j * dimension;
+				float dot = 0;
+				for (int d = 0; d < dimension; d++) {
+					dot += sourceVectors[sourceOffset + d] * targetVectors[targetOffset + d];
+				}
+				maxSimilarity = Math.max(maxSimilarity, dot);
+			}
+			similarity += source.weights[i] * maxSimilarity;
+		}
+		return similarity / source.numTokens;
+	}
+
+	/**
+	 * Calculate an upper bound for the similarity between two documents (which
+	 * corresponds to a lower bound for the relaxed word mover's distance). The
+	 * bound only needs the per-dimension minima and maxima of the larger
+	 * document and thus runs in time linear to the number of vectors in the
+	 * smaller document.
+	 *
+	 * @param d1 The first document, not <code>null</code>.
+	 * @param d2 The second document, not <code>null</code>.
+	 * @return A value which is guaranteed to be greater or equal to
+	 *         {@link #getSimilarity(Document, Document)}.
+	 */
+	public double getSimilarityUpperBound(Document d1, Document d2) {
+		if (d1.numTokens > d2.numTokens) {
+			return upperBound(d2, d1);
+		}
+		return upperBound(d1, d2);
+	}
+
+	private double upperBound(Document source, Document target) {
+		if (target.weights.length == 0) {
+			return 0;
+		}
+		int dimension = dictionary.vectorSize();
+		float[] sourceVectors = source.vectors;
+		float[] min = target.min;
+		float[] max = target.max;
+		double bound = 0;
+		for (int i = 0; i < source.weights.length; i++) {
+			int sourceOffset = i * dimension;
+			float dot = 0;
+			for (int d = 0; d < dimension; d++) {
+				float value = sourceVectors[sourceOffset + d];
+				dot += Math.max(value * min[d], value * max[d]);
+			}
+			// all vectors are normalized, so the cosine can never exceed one
+			bound += source.weights[i] * Math.max(0, Math.min(1, dot));
+		}
+		return bound / source.numTokens;
+	}
+
+	/**
+	 * Find the most similar documents in a corpus. Candidates are visited in
+	 * descending order of their similarity bound; the search stops as soon as
+	 * no remaining candidate can enter the top k.
+	 *
+	 * @param query The query document, not <code>null</code>.
+	 * @param corpus The documents to search, not <code>null</code>.
+	 * @param k The number of results to return, greater zero.
+	 * @return The k most similar documents, sorted by descending similarity.
+	 */
+	public List<ScoredDocument> topK(Document query, List<Document> corpus, int k) {
+		Objects.requireNonNull(query, "query must not be null");
+		Objects.requireNonNull(corpus, "corpus must not be null");
+		Validate.isTrue(k > 0, "k must be greater zero");
+		List<ScoredDocument> candidates = new ArrayList<>(corpus.size());
+		for (int index = 0; index < corpus.size(); index++) {
+			candidates.add(new ScoredDocument(index, getSimilarityUpperBound(query, corpus.get(index))));
+		}
+		Collections.sort(candidates, Collections.reverseOrder(SIMILARITY_COMPARATOR));
+		FixedSizePriorityQueue<ScoredDocument> queue = new FixedSizePriorityQueue<>(k, SIMILARITY_COMPARATOR);
+		double threshold = Double.NEGATIVE_INFINITY;
+		int numResults = 0;
+		for (ScoredDocument candidate : candidates) {
+			if (numResults >= k && candidate.similarity <= threshold) {
+				break;
+			}
+			double similarity = getSimilarity(query, corpus.get(candidate.index));
+			queue.add(new ScoredDocument(candidate.index, similarity));
+			numResults++;
+			if (numResults >= k) {
+				threshold = Collections.min(queue.asList(), SIMILARITY_COMPARATOR).similarity;
+			}
+		}
+		List<ScoredDocument> result = new ArrayList<>(queue.asList());
+		Collections.sort(result, Collections.reverseOrder(SIMILARITY_COMPARATOR));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchWordMoverSimilarity [dictionary=" + dictionary + "]";
+	}
+
+}
@@ -1,11 +1,17 @@
 package ws.palladian.extraction.text.similarity;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
 
 import ws.palladian.classification.text.FeatureSetting;
 import ws.palladian.classification.text.Preprocessor;
 import ws.palladian.helper.collection.CollectionHelper;
+import ws.palladian.helper.collection.LruMap;
 import ws.palladian.helper.nlp.AbstractStringMetric;
 import ws.palladian.helper.nlp.StringMetric;
 
@@ -17,10 +23,31 @@ public class TokenBasedWordMoverSimilarity extends AbstractStringMetric {
 
 	private final Preprocessor preprocessor;
 
+	/** Cache for token pair similarities, or <code>null</code> in case caching is disabled. */
+	private final Map<Pair<String, String>, Double> pairCache;
+
 	public TokenBasedWordMoverSimilarity(FeatureSetting featureSetting, StringMetric tokenSimilarity) {
+		this(featureSetting, tokenSimilarity, 0);
+	}
+
+	/**
+	 * Create a new {@link TokenBasedWordMoverSimilarity} which caches the
+	 * similarities of token pairs. This pays off when many texts with a
+	 * similar vocabulary are compared, e.g. when de-duplicating a large
+	 * collection, and when the token similarity is expensive to calculate.
+	 * 
+	 * @param featureSetting The feature setting, not <code>null</code>.
+	 * @param tokenSimilarity The similarity for token pairs, not <code>null</code>.
+	 * @param cacheSize The maximum number of cached token pairs; zero to disable caching.
+	 */
+	public TokenBasedWordMoverSimilarity(FeatureSetting featureSetting, StringMetric tokenSimilarity, int cacheSize) {
+		Validate.notNull(featureSetting, "featureSetting must not be null");
+		Validate.notNull(tokenSimilarity, "tokenSimilarity must not be null");
+		Validate.isTrue(cacheSize >= 0, "cacheSize must be zero or greater");
 		this.featureSetting = featureSetting;
 		this.tokenSimilarity = tokenSimilarity;
 		this.preprocessor = new Preprocessor(featureSetting);
+		this.pairCache = cacheSize > 0 ? Collections.synchronizedMap(LruMap.<Pair<String, String>, Double> accessOrder(cacheSize)) : null;
 	}
 
 	@Override
@@ -38,12 +65,13 @@ public class TokenBasedWordMoverSimilarity extends AbstractStringMetric {
 			tokens2 = temp;
 		}
 
+		String[] tokenArray2 = tokens2.toArray(new String[tokens2.size()]);
 		double similarity = 0;
 
 		for (String token1 : tokens1) {
 			double maxSimilarty = 0;
-			for (String token2 : tokens2) {
-				maxSimilarty = Math.max(maxSimilarty, tokenSimilarity.getSimilarity(token1, token2));
+			for (String token2 : tokenArray2) {
+				maxSimilarty = Math.max(maxSimilarty, getTokenSimilarity(token1, token2));
 			}
 			similarity += maxSimilarty;
 		}
@@ -52,6 +80,19 @@ public class TokenBasedWordMoverSimilarity extends AbstractStringMetric {
 
 	}
 
+	private double getTokenSimilarity(String token1, String token2) {
+		if (pairCache == null) {
+			return tokenSimilarity.getSimilarity(token1, token2);
+		}
+		Pair<String, String> key = Pair.of(token1, token2);
+		Double similarity = pairCache.get(key);
+		if (similarity == null) {
+			similarity = tokenSimilarity.getSimilarity(token1, token2);
+			pairCache.put(key, similarity);
+		}
+		return similarity;
+	}
+
 	private Collection<String> preprocess(String s) {
 		Iterator<String> featureIterator = preprocessor.apply(s);
 		return CollectionHelper.newHashSet(featureIterator);
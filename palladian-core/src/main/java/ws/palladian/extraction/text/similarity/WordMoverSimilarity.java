@@ -1,8 +1,5 @@
 package ws.palladian.extraction.text.similarity;
 
-import java.util.List;
-
-import ws.palladian.extraction.text.vector.FloatVectorUtil;
 import ws.palladian.extraction.text.vector.WordVectorDictionary;
 
 /**
@@ -11,6 +8,10 @@ import ws.palladian.extraction.text.vector.WordVectorDictionary;
  * Embeddings To Document Distances</a>'; Matt J. Kusner, Yu Sun, Nicholas I.
  * Kolkin, Kilian Q. Weinberger; 2015.
  * 
+ * For comparing large numbers of texts, use the
+ * {@link BatchWordMoverSimilarity} directly, which allows to prepare each text
+ * only once.
+ * 
  * @author pk
  *
  */
@@ -18,42 +19,16 @@ public class WordMoverSimilarity extends AbstractWordVectorSimilarity {
 
 	private final WordVectorDictionary dictionary;
 
+	private final BatchWordMoverSimilarity batchSimilarity;
+
 	public WordMoverSimilarity(WordVectorDictionary dictionary) {
 		this.dictionary = dictionary;
+		this.batchSimilarity = new BatchWordMoverSimilarity(dictionary);
 	}
 
 	@Override
 	public double getSimilarity(String i1, String i2) {
-		List<String> tokens1 = preprocess(i1);
-		List<String> tokens2 = preprocess(i2);
-
-		// swap in case tokens1 holds the smaller set
-		if (tokens1.size() > tokens2.size()) {
-			List<String> temp = tokens1;
-			tokens1 = tokens2;
-			tokens2 = temp;
-		}
-
-		double similarity = 0;
-
-		for (String token1 : tokens1) {
-			double maxSimilarity = 0;
-			float[] vector1 = dictionary.getVector(token1);
-			if (vector1 == null) {
-				continue;
-			}
-			for (String token2 : tokens2) {
-				float[] vector2 = dictionary.getVector(token2);
-				if (vector2 == null) {
-					continue;
-				}
-				float currentSimilarity = FloatVectorUtil.cosine(vector1, vector2);
-				maxSimilarity = Math.max(maxSimilarity, currentSimilarity);
-			}
-			similarity += maxSimilarity;
-		}
-
-		return similarity / tokens1.size();
+		return batchSimilarity.getSimilarity(i1, i2);
 	}
 	
 	@Override
@@ -6,6 +6,7 @@ import java.util.*;
 import org.apache.commons.lang3.Validate;
 import ws.palladian.core.Token;
 import ws.palladian.extraction.sentence.PalladianSentenceDetector;
+import ws.palladian.extraction.sentence.SentenceSegmenter;
 import ws.palladian.helper.StopWatch;
 import ws.palladian.helper.collection.CollectionHelper;
 import ws.palladian.helper.constants.Language;
@@ -283,17 +284,29 @@ public final class Tokenizer {
             return string;
         }
 
-        List<String> sentences = getSentences(string, language);
-        String pickedSentence = "";
-        for (String sentence : sentences) {
-            int start = string.indexOf(sentence);
-            if (start <= position) {
-                pickedSentence = sentence;
-            } else {
-                break;
-            }
+        // only split until the sentence containing the position
+        SentenceSegmenter.Spans spans = getSentenceSpans(string, language);
+        int start = 0;
+        int end = 0;
+        while (spans.next() && spans.getStart() <= position) {
+            start = spans.getStart();
+            end = spans.getEnd();
         }
-        return pickedSentence;
+        return string.substring(start, end);
+    }
+
+    /**
+     * <p>
+     * Get the sentences of a text as offsets, without creating substrings. Sentences are split lazily while
+     * iterating, so this is preferable to {@link #getSentences(String, Language)} for long texts.
+     * </p>
+     * 
+     * @param text The text.
+     * @param language The language to use for sentence splitting.
+     * @return The sentence spans.
+     */
+    public static SentenceSegmenter.Spans getSentenceSpans(CharSequence text, Language language) {
+        return new PalladianSentenceDetector(language).iterateSpans(text);
     }
 
     public static List<String> getSentences(String inputText, boolean onlyRealSentences) {
@@ -28,6 +28,14 @@ import ws.palladian.helper.nlp.StringHelper;
  * Training data can be found on Palladian server under Datasets/SpellingCorrection
  * </p>
  *
+ * <p>
+ * By default, candidates are found by generating all edits of a word at query time, which becomes expensive for edit
+ * distance two and is thus limited to words up to {@link #getMaxWordLengthDistanceTwo()} characters. After calling
+ * {@link #buildDeleteIndex(int)} (or setting a previously serialized index via
+ * {@link #setDeleteIndex(SymmetricDeleteIndex)}), candidates are looked up from a {@link SymmetricDeleteIndex}
+ * instead, which also allows larger edit distances for words of any length.
+ * </p>
+ *
  * @author David Urbansky
  * @see https://norvig.com/spell-correct.html
  */
@@ -74,6 +82,12 @@ public class PalladianSpellChecker {
 
     private Trie<Integer> words = new Trie<>();
 
+    /**
+     * Optional precomputed index for looking up candidates; if present, it replaces the generation of edits at query
+     * time.
+     */
+    private SymmetricDeleteIndex deleteIndex;
+
     public PalladianSpellChecker() {
     }
 
@@ -280,7 +294,7 @@ public class PalladianSpellChecker {
             }
 
             int length = word.length();
-            if (length < minWordLength || length > maxWordLength || !StringHelper.getRegexpMatch(NO_CORRECTION_PATTERN, word).isEmpty()) {
+            if (length < minWordLength || length > maxWordLength || NO_CORRECTION_PATTERN.matcher(word).find()) {
                 correctedText.append(word).append(" ");
                 continue;
             }
@@ -373,22 +387,27 @@ public class PalladianSpellChecker {
             return word;
         }
 
-        List<String> list = edits(word);
+        List<String> list = null;
+        List<SymmetricDeleteIndex.Suggestion> suggestions = null;
         Map<Integer, String> candidates = new HashMap<>();
-        for (String s : list) {
-            if (s.isEmpty()) {
-                continue;
+        if (deleteIndex != null) {
+            suggestions = deleteIndex.lookup(word, deleteIndex.getMaxEditDistance());
+            for (SymmetricDeleteIndex.Suggestion suggestion : suggestions) {
+                if (suggestion.getDistance() == 1) {
+                    candidates.put(scoreWithContext(suggestion.getWord(), suggestion.getCount(), leftContext,
+                            rightContext), suggestion.getWord());
+                }
             }
-            Integer count = words.get(s);
-            if (count != null) {
-                // look at the context
-                if (leftContext != null) {
-                    count += 100 * contextCounter.count(leftContext + "_" + s);
+        } else {
+            list = edits(word);
+            for (String s : list) {
+                if (s.isEmpty()) {
+                    continue;
                 }
-                if (rightContext != null) {
-                    count += 100 * contextCounter.count(s + "_" + rightContext);
+                Integer count = words.get(s);
+                if (count != null) {
+                    candidates.put(scoreWithContext(s, count, leftContext, rightContext), s);
                 }
-                candidates.put(count, s);
             }
         }
 
@@ -418,16 +437,31 @@ public class PalladianSpellChecker {
             }
         }
 
-        // check for edit distance 2 if we haven't found anything, the first character must not change
+        // check for edit distance 2 (and more, when using the index) if we haven't found anything, the first character
+        // must not change
         if (candidates.isEmpty() && !compoundCorrect) {
-            for (String s : list) {
-                if (s.length() > maxWordLengthDistanceTwo) {
-                    continue;
+            if (suggestions != null) {
+                int distance = 0;
+                for (SymmetricDeleteIndex.Suggestion suggestion : suggestions) {
+                    // suggestions are sorted by distance, only take those with the smallest distance
+                    if (distance > 0 && suggestion.getDistance() > distance) {
+                        break;
+                    }
+                    if (suggestion.getDistance() > 1 && firstCharacterSame(suggestion.getWord(), word)) {
+                        candidates.put(suggestion.getCount(), suggestion.getWord());
+                        distance = suggestion.getDistance();
+                    }
                 }
-                for (String w : edits(s)) {
-                    Integer count = words.get(w);
-                    if (count != null && firstCharacterSame(w, word)) {
-                        candidates.put(count, w);
+            } else {
+                for (String s : list) {
+                    if (s.length() > maxWordLengthDistanceTwo) {
+                        continue;
+                    }
+                    for (String w : edits(s)) {
+                        Integer count = words.get(w);
+                        if (count != null && firstCharacterSame(w, word)) {
+                            candidates.put(count, w);
+                        }
                     }
                 }
             }
@@ -445,6 +479,19 @@ public class PalladianSpellChecker {
         return corrected;
     }
 
+    /**
+     * Boost the count of a candidate by the number of times it was seen with the given context.
+     */
+    private int scoreWithContext(String candidate, int count, String leftContext, String rightContext) {
+        if (leftContext != null) {
+            count += 100 * contextCounter.count(leftContext + "_" + candidate);
+        }
+        if (rightContext != null) {
+            count += 100 * contextCounter.count(candidate + "_" + rightContext);
+        }
+        return count;
+    }
+
     private boolean firstCharacterSame(String a, String b) {
         return !(a.isEmpty() || b.isEmpty()) && a.charAt(0) == b.charAt(0);
     }
@@ -455,6 +502,33 @@ public class PalladianSpellChecker {
 
     public void setWords(Trie<Integer> words) {
         this.words = words;
+        this.deleteIndex = null;
+    }
+
+    /**
+     * Build a {@link SymmetricDeleteIndex} from the current dictionary, which is used for finding correction
+     * candidates from then on. The index needs to be rebuilt after the dictionary has been changed.
+     *
+     * @param maxEditDistance The maximum edit distance for corrections, greater zero.
+     */
+    public void buildDeleteIndex(int maxEditDistance) {
+        StopWatch stopWatch = new StopWatch();
+        deleteIndex = new SymmetricDeleteIndex(words, maxEditDistance);
+        LOGGER.info("built " + deleteIndex + " in " + stopWatch.getElapsedTimeString());
+    }
+
+    public SymmetricDeleteIndex getDeleteIndex() {
+        return deleteIndex;
+    }
+
+    /**
+     * Set a (e.g. previously serialized) index for finding correction candidates. The index must have been created
+     * from the same dictionary which is used by this spell checker.
+     *
+     * @param deleteIndex The index, or <code>null</code> to generate candidates at query time.
+     */
+    public void setDeleteIndex(SymmetricDeleteIndex deleteIndex) {
+        this.deleteIndex = deleteIndex;
     }
 
     public boolean isGermanCompoundSupport() {
@@ -0,0 +1,346 @@
+package ws.palladian.semantics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * Precomputed index for looking up dictionary words within a given (optimal string alignment) edit distance, following
+ * the symmetric delete approach of SymSpell. For each dictionary word, all variants with up to
+ * <code>maxEditDistance</code> deleted characters are computed once when building the index; at query time, only the
+ * deletes of the query word need to be generated and looked up, instead of all insertions, replacements and
+ * transpositions. The number of generated variants is bounded by only considering the first
+ * <code>prefixLength</code> characters of each word, so that the cost per lookup does not depend on the word's length.
+ * </p>
+ *
+ * <p>
+ * The deletes themselves are not stored; the index only keeps their hash values as sorted <code>int</code> array
+ * pointing into a posting array of word ids, which keeps the index (and its serialized form) compact. Hash collisions
+ * only lead to additional candidates, which are removed when verifying the actual edit distance.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and can be shared between threads. Use
+ * {@link ws.palladian.helper.io.FileHelper#serialize(Serializable, String)} to persist an index.
+ * </p>
+ *
+ * @see <a href="https://github.com/wolfgarbe/SymSpell">SymSpell</a>
+ */
+public final class SymmetricDeleteIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The default number of characters of each word which is considered for generating deletes. */
+    public static final int DEFAULT_PREFIX_LENGTH = 7;
+
+    /** A dictionary word found by a lookup. */
+    public static final class Suggestion {
+
+        private final String word;
+        private final int distance;
+        private final int count;
+
+        Suggestion(String word, int distance, int count) {
+            this.word = word;
+            this.distance = distance;
+            this.count = count;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        /** @return The edit distance between query and this word. */
+        public int getDistance() {
+            return distance;
+        }
+
+        /** @return The number of occurrences of the word in the dictionary. */
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return word + " (distance=" + distance + ", count=" + count + ")";
+        }
+
+    }
+
+    /** Sorts suggestions by ascending distance, then by descending count. */
+    private static final Comparator<Suggestion> SUGGESTION_COMPARATOR = new Comparator<Suggestion>() {
+        @Override
+        public int compare(Suggestion s1, Suggestion s2) {
+            int result = Integer.compare(s1.distance, s2.distance);
+            if (result != 0) {
+                return result;
+            }
+            return Integer.compare(s2.count, s1.count);
+        }
+    };
+
+    private final int maxEditDistance;
+
+    private final int prefixLength;
+
+    /** The dictionary words, sorted, the position in the array is the id of a word. */
+    private final String[] words;
+
+    /** The counts for the words. */
+    private final int[] counts;
+
+    /** Distinct hash values of all deletes, sorted ascending. */
+    private final int[] deleteHashes;
+
+    /** Start offset in {@link #postings} for each entry in {@link #deleteHashes}, plus the total length. */
+    private final int[] offsets;
+
+    /** The word ids per delete hash. */
+    private final int[] postings;
+
+    /**
+     * Create a new index with the {@link #DEFAULT_PREFIX_LENGTH}.
+     *
+     * @param dictionary The dictionary words with their counts, not <code>null</code>.
+     * @param maxEditDistance The maximum edit distance supported by the index, greater zero.
+     */
+    public SymmetricDeleteIndex(Iterable<? extends Entry<String, Integer>> dictionary, int maxEditDistance) {
+        this(dictionary, maxEditDistance, DEFAULT_PREFIX_LENGTH);
+    }
+
+    /**
+     * Create a new index.
+     *
+     * @param dictionary The dictionary words with their counts, not <code>null</code>.
+     * @param maxEditDistance The maximum edit distance supported by the index, greater zero.
+     * @param prefixLength The number of characters of each word used for generating deletes, greater than
+     *            <code>maxEditDistance</code>. Larger values increase the index size, but decrease the number of
+     *            candidates which need to be verified.
+     */
+    public SymmetricDeleteIndex(Iterable<? extends Entry<String, Integer>> dictionary, int maxEditDistance,
+            int prefixLength) {
+        Validate.notNull(dictionary, "dictionary must not be null");
+        Validate.isTrue(maxEditDistance > 0, "maxEditDistance must be greater zero");
+        Validate.isTrue(prefixLength > maxEditDistance, "prefixLength must be greater than maxEditDistance");
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+
+        List<Entry<String, Integer>> entries = new ArrayList<>();
+        for (Entry<String, Integer> entry : dictionary) {
+            if (entry.getKey() != null && !entry.getKey().isEmpty() && entry.getValue() != null) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, new Comparator<Entry<String, Integer>>() {
+            @Override
+            public int compare(Entry<String, Integer> e1, Entry<String, Integer> e2) {
+                return e1.getKey().compareTo(e2.getKey());
+            }
+        });
+        this.words = new String[entries.size()];
+        this.counts = new int[entries.size()];
+        for (int id = 0; id < entries.size(); id++) {
+            words[id] = entries.get(id).getKey();
+            counts[id] = entries.get(id).getValue();
+        }
+
+        // collect (hash, id) pairs, encoded into one long, so that sorting groups them by hash
+        long[] pairs = new long[Math.max(16, words.length * 8)];
+        int numPairs = 0;
+        Set<String> deletes = new HashSet<>();
+        for (int id = 0; id < words.length; id++) {
+            deletes.clear();
+            collectDeletes(prefix(words[id]), maxEditDistance, deletes);
+            for (String delete : deletes) {
+                if (numPairs == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                }
+                pairs[numPairs++] = (long) delete.hashCode() << 32 | id;
+            }
+        }
+        Arrays.sort(pairs, 0, numPairs);
+
+        int numHashes = 0;
+        int numPostings = 0;
+        for (int i = 0; i < numPairs; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            if (i == 0 || (int) (pairs[i] >> 32) != (int) (pairs[i - 1] >> 32)) {
+                numHashes++;
+            }
+            numPostings++;
+        }
+        this.deleteHashes = new int[numHashes];
+        this.offsets = new int[numHashes + 1];
+        this.postings = new int[numPostings];
+        int hashIndex = -1;
+        int postingIndex = 0;
+        for (int i = 0; i < numPairs; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            int hash = (int) (pairs[i] >> 32);
+            if (hashIndex < 0 || deleteHashes[hashIndex] != hash) {
+                hashIndex++;
+                deleteHashes[hashIndex] = hash;
+                offsets[hashIndex] = postingIndex;
+            }
+            postings[postingIndex++] = (int) pairs[i];
+        }
+        offsets[numHashes] = postingIndex;
+    }
+
+    private String prefix(String word) {
+        return word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+    }
+
+    /**
+     * Recursively collect all variants of the given string with up to the given number of deleted characters
+     * (including the string itself).
+     */
+    private static void collectDeletes(String string, int distance, Set<String> result) {
+        result.add(string);
+        // breadth first, so that each variant is expanded once with the maximum remaining distance
+        List<String> level = Collections.singletonList(string);
+        for (int d = 0; d < distance; d++) {
+            List<String> nextLevel = new ArrayList<>();
+            for (String current : level) {
+                for (int i = 0; i < current.length(); i++) {
+                    String delete = current.substring(0, i) + current.substring(i + 1);
+                    if (result.add(delete)) {
+                        nextLevel.add(delete);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+    }
+
+    /**
+     * Look up all dictionary words within the given edit distance to the given word.
+     *
+     * @param word The word, not <code>null</code>.
+     * @param maxDistance The maximum edit distance, not greater than the index's {@link #getMaxEditDistance()}.
+     * @return The found words, sorted by ascending distance and descending count, or an empty list.
+     */
+    public List<Suggestion> lookup(String word, int maxDistance) {
+        Validate.notNull(word, "word must not be null");
+        Validate.isTrue(maxDistance >= 0 && maxDistance <= maxEditDistance, "maxDistance must be in range [0,"
+                + maxEditDistance + "]");
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (maxDistance == 0) {
+            int id = Arrays.binarySearch(words, word);
+            if (id >= 0) {
+                suggestions.add(new Suggestion(word, 0, counts[id]));
+            }
+            return suggestions;
+        }
+        Set<String> deletes = new HashSet<>();
+        collectDeletes(prefix(word), maxDistance, deletes);
+        Set<Integer> checked = new HashSet<>();
+        for (String delete : deletes) {
+            int hashIndex = Arrays.binarySearch(deleteHashes, delete.hashCode());
+            if (hashIndex < 0) {
+                continue;
+            }
+            for (int i = offsets[hashIndex]; i < offsets[hashIndex + 1]; i++) {
+                int id = postings[i];
+                String candidate = words[id];
+                if (Math.abs(candidate.length() - word.length()) > maxDistance || !checked.add(id)) {
+                    continue;
+                }
+                int distance = distance(word, candidate, maxDistance);
+                if (distance <= maxDistance) {
+                    suggestions.add(new Suggestion(candidate, distance, counts[id]));
+                }
+            }
+        }
+        Collections.sort(suggestions, SUGGESTION_COMPARATOR);
+        return suggestions;
+    }
+
+    /**
+     * Get the count of the given word.
+     *
+     * @param word The word, not <code>null</code>.
+     * @return The count, or <code>null</code> in case the word is not in the dictionary.
+     */
+    public Integer getCount(String word) {
+        Validate.notNull(word, "word must not be null");
+        int id = Arrays.binarySearch(words, word);
+        return id >= 0 ? counts[id] : null;
+    }
+
+    /**
+     * Calculate the optimal string alignment distance (i.e. the Levenshtein distance, where additionally a
+     * transposition of two adjacent characters counts as one edit) between two strings.
+     *
+     * @param s1 The first string.
+     * @param s2 The second string.
+     * @param bound The maximum distance of interest; calculation is stopped as soon as it is exceeded.
+     * @return The distance, or a value greater <code>bound</code> in case the distance exceeds the bound.
+     */
+    static int distance(String s1, String s2, int bound) {
+        int n = s1.length();
+        int m = s2.length();
+        if (Math.abs(n - m) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char c1 = s1.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char c2 = s2.charAt(j - 1);
+                int cost = c1 == c2 ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && c1 == s2.charAt(j - 2) && s1.charAt(i - 2) == c2) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] temp = previous2;
+            previous2 = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[m];
+    }
+
+    /** @return The maximum edit distance supported by this index. */
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    /** @return The number of words in this index. */
+    public int size() {
+        return words.length;
+    }
+
+    @Override
+    public String toString() {
+        return "SymmetricDeleteIndex [size=" + words.length + ", deletes=" + deleteHashes.length + ", maxEditDistance="
+                + maxEditDistance + ", prefixLength=" + prefixLength + "]";
+    }
+
+}
@@ -1,5 +1,39 @@
 package ws.palladian.classification.text;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+
 public class DictionaryMapModelTest extends AbstractDictionaryModelTest {
 
+	@Test
+	public void testCompactTerms() throws IOException {
+		DictionaryMapModel.Builder builder = new DictionaryMapModel.Builder();
+		builder.setCompactTerms(true);
+		builder.addDocument(Arrays.asList(WORD_1, "caf\u00e9", "\u0142\u00f3d\u017a"), CATEGORY_1);
+		builder.addDocument(Arrays.asList(WORD_1, "caf\u00e9"), CATEGORY_2);
+		DictionaryModel compactModel = builder.create();
+		assertEquals(3, compactModel.getNumUniqTerms());
+		assertEquals(2, compactModel.getCategoryEntries(WORD_1).getTotalCount());
+		assertEquals(1, compactModel.getCategoryEntries("\u0142\u00f3d\u017a").getCount(CATEGORY_1));
+		assertEquals(0, compactModel.getCategoryEntries(WORD_2).getTotalCount());
+
+		File tempFile = File.createTempFile("compactDictionaryModel", ".ser");
+		try {
+			FileHelper.serialize(compactModel, tempFile.getPath());
+			DictionaryModel deserializedModel = FileHelper.deserialize(tempFile.getPath());
+			assertTrue(deserializedModel.equals(compactModel));
+			assertEquals(2, deserializedModel.getCategoryEntries("caf\u00e9").getTotalCount());
+		} finally {
+			tempFile.delete();
+		}
+	}
+
 }
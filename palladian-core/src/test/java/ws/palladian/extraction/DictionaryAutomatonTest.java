@@ -0,0 +1,62 @@
+package ws.palladian.extraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ws.palladian.core.Annotation;
+import ws.palladian.core.ImmutableAnnotation;
+
+public class DictionaryAutomatonTest {
+
+    private static Map<String, String> createDictionary() {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        dictionary.put("New York", "LOC");
+        dictionary.put("New York City", "LOC");
+        dictionary.put("York", "LOC");
+        dictionary.put("New York Times", "ORG");
+        dictionary.put("U.S.", "LOC");
+        dictionary.put("Barack Obama", "PER");
+        return dictionary;
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        DictionaryAutomaton automaton = new DictionaryAutomaton(createDictionary(), true);
+        assertEquals(6, automaton.size());
+        String text = "Barack  Obama visited New York City and read the New York Times, not the new york times.";
+        List<Annotation> annotations = automaton.getAnnotations(text);
+        assertEquals(7, annotations.size());
+        assertTrue(annotations.contains(new ImmutableAnnotation(0, "Barack  Obama", "PER")));
+        assertTrue(annotations.contains(new ImmutableAnnotation(22, "New York", "LOC")));
+        assertTrue(annotations.contains(new ImmutableAnnotation(22, "New York City", "LOC")));
+        assertTrue(annotations.contains(new ImmutableAnnotation(26, "York", "LOC")));
+        assertTrue(annotations.contains(new ImmutableAnnotation(49, "New York Times", "ORG")));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        DictionaryAutomaton automaton = new DictionaryAutomaton(createDictionary(), false);
+        String text = "not the new york times.";
+        List<Annotation> annotations = automaton.getAnnotations(text);
+        assertEquals(3, annotations.size());
+        assertTrue(annotations.contains(new ImmutableAnnotation(8, "new york times", "ORG")));
+    }
+
+    @Test
+    public void testBoundaries() {
+        DictionaryAutomaton automaton = new DictionaryAutomaton(createDictionary(), true);
+        assertEquals(1, automaton.getAnnotations("in the U.S. today").size());
+        assertEquals(0, automaton.getAnnotations("in the U.S.A today").size());
+        assertEquals(0, automaton.getAnnotations("in the U. S. today").size());
+        assertEquals(0, automaton.getAnnotations("Yorkshire").size());
+        assertEquals(1, automaton.getAnnotations("(York)").size());
+        assertEquals(0, new DictionaryAutomaton(new LinkedHashMap<String, String>(), true).getAnnotations("York").size());
+    }
+
+}
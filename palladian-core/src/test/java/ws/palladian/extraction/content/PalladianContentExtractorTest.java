@@ -1,10 +1,12 @@
 package ws.palladian.extraction.content;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
+import org.xml.sax.InputSource;
 import ws.palladian.helper.constants.Language;
 import ws.palladian.helper.io.ResourceHelper;
 import ws.palladian.retrieval.DocumentRetriever;
@@ -12,11 +14,19 @@ import ws.palladian.retrieval.HttpRetrieverFactory;
 import ws.palladian.retrieval.resources.WebImage;
 
 import java.io.FileNotFoundException;
+import java.io.StringReader;
 import java.security.Security;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class PalladianContentExtractorTest {
     @Rule
@@ -165,4 +175,57 @@ public class PalladianContentExtractorTest {
 
         // CollectionHelper.print(images);
     }
+
+    @Test
+    public void testStreamingExtraction() throws PageContentExtractorException, FileNotFoundException {
+        PalladianContentExtractor extractor = new PalladianContentExtractor().setStreaming(true);
+
+        // => http://www.bbc.co.uk/news/science-environment-14254856
+        extractor.setDocument(ResourceHelper.getResourcePath("/pageContentExtractor/test020.html"));
+        assertNull(extractor.getDocument());
+        assertNull(extractor.getResultNode());
+        String text = extractor.getResultText();
+        collector.checkThat(text, containsString("So here's the conundrum."));
+        collector.checkThat(text, not(containsString("StumbleUpon")));
+        collector.checkThat(extractor.getResultTitle(), is("US heatwave raises climate complexity"));
+        List<WebImage> images = extractor.getImages();
+        collector.checkThat(images.get(0).getWidth(), is(624));
+        collector.checkThat(extractor.getComments().size(), is(6));
+
+        // DOM mode is still available
+        extractor.setStreaming(false);
+        extractor.setDocument(ResourceHelper.getResourcePath("/pageContentExtractor/test020.html"));
+        collector.checkThat(extractor.getResultNode(), notNullValue());
+        collector.checkThat(extractor.getImages().size(), is(4));
+    }
+
+    @Test
+    public void testStreamingTextBlocks() throws PageContentExtractorException {
+        String html = "<html><head><title>The Title | Site</title></head><body>"
+                + "<header><h1>Site</h1><p>Header text which is not part of the content.</p></header>"
+                + "<ul><li><a href='/1'>Home</a></li><li><a href='/2'>News and more news</a></li></ul>"
+                + "<div><p>" + StringUtils.repeat("This is the first paragraph of the article. ", 10) + "</p>"
+                + "<img src='image.jpg' width='300' height='200'>"
+                + "<p>" + StringUtils.repeat("This is the second paragraph of the article. ", 10) + "</p></div>"
+                + "<div class='comment'><p>Great article, thanks!</p></div>"
+                + "<footer><p>Copyright notice which is not part of the content.</p></footer>"
+                + "<script>var x = 'script';</script></body></html>";
+        InputSource inputSource = new InputSource(new StringReader(html));
+        inputSource.setSystemId("http://example.com/article.html");
+        PalladianContentExtractor extractor = new PalladianContentExtractor().setDocumentStreaming(inputSource);
+
+        String text = extractor.getResultText();
+        assertTrue(text.startsWith("This is the first paragraph"));
+        assertTrue(text.contains("This is the second paragraph"));
+        assertFalse(text.contains("Header text"));
+        assertFalse(text.contains("Copyright"));
+        assertFalse(text.contains("Home"));
+        assertFalse(text.contains("script"));
+        assertEquals(Arrays.asList("Great article, thanks!"), extractor.getComments());
+        assertEquals("The Title", extractor.getResultTitle());
+        assertEquals(1, extractor.getImages().size());
+        assertEquals("http://example.com/image.jpg", extractor.getImages().get(0).getImageUrl());
+        assertEquals(300, extractor.getImages().get(0).getWidth());
+        assertTrue(extractor.getEntireTextContent().contains("Header text"));
+    }
 }
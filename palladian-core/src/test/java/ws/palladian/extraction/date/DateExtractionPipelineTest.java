@@ -0,0 +1,153 @@
+package ws.palladian.extraction.date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import ws.palladian.extraction.date.dates.ContentDate;
+import ws.palladian.extraction.date.dates.MetaDate;
+import ws.palladian.extraction.date.dates.StructureDate;
+import ws.palladian.extraction.date.getter.ContentDateGetter;
+import ws.palladian.extraction.date.getter.HeadDateGetter;
+import ws.palladian.extraction.date.getter.StructureDateGetter;
+import ws.palladian.extraction.date.getter.TechniqueDateGetter;
+import ws.palladian.extraction.date.helper.DateExtractionHelper;
+import ws.palladian.helper.date.DateParser;
+import ws.palladian.helper.date.ExtractedDate;
+import ws.palladian.helper.html.XPathHelper;
+import ws.palladian.helper.io.ResourceHelper;
+import ws.palladian.retrieval.parser.ParserException;
+import ws.palladian.retrieval.parser.ParserFactory;
+
+public class DateExtractionPipelineTest {
+
+    /** Returns the given dates after sleeping for the given time. */
+    private static final class FixedDateGetter extends TechniqueDateGetter<MetaDate> {
+        private final long sleep;
+        private final List<MetaDate> dates;
+        private volatile Document document;
+
+        FixedDateGetter(long sleep, MetaDate... dates) {
+            this.sleep = sleep;
+            this.dates = Arrays.asList(dates);
+        }
+
+        @Override
+        public List<MetaDate> getDates(Document document) {
+            this.document = document;
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return dates;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Document parse(String resource) throws FileNotFoundException, ParserException {
+        return ParserFactory.createHtmlParser().parse(ResourceHelper.getResourceFile(resource));
+    }
+
+    private static List<String> toStrings(List<? extends ExtractedDate> dates) {
+        List<String> result = new ArrayList<>();
+        for (ExtractedDate date : dates) {
+            result.add(date.toString());
+        }
+        return result;
+    }
+
+    @Test
+    public void testSharedTraversal() throws FileNotFoundException, ParserException {
+        for (String file : Arrays.asList("zeit1.htm", "zeit2.htm", "spiegel.html", "kullin.htm", "webPageW3C.htm")) {
+            Document document = parse("/webPages/dateExtraction/" + file);
+            DateExtractionPipeline pipeline = new DateExtractionPipeline(executor, 1, TimeUnit.SECONDS);
+            DateExtractionPipeline.Result result = pipeline.extract(document);
+            assertTrue(result.isComplete());
+
+            List<StructureDate> expectedStructure = new StructureDateGetter().getDates(document);
+            List<StructureDate> structureDates = DateExtractionHelper.filter(result.getDates(), StructureDate.class);
+            assertEquals(file, toStrings(expectedStructure), toStrings(structureDates));
+            for (int i = 0; i < expectedStructure.size(); i++) {
+                assertEquals(expectedStructure.get(i).get(StructureDate.STRUCTURE_DEPTH),
+                        structureDates.get(i).get(StructureDate.STRUCTURE_DEPTH));
+            }
+
+            List<MetaDate> expectedHead = new HeadDateGetter().getDates(document);
+            assertEquals(file, toStrings(expectedHead),
+                    toStrings(DateExtractionHelper.filter(result.getDates(), MetaDate.class)));
+
+            List<ContentDate> expectedContent = new ContentDateGetter().getContentDates(document,
+                    XPathHelper.getNodes(document, "//text()"), null);
+            assertEquals(file, toStrings(expectedContent), toStrings(result.getContentDates()));
+            for (int i = 0; i < expectedContent.size(); i++) {
+                assertEquals(expectedContent.get(i).hasStructureDate(), result.getContentDates().get(i)
+                        .hasStructureDate());
+                assertEquals(expectedContent.get(i).getKeyword(), result.getContentDates().get(i).getKeyword());
+            }
+        }
+    }
+
+    @Test
+    public void testDeadline() throws FileNotFoundException, ParserException {
+        Document document = parse("/webPages/dateExtraction/zeit1.htm");
+        List<ContentDate> contentDates = new DateExtractionPipeline(executor, 0, TimeUnit.SECONDS).extract(document)
+                .getContentDates();
+        assertFalse(contentDates.isEmpty());
+        ExtractedDate contentDate = contentDates.get(0);
+
+        MetaDate fastDate = new MetaDate(DateParser.findDate(contentDate.getNormalizedDateString()), "last-modified");
+        MetaDate slowDate = new MetaDate(DateParser.findDate("2001-01-01"), "date");
+        TechniqueDateGetter<MetaDate> fastGetter = new FixedDateGetter(0, fastDate);
+        TechniqueDateGetter<MetaDate> slowGetter = new FixedDateGetter(TimeUnit.SECONDS.toMillis(30), slowDate);
+        TechniqueDateGetter<MetaDate> slowerGetter = new FixedDateGetter(TimeUnit.SECONDS.toMillis(60), slowDate);
+
+        DateExtractionPipeline pipeline = new DateExtractionPipeline(executor, 1, TimeUnit.SECONDS);
+        pipeline.addAsyncGetter(fastGetter, 1, TimeUnit.SECONDS);
+        pipeline.addAsyncGetter(slowGetter, 100, TimeUnit.MILLISECONDS);
+        pipeline.addAsyncGetter(slowerGetter, 1, TimeUnit.MINUTES);
+
+        long start = System.currentTimeMillis();
+        DateExtractionPipeline.Result result = pipeline.extract(document);
+        assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse(result.isComplete());
+        assertEquals(Arrays.asList(slowGetter, slowerGetter), result.getTimedOut());
+        assertTrue(result.getDates().contains(fastDate));
+        assertFalse(result.getDates().contains(slowDate));
+        // the date from the fast getter was considered for the features
+        assertTrue(result.getContentDates().get(0).isInMetaDates());
+    }
+
+    @Test
+    public void testAsyncGettersGetCopy() throws FileNotFoundException, ParserException {
+        Document document = parse("/webPages/dateExtraction/zeit1.htm");
+        FixedDateGetter getter = new FixedDateGetter(0);
+        DateExtractionPipeline pipeline = new DateExtractionPipeline(executor, 10, TimeUnit.SECONDS);
+        pipeline.addAsyncGetter(getter, 10, TimeUnit.SECONDS);
+        assertTrue(pipeline.extract(document).isComplete());
+        assertNotSame(document, getter.document);
+        assertEquals(document.getDocumentElement().getTextContent(), getter.document.getDocumentElement()
+                .getTextContent());
+    }
+
+}
@@ -4,14 +4,26 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import ws.palladian.core.Annotation;
 import ws.palladian.core.ImmutableAnnotation;
+import ws.palladian.extraction.entity.FileFormatParser;
+import ws.palladian.extraction.entity.TaggingFormat;
+import ws.palladian.extraction.location.ClassifiedAnnotation;
+import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.io.ResourceHelper;
 
 public class PalladianNerTest {
 
@@ -73,4 +85,45 @@ public class PalladianNerTest {
         assertTrue(caseDictionary.contains("involvement"));
     }
 
+    @Test
+    public void testConcurrentTagging() throws Exception {
+        File trainingFile = ResourceHelper.getResourceFile("/ner/training.txt");
+        final String text = getText("/ner/test.txt");
+        final PalladianNer ner = new PalladianNer(PalladianNerTrainingSettings.Builder.english().create());
+        ner.train(trainingFile.getPath(), new File(FileHelper.getTempDir(), "palladianNerTest.model.gz").getPath());
+        List<String> expected = toStrings(ner.getAnnotations(text));
+        assertTrue(expected.size() > 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<ClassifiedAnnotation>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<List<ClassifiedAnnotation>>() {
+                    @Override
+                    public List<ClassifiedAnnotation> call() {
+                        return ner.getAnnotations(text);
+                    }
+                }));
+            }
+            for (Future<List<ClassifiedAnnotation>> future : futures) {
+                assertEquals(expected, toStrings(future.get()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String getText(String resource) throws FileNotFoundException {
+        String text = FileFormatParser.getText(ResourceHelper.getResourcePath(resource), TaggingFormat.COLUMN);
+        return text.substring(0, Math.min(text.length(), 20000));
+    }
+
+    private static List<String> toStrings(List<? extends Annotation> annotations) {
+        List<String> result = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            result.add(annotation.getStartPosition() + ":" + annotation.getValue() + ":" + annotation.getTag());
+        }
+        return result;
+    }
+
 }
@@ -14,6 +14,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ws.palladian.extraction.multimedia.hash.AverageHash;
 import ws.palladian.helper.io.ResourceHelper;
 
 /**
@@ -67,6 +68,25 @@ public class ImageHandlerTest {
 
     }
 
+    @Test
+    public void testClusterImagesByHash() throws FileNotFoundException {
+        Collection<String> imageUrls = new ArrayList<>();
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageA1.jpg"));
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageA2.jpg"));
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageB1.jpg"));
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageA3.jpg"));
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageC1.jpg"));
+        imageUrls.add(ResourceHelper.getResourcePath("/images/imageB2.jpg"));
+
+        Set<String> representatives = ImageHandler.clusterImagesAndPickRepresentatives(imageUrls,
+                AverageHash.INSTANCE, 12);
+
+        assertEquals(3, representatives.size());
+        assertEquals(true, representatives.contains(ResourceHelper.getResourcePath("/images/imageA3.jpg")));
+        assertEquals(true, representatives.contains(ResourceHelper.getResourcePath("/images/imageB2.jpg")));
+        assertEquals(true, representatives.contains(ResourceHelper.getResourcePath("/images/imageC1.jpg")));
+    }
+
     @Test
     public void testRescaleImage() throws FileNotFoundException {
     	checkOperatingSystem();
@@ -0,0 +1,69 @@
+package ws.palladian.extraction.multimedia;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PixelBufferTest {
+
+    private static BufferedImage createImage(int type, Random random) {
+        BufferedImage image = new BufferedImage(37, 23, type);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertPixels(BufferedImage image) {
+        PixelBuffer buffer = PixelBuffer.of(image);
+        assertEquals(image.getWidth(), buffer.getWidth());
+        assertEquals(image.getHeight(), buffer.getHeight());
+        assertEquals(image.getWidth() * image.getHeight(), buffer.size());
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                assertEquals(image.getRGB(x, y), buffer.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testImageTypes() {
+        Random random = new Random(1);
+        int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_BGR,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY,
+                BufferedImage.TYPE_USHORT_565_RGB};
+        for (int type : types) {
+            BufferedImage image = createImage(type, random);
+            assertPixels(image);
+            assertPixels(image.getSubimage(3, 5, 20, 10));
+        }
+    }
+
+    @Test
+    public void testColorConversion() {
+        BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB, new Random(2));
+        PixelBuffer buffer = PixelBuffer.of(image);
+        float[] hsb = buffer.toHsb();
+        double[] lab = buffer.toLab();
+        ColorSpaceConverter converter = new ColorSpaceConverter();
+        for (int i = 0; i < buffer.size(); i++) {
+            Color color = new Color(buffer.getPixels()[i]);
+            double[] expectedHsb = ColorSpaceConverter.rgbToHsb(color);
+            assertEquals(expectedHsb[0], hsb[3 * i], 0);
+            assertEquals(expectedHsb[1], hsb[3 * i + 1], 0);
+            assertEquals(expectedHsb[2], hsb[3 * i + 2], 0);
+            assertEquals(expectedHsb[2], PixelBuffer.brightness(buffer.getPixels()[i]), 0);
+            double[] expectedLab = converter.rgbToLab(color.getRed(), color.getGreen(), color.getBlue());
+            assertEquals(expectedLab[0], lab[3 * i], 0);
+            assertEquals(expectedLab[1], lab[3 * i + 1], 0);
+            assertEquals(expectedLab[2], lab[3 * i + 2], 0);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ws.palladian.extraction.multimedia.hash.BkTree.Match;
+
+public class BkTreeTest {
+
+    private static Set<Integer> values(List<Match<Integer>> matches) {
+        Set<Integer> result = new HashSet<>();
+        for (Match<Integer> match : matches) {
+            result.add(match.getValue());
+        }
+        return result;
+    }
+
+    @Test
+    public void testSearch() {
+        Random random = new Random(1);
+        long[] hashes = new long[5000];
+        BkTree<Integer> tree = new BkTree<>();
+        for (int i = 0; i < hashes.length; i++) {
+            // create some clusters of similar hashes
+            hashes[i] = i % 10 == 0 || i == 0 ? random.nextLong() : hashes[i - 1] ^ 1L << random.nextInt(64);
+            tree.add(hashes[i], i);
+        }
+        // duplicate hash
+        tree.add(hashes[42], -42);
+        assertEquals(hashes.length + 1, tree.size());
+
+        for (int q = 0; q < 200; q++) {
+            long query = q % 2 == 0 ? hashes[random.nextInt(hashes.length)] : random.nextLong();
+            for (int radius : new int[] {0, 3, 10}) {
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    if (PerceptualHashes.distance(query, hashes[i]) <= radius) {
+                        expected.add(i);
+                    }
+                }
+                if (expected.contains(42)) {
+                    expected.add(-42);
+                }
+                List<Match<Integer>> matches = tree.search(query, radius);
+                assertEquals(expected, values(matches));
+                for (int i = 1; i < matches.size(); i++) {
+                    assertTrue(matches.get(i - 1).getDistance() <= matches.get(i).getDistance());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T)objectIn.readObject();
+        }
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        BkTree<String> tree = new BkTree<>();
+        tree.add(0xff00ff00ff00ff00L, "a");
+        tree.add(0xff00ff00ff00ff01L, "b");
+        tree.add(0x00ff00ff00ff00ffL, "c");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(tree);
+        }
+        BkTree<String> deserialized = deserialize(out.toByteArray());
+        assertEquals(3, deserialized.size());
+        List<Match<String>> matches = deserialized.search(0xff00ff00ff00ff00L, 1);
+        assertEquals(2, matches.size());
+        assertEquals("a", matches.get(0).getValue());
+        assertEquals("b", matches.get(1).getValue());
+        assertEquals(0, deserialized.search(0x0L, 10).size());
+    }
+
+    @Test
+    public void testHex() {
+        assertEquals("00000000000000ff", PerceptualHashes.toHex(0xffL));
+        assertEquals(0x8000000000000001L, PerceptualHashes.fromHex("8000000000000001"));
+        assertEquals(64, PerceptualHashes.distance(0L, -1L));
+    }
+
+}
@@ -0,0 +1,58 @@
+package ws.palladian.extraction.multimedia.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+
+import org.junit.Test;
+
+import ws.palladian.extraction.multimedia.ImageHandler;
+import ws.palladian.helper.io.ResourceHelper;
+
+public class PerceptualHashTest {
+
+    private static final PerceptualHash[] HASHES = {AverageHash.INSTANCE, DifferenceHash.INSTANCE,
+            BlockMeanHash.INSTANCE};
+
+    private static BufferedImage load(String path) throws FileNotFoundException {
+        return ImageHandler.load(ResourceHelper.getResourcePath(path));
+    }
+
+    private static BufferedImage scale(BufferedImage image, double factor) {
+        int width = (int)(image.getWidth() * factor);
+        int height = (int)(image.getHeight() * factor);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    @Test
+    public void testSimilarImages() throws FileNotFoundException {
+        BufferedImage image = load("/images/tdk1.jpg");
+        BufferedImage other = load("/images/homer.gif");
+        for (PerceptualHash hash : HASHES) {
+            long original = hash.hash(image);
+            assertEquals(hash.toString(), original, hash.hash(image));
+            assertTrue(hash.toString(), PerceptualHashes.distance(original, hash.hash(scale(image, 0.5))) <= 6);
+            assertTrue(hash.toString(), PerceptualHashes.distance(original, hash.hash(other)) > 12);
+        }
+    }
+
+    @Test
+    public void testSmallImage() {
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xffffffff);
+        image.setRGB(2, 1, 0xff000000);
+        for (PerceptualHash hash : HASHES) {
+            hash.hash(image);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package ws.palladian.extraction.sentence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import ws.palladian.core.Annotation;
+import ws.palladian.extraction.entity.DateAndTimeTagger;
+import ws.palladian.extraction.entity.SmileyTagger;
+import ws.palladian.extraction.entity.UrlTagger;
+import ws.palladian.extraction.token.Tokenizer;
+import ws.palladian.helper.constants.Language;
+import ws.palladian.helper.constants.RegExp;
+import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.io.ResourceHelper;
+
+public class SentenceSegmenterTest {
+
+    private static final String[] FILES = {"/texts/contribution01.txt", "/texts/contribution02.txt",
+            "/texts/contribution03.txt", "/texts/text01.txt", "/NewsSampleText.txt", "/sampleTextForTagging.txt",
+            "/testText.txt", "/testTextAddresses.txt"};
+
+    /**
+     * The former regular expression based implementation of the {@link PalladianSentenceDetector}, which serves as
+     * reference.
+     */
+    private static List<String> referenceSpans(String text, Language language) {
+        List<Annotation> maskAnnotations = new ArrayList<>();
+        maskAnnotations.addAll(UrlTagger.INSTANCE.getAnnotations(text));
+        maskAnnotations.addAll(new DateAndTimeTagger(RegExp.DATE_EU_D_MM, RegExp.DATE_EU_D_MM_Y,
+                RegExp.DATE_EU_D_MM_Y_T, RegExp.DATE_EU_D_MMMM, RegExp.DATE_EU_D_MMMM_Y, RegExp.DATE_EU_D_MMMM_Y_T,
+                RegExp.DATE_EU_MM_Y, RegExp.DATE_USA_MMMM_D_Y, RegExp.DATE_USA_MMMM_D_Y_SEP,
+                RegExp.DATE_USA_MMMM_D_Y_T, RegExp.DATE_USA_MMMM_D, RegExp.DATE_EUSA_MMMM_Y,
+                RegExp.DATE_EUSA_YYYY_MMM_D).getAnnotations(text));
+        maskAnnotations.addAll(SmileyTagger.INSTANCE.getAnnotations(text));
+        StringBuilder maskedTextBuilder = new StringBuilder(text);
+        for (Annotation annotation : maskAnnotations) {
+            String replacement = StringUtils.repeat('M', annotation.getValue().length());
+            maskedTextBuilder.replace(annotation.getStartPosition(), annotation.getEndPosition(), replacement);
+        }
+        String maskedText = maskedTextBuilder.toString();
+        String regex = language == Language.GERMAN ? Tokenizer.SENTENCE_SPLIT_REGEX_DE
+                : Tokenizer.SENTENCE_SPLIT_REGEX_EN;
+        Matcher matcher = Pattern.compile(regex).matcher(maskedText);
+        List<String> result = new ArrayList<>();
+        int lastIndex = 0;
+        while (matcher.find()) {
+            addSpan(maskedText, lastIndex, matcher.end(), result);
+            lastIndex = matcher.end();
+        }
+        addSpan(maskedText, lastIndex, maskedText.length(), result);
+        return result;
+    }
+
+    private static void addSpan(String text, int start, int end, List<String> result) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            result.add(start + "-" + end);
+        }
+    }
+
+    private static List<String> spans(SentenceSegmenter.Spans spans) {
+        List<String> result = new ArrayList<>();
+        while (spans.next()) {
+            result.add(spans.getStart() + "-" + spans.getEnd());
+        }
+        return result;
+    }
+
+    @Test
+    public void testEquivalenceWithRegex() throws IOException {
+        StringBuilder allTexts = new StringBuilder();
+        for (String file : FILES) {
+            String text = FileHelper.readFileToString(ResourceHelper.getResourceFile(file));
+            allTexts.append(text).append('\n');
+            for (Language language : new Language[] {Language.ENGLISH, Language.GERMAN}) {
+                SentenceSegmenter segmenter = new SentenceSegmenter(language);
+                List<String> expected = referenceSpans(text, language);
+                assertEquals(file, expected, spans(segmenter.segment(text)));
+                assertEquals(file, expected, spans(segmenter.segment(new StringReader(text))));
+            }
+        }
+        // long text, which requires sliding the window
+        String text = allTexts.toString();
+        SentenceSegmenter segmenter = new SentenceSegmenter(Language.ENGLISH);
+        List<String> expected = referenceSpans(text, Language.ENGLISH);
+        assertEquals(expected, spans(segmenter.segment(text)));
+        assertEquals(expected, spans(segmenter.segment(new StringReader(text))));
+    }
+
+    @Test
+    public void testSpans() {
+        String text = "  Mr. T's kill count is ca. 4,500. Right?  Ok. Visit www.mrt.com or e.g. mrt.de/ now!!! \n";
+        SentenceSegmenter.Spans spans = new SentenceSegmenter(Language.ENGLISH).segment(text);
+        List<String> sentences = new ArrayList<>();
+        while (spans.next()) {
+            sentences.add(spans.getSentence().toString());
+        }
+        assertEquals(4, sentences.size());
+        assertEquals("Mr. T's kill count is ca. 4,500.", sentences.get(0));
+        assertEquals("Right?", sentences.get(1));
+        assertEquals("Ok.", sentences.get(2));
+        assertEquals("Visit www.mrt.com or e.g. mrt.de/ now!!!", sentences.get(3));
+        assertFalse(spans.next());
+    }
+
+    @Test
+    public void testGerman() {
+        String text = "Das ist z. B. ein Test, d.h. ein kurzer Test. Er kostet ca. 5 Euro inkl. MwSt. und endet hier.";
+        SentenceSegmenter.Spans spans = new SentenceSegmenter(Language.GERMAN).segment(text);
+        assertEquals(referenceSpans(text, Language.GERMAN), spans(spans));
+    }
+
+}
@@ -0,0 +1,142 @@
+package ws.palladian.extraction.text.similarity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ws.palladian.extraction.text.similarity.BatchWordMoverSimilarity.Document;
+import ws.palladian.extraction.text.similarity.BatchWordMoverSimilarity.ScoredDocument;
+import ws.palladian.extraction.text.vector.FloatVectorUtil;
+import ws.palladian.extraction.text.vector.WordVectorDictionary;
+
+public class BatchWordMoverSimilarityTest {
+
+	private static final String[] WORDS = { "apple", "iphone", "samsung", "galaxy", "phone", "pizza", "pasta",
+			"spaghetti", "carbonara", "napoli", "porsche", "boxster", "mercedes", "car", "fast", "red" };
+
+	private static final WordVectorDictionary DICTIONARY = createDictionary(new Random(1), 20);
+
+	private static WordVectorDictionary createDictionary(Random random, final int dimension) {
+		final Map<String, float[]> vectors = new HashMap<>();
+		for (String word : WORDS) {
+			float[] vector = new float[dimension];
+			for (int i = 0; i < dimension; i++) {
+				vector[i] = (float) random.nextGaussian();
+			}
+			vectors.put(word, vector);
+		}
+		return new WordVectorDictionary() {
+			@Override
+			public int vectorSize() {
+				return dimension;
+			}
+
+			@Override
+			public int size() {
+				return vectors.size();
+			}
+
+			@Override
+			public boolean isCaseSensitive() {
+				return false;
+			}
+
+			@Override
+			public float[] getVector(String word) {
+				return vectors.get(word);
+			}
+		};
+	}
+
+	/** The original, unbatched algorithm as reference. */
+	private static double referenceSimilarity(AbstractWordVectorSimilarity metric, String s1, String s2) {
+		List<String> tokens1 = metric.preprocess(s1);
+		List<String> tokens2 = metric.preprocess(s2);
+		if (tokens1.size() > tokens2.size()) {
+			List<String> temp = tokens1;
+			tokens1 = tokens2;
+			tokens2 = temp;
+		}
+		double similarity = 0;
+		for (String token1 : tokens1) {
+			double maxSimilarity = 0;
+			float[] vector1 = DICTIONARY.getVector(token1);
+			if (vector1 == null) {
+				continue;
+			}
+			for (String token2 : tokens2) {
+				float[] vector2 = DICTIONARY.getVector(token2);
+				if (vector2 == null) {
+					continue;
+				}
+				maxSimilarity = Math.max(maxSimilarity, FloatVectorUtil.cosine(vector1, vector2));
+			}
+			similarity += maxSimilarity;
+		}
+		return similarity / tokens1.size();
+	}
+
+	private static List<String> createTexts(Random random, int count) {
+		List<String> texts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			StringBuilder text = new StringBuilder();
+			int length = 1 + random.nextInt(6);
+			for (int j = 0; j < length; j++) {
+				// sometimes add an unknown token
+				text.append(random.nextInt(10) == 0 ? "unknown" : WORDS[random.nextInt(WORDS.length)]).append(' ');
+			}
+			texts.add(text.toString());
+		}
+		return texts;
+	}
+
+	@Test
+	public void testSimilarity() {
+		BatchWordMoverSimilarity similarity = new BatchWordMoverSimilarity(DICTIONARY);
+		WordMoverSimilarity wordMoverSimilarity = new WordMoverSimilarity(DICTIONARY);
+		List<String> texts = createTexts(new Random(2), 50);
+		for (String text1 : texts) {
+			Document document1 = similarity.prepare(text1);
+			for (String text2 : texts) {
+				Document document2 = similarity.prepare(text2);
+				double expected = referenceSimilarity(similarity, text1, text2);
+				assertEquals(expected, similarity.getSimilarity(document1, document2), 0.0001);
+				assertEquals(expected, wordMoverSimilarity.getSimilarity(text1, text2), 0.0001);
+				assertTrue(similarity.getSimilarityUpperBound(document1, document2) >= expected - 0.0001);
+			}
+		}
+		assertEquals(1, similarity.getSimilarity("apple iphone", "iphone apple"), 0.0001);
+	}
+
+	@Test
+	public void testTopK() {
+		BatchWordMoverSimilarity similarity = new BatchWordMoverSimilarity(DICTIONARY);
+		List<String> texts = createTexts(new Random(3), 200);
+		List<Document> corpus = new ArrayList<>();
+		for (String text : texts) {
+			corpus.add(similarity.prepare(text));
+		}
+		Document query = similarity.prepare("porsche car red");
+		List<ScoredDocument> result = similarity.topK(query, corpus, 5);
+		assertEquals(5, result.size());
+
+		// compare with exhaustive search
+		List<Double> allSimilarities = new ArrayList<>();
+		for (Document document : corpus) {
+			allSimilarities.add(similarity.getSimilarity(query, document));
+		}
+		allSimilarities.sort(null);
+		for (int i = 0; i < 5; i++) {
+			double expected = allSimilarities.get(allSimilarities.size() - 1 - i);
+			assertEquals(expected, result.get(i).getSimilarity(), 0.0001);
+		}
+	}
+
+}
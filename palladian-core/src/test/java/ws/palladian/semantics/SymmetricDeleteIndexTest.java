@@ -0,0 +1,137 @@
+package ws.palladian.semantics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ws.palladian.helper.collection.Trie;
+import ws.palladian.semantics.SymmetricDeleteIndex.Suggestion;
+
+public class SymmetricDeleteIndexTest {
+
+    private static Trie<Integer> createDictionary() {
+        Trie<Integer> words = new Trie<>();
+        words.put("house", 100);
+        words.put("horse", 50);
+        words.put("mouse", 20);
+        words.put("hose", 10);
+        words.put("the", 1000);
+        words.put("this", 500);
+        words.put("text", 80);
+        words.put("supposed", 30);
+        words.put("international", 15);
+        words.put("internationalization", 5);
+        return words;
+    }
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, SymmetricDeleteIndex.distance("house", "house", 3));
+        assertEquals(1, SymmetricDeleteIndex.distance("house", "hose", 3));
+        assertEquals(1, SymmetricDeleteIndex.distance("house", "huose", 3));
+        assertEquals(2, SymmetricDeleteIndex.distance("house", "ohsue", 3));
+        assertEquals(3, SymmetricDeleteIndex.distance("", "the", 3));
+        assertEquals(2, SymmetricDeleteIndex.distance("international", "intrenatonal", 3));
+        assertEquals(3, SymmetricDeleteIndex.distance("house", "international", 2));
+    }
+
+    @Test
+    public void testLookup() {
+        SymmetricDeleteIndex index = new SymmetricDeleteIndex(createDictionary(), 3);
+        assertEquals(10, index.size());
+
+        List<Suggestion> suggestions = index.lookup("hoese", 1);
+        assertEquals(3, suggestions.size());
+        assertEquals("house", suggestions.get(0).getWord());
+        assertEquals("horse", suggestions.get(1).getWord());
+        assertEquals("hose", suggestions.get(2).getWord());
+
+        suggestions = index.lookup("intrenatonalization", 3);
+        assertEquals(1, suggestions.size());
+        assertEquals("internationalization", suggestions.get(0).getWord());
+        assertEquals(2, suggestions.get(0).getDistance());
+
+        assertEquals(0, index.lookup("xyz", 1).size());
+        assertEquals(1, index.lookup("the", 0).size());
+        assertEquals(1000, (int) index.getCount("the"));
+        assertNull(index.getCount("xyz"));
+    }
+
+    @Test
+    public void testLookupRandom() {
+        Random random = new Random(1);
+        Trie<Integer> dictionary = new Trie<>();
+        for (int i = 0; i < 2000; i++) {
+            dictionary.put(randomWord(random, 2 + random.nextInt(12)), 1 + random.nextInt(100));
+        }
+        SymmetricDeleteIndex index = new SymmetricDeleteIndex(dictionary, 2, 5);
+        for (int i = 0; i < 500; i++) {
+            String query = randomWord(random, 1 + random.nextInt(14));
+            Set<String> expected = new HashSet<>();
+            for (Entry<String, Integer> entry : dictionary) {
+                if (SymmetricDeleteIndex.distance(query, entry.getKey(), 2) <= 1) {
+                    expected.add(entry.getKey());
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            for (Suggestion suggestion : index.lookup(query, 1)) {
+                actual.add(suggestion.getWord());
+            }
+            assertEquals(query, expected, actual);
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        SymmetricDeleteIndex index = new SymmetricDeleteIndex(createDictionary(), 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(index);
+        }
+        SymmetricDeleteIndex deserialized;
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            deserialized = (SymmetricDeleteIndex) objectIn.readObject();
+        }
+        assertEquals(index.size(), deserialized.size());
+        assertEquals(index.lookup("hoese", 2).size(), deserialized.lookup("hoese", 2).size());
+    }
+
+    @Test
+    public void testSpellChecker() {
+        PalladianSpellChecker spellChecker = new PalladianSpellChecker();
+        spellChecker.setWords(createDictionary());
+        spellChecker.addManualMapping("hous", "hut");
+        List<String> expected = new ArrayList<>();
+        String text = "This ls hoow the etxt is supossed to be hous";
+        expected.add(spellChecker.autoCorrect(text));
+        spellChecker.buildDeleteIndex(2);
+        expected.add(spellChecker.autoCorrect(text));
+        assertEquals(expected.get(0), expected.get(1));
+        assertEquals("This ls hose the text is supposed the be hut", expected.get(1));
+
+        // with the index, also longer words can be corrected with an edit distance of two
+        assertEquals("international", spellChecker.correctWord("intrenatonal", null, null));
+    }
+
+}
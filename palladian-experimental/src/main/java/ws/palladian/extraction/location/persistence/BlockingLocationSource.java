@@ -14,7 +14,7 @@ import ws.palladian.extraction.location.Location;
 import ws.palladian.extraction.location.LocationSource;
 import ws.palladian.extraction.location.sources.MultiQueryLocationSource;
 import ws.palladian.helper.ProgressMonitor;
-import ws.palladian.helper.collection.BloomFilter;
+import ws.palladian.helper.collection.ConcurrentBloomFilter;
 import ws.palladian.helper.collection.CollectionHelper;
 import ws.palladian.helper.collection.MultiMap;
 import ws.palladian.helper.constants.Language;
@@ -55,9 +55,9 @@ public class BlockingLocationSource extends MultiQueryLocationSource {
         this.filter = filter;
     }
 
-    public static final BloomFilter<String> initializeBloomFilter(LocationSource source) {
+    public static final ConcurrentBloomFilter<String> initializeBloomFilter(LocationSource source) {
         LOGGER.info("Initializing bloom filter (this takes some time)...");
-        BloomFilter<String> filter = new BloomFilter<String>(FALSE_POSITIVE_PROBABILITY, ESTIMATED_SIZE);
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(FALSE_POSITIVE_PROBABILITY, ESTIMATED_SIZE);
         Iterator<Location> iterator = source.getLocations();
         ProgressMonitor monitor = new ProgressMonitor();
         monitor.startTask("Initializing filter", source.size());
@@ -108,7 +108,7 @@ public class BlockingLocationSource extends MultiQueryLocationSource {
 
     public static void main(String[] args) throws IOException {
         LocationSource source = DatabaseManagerFactory.create(LocationDatabase.class, "locations");
-        BloomFilter<String> bloomFilter = initializeBloomFilter(source);
+        ConcurrentBloomFilter<String> bloomFilter = initializeBloomFilter(source);
         FileHelper.serialize(bloomFilter, "bloomFilter.ser");
     }
 
@@ -12,6 +12,7 @@ import static ws.palladian.features.color.RGB.*;
 import static ws.palladian.helper.functional.Predicates.or;
 import static ws.palladian.helper.functional.Predicates.regex;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -20,6 +21,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,7 @@ import ws.palladian.classification.text.BayesScorer;
 import ws.palladian.classification.text.FeatureSettingBuilder;
 import ws.palladian.classification.text.PalladianTextClassifier;
 import ws.palladian.classification.utils.CsvDatasetReaderConfig;
+import ws.palladian.core.FeatureVector;
 import ws.palladian.core.Instance;
 import ws.palladian.core.InstanceBuilder;
 import ws.palladian.core.dataset.Dataset;
@@ -85,15 +88,28 @@ public class Evaluator {
         @Override
         public void run() {
             InstanceBuilder instanceBuilder = new InstanceBuilder().add(instance.getVector());
-            for (FeatureExtractor extractor : extractors) {
-                String imagePath = String.valueOf(instance.getVector().get("image"));
-                ImageValue imageValue = new ImageValue(new File(basePath + imagePath));
+            String imagePath = String.valueOf(instance.getVector().get("image"));
+            // decode the image only once, and run the extractors (which do not modify it) in parallel; the results
+            // are added in the extractors' order, so that the columns stay the same
+            BufferedImage image;
+            try {
+                image = new ImageValue(new File(basePath + imagePath)).getImage();
+            } catch (Exception e) {
+                LOGGER.error("problem with file " + imagePath + ", base path: " + basePath, e);
+                image = null;
+            }
+            final BufferedImage finalImage = image;
+            List<FeatureVector> vectors = extractors.parallelStream().map(extractor -> {
                 try {
-                    instanceBuilder.add(extractor.extract(imageValue.getImage()));
+                    return finalImage != null ? extractor.extract(finalImage) : null;
                 } catch (Exception e) {
-                    e.printStackTrace();
-                    // FIXME
-                    System.err.println("problem with file " + imagePath + ", base path: " + basePath);
+                    LOGGER.error("problem with file " + imagePath + ", base path: " + basePath, e);
+                    return null;
+                }
+            }).collect(Collectors.toList());
+            for (FeatureVector vector : vectors) {
+                if (vector != null) {
+                    instanceBuilder.add(vector);
                 }
             }
             synchronized (writer) {
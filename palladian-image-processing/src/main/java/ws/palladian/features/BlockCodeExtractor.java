@@ -5,13 +5,14 @@ import ws.palladian.core.InstanceBuilder;
 import ws.palladian.core.value.ImmutableTextValue;
 import ws.palladian.extraction.multimedia.ColorSpaceConverter;
 import ws.palladian.extraction.multimedia.ImageHandler;
+import ws.palladian.extraction.multimedia.PixelBuffer;
 import ws.palladian.helper.collection.Bag;
 import ws.palladian.helper.collection.CollectionHelper;
+import ws.palladian.utils.ImageUtils;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
@@ -42,6 +43,9 @@ public class BlockCodeExtractor implements FeatureExtractor {
 
     private List<Color> palette = new ArrayList<>();
 
+    /** The RGB values of the {@link #palette}, in the same order. */
+    private int[] paletteRgb;
+
     /** Number of colors we want to normalize the image to. */
     private Colors numberOfColors = Colors.TWENTY_EIGHT;
 
@@ -169,17 +173,31 @@ public class BlockCodeExtractor implements FeatureExtractor {
             palette.addAll(colorsToAdd);
         }
 
+        paletteRgb = new int[palette.size()];
+        for (int i = 0; i < palette.size(); i++) {
+            paletteRgb[i] = palette.get(i).getRGB();
+        }
+
     }
 
     @Override
     public FeatureVector extract(BufferedImage image) {
         InstanceBuilder instanceBuilder = new InstanceBuilder();
-        BufferedImage pixelatedImage = ImageHandler.pixelate(image, pixelationSize, palette);
-        instanceBuilder.set("text", new ImmutableTextValue(codeImage(pixelatedImage, pixelationSize)));
+        // pixelate works in place, do not modify the given image, as it might be shared with other extractors
+        BufferedImage pixelatedImage = ImageHandler.pixelate(ImageUtils.copy(image), pixelationSize, palette);
+        instanceBuilder.set("text", new ImmutableTextValue(codeImage(PixelBuffer.of(pixelatedImage), pixelationSize)));
         return instanceBuilder.create();
     }
 
-    private String codeImage(BufferedImage image, int pixelationSize) {
+    /**
+     * Get a pixel as packed RGB value without alpha; this corresponds to the {@link Color#getRGB()} value of the
+     * pixel.
+     */
+    private static int getRGB(PixelBuffer image, int x, int y) {
+        return 0xff000000 | image.getRGB(x, y);
+    }
+
+    private String codeImage(PixelBuffer image, int pixelationSize) {
         // number of blocks for each dimension, 2 = 2x2 block
         // int blockSize = 2;
 
@@ -191,7 +209,7 @@ public class BlockCodeExtractor implements FeatureExtractor {
         // pixel word length
         int wordLength = blockSize.getLength() * pixelationSize;
 
-        String entireCode = "";
+        StringBuilder entireCode = new StringBuilder();
 
         int i1 = (int)((double)image.getWidth() / wordLength);
         int i2 = (int)((double)image.getHeight() / wordLength);
@@ -210,13 +228,13 @@ public class BlockCodeExtractor implements FeatureExtractor {
                         int sy = (int)((double)blockY / sectionHeight);
                         int sectionNumber = sy * imageSections.getLength() + sx;
 
-                        Color[] block = new Color[4];
-                        block[0] = new Color(image.getRGB(blockX, blockY));
-                        block[1] = new Color(image.getRGB(blockX + pixelationSize, blockY));
-                        block[2] = new Color(image.getRGB(blockX, blockY + pixelationSize));
-                        block[3] = new Color(image.getRGB(blockX + pixelationSize, blockY + pixelationSize));
+                        int[] block = new int[4];
+                        block[0] = getRGB(image, blockX, blockY);
+                        block[1] = getRGB(image, blockX + pixelationSize, blockY);
+                        block[2] = getRGB(image, blockX, blockY + pixelationSize);
+                        block[3] = getRGB(image, blockX + pixelationSize, blockY + pixelationSize);
                         String code = codeBlock(block, sectionNumber);
-                        entireCode += code + " ";
+                        entireCode.append(code).append(' ');
                     }
                 }
                 break;
@@ -231,18 +249,18 @@ public class BlockCodeExtractor implements FeatureExtractor {
                         int sy = (int)((double)blockY / sectionHeight);
                         int sectionNumber = sy * imageSections.getLength() + sx;
 
-                        Color[] block = new Color[9];
-                        block[0] = new Color(image.getRGB(blockX, blockY));
-                        block[1] = new Color(image.getRGB(blockX + pixelationSize, blockY));
-                        block[2] = new Color(image.getRGB(blockX + 2 * pixelationSize, blockY));
-                        block[3] = new Color(image.getRGB(blockX, blockY + pixelationSize));
-                        block[4] = new Color(image.getRGB(blockX + pixelationSize, blockY + pixelationSize));
-                        block[5] = new Color(image.getRGB(blockX + 2 * pixelationSize, blockY + pixelationSize));
-                        block[6] = new Color(image.getRGB(blockX, blockY + 2 * pixelationSize));
-                        block[7] = new Color(image.getRGB(blockX + pixelationSize, blockY + 2 * pixelationSize));
-                        block[8] = new Color(image.getRGB(blockX + 2 * pixelationSize, blockY + 2 * pixelationSize));
+                        int[] block = new int[9];
+                        block[0] = getRGB(image, blockX, blockY);
+                        block[1] = getRGB(image, blockX + pixelationSize, blockY);
+                        block[2] = getRGB(image, blockX + 2 * pixelationSize, blockY);
+                        block[3] = getRGB(image, blockX, blockY + pixelationSize);
+                        block[4] = getRGB(image, blockX + pixelationSize, blockY + pixelationSize);
+                        block[5] = getRGB(image, blockX + 2 * pixelationSize, blockY + pixelationSize);
+                        block[6] = getRGB(image, blockX, blockY + 2 * pixelationSize);
+                        block[7] = getRGB(image, blockX + pixelationSize, blockY + 2 * pixelationSize);
+                        block[8] = getRGB(image, blockX + 2 * pixelationSize, blockY + 2 * pixelationSize);
                         String code = codeBlock(block, sectionNumber);
-                        entireCode += code + " ";
+                        entireCode.append(code).append(' ');
                     }
                 }
                 break;
@@ -250,7 +268,7 @@ public class BlockCodeExtractor implements FeatureExtractor {
                 throw new UnsupportedOperationException("block size must be 2x2 or 3x3");
         }
 
-        return entireCode.trim();
+        return entireCode.toString().trim();
     }
 
     /**
@@ -263,36 +281,33 @@ public class BlockCodeExtractor implements FeatureExtractor {
      * NOTE: we end each word with ! to prevent the stemmer from taking our "s"
      * An example word would be 3a5p!
      * 
-     * @param block
+     * @param block The packed RGB values of the block's pixels.
      * @param imageSection The number of the section where we found the
      * @return
      */
-    private String codeBlock(Color[] block, int imageSection) {
+    private String codeBlock(int[] block, int imageSection) {
         int numberOfColors;
         String mainColorCode = "";
         int shapeCode = 0;
 
-        Bag<Color> colorCounter = Bag.create();
+        Bag<Integer> colorCounter = Bag.create();
         double averageBlockBrightness = 0;
-        for (Color aBlock : block) {
+        for (int aBlock : block) {
             colorCounter.add(aBlock);
-            double[] doubles = ColorSpaceConverter.rgbToHsb(aBlock);
-            averageBlockBrightness += doubles[2];
+            averageBlockBrightness += PixelBuffer.brightness(aBlock);
         }
         averageBlockBrightness /= block.length;
 
-        Bag<Color> sorted = colorCounter.createSorted(CollectionHelper.Order.DESCENDING);
-        LinkedHashMap<Color, Integer> frequencies = new LinkedHashMap<>();
-        for (Color s : sorted.uniqueItems()) {
+        Bag<Integer> sorted = colorCounter.createSorted(CollectionHelper.Order.DESCENDING);
+        for (Integer s : sorted.uniqueItems()) {
             int pos = 97;
-            for (Color color : palette) {
-                if (s.equals(color)) {
+            for (int color : paletteRgb) {
+                if (s == color) {
                     mainColorCode = Character.toString((char)pos);
                     break;
                 }
                 pos++;
             }
-            frequencies.put(s, sorted.count(s));
             break;
         }
 
@@ -307,13 +322,13 @@ public class BlockCodeExtractor implements FeatureExtractor {
                 if (numberOfColors == 1) {
                     // all the same
                     shapeCode = 1;
-                } else if (block[0].equals(block[2]) && block[1].equals(block[3])) {
+                } else if (block[0] == block[2] && block[1] == block[3]) {
                     // ||
                     shapeCode = 2;
-                } else if (block[0].equals(block[1]) && block[2].equals(block[3])) {
+                } else if (block[0] == block[1] && block[2] == block[3]) {
                     // =
                     shapeCode = 3;
-                } else if (block[0].equals(block[3]) && block[1].equals(block[2])) {
+                } else if (block[0] == block[3] && block[1] == block[2]) {
                     // X
                     shapeCode = 4;
                 }
@@ -323,18 +338,18 @@ public class BlockCodeExtractor implements FeatureExtractor {
                 if (numberOfColors == 1) {
                     // all the same
                     shapeCode = 1;
-                } else if ((block[0].equals(block[3]) && block[0].equals(block[6]))
-                        || (block[1].equals(block[4]) && block[1].equals(block[7]))
-                        || (block[2].equals(block[5]) && block[2].equals(block[8]))) {
+                } else if ((block[0] == block[3] && block[0] == block[6])
+                        || (block[1] == block[4] && block[1] == block[7])
+                        || (block[2] == block[5] && block[2] == block[8])) {
                     // |
                     shapeCode = 2;
-                } else if ((block[0].equals(block[1]) && block[0].equals(block[2]))
-                        || (block[3].equals(block[4]) && block[3].equals(block[5]))
-                        || (block[6].equals(block[7]) && block[6].equals(block[8]))) {
+                } else if ((block[0] == block[1] && block[0] == block[2])
+                        || (block[3] == block[4] && block[3] == block[5])
+                        || (block[6] == block[7] && block[6] == block[8])) {
                     // -
                     shapeCode = 3;
-                } else if ((block[0].equals(block[4]) && block[0].equals(block[8]))
-                        || (block[2].equals(block[4]) && block[2].equals(block[6]))) {
+                } else if ((block[0] == block[4] && block[0] == block[8])
+                        || (block[2] == block[4] && block[2] == block[6])) {
                     // X
                     shapeCode = 4;
                 }
@@ -2,11 +2,10 @@ package ws.palladian.features;
 
 import ws.palladian.core.FeatureVector;
 import ws.palladian.core.InstanceBuilder;
-import ws.palladian.extraction.multimedia.ColorSpaceConverter;
 import ws.palladian.extraction.multimedia.ImageHandler;
+import ws.palladian.extraction.multimedia.PixelBuffer;
 import ws.palladian.utils.HistogramStats;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
 
 /**
@@ -40,15 +39,12 @@ public enum EdginessFeatureExtractor implements FeatureExtractor {
     }
 
     private HistogramStats detectEdginess(BufferedImage image) {
-        ColorSpaceConverter csc = new ColorSpaceConverter();
         HistogramStats stats = new HistogramStats();
         image = ImageHandler.detectEdges(image);
-        for (int i = 0; i < image.getWidth(); i++) {
-            for (int j = 0; j < image.getHeight() ; j++) {
-                Color thisColor = new Color(image.getRGB(i, j));
-                double[] doubles = csc.rgbToHsb(thisColor);
-                stats.add((int)(doubles[2] * 255), 1);
-            }
+        // the order of the pixels does not matter for the histogram
+        for (int rgb : PixelBuffer.of(image).getPixels()) {
+            double brightness = PixelBuffer.brightness(rgb);
+            stats.add((int)(brightness * 255), 1);
         }
         return stats;
     }
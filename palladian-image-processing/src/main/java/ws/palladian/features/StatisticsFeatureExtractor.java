@@ -6,7 +6,6 @@ import ws.palladian.features.color.ColorExtractor;
 import ws.palladian.utils.HistogramStats;
 import ws.palladian.utils.ImageUtils;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
 
 public class StatisticsFeatureExtractor implements FeatureExtractor {
@@ -25,9 +24,8 @@ public class StatisticsFeatureExtractor implements FeatureExtractor {
 		}
 		int[] rgbArray = ImageUtils.getRGB(image);
 		for (int rgb : rgbArray) {
-			Color color = new Color(rgb);
 			for (int i = 0; i < extractors.length; i++) {
-				int value = extractors[i].extractValue(color);
+				int value = extractors[i].extractValue(rgb);
 				stats[i].add(value, 1);
 			}
 		}
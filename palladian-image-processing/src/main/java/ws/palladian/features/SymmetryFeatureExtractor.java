@@ -67,8 +67,8 @@ public class SymmetryFeatureExtractor implements FeatureExtractor {
 		final int r = 2;
 		double squaredError = 0;
 		for (int idx = 0; idx < rgbImage1.length; idx++) {
-			int value1 = extractor.extractValue(new Color(rgbImage1[idx]));
-			int value2 = extractor.extractValue(new Color(rgbImage2[idx]));
+			int value1 = extractor.extractValue(rgbImage1[idx]);
+			int value2 = extractor.extractValue(rgbImage2[idx]);
 			squaredError += Math.pow(Math.abs(value1 - value2) / 255., r);
 		}
 		return 1 - Math.pow(squaredError / rgbImage1.length, 1. / r);
@@ -4,4 +4,15 @@ import java.awt.*;
 
 public interface ColorExtractor {
     int extractValue(Color color);
+
+    /**
+     * Extract the value from a packed RGB value (as returned by {@link java.awt.image.BufferedImage#getRGB(int, int)}),
+     * without allocating a {@link Color}.
+     * 
+     * @param rgb The packed RGB value.
+     * @return The value, same as {@link #extractValue(Color)}.
+     */
+    default int extractValue(int rgb) {
+        return extractValue(new Color(rgb));
+    }
 }
\ No newline at end of file
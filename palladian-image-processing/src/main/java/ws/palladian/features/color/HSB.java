@@ -1,5 +1,7 @@
 package ws.palladian.features.color;
 
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
 import java.awt.*;
 
 public enum HSB implements ColorExtractor {
@@ -11,6 +13,15 @@ public enum HSB implements ColorExtractor {
         return (int) (hsb[ordinal()] * 255);
     }
 
+    @Override
+    public int extractValue(int rgb) {
+        if (this == BRIGHTNESS) {
+            return (int) (PixelBuffer.brightness(rgb) * 255);
+        }
+        float[] hsb = Color.RGBtoHSB(PixelBuffer.red(rgb), PixelBuffer.green(rgb), PixelBuffer.blue(rgb), null);
+        return (int) (hsb[ordinal()] * 255);
+    }
+
     @Override
     public String toString() {
         return name().toLowerCase();
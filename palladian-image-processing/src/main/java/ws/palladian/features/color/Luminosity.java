@@ -1,5 +1,7 @@
 package ws.palladian.features.color;
 
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
 import java.awt.*;
 
 public enum Luminosity implements ColorExtractor {
@@ -9,6 +11,11 @@ public enum Luminosity implements ColorExtractor {
         return (int) (0.21 * color.getRed() + 0.72 * color.getGreen() + 0.07 * color.getBlue());
     }
 
+    @Override
+    public int extractValue(int rgb) {
+        return (int) (0.21 * PixelBuffer.red(rgb) + 0.72 * PixelBuffer.green(rgb) + 0.07 * PixelBuffer.blue(rgb));
+    }
+
     public String toString() {
         return "luminosity";
     }
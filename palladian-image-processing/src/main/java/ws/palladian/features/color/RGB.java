@@ -1,5 +1,7 @@
 package ws.palladian.features.color;
 
+import ws.palladian.extraction.multimedia.PixelBuffer;
+
 import java.awt.*;
 
 public enum RGB implements ColorExtractor {
@@ -17,6 +19,19 @@ public enum RGB implements ColorExtractor {
         throw new IllegalStateException();
     }
 
+    @Override
+    public int extractValue(int rgb) {
+        switch (this) {
+            case RED:
+                return PixelBuffer.red(rgb);
+            case GREEN:
+                return PixelBuffer.green(rgb);
+            case BLUE:
+                return PixelBuffer.blue(rgb);
+        }
+        throw new IllegalStateException();
+    }
+
     @Override
     public String toString() {
         return name().toLowerCase();
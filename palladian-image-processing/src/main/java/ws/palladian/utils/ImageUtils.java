@@ -1,5 +1,6 @@
 package ws.palladian.utils;
 
+import ws.palladian.extraction.multimedia.PixelBuffer;
 import ws.palladian.features.color.ColorExtractor;
 import ws.palladian.features.color.HSB;
 
@@ -64,10 +65,25 @@ public final class ImageUtils {
 	 * @param image
 	 *            The image.
 	 * @return An array with RGB pixel values.
+	 * @see PixelBuffer
 	 */
 	public static int[] getRGB(BufferedImage image) {
 		Objects.requireNonNull(image, "image must not be null");
-		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+		return PixelBuffer.of(image).getPixels();
+	}
+
+	/**
+	 * Create a copy of the given image, e.g. for operations which modify the image in place.
+	 * 
+	 * @param image
+	 *            The image.
+	 * @return A copy of the image with its own raster.
+	 */
+	public static BufferedImage copy(BufferedImage image) {
+		Objects.requireNonNull(image, "image must not be null");
+		ColorModel colorModel = image.getColorModel();
+		WritableRaster raster = image.copyData(image.getRaster().createCompatibleWritableRaster());
+		return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
 	}
 
 	public static BufferedImage getGreyscale(ColorExtractor extractor, BufferedImage image) {
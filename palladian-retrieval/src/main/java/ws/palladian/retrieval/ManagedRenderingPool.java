@@ -0,0 +1,627 @@
+package ws.palladian.retrieval;
+
+import io.github.bonigarcia.wdm.DriverManagerType;
+import org.apache.commons.lang3.Validate;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import ws.palladian.helper.UrlHelper;
+import ws.palladian.helper.functional.Factory;
+import ws.palladian.helper.math.SlimStats;
+import ws.palladian.helper.math.Stats;
+import ws.palladian.retrieval.RenderingDocumentRetriever.ResourceType;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A managed pool of browser sessions for rendering. In contrast to the {@link RenderingDocumentRetrieverPool}, the
+ * number of sessions grows and shrinks between a minimum and a maximum, and sessions are looked after:
+ * <ul>
+ * <li>The minimum number of sessions is started in the background when the pool is created and kept available, so
+ * that renders do not pay the browser startup costs.</li>
+ * <li>Sessions which were not used for the maximum idle time are quit (down to the minimum number).</li>
+ * <li>Sessions are checked before they are handed out, crashed sessions are replaced.</li>
+ * <li>Sessions are quit and replaced after a number of pages, to keep the memory consumption of the browsers
+ * bounded.</li>
+ * <li>Sessions are preferably reused for the domain which they rendered last.</li>
+ * <li>Resource types (images, fonts, media) can be blocked per request; sessions are started with the requested
+ * blocking profile, and idle sessions with a different profile are replaced when the pool is exhausted.</li>
+ * </ul>
+ * Render and wait timings are collected and can be obtained using {@link #getMetrics()}.
+ * <p>
+ * Either use {@link #getWebDocument(String, Set)}, or {@link #acquire(String, Set)} and {@link #release(RenderingDocumentRetriever)}
+ * for more control; every acquired retriever must be released (or {@link #invalidate(RenderingDocumentRetriever)}d).
+ */
+public class ManagedRenderingPool implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedRenderingPool.class);
+
+    public static final int DEFAULT_MIN_SESSIONS = 1;
+    public static final int DEFAULT_MAX_SESSIONS = 4;
+    public static final long DEFAULT_MAX_IDLE_TIME = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_PAGES_PER_SESSION = 250;
+
+    public static final class Builder implements Factory<ManagedRenderingPool> {
+        private final Function<Set<ResourceType>, RenderingDocumentRetriever> sessionFactory;
+        private int minSessions = DEFAULT_MIN_SESSIONS;
+        private int maxSessions = DEFAULT_MAX_SESSIONS;
+        private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+        private int maxPagesPerSession = DEFAULT_MAX_PAGES_PER_SESSION;
+        private Set<ResourceType> defaultBlockedResources = Collections.emptySet();
+
+        /**
+         * Create sessions with the given browser and default settings.
+         */
+        public Builder(DriverManagerType browser) {
+            this(browser, null, HttpRetriever.USER_AGENT, null);
+        }
+
+        public Builder(DriverManagerType browser, org.openqa.selenium.Proxy proxy, String userAgent, String driverVersionCode) {
+            this(blockedResources -> new RenderingDocumentRetriever(browser, proxy, userAgent, driverVersionCode, blockedResources));
+            Validate.notNull(browser, "browser must not be null");
+        }
+
+        /**
+         * Create sessions using a custom function, which receives the resource types to block.
+         */
+        public Builder(Function<Set<ResourceType>, RenderingDocumentRetriever> sessionFactory) {
+            Validate.notNull(sessionFactory, "sessionFactory must not be null");
+            this.sessionFactory = sessionFactory;
+        }
+
+        /** The number of sessions which are kept running, also when idle. */
+        public Builder setMinSessions(int minSessions) {
+            Validate.isTrue(minSessions >= 0, "minSessions must be greater/equal zero");
+            this.minSessions = minSessions;
+            return this;
+        }
+
+        /** The maximum number of sessions; callers wait when all of them are in use. */
+        public Builder setMaxSessions(int maxSessions) {
+            Validate.isTrue(maxSessions > 0, "maxSessions must be greater zero");
+            this.maxSessions = maxSessions;
+            return this;
+        }
+
+        /** The time after which unused sessions are quit. */
+        public Builder setMaxIdleTime(long maxIdleTime, TimeUnit unit) {
+            Validate.isTrue(maxIdleTime > 0, "maxIdleTime must be greater zero");
+            this.maxIdleTime = unit.toMillis(maxIdleTime);
+            return this;
+        }
+
+        /** The number of pages after which a session is quit and replaced. */
+        public Builder setMaxPagesPerSession(int maxPagesPerSession) {
+            Validate.isTrue(maxPagesPerSession > 0, "maxPagesPerSession must be greater zero");
+            this.maxPagesPerSession = maxPagesPerSession;
+            return this;
+        }
+
+        /** The resource types to block for the pre-started sessions and requests which do not specify them. */
+        public Builder setBlockedResources(Set<ResourceType> blockedResources) {
+            Validate.notNull(blockedResources, "blockedResources must not be null");
+            this.defaultBlockedResources = blockedResources;
+            return this;
+        }
+
+        @Override
+        public ManagedRenderingPool create() {
+            Validate.isTrue(minSessions <= maxSessions, "minSessions must be less/equal maxSessions");
+            return new ManagedRenderingPool(this);
+        }
+    }
+
+    /**
+     * Snapshot of the pool's metrics. Times are given in milliseconds.
+     */
+    public static final class Metrics {
+        private final Stats renderTimes;
+        private final Stats waitTimes;
+        private final int renders;
+        private final int failures;
+        private final int sessionsCreated;
+        private final int sessionsRecycled;
+        private final int sessionsEvicted;
+        private final int sessionsCrashed;
+        private final int domainReuses;
+
+        private Metrics(ManagedRenderingPool pool) {
+            renderTimes = new SlimStats(pool.renderTimes);
+            waitTimes = new SlimStats(pool.waitTimes);
+            renders = pool.renders;
+            failures = pool.failures;
+            sessionsCreated = pool.sessionsCreated;
+            sessionsRecycled = pool.sessionsRecycled;
+            sessionsEvicted = pool.sessionsEvicted;
+            sessionsCrashed = pool.sessionsCrashed;
+            domainReuses = pool.domainReuses;
+        }
+
+        /** Time for loading and parsing the pages rendered via {@link ManagedRenderingPool#getWebDocument(String, Set)}. */
+        public Stats getRenderTimes() {
+            return renderTimes;
+        }
+
+        /** Time which callers waited for a session, including the startup of new sessions. */
+        public Stats getWaitTimes() {
+            return waitTimes;
+        }
+
+        public int getRenders() {
+            return renders;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public int getSessionsCreated() {
+            return sessionsCreated;
+        }
+
+        /** Number of sessions which were replaced after reaching the maximum number of pages. */
+        public int getSessionsRecycled() {
+            return sessionsRecycled;
+        }
+
+        /** Number of sessions which were quit because they were idle. */
+        public int getSessionsEvicted() {
+            return sessionsEvicted;
+        }
+
+        /** Number of sessions which were discarded because they did not respond. */
+        public int getSessionsCrashed() {
+            return sessionsCrashed;
+        }
+
+        /** Number of acquisitions which got a session that rendered the same domain before. */
+        public int getDomainReuses() {
+            return domainReuses;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics [renders=" + renders + ", failures=" + failures + ", renderTime=" + renderTimes.getMean()
+                    + ", waitTime=" + waitTimes.getMean() + ", sessionsCreated=" + sessionsCreated
+                    + ", sessionsRecycled=" + sessionsRecycled + ", sessionsEvicted=" + sessionsEvicted
+                    + ", sessionsCrashed=" + sessionsCrashed + ", domainReuses=" + domainReuses + "]";
+        }
+    }
+
+    /** A browser session with its bookkeeping; mutable fields are guarded by the pool's lock. */
+    private static final class Session {
+        final RenderingDocumentRetriever retriever;
+        final Set<ResourceType> blockedResources;
+        long lastUsed;
+        int pages;
+        String domain;
+
+        Session(RenderingDocumentRetriever retriever, Set<ResourceType> blockedResources) {
+            this.retriever = retriever;
+            this.blockedResources = blockedResources;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    private final Function<Set<ResourceType>, RenderingDocumentRetriever> sessionFactory;
+    private final int minSessions;
+    private final int maxSessions;
+    private final long maxIdleTime;
+    private final int maxPagesPerSession;
+    private final Set<ResourceType> defaultBlockedResources;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sessionAvailable = lock.newCondition();
+
+    /** Idle sessions, most recently used first. */
+    private final Deque<Session> idleSessions = new ArrayDeque<>();
+    private final Map<RenderingDocumentRetriever, Session> leasedSessions = new IdentityHashMap<>();
+
+    /** Number of sessions which are running or being started. */
+    private int numSessions;
+    private boolean closed;
+
+    private final ScheduledExecutorService maintenanceExecutor;
+
+    // metrics, guarded by lock
+    private final SlimStats renderTimes = new SlimStats();
+    private final SlimStats waitTimes = new SlimStats();
+    private int renders;
+    private int failures;
+    private int sessionsCreated;
+    private int sessionsRecycled;
+    private int sessionsEvicted;
+    private int sessionsCrashed;
+    private int domainReuses;
+
+    private ManagedRenderingPool(Builder builder) {
+        sessionFactory = builder.sessionFactory;
+        minSessions = builder.minSessions;
+        maxSessions = builder.maxSessions;
+        maxIdleTime = builder.maxIdleTime;
+        maxPagesPerSession = builder.maxPagesPerSession;
+        defaultBlockedResources = toSet(builder.defaultBlockedResources);
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ManagedRenderingPool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenanceExecutor.execute(this::ensureMinSessions);
+        long interval = Math.max(1, maxIdleTime / 2);
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Render a page with a pooled session, blocking the default resource types.
+     *
+     * @param url The URL to render.
+     * @return The rendered document, or <code>null</code> in case rendering failed.
+     */
+    public Document getWebDocument(String url) throws InterruptedException {
+        return getWebDocument(url, defaultBlockedResources);
+    }
+
+    /**
+     * Render a page with a pooled session.
+     *
+     * @param url The URL to render.
+     * @param blockedResources The resource types which should not be loaded.
+     * @return The rendered document, or <code>null</code> in case rendering failed.
+     */
+    public Document getWebDocument(String url, Set<ResourceType> blockedResources) throws InterruptedException {
+        RenderingDocumentRetriever retriever = acquire(url, blockedResources);
+        long start = System.currentTimeMillis();
+        Document document = null;
+        try {
+            retriever.goTo(url, true);
+            document = retriever.getCurrentWebDocument();
+        } catch (WebDriverException e) {
+            LOGGER.warn("rendering {} failed, discarding session", url, e);
+            invalidate(retriever);
+            retriever = null;
+        } finally {
+            if (retriever != null) {
+                release(retriever);
+            }
+            long renderTime = System.currentTimeMillis() - start;
+            lock.lock();
+            try {
+                renders++;
+                if (document == null) {
+                    failures++;
+                } else {
+                    renderTimes.add(renderTime);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Acquire a session for rendering the given URL, waiting in case all sessions are in use. A session which rendered
+     * the same domain before is preferred.
+     *
+     * @param url The URL which will be rendered, used for choosing a session.
+     * @param blockedResources The resource types which should not be loaded.
+     * @return A retriever, which must be given back using {@link #release(RenderingDocumentRetriever)}.
+     * @throws IllegalStateException In case the pool was closed.
+     */
+    public RenderingDocumentRetriever acquire(String url, Set<ResourceType> blockedResources) throws InterruptedException {
+        Validate.notNull(url, "url must not be null");
+        Validate.notNull(blockedResources, "blockedResources must not be null");
+        Set<ResourceType> blocked = toSet(blockedResources);
+        String domain = UrlHelper.getDomain(url, false);
+        long start = System.currentTimeMillis();
+        for (;;) {
+            Session session;
+            Session replaced = null;
+            lock.lockInterruptibly();
+            try {
+                for (;;) {
+                    Validate.validState(!closed, "pool is closed");
+                    session = pollIdle(domain, blocked);
+                    if (session != null) {
+                        break;
+                    }
+                    if (numSessions < maxSessions) {
+                        numSessions++;
+                        break;
+                    }
+                    // all sessions are busy, or idle ones have a different blocking profile; replace one of those
+                    replaced = idleSessions.pollLast();
+                    if (replaced != null) {
+                        break;
+                    }
+                    sessionAvailable.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (replaced != null) {
+                quitQuietly(replaced.retriever);
+            }
+            if (session == null) {
+                session = createSession(blocked);
+            } else if (!session.retriever.isAlive()) {
+                LOGGER.warn("discarding crashed session");
+                discard(session);
+                lock.lock();
+                try {
+                    sessionsCrashed++;
+                } finally {
+                    lock.unlock();
+                }
+                continue;
+            }
+            lock.lock();
+            try {
+                if (domain.equals(session.domain)) {
+                    domainReuses++;
+                }
+                session.domain = domain;
+                leasedSessions.put(session.retriever, session);
+                waitTimes.add(System.currentTimeMillis() - start);
+            } finally {
+                lock.unlock();
+            }
+            return session.retriever;
+        }
+    }
+
+    /**
+     * Give back a session after rendering one page. Sessions which reached the maximum number of pages are quit.
+     *
+     * @param retriever The retriever obtained via {@link #acquire(String, Set)}.
+     */
+    public void release(RenderingDocumentRetriever retriever) {
+        Session session;
+        boolean recycle;
+        lock.lock();
+        try {
+            session = leasedSessions.remove(retriever);
+            Validate.isTrue(session != null, "retriever was not acquired from this pool");
+            session.pages++;
+            session.lastUsed = System.currentTimeMillis();
+            recycle = closed || session.pages >= maxPagesPerSession;
+            if (!recycle) {
+                idleSessions.addFirst(session);
+                sessionAvailable.signal();
+            } else if (!closed) {
+                sessionsRecycled++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (recycle) {
+            discard(session);
+            if (!isClosed()) {
+                maintenanceExecutor.execute(this::ensureMinSessions);
+            }
+        }
+    }
+
+    /**
+     * Give back a session which is broken, it will be quit and replaced.
+     *
+     * @param retriever The retriever obtained via {@link #acquire(String, Set)}.
+     */
+    public void invalidate(RenderingDocumentRetriever retriever) {
+        Session session;
+        lock.lock();
+        try {
+            session = leasedSessions.remove(retriever);
+            Validate.isTrue(session != null, "retriever was not acquired from this pool");
+            sessionsCrashed++;
+        } finally {
+            lock.unlock();
+        }
+        discard(session);
+        if (!isClosed()) {
+            maintenanceExecutor.execute(this::ensureMinSessions);
+        }
+    }
+
+    /** @return A snapshot of the current metrics. */
+    public Metrics getMetrics() {
+        lock.lock();
+        try {
+            return new Metrics(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return The number of running sessions, including the ones which are being started. */
+    public int getNumSessions() {
+        lock.lock();
+        try {
+            return numSessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return The number of sessions which are not in use. */
+    public int getNumIdleSessions() {
+        lock.lock();
+        try {
+            return idleSessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Quit all idle sessions; sessions in use are quit when they are released.
+     */
+    @Override
+    public void close() {
+        List<Session> toQuit;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toQuit = new ArrayList<>(idleSessions);
+            idleSessions.clear();
+            numSessions -= toQuit.size();
+            sessionAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maintenanceExecutor.shutdownNow();
+        for (Session session : toQuit) {
+            quitQuietly(session.retriever);
+        }
+    }
+
+    private boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Take an idle session with the given profile, preferring one which rendered the domain last; lock must be held. */
+    private Session pollIdle(String domain, Set<ResourceType> blockedResources) {
+        Session candidate = null;
+        for (Session session : idleSessions) {
+            if (session.blockedResources.equals(blockedResources)) {
+                if (domain.equals(session.domain)) {
+                    candidate = session;
+                    break;
+                }
+                if (candidate == null) {
+                    candidate = session;
+                }
+            }
+        }
+        if (candidate != null) {
+            idleSessions.remove(candidate);
+        }
+        return candidate;
+    }
+
+    /** Start a new session, for which the slot must have been reserved in {@link #numSessions}. */
+    private Session createSession(Set<ResourceType> blockedResources) {
+        RenderingDocumentRetriever retriever;
+        try {
+            retriever = sessionFactory.apply(blockedResources);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                numSessions--;
+                sessionAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            sessionsCreated++;
+        } finally {
+            lock.unlock();
+        }
+        return new Session(retriever, blockedResources);
+    }
+
+    private void discard(Session session) {
+        quitQuietly(session.retriever);
+        lock.lock();
+        try {
+            numSessions--;
+            sessionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void quitQuietly(RenderingDocumentRetriever retriever) {
+        try {
+            retriever.quit();
+        } catch (Exception e) {
+            LOGGER.debug("problem quitting session", e);
+        }
+    }
+
+    /** Start sessions with the default profile until the minimum is reached. */
+    private void ensureMinSessions() {
+        for (;;) {
+            lock.lock();
+            try {
+                if (closed || numSessions >= minSessions) {
+                    return;
+                }
+                numSessions++;
+            } finally {
+                lock.unlock();
+            }
+            Session session;
+            try {
+                session = createSession(defaultBlockedResources);
+            } catch (RuntimeException e) {
+                LOGGER.error("could not start session", e);
+                return;
+            }
+            boolean quit = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    numSessions--;
+                    quit = true;
+                } else {
+                    idleSessions.addFirst(session);
+                    sessionAvailable.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (quit) {
+                quitQuietly(session.retriever);
+                return;
+            }
+        }
+    }
+
+    /** Quit sessions which were idle for too long, down to the minimum number of sessions. */
+    private void maintain() {
+        List<Session> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Session> iterator = idleSessions.descendingIterator();
+            while (iterator.hasNext() && numSessions - evicted.size() > minSessions) {
+                Session session = iterator.next();
+                if (now - session.lastUsed > maxIdleTime) {
+                    iterator.remove();
+                    evicted.add(session);
+                }
+            }
+            sessionsEvicted += evicted.size();
+        } finally {
+            lock.unlock();
+        }
+        for (Session session : evicted) {
+            discard(session);
+        }
+        ensureMinSessions();
+    }
+
+    private static Set<ResourceType> toSet(Set<ResourceType> resourceTypes) {
+        return resourceTypes.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(resourceTypes));
+    }
+
+}
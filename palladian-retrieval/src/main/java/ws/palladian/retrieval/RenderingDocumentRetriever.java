@@ -42,6 +42,13 @@ import static io.github.bonigarcia.wdm.DriverManagerType.CHROME;
 public class RenderingDocumentRetriever extends WebDocumentRetriever {
     private static final Logger LOGGER = LoggerFactory.getLogger(RenderingDocumentRetriever.class);
 
+    /**
+     * Resource types which can be blocked to speed up rendering.
+     */
+    public enum ResourceType {
+        IMAGE, FONT, MEDIA
+    }
+
     protected RemoteWebDriver driver;
     private int timeoutSeconds = 10;
 
@@ -62,6 +69,16 @@ public class RenderingDocumentRetriever extends WebDocumentRetriever {
     }
 
     public RenderingDocumentRetriever(DriverManagerType browser, org.openqa.selenium.Proxy proxy, String userAgent, String driverVersionCode) {
+        this(browser, proxy, userAgent, driverVersionCode, Collections.emptySet());
+    }
+
+    /**
+     * Create a retriever which does not load the given resource types. Blocking is configured when the browser is
+     * started, so it applies to all pages which are loaded with this retriever.
+     *
+     * @param blockedResources The resource types which should not be loaded, empty set to load everything.
+     */
+    public RenderingDocumentRetriever(DriverManagerType browser, org.openqa.selenium.Proxy proxy, String userAgent, String driverVersionCode, Set<ResourceType> blockedResources) {
         if (browser == DriverManagerType.FIREFOX) {
             if (driverVersionCode != null) {
                 WebDriverManager.firefoxdriver().version(driverVersionCode).setup();
@@ -72,6 +89,16 @@ public class RenderingDocumentRetriever extends WebDocumentRetriever {
             firefoxOptions.setHeadless(true);
             firefoxOptions.setAcceptInsecureCerts(true);
             firefoxOptions.addPreference("general.useragent.override", userAgent);
+            if (blockedResources.contains(ResourceType.IMAGE)) {
+                firefoxOptions.addPreference("permissions.default.image", 2);
+            }
+            if (blockedResources.contains(ResourceType.FONT)) {
+                firefoxOptions.addPreference("gfx.downloadable_fonts.enabled", false);
+            }
+            if (blockedResources.contains(ResourceType.MEDIA)) {
+                firefoxOptions.addPreference("media.autoplay.default", 5);
+                firefoxOptions.addPreference("media.preload.default", 0);
+            }
 
             if (proxy != null) {
                 firefoxOptions.setCapability(CapabilityType.PROXY, proxy);
@@ -92,6 +119,19 @@ public class RenderingDocumentRetriever extends WebDocumentRetriever {
             options.addArguments("--start-maximized");
             options.addArguments("--window-size=1920,1080");
             options.addArguments("--user-agent=" + userAgent);
+            if (blockedResources.contains(ResourceType.IMAGE)) {
+                options.addArguments("--blink-settings=imagesEnabled=false");
+                Map<String, Object> prefs = new HashMap<>();
+                prefs.put("profile.managed_default_content_settings.images", 2);
+                options.setExperimentalOption("prefs", prefs);
+            }
+            if (blockedResources.contains(ResourceType.FONT)) {
+                options.addArguments("--disable-remote-fonts");
+            }
+            if (blockedResources.contains(ResourceType.MEDIA)) {
+                options.addArguments("--autoplay-policy=user-gesture-required");
+                options.addArguments("--mute-audio");
+            }
 
             if (proxy != null) {
                 options.setCapability(CapabilityType.PROXY, proxy);
@@ -114,6 +154,15 @@ public class RenderingDocumentRetriever extends WebDocumentRetriever {
         }
     }
 
+    /**
+     * Wrap an existing driver, e.g. a remote one.
+     *
+     * @param driver The driver.
+     */
+    protected RenderingDocumentRetriever(RemoteWebDriver driver) {
+        this.driver = driver;
+    }
+
     /**
      * Take a screenshot and save it to the specified path.
      *
@@ -381,6 +430,33 @@ public class RenderingDocumentRetriever extends WebDocumentRetriever {
         driver.close();
     }
 
+    /**
+     * Quit the webdriver, i.e. close all windows and stop the browser process.
+     */
+    public void quit() {
+        if (driver != null) {
+            driver.quit();
+        }
+    }
+
+    /**
+     * Check whether the browser is still responding.
+     *
+     * @return <code>true</code> in case the browser session is usable, <code>false</code> in case it crashed or was quit.
+     */
+    public boolean isAlive() {
+        if (driver == null || driver.getSessionId() == null) {
+            return false;
+        }
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.debug("browser session is not alive", e);
+            return false;
+        }
+    }
+
     public RemoteWebDriver getDriver() {
         return driver;
     }
@@ -7,11 +7,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ws.palladian.helper.constants.SizeUnit;
+import ws.palladian.helper.metrics.Metrics;
 import ws.palladian.retrieval.HttpRetriever;
 
 /**
  * <p>
  * The FeedReader reads news from feeds in a database. It learns when it is necessary to check the feed again for news.
+ * Processing, download and parse times, the number of items and the results are recorded in the {@link Metrics} under
+ * the name of this class.
  * 
  * @author David Urbansky
  * @author Klemens Muthmann
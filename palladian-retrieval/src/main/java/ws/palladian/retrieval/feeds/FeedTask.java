@@ -14,12 +14,15 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.impl.cookie.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ws.palladian.helper.StopWatch;
+import ws.palladian.helper.metrics.Metrics;
+import ws.palladian.helper.metrics.Timer;
 import ws.palladian.retrieval.HttpException;
 import ws.palladian.retrieval.HttpMethod;
 import ws.palladian.retrieval.HttpRequest2;
@@ -47,6 +50,13 @@ class FeedTask implements Callable<FeedTaskResult> {
     /** The logger for this class. */
     private final static Logger LOGGER = LoggerFactory.getLogger(FeedTask.class);
 
+    /** Names of the metrics, see {@link Metrics}; the result counters are suffixed with the {@link FeedTaskResult}. */
+    private static final String PROCESSING_TIMER = Metrics.name(FeedReader.class, "processing");
+    private static final String DOWNLOAD_TIMER = Metrics.name(FeedReader.class, "download");
+    private static final String PARSE_TIMER = Metrics.name(FeedReader.class, "parse");
+    private static final String ITEMS = Metrics.name(FeedReader.class, "items");
+    private static final String RESULT = Metrics.name(FeedReader.class, "result");
+
     /** The feed retrieved by this task. */
     private final Feed feed;
 
@@ -81,7 +91,12 @@ class FeedTask implements Callable<FeedTaskResult> {
                 feed.setLastPollTime(new Date());
                 // download the document (not necessarily a feed)
                 HttpRequest2 request = createRequest();
-                httpResult = httpRetriever.execute(request);
+                Timer.Context context = Metrics.timer(DOWNLOAD_TIMER).time();
+                try {
+                    httpResult = httpRetriever.execute(request);
+                } finally {
+                    context.close();
+                }
             } catch (HttpException e) {
                 LOGGER.error("Could not get Document for feed id " + feed.getId() + " , " + e.getMessage());
                 feed.incrementUnreachableCount();
@@ -127,6 +142,7 @@ class FeedTask implements Callable<FeedTaskResult> {
 
                     FeedParser feedParser = settings.getParserFactory().create();
                     Feed downloadedFeed = null;
+                    Timer.Context context = Metrics.timer(PARSE_TIMER).time();
                     try {
                         // parse the feed and get all its entries, do that here since that takes some time and this is a
                         // thread so it can be done in parallel
@@ -145,10 +161,13 @@ class FeedTask implements Callable<FeedTaskResult> {
 
                         doFinalStuff(timer);
                         return getResult();
+                    } finally {
+                        context.close();
                     }
                     feed.setItems(downloadedFeed.getItems());
                     feed.setLastSuccessfulCheckTime(feed.getLastPollTime());
                     feed.setWindowSize(downloadedFeed.getItems().size());
+                    Metrics.histogram(ITEMS).update(downloadedFeed.getItems().size());
 
                     // if (LOGGER.isDebugEnabled()) {
                     // LOGGER.debug("Activity Pattern: " + feed.getActivityPattern());
@@ -258,12 +277,14 @@ class FeedTask implements Callable<FeedTaskResult> {
     }
 
     /**
-     * Do final logging of result to error or debug log, depending on the FeedTaskResult.
+     * Do final logging of result to error or debug log, depending on the FeedTaskResult, and record the metrics.
      * 
      * @param timer the {@link StopWatch} started when started processing the feed.
      */
     private void doFinalLogging(StopWatch timer) {
         FeedTaskResult result = getResult();
+        Metrics.timer(PROCESSING_TIMER).update(timer.getElapsedTime(), TimeUnit.MILLISECONDS);
+        Metrics.counter(RESULT + "." + result).increment();
         String msg = "Finished processing of feed id " + feed.getId() + ". Result: " + result + ". Processing took "
                 + timer.getElapsedTimeString();
         if (result == FeedTaskResult.ERROR) {
@@ -116,6 +116,23 @@ public class JsonArray extends AbstractList<Object> implements Json, Serializabl
         }
     }
 
+    /**
+     * <p>
+     * Construct a {@link JsonArray} from the next value of a {@link JsonReader}. Only this array is read.
+     * </p>
+     * 
+     * @param reader The reader, positioned in front of an array, not <code>null</code>.
+     * @throws JsonException If there is a syntax error, or the next value is no array.
+     */
+    public JsonArray(JsonReader reader) throws JsonException {
+        this();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            list.add(reader.nextValue());
+        }
+        reader.endArray();
+    }
+
     /**
      * <p>
      * Construct a {@link JsonArray} from a source JSON text.
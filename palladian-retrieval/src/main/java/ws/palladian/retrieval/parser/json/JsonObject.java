@@ -134,6 +134,25 @@ public class JsonObject extends AbstractMap<String, Object> implements Json, Ser
         }
     }
 
+    /**
+     * <p>
+     * Construct a {@link JsonObject} from the next value of a {@link JsonReader}. Only this object is read, so the
+     * reader can be used to materialize individual objects of a large document.
+     * </p>
+     * 
+     * @param reader The reader, positioned in front of an object, not <code>null</code>.
+     * @throws JsonException If there is a syntax error, or the next value is no object.
+     */
+    public JsonObject(JsonReader reader) throws JsonException {
+        this();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            this.put(key, reader.nextValue());
+        }
+        reader.endObject();
+    }
+
     /**
      * <p>
      * Construct a {@link JsonObject} from a {@link Map}.
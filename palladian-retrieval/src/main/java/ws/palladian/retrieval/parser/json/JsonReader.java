@@ -0,0 +1,1001 @@
+package ws.palladian.retrieval.parser.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * <p>
+ * A pull-style reader for JSON text, which reads the tokens of a JSON document one after another, without building a
+ * tree. The input is read from an {@link InputStream} or a byte array and decoded as UTF-8 directly; there is no
+ * intermediate String copy of the whole document. Only the strings which are actually requested (names and values)
+ * are decoded, entire subtrees can be skipped using {@link #skipValue()} without allocating anything. This allows
+ * processing large API responses and bulk JSON dumps with constant memory.
+ * </p>
+ *
+ * <p>
+ * The reader accepts the same relaxed syntax as the {@link JsonObject} constructors (single quoted strings, unquoted
+ * names and values, trailing commas). Values at the top level may follow each other, so that streams with one JSON
+ * document per line can be read with one reader. Where only some values of a document are needed, they can be pulled
+ * out with one pass using {@link #extract(byte[], String...)}, or the reader can be moved to a value using
+ * {@link #seek(String)}. {@link JsonObject}s and {@link JsonArray}s for parts of the document can be built on demand
+ * using {@link #nextValue()}, for example when iterating over the elements of a huge array:
+ * </p>
+ *
+ * <pre>
+ * try (JsonReader reader = new JsonReader(inputStream)) {
+ *     if (reader.seek(&quot;items&quot;)) {
+ *         reader.beginArray();
+ *         while (reader.hasNext()) {
+ *             JsonObject item = new JsonObject(reader);
+ *             // ...
+ *         }
+ *         reader.endArray();
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public final class JsonReader implements Closeable {
+
+    /** The types of tokens in a JSON document, as returned by {@link JsonReader#peek()}. */
+    public static enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /** Path segment which matches all elements of an array in {@link #extract(byte[], String...)}. */
+    public static final String ANY_INDEX = "[*]";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Characters which terminate unquoted names and values, same as in {@link JsonTokener#nextValue()}. */
+    private static final String DELIMITERS = ",:]}/\\\"[{;=#'";
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    /** The source, or <code>null</code> in case we read from a byte array. */
+    private final InputStream inputStream;
+
+    private final byte[] buffer;
+
+    private int pos;
+
+    private int limit;
+
+    /** Number of bytes which were read before the current buffer content, for error messages. */
+    private long offset;
+
+    private int[] stack = new int[32];
+
+    private String[] pathNames = new String[32];
+
+    private int[] pathIndices = new int[32];
+
+    private int stackSize;
+
+    /** The next token, or <code>null</code> in case it was not peeked yet. */
+    private Token peeked;
+
+    /** The quote character of a peeked string or name, or zero in case it is unquoted. */
+    private int peekedQuote;
+
+    /** The value of a peeked unquoted name or value. */
+    private Object peekedLiteral;
+
+    /** Scratch buffer for decoding strings. */
+    private char[] chars = new char[64];
+
+    private int charCount;
+
+    /**
+     * <p>
+     * Create a new {@link JsonReader} reading from the given stream. The stream is buffered internally.
+     * </p>
+     *
+     * @param inputStream The stream with UTF-8 encoded JSON, not <code>null</code>.
+     */
+    public JsonReader(InputStream inputStream) {
+        Validate.notNull(inputStream, "inputStream must not be null");
+        this.inputStream = inputStream;
+        this.buffer = new byte[BUFFER_SIZE];
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * <p>
+     * Create a new {@link JsonReader} reading from the given byte array. The array is not copied.
+     * </p>
+     *
+     * @param bytes The UTF-8 encoded JSON, not <code>null</code>.
+     */
+    public JsonReader(byte[] bytes) {
+        Validate.notNull(bytes, "bytes must not be null");
+        this.inputStream = null;
+        this.buffer = bytes;
+        this.limit = bytes.length;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * <p>
+     * Get the type of the next token without consuming it.
+     * </p>
+     *
+     * @return The type of the next token, {@link Token#END_DOCUMENT} when the input is exhausted.
+     * @throws JsonException In case of a syntax error.
+     */
+    public Token peek() throws JsonException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[stackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                skipByteOrderMark();
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return peekDocument();
+            case NONEMPTY_DOCUMENT:
+                return peekDocument();
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                c = nextClean();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                pos = c == -1 ? pos : pos - 1;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextClean();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected a ',' or ']'");
+                }
+                c = nextClean();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                pos = c == -1 ? pos : pos - 1;
+                break;
+            case NONEMPTY_OBJECT:
+                c = nextClean();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (c != ',' && c != ';') {
+                    throw syntaxError("Expected a ',' or '}'");
+                }
+                return peekName();
+            case EMPTY_OBJECT:
+                return peekName();
+            case DANGLING_NAME:
+                if (nextClean() != ':') {
+                    throw syntaxError("Expected a ':' after a key");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            default:
+                throw new IllegalStateException("Reader is closed");
+        }
+        return peekValue();
+    }
+
+    private Token peekDocument() throws JsonException {
+        if (nextClean() == -1) {
+            return peeked = Token.END_DOCUMENT;
+        }
+        pos--;
+        return peekValue();
+    }
+
+    private Token peekName() throws JsonException {
+        stack[stackSize - 1] = DANGLING_NAME;
+        int c = nextClean();
+        if (c == '}') {
+            return peeked = Token.END_OBJECT;
+        }
+        if (c == -1) {
+            throw syntaxError("A JSON object text must end with '}'");
+        }
+        if (c == '"' || c == '\'') {
+            peekedQuote = c;
+        } else {
+            pos--;
+            peekedQuote = 0;
+            peekedLiteral = readLiteral();
+        }
+        return peeked = Token.NAME;
+    }
+
+    private Token peekValue() throws JsonException {
+        int c = nextClean();
+        switch (c) {
+            case -1:
+                throw syntaxError("Missing value");
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+            case '\'':
+                peekedQuote = c;
+                return peeked = Token.STRING;
+            case ',':
+                if (stack[stackSize - 1] == NONEMPTY_ARRAY) {
+                    // empty array element, like "[1,,2]"
+                    pos--;
+                    peekedLiteral = null;
+                    return peeked = Token.NULL;
+                }
+                throw syntaxError("Missing value");
+            default:
+                pos--;
+                peekedQuote = 0;
+                String literal = readLiteral();
+                if (literal.isEmpty()) {
+                    throw syntaxError("Missing value");
+                }
+                peekedLiteral = JsonUtil.stringToValue(literal);
+                if (peekedLiteral == null) {
+                    return peeked = Token.NULL;
+                } else if (peekedLiteral instanceof Boolean) {
+                    return peeked = Token.BOOLEAN;
+                } else if (peekedLiteral instanceof Number) {
+                    return peeked = Token.NUMBER;
+                }
+                return peeked = Token.STRING;
+        }
+    }
+
+    /**
+     * @return <code>true</code> in case the current object or array has more elements, <code>false</code> in case its
+     *         end or the end of the document was reached.
+     * @throws JsonException In case of a syntax error.
+     */
+    public boolean hasNext() throws JsonException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * <p>
+     * Consume the beginning of an object.
+     * </p>
+     *
+     * @throws JsonException In case the next token is no {@link Token#BEGIN_OBJECT}.
+     */
+    public void beginObject() throws JsonException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * <p>
+     * Consume the end of an object.
+     * </p>
+     *
+     * @throws JsonException In case the next token is no {@link Token#END_OBJECT}.
+     */
+    public void endObject() throws JsonException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+        valueConsumed();
+    }
+
+    /**
+     * <p>
+     * Consume the beginning of an array.
+     * </p>
+     *
+     * @throws JsonException In case the next token is no {@link Token#BEGIN_ARRAY}.
+     */
+    public void beginArray() throws JsonException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * <p>
+     * Consume the end of an array.
+     * </p>
+     *
+     * @throws JsonException In case the next token is no {@link Token#END_ARRAY}.
+     */
+    public void endArray() throws JsonException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+        valueConsumed();
+    }
+
+    /**
+     * @return The next property name.
+     * @throws JsonException In case the next token is no {@link Token#NAME}.
+     */
+    public String nextName() throws JsonException {
+        expect(Token.NAME);
+        String name = peekedQuote != 0 ? readString(peekedQuote) : (String)peekedLiteral;
+        pathNames[stackSize - 1] = name;
+        return name;
+    }
+
+    /**
+     * <p>
+     * Consume the next value as string. Numbers and booleans are converted to their string representation.
+     * </p>
+     *
+     * @return The string, or <code>null</code> in case the value is <code>null</code>.
+     * @throws JsonException In case the next token is no primitive value.
+     */
+    public String nextString() throws JsonException {
+        Token token = peek();
+        String result;
+        if (token == Token.STRING && peekedQuote != 0) {
+            peeked = null;
+            result = readString(peekedQuote);
+        } else if (token == Token.STRING || token == Token.NUMBER || token == Token.BOOLEAN || token == Token.NULL) {
+            peeked = null;
+            result = peekedLiteral != null ? peekedLiteral.toString() : null;
+        } else {
+            throw unexpected("a string", token);
+        }
+        valueConsumed();
+        return result;
+    }
+
+    /**
+     * @return The next value as {@link Integer}, {@link Long} or {@link Double}.
+     * @throws JsonException In case the next token is no {@link Token#NUMBER}.
+     */
+    public Number nextNumber() throws JsonException {
+        expect(Token.NUMBER);
+        valueConsumed();
+        return (Number)peekedLiteral;
+    }
+
+    /**
+     * @return The next boolean value.
+     * @throws JsonException In case the next token is no {@link Token#BOOLEAN}.
+     */
+    public boolean nextBoolean() throws JsonException {
+        expect(Token.BOOLEAN);
+        valueConsumed();
+        return (Boolean)peekedLiteral;
+    }
+
+    /**
+     * <p>
+     * Consume a <code>null</code> value.
+     * </p>
+     *
+     * @throws JsonException In case the next token is no {@link Token#NULL}.
+     */
+    public void nextNull() throws JsonException {
+        expect(Token.NULL);
+        valueConsumed();
+    }
+
+    /**
+     * <p>
+     * Consume the next value, which is materialized with the same types as used by the {@link JsonObject} and
+     * {@link JsonArray} parsers, i.e. {@link JsonObject}, {@link JsonArray}, {@link String}, {@link Boolean},
+     * {@link Integer}, {@link Long}, {@link Double}, or <code>null</code>.
+     * </p>
+     *
+     * @return The value.
+     * @throws JsonException In case of a syntax error, or if the next token is no value.
+     */
+    public Object nextValue() throws JsonException {
+        Token token = peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                return new JsonObject(this);
+            case BEGIN_ARRAY:
+                return new JsonArray(this);
+            case STRING:
+                return nextString();
+            case NUMBER:
+            case BOOLEAN:
+            case NULL:
+                peeked = null;
+                valueConsumed();
+                return peekedLiteral;
+            default:
+                throw unexpected("a value", token);
+        }
+    }
+
+    /**
+     * <p>
+     * Skip the next value. In case it is an object or array, the whole subtree is skipped without decoding any of its
+     * contents.
+     * </p>
+     *
+     * @throws JsonException In case of a syntax error, or if the next token is no value.
+     */
+    public void skipValue() throws JsonException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    if (depth == 0) {
+                        throw unexpected("a value", token);
+                    }
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    if (depth == 0) {
+                        throw unexpected("a value", token);
+                    }
+                    endArray();
+                    depth--;
+                    break;
+                case NAME:
+                    if (depth == 0) {
+                        throw unexpected("a value", token);
+                    }
+                    peeked = null;
+                    if (peekedQuote != 0) {
+                        skipString(peekedQuote);
+                    }
+                    pathNames[stackSize - 1] = null;
+                    break;
+                case STRING:
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    peeked = null;
+                    if (token == Token.STRING && peekedQuote != 0) {
+                        skipString(peekedQuote);
+                    }
+                    valueConsumed();
+                    break;
+                default:
+                    throw unexpected("a value", token);
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * <p>
+     * Move forward to the value at the given JPath (see {@link Json#query(String)}), relative to the current position.
+     * All values in between are skipped. As the reader cannot move backwards, the path must be located after the
+     * current position; e.g. when the reader is at the start of the document, <code>seek("entry/b[2]")</code> moves
+     * the reader in front of the third element of the array at <code>b</code> in the object at <code>entry</code>. The
+     * value can then be consumed using one of the <code>next</code> methods.
+     * </p>
+     *
+     * @param jPath The JPath, not <code>null</code>.
+     * @return <code>true</code> in case the reader was moved in front of the value, <code>false</code> in case there
+     *         is no value at the given path; the reader is then left where the path could not be followed. Paths with
+     *         {@value #ANY_INDEX} segments never match.
+     * @throws JsonException In case of a syntax error.
+     */
+    public boolean seek(String jPath) throws JsonException {
+        Validate.notNull(jPath, "jPath must not be null");
+        for (String segment : splitPath(jPath)) {
+            Token token = peek();
+            if (isIndex(segment)) {
+                if (token != Token.BEGIN_ARRAY || segment.equals(ANY_INDEX)) {
+                    return false;
+                }
+                int index = Integer.parseInt(segment.substring(1, segment.length() - 1));
+                beginArray();
+                for (int i = 0; i < index && hasNext(); i++) {
+                    skipValue();
+                }
+                if (!hasNext()) {
+                    endArray();
+                    return false;
+                }
+            } else {
+                if (token != Token.BEGIN_OBJECT) {
+                    return false;
+                }
+                beginObject();
+                for (;;) {
+                    if (!hasNext()) {
+                        endObject();
+                        return false;
+                    }
+                    if (nextName().equals(segment)) {
+                        break;
+                    }
+                    skipValue();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     * Get the JPath of the current position, e.g. <code>entry/b[2]/f</code>. Inside an array, the index denotes the
+     * element which is read next; inside an object, the name is the name which was read last.
+     * </p>
+     *
+     * @return The path, empty string on the top level.
+     */
+    public String getPath() {
+        StringBuilder path = new StringBuilder();
+        for (int i = 1; i < stackSize; i++) {
+            switch (stack[i]) {
+                case EMPTY_ARRAY:
+                case NONEMPTY_ARRAY:
+                    path.append('[').append(pathIndices[i]).append(']');
+                    break;
+                case EMPTY_OBJECT:
+                case DANGLING_NAME:
+                case NONEMPTY_OBJECT:
+                    if (pathNames[i] != null) {
+                        if (path.length() > 0) {
+                            path.append('/');
+                        }
+                        path.append(pathNames[i]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return path.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 1;
+        stack[0] = -1;
+        if (inputStream != null) {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * <p>
+     * Extract the values at the given JPaths from a JSON document with one pass. Everything which is not on one of the
+     * given paths is skipped without being decoded, and reading stops as soon as all values have been found. In
+     * addition to the usual JPath syntax, the segment {@value #ANY_INDEX} matches all elements of an array; the values
+     * for such paths are collected into a {@link JsonArray}, e.g. <code>items[*]/id</code> gives the IDs of all items.
+     * </p>
+     *
+     * @param bytes The UTF-8 encoded JSON, not <code>null</code>.
+     * @param jPaths The JPaths to extract.
+     * @return A {@link JsonObject} with the given paths as keys and the extracted values; paths which are not present
+     *         in the document have no entry.
+     * @throws JsonException In case of a syntax error.
+     */
+    public static JsonObject extract(byte[] bytes, String... jPaths) throws JsonException {
+        return new JsonReader(bytes).extract(jPaths);
+    }
+
+    /**
+     * <p>
+     * Extract the values at the given JPaths from a JSON stream with one pass, see {@link #extract(byte[], String...)}.
+     * The stream is not closed.
+     * </p>
+     *
+     * @param inputStream The stream with UTF-8 encoded JSON, not <code>null</code>.
+     * @param jPaths The JPaths to extract.
+     * @return A {@link JsonObject} with the given paths as keys and the extracted values.
+     * @throws JsonException In case of a syntax error.
+     */
+    public static JsonObject extract(InputStream inputStream, String... jPaths) throws JsonException {
+        return new JsonReader(inputStream).extract(jPaths);
+    }
+
+    /**
+     * <p>
+     * Extract the values at the given JPaths from the next value of this reader, see
+     * {@link #extract(byte[], String...)}. In case all values were found before the end of the value, the reader is
+     * left in the middle of it.
+     * </p>
+     *
+     * @param jPaths The JPaths to extract.
+     * @return A {@link JsonObject} with the given paths as keys and the extracted values.
+     * @throws JsonException In case of a syntax error.
+     */
+    public JsonObject extract(String... jPaths) throws JsonException {
+        Validate.notNull(jPaths, "jPaths must not be null");
+        Set<String> distinctPaths = new LinkedHashSet<>(Arrays.asList(jPaths));
+        String[] keys = distinctPaths.toArray(new String[distinctPaths.size()]);
+        String[][] paths = new String[keys.length][];
+        int remaining = 0;
+        for (int i = 0; i < keys.length; i++) {
+            paths[i] = splitPath(keys[i]).toArray(new String[0]);
+            remaining++;
+            if (Arrays.asList(paths[i]).contains(ANY_INDEX)) {
+                // never complete, as any element could match
+                remaining = Integer.MIN_VALUE;
+            }
+        }
+        JsonObject result = new JsonObject();
+        if (peek() != Token.END_DOCUMENT) {
+            extract(new ArrayList<String>(), keys, paths, result, new int[] {remaining});
+        }
+        return result;
+    }
+
+    private void extract(List<String> current, String[] keys, String[][] paths, JsonObject result, int[] remaining)
+            throws JsonException {
+        boolean prefix = false;
+        boolean match = false;
+        for (String[] path : paths) {
+            int matchLength = matchLength(path, current);
+            prefix |= matchLength == current.size() && path.length > current.size();
+            match |= matchLength == current.size() && path.length == current.size();
+        }
+        if (match) {
+            // materialize the value, deeper paths are collected from the tree
+            collect(nextValue(), current, keys, paths, result, remaining);
+        } else if (!prefix) {
+            skipValue();
+        } else if (peek() == Token.BEGIN_OBJECT) {
+            beginObject();
+            while (hasNext()) {
+                current.add(nextName());
+                extract(current, keys, paths, result, remaining);
+                current.remove(current.size() - 1);
+                if (remaining[0] == 0) {
+                    return;
+                }
+            }
+            endObject();
+        } else if (peek() == Token.BEGIN_ARRAY) {
+            beginArray();
+            for (int index = 0; hasNext(); index++) {
+                current.add("[" + index + "]");
+                extract(current, keys, paths, result, remaining);
+                current.remove(current.size() - 1);
+                if (remaining[0] == 0) {
+                    return;
+                }
+            }
+            endArray();
+        } else {
+            skipValue();
+        }
+    }
+
+    private static void collect(Object value, List<String> current, String[] keys, String[][] paths,
+            JsonObject result, int[] remaining) {
+        boolean prefix = false;
+        for (int i = 0; i < paths.length; i++) {
+            int matchLength = matchLength(paths[i], current);
+            if (matchLength < current.size()) {
+                continue;
+            }
+            if (paths[i].length > current.size()) {
+                prefix = true;
+            } else if (Arrays.asList(paths[i]).contains(ANY_INDEX)) {
+                JsonArray values = result.tryGetJsonArray(keys[i]);
+                if (values == null) {
+                    values = new JsonArray();
+                    result.put(keys[i], values);
+                }
+                values.add(value);
+            } else if (!result.containsKey(keys[i])) {
+                result.put(keys[i], value);
+                remaining[0]--;
+            }
+        }
+        if (!prefix) {
+            return;
+        }
+        if (value instanceof JsonObject) {
+            for (Entry<String, Object> entry : ((JsonObject)value).entrySet()) {
+                current.add(entry.getKey());
+                collect(entry.getValue(), current, keys, paths, result, remaining);
+                current.remove(current.size() - 1);
+            }
+        } else if (value instanceof JsonArray) {
+            JsonArray array = (JsonArray)value;
+            for (int index = 0; index < array.size(); index++) {
+                current.add("[" + index + "]");
+                collect(array.get(index), current, keys, paths, result, remaining);
+                current.remove(current.size() - 1);
+            }
+        }
+    }
+
+    /** @return The number of leading segments of the current position which are matched by the path. */
+    private static int matchLength(String[] path, List<String> current) {
+        int length = Math.min(path.length, current.size());
+        for (int i = 0; i < length; i++) {
+            String segment = path[i];
+            String currentSegment = current.get(i);
+            if (!segment.equals(currentSegment)
+                    && !(segment.equals(ANY_INDEX) && isIndex(currentSegment))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static List<String> splitPath(String jPath) {
+        List<String> segments = new ArrayList<>();
+        String remainingPath = jPath;
+        for (;;) {
+            String[] pathSplit = JsonUtil.splitJPath(remainingPath);
+            if (pathSplit[0].isEmpty()) {
+                return segments;
+            }
+            segments.add(pathSplit[0]);
+            remainingPath = pathSplit[1];
+        }
+    }
+
+    private static boolean isIndex(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '[' && segment.charAt(segment.length() - 1) == ']';
+    }
+
+    // parser internals
+
+    private void expect(Token expected) throws JsonException {
+        Token token = peek();
+        if (token != expected) {
+            throw unexpected(expected.toString(), token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int newLength = stackSize * 2;
+            stack = Arrays.copyOf(stack, newLength);
+            pathNames = Arrays.copyOf(pathNames, newLength);
+            pathIndices = Arrays.copyOf(pathIndices, newLength);
+        }
+        stack[stackSize] = scope;
+        pathNames[stackSize] = null;
+        pathIndices[stackSize] = 0;
+        stackSize++;
+    }
+
+    private void valueConsumed() {
+        pathIndices[stackSize - 1]++;
+    }
+
+    private boolean fill() throws JsonException {
+        if (inputStream == null) {
+            return false;
+        }
+        try {
+            offset += limit;
+            pos = 0;
+            limit = 0;
+            int read = inputStream.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    /** @return The next byte, or -1 at the end of the input. */
+    private int next() throws JsonException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    /** @return The next byte which is no whitespace or control character, or -1 at the end of the input. */
+    private int nextClean() throws JsonException {
+        for (;;) {
+            int c = next();
+            if (c == -1 || c > ' ') {
+                return c;
+            }
+        }
+    }
+
+    private void skipByteOrderMark() throws JsonException {
+        if (next() == 0xef) {
+            if (next() == 0xbb && next() == 0xbf) {
+                return;
+            }
+            throw syntaxError("Invalid byte order mark");
+        }
+        if (pos > 0) {
+            pos--;
+        }
+    }
+
+    private String readLiteral() throws JsonException {
+        charCount = 0;
+        for (;;) {
+            int c = next();
+            if (c == -1) {
+                break;
+            }
+            if (c <= ' ' || DELIMITERS.indexOf(c) >= 0) {
+                pos--;
+                break;
+            }
+            if (c < 0x80) {
+                append((char)c);
+            } else {
+                appendMultiByte(c);
+            }
+        }
+        return new String(chars, 0, charCount);
+    }
+
+    private String readString(int quote) throws JsonException {
+        charCount = 0;
+        for (;;) {
+            int c = next();
+            if (c == quote) {
+                return new String(chars, 0, charCount);
+            }
+            switch (c) {
+                case -1:
+                case '\n':
+                case '\r':
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    readEscape();
+                    break;
+                default:
+                    if (c < 0x80) {
+                        append((char)c);
+                    } else {
+                        appendMultiByte(c);
+                    }
+            }
+        }
+    }
+
+    private void skipString(int quote) throws JsonException {
+        for (;;) {
+            int c = next();
+            if (c == quote) {
+                return;
+            }
+            switch (c) {
+                case -1:
+                case '\n':
+                case '\r':
+                    throw syntaxError("Unterminated string");
+                case '\\':
+                    if (next() == -1) {
+                        throw syntaxError("Unterminated string");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void readEscape() throws JsonException {
+        int c = next();
+        switch (c) {
+            case 'b':
+                append('\b');
+                break;
+            case 't':
+                append('\t');
+                break;
+            case 'n':
+                append('\n');
+                break;
+            case 'f':
+                append('\f');
+                break;
+            case 'r':
+                append('\r');
+                break;
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = next();
+                    int hex = digit == -1 ? -1 : JsonTokener.dehexchar((char)digit);
+                    if (hex == -1) {
+                        throw syntaxError("Illegal escape.");
+                    }
+                    value = value << 4 | hex;
+                }
+                append((char)value);
+                break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                append((char)c);
+                break;
+            default:
+                throw syntaxError("Illegal escape.");
+        }
+    }
+
+    /** Decode a UTF-8 sequence starting with the given byte; malformed sequences are replaced by U+FFFD. */
+    private void appendMultiByte(int first) throws JsonException {
+        int length;
+        int codePoint;
+        if ((first & 0xe0) == 0xc0) {
+            length = 1;
+            codePoint = first & 0x1f;
+        } else if ((first & 0xf0) == 0xe0) {
+            length = 2;
+            codePoint = first & 0x0f;
+        } else if ((first & 0xf8) == 0xf0) {
+            length = 3;
+            codePoint = first & 0x07;
+        } else {
+            append('\uFFFD');
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            int c = next();
+            if (c == -1 || (c & 0xc0) != 0x80) {
+                if (c != -1) {
+                    pos--;
+                }
+                append('\uFFFD');
+                return;
+            }
+            codePoint = codePoint << 6 | c & 0x3f;
+        }
+        if (Character.isBmpCodePoint(codePoint)) {
+            append((char)codePoint);
+        } else if (Character.isValidCodePoint(codePoint)) {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        } else {
+            append('\uFFFD');
+        }
+    }
+
+    private void append(char c) {
+        if (charCount == chars.length) {
+            chars = Arrays.copyOf(chars, charCount * 2);
+        }
+        chars[charCount++] = c;
+    }
+
+    private JsonException unexpected(String expected, Token token) {
+        return syntaxError("Expected " + expected + " but was " + token);
+    }
+
+    private JsonException syntaxError(String message) {
+        return new JsonException(message + " at " + (offset + pos) + " [path " + getPath() + "]");
+    }
+
+    @Override
+    public String toString() {
+        return "JsonReader [path=" + getPath() + "]";
+    }
+
+}
@@ -0,0 +1,481 @@
+package ws.palladian.retrieval.ranking.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ws.palladian.helper.functional.Factory;
+import ws.palladian.retrieval.ranking.Ranking;
+import ws.palladian.retrieval.ranking.RankingService;
+import ws.palladian.retrieval.ranking.RankingServiceException;
+import ws.palladian.retrieval.ranking.RankingType;
+
+/**
+ * <p>
+ * Group together multiple {@link RankingService}s, like the {@link CompositeRankingService}, but query all services
+ * concurrently, so that the latency is bounded by the slowest service instead of the sum of all services. Failing
+ * services are ignored and the remaining rankings are returned, the retrieval methods do not throw
+ * {@link RankingServiceException}s. In detail:
+ * </p>
+ * <ul>
+ * <li>Each service has a timeout; rankings which are not available within the timeout are omitted from the result,
+ * and the request is cancelled (i.e. its thread is interrupted).</li>
+ * <li>Each service has its own, bounded thread pool, so that a service which hangs cannot starve the others.</li>
+ * <li>Each service has a circuit breaker: After a number of consecutive failures (exceptions, or requests which did
+ * not finish within the timeout, including such which hang), the service is skipped for a while. After this period, one trial request is let through,
+ * which closes the circuit again in case it succeeds.</li>
+ * <li>Concurrent requests for the same service and URL are coalesced, i.e. the second request waits for the result of
+ * the first one instead of calling the service again.</li>
+ * <li>When rankings for multiple URLs are requested, services which override {@link #getRanking(Collection)} with a
+ * dedicated batch implementation (e.g. {@link BitlyClicks}, {@link FacebookLinkStats}) get one batch request, all
+ * others get one request per URL.</li>
+ * </ul>
+ *
+ * <p>
+ * Instances are created using the {@link Builder}.
+ * </p>
+ */
+public final class ConcurrentRankingService extends AbstractRankingService implements RankingService {
+
+    /** The logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentRankingService.class);
+
+    /** The default timeout for each service in milliseconds. */
+    public static final long DEFAULT_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    /** The default number of consecutive failures after which a service is skipped. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /** The default time in milliseconds for which a failing service is skipped. */
+    public static final long DEFAULT_OPEN_DURATION = TimeUnit.MINUTES.toMillis(1);
+
+    /** The default number of threads per service. */
+    public static final int DEFAULT_THREADS_PER_SERVICE = 2;
+
+    /**
+     * <p>
+     * Builder for a {@link ConcurrentRankingService}.
+     * </p>
+     */
+    public static final class Builder implements Factory<ConcurrentRankingService> {
+
+        private final List<RankingService> rankingServices;
+        private final Map<String, Long> timeouts = new HashMap<>();
+        private int threadsPerService = DEFAULT_THREADS_PER_SERVICE;
+        private long defaultTimeout = DEFAULT_TIMEOUT;
+        private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        private long openDuration = DEFAULT_OPEN_DURATION;
+
+        /**
+         * @param rankingServices The services to query, not <code>null</code>.
+         */
+        public Builder(Collection<? extends RankingService> rankingServices) {
+            Validate.notNull(rankingServices, "rankingServices must not be null");
+            this.rankingServices = new ArrayList<>(rankingServices);
+        }
+
+        /** Set the maximum number of concurrent requests to each service. */
+        public Builder setThreadsPerService(int threadsPerService) {
+            Validate.isTrue(threadsPerService > 0, "threadsPerService must be greater zero");
+            this.threadsPerService = threadsPerService;
+            return this;
+        }
+
+        /** Set the timeout for all services without a dedicated timeout. */
+        public Builder setTimeout(long timeout, TimeUnit unit) {
+            Validate.isTrue(timeout > 0, "timeout must be greater zero");
+            this.defaultTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /** Set the timeout for the given service. */
+        public Builder setTimeout(RankingService rankingService, long timeout, TimeUnit unit) {
+            Validate.notNull(rankingService, "rankingService must not be null");
+            Validate.isTrue(timeout > 0, "timeout must be greater zero");
+            timeouts.put(rankingService.getServiceId(), unit.toMillis(timeout));
+            return this;
+        }
+
+        /** Set the number of consecutive failures after which a service is skipped. */
+        public Builder setFailureThreshold(int failureThreshold) {
+            Validate.isTrue(failureThreshold > 0, "failureThreshold must be greater zero");
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /** Set the time for which a failing service is skipped, before a trial request is made. */
+        public Builder setOpenDuration(long openDuration, TimeUnit unit) {
+            Validate.isTrue(openDuration >= 0, "openDuration must be greater/equal zero");
+            this.openDuration = unit.toMillis(openDuration);
+            return this;
+        }
+
+        @Override
+        public ConcurrentRankingService create() {
+            return new ConcurrentRankingService(this);
+        }
+
+    }
+
+    /** Circuit breaker for one service. */
+    static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openDuration;
+        private int consecutiveFailures;
+        private long openUntil;
+
+        CircuitBreaker(int failureThreshold, long openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openDuration = openDuration;
+        }
+
+        /** @return <code>true</code> in case a request may be made. */
+        synchronized boolean allowRequest(long now) {
+            if (consecutiveFailures < failureThreshold) {
+                return true;
+            }
+            if (now < openUntil) {
+                return false;
+            }
+            // half open; let one trial request through, block the others until it finishes
+            openUntil = now + openDuration;
+            return true;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            openUntil = 0;
+        }
+
+        synchronized void recordFailure(long now) {
+            if (++consecutiveFailures >= failureThreshold) {
+                openUntil = now + openDuration;
+            }
+        }
+
+        synchronized boolean isOpen(long now) {
+            return consecutiveFailures >= failureThreshold && now < openUntil;
+        }
+
+    }
+
+    private final List<RankingService> rankingServices;
+
+    private final Map<RankingService, Long> timeouts;
+
+    private final Map<RankingService, CircuitBreaker> circuitBreakers;
+
+    /** A request for a URL; cancelling it cancels the task which performs the request. */
+    private static final class Request extends CompletableFuture<Ranking> {
+        volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            Future<?> task = this.task;
+            if (task != null) {
+                task.cancel(true);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    /** Requests which are currently running, keyed by service ID and URL. */
+    private final ConcurrentMap<String, Request> inFlight = new ConcurrentHashMap<>();
+
+    /** One executor per service, so that the services are isolated from each other. */
+    private final Map<RankingService, ExecutorService> executors;
+
+    private ConcurrentRankingService(Builder builder) {
+        rankingServices = builder.rankingServices;
+        timeouts = new HashMap<>();
+        circuitBreakers = new HashMap<>();
+        executors = new HashMap<>();
+        for (RankingService rankingService : rankingServices) {
+            Long timeout = builder.timeouts.get(rankingService.getServiceId());
+            timeouts.put(rankingService, timeout != null ? timeout : builder.defaultTimeout);
+            circuitBreakers.put(rankingService, new CircuitBreaker(builder.failureThreshold, builder.openDuration));
+            executors.put(rankingService, createExecutor(rankingService, builder.threadsPerService));
+        }
+    }
+
+    /**
+     * Timed out requests are cancelled; however, requests which do not react to interrupts keep their thread, so the
+     * pool of each service is bounded. Requests which wait for a thread are cancelled when timing out as well.
+     */
+    private static ExecutorService createExecutor(final RankingService rankingService, int numThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ConcurrentRankingService-" + rankingService.getServiceId()
+                        + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public Ranking getRanking(String url) {
+        Ranking.Builder builder = new Ranking.Builder(this, url);
+        for (Ranking ranking : getRankings(url).values()) {
+            builder.addAll(ranking);
+        }
+        return builder.create();
+    }
+
+    @Override
+    public Map<String, Ranking> getRanking(Collection<String> urls) {
+        Map<String, Ranking.Builder> builders = new LinkedHashMap<>();
+        for (String url : urls) {
+            builders.put(url, new Ranking.Builder(this, url));
+        }
+        for (Map<String, Ranking> serviceRankings : getRankings(urls).values()) {
+            for (Entry<String, Ranking> entry : serviceRankings.entrySet()) {
+                builders.get(entry.getKey()).addAll(entry.getValue());
+            }
+        }
+        Map<String, Ranking> result = new LinkedHashMap<>();
+        for (Entry<String, Ranking.Builder> entry : builders.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().create());
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Get the rankings of all services for one URL.
+     * </p>
+     *
+     * @param url The URL, not <code>null</code>.
+     * @return The rankings of all services which answered within their timeout.
+     */
+    public Map<RankingService, Ranking> getRankings(String url) {
+        Validate.notNull(url, "url must not be null");
+        Map<RankingService, Ranking> rankings = new LinkedHashMap<>();
+        for (Entry<RankingService, Map<String, Ranking>> entry : getRankings(Collections.singleton(url)).entrySet()) {
+            Ranking ranking = entry.getValue().get(url);
+            if (ranking != null) {
+                rankings.put(entry.getKey(), ranking);
+            }
+        }
+        return rankings;
+    }
+
+    /**
+     * <p>
+     * Get the rankings of all services for multiple URLs.
+     * </p>
+     *
+     * @param urls The URLs, not <code>null</code>.
+     * @return For each service, the rankings by URL which were retrieved within the service's timeout.
+     */
+    public Map<RankingService, Map<String, Ranking>> getRankings(Collection<String> urls) {
+        Validate.notNull(urls, "urls must not be null");
+        long start = System.currentTimeMillis();
+        Collection<String> distinctUrls = new LinkedHashSet<>(urls);
+        Map<RankingService, Map<String, Request>> futures = new LinkedHashMap<>();
+        for (RankingService rankingService : rankingServices) {
+            if (!circuitBreakers.get(rankingService).allowRequest(start)) {
+                LOGGER.debug("Skipping {}, circuit is open", rankingService);
+                continue;
+            }
+            futures.put(rankingService, submit(rankingService, distinctUrls));
+        }
+        Map<RankingService, Map<String, Ranking>> result = new LinkedHashMap<>();
+        for (Entry<RankingService, Map<String, Request>> entry : futures.entrySet()) {
+            RankingService rankingService = entry.getKey();
+            long deadline = start + timeouts.get(rankingService);
+            Map<String, Ranking> rankings = new LinkedHashMap<>();
+            boolean timedOut = false;
+            for (Entry<String, Request> urlFuture : entry.getValue().entrySet()) {
+                try {
+                    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    Ranking ranking = urlFuture.getValue().get(remaining, TimeUnit.MILLISECONDS);
+                    if (ranking != null) {
+                        rankings.put(urlFuture.getKey(), ranking);
+                    }
+                } catch (TimeoutException e) {
+                    LOGGER.warn("Timeout for {} and {}", rankingService, urlFuture.getKey());
+                    // cancel, so that the thread is freed and later requests do not join the timed out one
+                    urlFuture.getValue().cancel(true);
+                    inFlight.remove(inFlightKey(rankingService, urlFuture.getKey()), urlFuture.getValue());
+                    // record the failure here, as the request itself might never finish; once per service
+                    if (!timedOut) {
+                        circuitBreakers.get(rankingService).recordFailure(System.currentTimeMillis());
+                        timedOut = true;
+                    }
+                } catch (CancellationException e) {
+                    LOGGER.debug("Cancelled request for {} and {}", rankingService, urlFuture.getKey());
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Exception for {} and {}: {}", rankingService, urlFuture.getKey(), e.getCause()
+                            .toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return result;
+                }
+            }
+            result.put(rankingService, rankings);
+        }
+        return result;
+    }
+
+    /** Start the requests for the given URLs, joining requests which are already running. */
+    private Map<String, Request> submit(final RankingService rankingService, Collection<String> urls) {
+        Map<String, Request> futures = new LinkedHashMap<>();
+        final Map<String, Request> newFutures = new LinkedHashMap<>();
+        for (String url : urls) {
+            Request future = new Request();
+            Request existing = inFlight.putIfAbsent(inFlightKey(rankingService, url), future);
+            if (existing != null) {
+                futures.put(url, existing);
+            } else {
+                futures.put(url, future);
+                newFutures.put(url, future);
+            }
+        }
+        ExecutorService executor = executors.get(rankingService);
+        if (newFutures.size() > 1 && isBatching(rankingService)) {
+            Future<?> task = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.currentTimeMillis();
+                    try {
+                        Map<String, Ranking> rankings = rankingService.getRanking(newFutures.keySet());
+                        recordResult(rankingService, start);
+                        for (Entry<String, Request> entry : newFutures.entrySet()) {
+                            complete(rankingService, entry.getKey(), entry.getValue(), rankings.get(entry.getKey()));
+                        }
+                    } catch (Exception e) {
+                        // cancelled requests were recorded as failure by the waiting side already
+                        if (!isAnyCancelled(newFutures.values())) {
+                            circuitBreakers.get(rankingService).recordFailure(System.currentTimeMillis());
+                        }
+                        for (Entry<String, Request> entry : newFutures.entrySet()) {
+                            fail(rankingService, entry.getKey(), entry.getValue(), e);
+                        }
+                    }
+                }
+            });
+            for (Request request : newFutures.values()) {
+                request.task = task;
+            }
+        } else {
+            for (final Entry<String, Request> entry : newFutures.entrySet()) {
+                entry.getValue().task = executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        long start = System.currentTimeMillis();
+                        try {
+                            Ranking ranking = rankingService.getRanking(entry.getKey());
+                            recordResult(rankingService, start);
+                            complete(rankingService, entry.getKey(), entry.getValue(), ranking);
+                        } catch (Exception e) {
+                            if (!entry.getValue().isCancelled()) {
+                                circuitBreakers.get(rankingService).recordFailure(System.currentTimeMillis());
+                            }
+                            fail(rankingService, entry.getKey(), entry.getValue(), e);
+                        }
+                    }
+                });
+            }
+        }
+        return futures;
+    }
+
+    private static boolean isAnyCancelled(Collection<Request> requests) {
+        for (Request request : requests) {
+            if (request.isCancelled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Responses which took longer than the timeout do not count as success; the failure was already recorded by the
+     * waiting side.
+     */
+    private void recordResult(RankingService rankingService, long start) {
+        if (System.currentTimeMillis() - start <= timeouts.get(rankingService)) {
+            circuitBreakers.get(rankingService).recordSuccess();
+        }
+    }
+
+    private void complete(RankingService rankingService, String url, Request future, Ranking ranking) {
+        inFlight.remove(inFlightKey(rankingService, url), future);
+        future.complete(ranking);
+    }
+
+    private void fail(RankingService rankingService, String url, Request future, Exception e) {
+        inFlight.remove(inFlightKey(rankingService, url), future);
+        future.completeExceptionally(e);
+    }
+
+    private static String inFlightKey(RankingService rankingService, String url) {
+        return rankingService.getServiceId() + ' ' + url;
+    }
+
+    /** @return <code>true</code> in case the service has a dedicated implementation for multiple URLs. */
+    static boolean isBatching(RankingService rankingService) {
+        try {
+            Class<?> declaringClass = rankingService.getClass().getMethod("getRanking", Collection.class)
+                    .getDeclaringClass();
+            return declaringClass != AbstractRankingService.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param rankingService The service.
+     * @return <code>true</code> in case the service is currently skipped because of consecutive failures.
+     */
+    public boolean isCircuitOpen(RankingService rankingService) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(rankingService);
+        return circuitBreaker != null && circuitBreaker.isOpen(System.currentTimeMillis());
+    }
+
+    @Override
+    public String getServiceId() {
+        return "concurrentRankingService";
+    }
+
+    @Override
+    public List<RankingType> getRankingTypes() {
+        List<RankingType> rankingTypes = new ArrayList<>();
+        for (RankingService rankingService : rankingServices) {
+            rankingTypes.addAll(rankingService.getRankingTypes());
+        }
+        return rankingTypes;
+    }
+
+}
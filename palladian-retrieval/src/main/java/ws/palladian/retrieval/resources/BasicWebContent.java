@@ -1,5 +1,6 @@
 package ws.palladian.retrieval.resources;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -23,7 +24,9 @@ import ws.palladian.helper.geo.ImmutableGeoCoordinate;
  * @author David Urbansky
  * @author Philipp Katz
  */
-public class BasicWebContent implements WebContent {
+public class BasicWebContent implements WebContent, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * <p>
@@ -17,6 +17,8 @@ import ws.palladian.retrieval.search.images.ImageType;
  */
 public class BasicWebImage extends BasicWebContent implements WebImage {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * <p>
      * Builder for creating new instances of {@link WebImage}.
@@ -13,6 +13,8 @@ import java.util.List;
  */
 public class BasicWebVideo extends BasicWebContent implements WebVideo {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * <p>
      * Builder for creating new instances of {@link WebVideo}.
@@ -4,13 +4,14 @@ import java.util.List;
 
 import org.apache.commons.lang3.Validate;
 
-import ws.palladian.helper.collection.LruMap;
+import ws.palladian.helper.collection.TinyLfuCache;
 import ws.palladian.helper.constants.Language;
 import ws.palladian.retrieval.resources.WebContent;
 
 /**
  * <p>
- * Cache for an arbitrary {@link Searcher}.
+ * Cache for an arbitrary {@link Searcher}. The cache is thread safe, and evicts using the frequency-aware
+ * {@link TinyLfuCache}.
  * </p>
  * 
  * @author Philipp Katz
@@ -20,9 +21,9 @@ public class CachingSearcher<R extends WebContent> extends AbstractSearcher<R> {
 
     private final Searcher<R> searcher;
 
-    private final LruMap<String, List<R>> searchCache;
+    private final TinyLfuCache<String, List<R>> searchCache;
 
-    private final LruMap<String, Long> countCache;
+    private final TinyLfuCache<String, Long> countCache;
 
     /**
      * <p>
@@ -41,8 +42,8 @@ public class CachingSearcher<R extends WebContent> extends AbstractSearcher<R> {
 
     private CachingSearcher(int cacheSize, Searcher<R> searcher) {
         this.searcher = searcher;
-        searchCache = LruMap.insertionOrder(cacheSize);
-        countCache = LruMap.insertionOrder(cacheSize);
+        searchCache = new TinyLfuCache.Builder<String, List<R>>().setMaximumSize(cacheSize).create();
+        countCache = new TinyLfuCache.Builder<String, Long>().setMaximumSize(cacheSize).create();
     }
 
     @Override
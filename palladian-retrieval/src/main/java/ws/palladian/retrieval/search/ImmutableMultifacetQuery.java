@@ -3,6 +3,7 @@ package ws.palladian.retrieval.search;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -107,6 +108,11 @@ class ImmutableMultifacetQuery implements MultifacetQuery {
         return facets.get(identifier);
     }
 
+    @Override
+    public Collection<Facet> getFacets() {
+        return Collections.unmodifiableCollection(facets.values());
+    }
+
     @Override
     public int getResultPage() {
         return resultPage;
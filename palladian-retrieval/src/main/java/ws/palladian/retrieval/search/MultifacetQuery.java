@@ -215,6 +215,11 @@ public interface MultifacetQuery {
      */
     Facet getFacet(String identifier);
 
+    /**
+     * @return All searcher-specific additional facets, or an empty collection if none were specified.
+     */
+    Collection<Facet> getFacets();
+
     /**
      * @return The page of the result list to get.
      */
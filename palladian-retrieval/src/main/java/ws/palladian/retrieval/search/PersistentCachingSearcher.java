@@ -0,0 +1,181 @@
+package ws.palladian.retrieval.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ws.palladian.retrieval.resources.WebContent;
+import ws.palladian.retrieval.search.PersistentSearchCache.CachedResults;
+
+/**
+ * <p>
+ * Searcher decorator which keeps results in a {@link PersistentSearchCache}, so that repeated runs do not spend any
+ * API calls (and waiting time for rate limits) on queries which were already answered. The cache key is built from
+ * the searcher's name and all properties and facets of the {@link MultifacetQuery}, where the query text is
+ * normalized with regards to whitespace.
+ * </p>
+ *
+ * <p>
+ * Results younger than the time to live are returned directly. Results which are older, but still within the
+ * stale-while-revalidate interval, are returned directly as well, while a refresh is triggered in the background.
+ * Older results are re-requested from the wrapped searcher; in case this fails because of a
+ * {@link RateLimitedException}, the outdated results are returned instead of failing.
+ * </p>
+ *
+ * @param <R> The result type of the {@link Searcher}.
+ */
+public final class PersistentCachingSearcher<R extends WebContent> extends AbstractMultifacetSearcher<R> {
+
+    /** The logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentCachingSearcher.class);
+
+    private final Searcher<R> searcher;
+
+    private final PersistentSearchCache cache;
+
+    private final long timeToLive;
+
+    private final long staleWhileRevalidate;
+
+    /** Keys which are currently refreshed in the background, to avoid duplicate requests. */
+    private final Set<String> revalidating = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** Executor for the background refreshes; one thread, so that refreshes do not hammer rate-limited APIs. */
+    private final ExecutorService revalidationExecutor;
+
+    /**
+     * <p>
+     * Create a new {@link PersistentCachingSearcher}, wrapping another {@link Searcher} (decorator pattern).
+     * </p>
+     *
+     * @param searcher The searcher to wrap, not <code>null</code>.
+     * @param cache The cache, not <code>null</code>.
+     * @param timeToLive The time for which cached results are returned without refresh, greater zero.
+     * @param staleWhileRevalidate The time after expiry during which cached results are still returned while being
+     *            refreshed in the background, greater/equal zero.
+     * @param unit The unit of the given times, not <code>null</code>.
+     * @return A caching searcher for the provided searcher.
+     */
+    public static <R extends WebContent> PersistentCachingSearcher<R> create(Searcher<R> searcher,
+            PersistentSearchCache cache, long timeToLive, long staleWhileRevalidate, TimeUnit unit) {
+        Validate.notNull(searcher, "searcher must not be null");
+        Validate.notNull(cache, "cache must not be null");
+        Validate.isTrue(timeToLive > 0, "timeToLive must be greater zero");
+        Validate.isTrue(staleWhileRevalidate >= 0, "staleWhileRevalidate must be greater/equal zero");
+        Validate.notNull(unit, "unit must not be null");
+        return new PersistentCachingSearcher<R>(searcher, cache, unit.toMillis(timeToLive),
+                unit.toMillis(staleWhileRevalidate));
+    }
+
+    private PersistentCachingSearcher(Searcher<R> searcher, PersistentSearchCache cache, long timeToLive,
+            long staleWhileRevalidate) {
+        this.searcher = searcher;
+        this.cache = cache;
+        this.timeToLive = timeToLive;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.revalidationExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PersistentCachingSearcher-" + getName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public SearchResults<R> search(final MultifacetQuery query) throws SearcherException {
+        final String key = createKey(searcher.getName(), query);
+        CachedResults<R> cached = cache.get(key);
+        if (cached != null) {
+            long age = cached.getAge();
+            if (age <= timeToLive) {
+                LOGGER.debug("Cache hit for {}", query);
+                return cached.getResults();
+            }
+            if (age <= timeToLive + staleWhileRevalidate) {
+                LOGGER.debug("Stale cache hit for {}, revalidating", query);
+                if (revalidating.add(key)) {
+                    revalidationExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                cache.put(searcher.getName(), key, searcher.search(query));
+                            } catch (SearcherException e) {
+                                LOGGER.warn("Could not revalidate {}: {}", query, e.getMessage());
+                            } finally {
+                                revalidating.remove(key);
+                            }
+                        }
+                    });
+                }
+                return cached.getResults();
+            }
+        }
+        SearchResults<R> results;
+        try {
+            results = searcher.search(query);
+        } catch (RateLimitedException e) {
+            if (cached == null) {
+                throw e;
+            }
+            LOGGER.warn("Rate limit reached, returning expired results for {}", query);
+            return cached.getResults();
+        }
+        cache.put(searcher.getName(), key, results);
+        return results;
+    }
+
+    /**
+     * <p>
+     * Create the cache key for the given query.
+     * </p>
+     *
+     * @param searcherName The name of the searcher.
+     * @param query The query.
+     * @return The key, which is equal for queries which yield the same results.
+     */
+    static String createKey(String searcherName, MultifacetQuery query) {
+        StringBuilder key = new StringBuilder();
+        key.append(searcherName);
+        key.append("|id=").append(query.getId());
+        key.append("|url=").append(query.getUrl());
+        key.append("|tags=").append(new TreeSet<>(query.getTags()));
+        String text = query.getText();
+        key.append("|text=").append(text != null ? text.trim().replaceAll("\\s+", " ") : null);
+        key.append("|start=").append(query.getStartDate() != null ? query.getStartDate().getTime() : null);
+        key.append("|end=").append(query.getEndDate() != null ? query.getEndDate().getTime() : null);
+        key.append("|count=").append(query.getResultCount());
+        key.append("|page=").append(query.getResultPage());
+        if (query.getCoordinate() != null) {
+            key.append("|coordinate=").append(query.getCoordinate().getLatitude()).append(',')
+                    .append(query.getCoordinate().getLongitude());
+        }
+        key.append("|radius=").append(query.getRadius());
+        key.append("|language=").append(query.getLanguage());
+        List<String> facets = new ArrayList<>();
+        for (Facet facet : query.getFacets()) {
+            facets.add(facet.getIdentifier() + '=' + facet.getValue());
+        }
+        Collections.sort(facets);
+        key.append("|facets=").append(facets);
+        return key.toString();
+    }
+
+    @Override
+    public String getName() {
+        return searcher.getName() + " (persistently cached)";
+    }
+
+}
@@ -0,0 +1,281 @@
+package ws.palladian.retrieval.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ws.palladian.persistence.DatabaseManager;
+import ws.palladian.persistence.DatabaseManagerFactory;
+import ws.palladian.persistence.RowConverter;
+import ws.palladian.persistence.RowConverters;
+import ws.palladian.retrieval.resources.WebContent;
+
+/**
+ * <p>
+ * A persistent store for {@link SearchResults}, which is used by the {@link PersistentCachingSearcher}. The results
+ * are kept in a SQL database in serialized form; the result types must therefore be {@link java.io.Serializable}
+ * (which is the case for the {@link ws.palladian.retrieval.resources.BasicWebContent} hierarchy). The number of
+ * entries is bounded, when the maximum is exceeded, the least recently accessed entries are removed. One store can be
+ * shared by several searchers.
+ * </p>
+ *
+ * <p>
+ * Use {@link #open(File)} for an embedded H2 database in a local file, or the {@link DatabaseManagerFactory} to
+ * create instances for an arbitrary JDBC URL. The required table is created automatically.
+ * </p>
+ */
+public class PersistentSearchCache extends DatabaseManager {
+
+    /** The logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentSearchCache.class);
+
+    /** The default maximum number of entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    /** Fraction of the maximum number of entries which remains after an eviction. */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS search_cache (cache_key CHAR(64) NOT NULL, searcher VARCHAR(255) NOT NULL, created BIGINT NOT NULL, accessed BIGINT NOT NULL, result_count BIGINT, results BLOB NOT NULL, PRIMARY KEY (cache_key))";
+    private static final String GET_ENTRY = "SELECT created, result_count, results FROM search_cache WHERE cache_key = ?";
+    private static final String UPDATE_ACCESSED = "UPDATE search_cache SET accessed = ? WHERE cache_key = ?";
+    private static final String UPDATE_ENTRY = "UPDATE search_cache SET searcher = ?, created = ?, accessed = ?, result_count = ?, results = ? WHERE cache_key = ?";
+    private static final String INSERT_ENTRY = "INSERT INTO search_cache (cache_key, searcher, created, accessed, result_count, results) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String GET_LEAST_RECENTLY_ACCESSED = "SELECT cache_key FROM search_cache ORDER BY accessed ASC LIMIT ?";
+    private static final String DELETE_ENTRY = "DELETE FROM search_cache WHERE cache_key = ?";
+    private static final String DELETE_SEARCHER = "DELETE FROM search_cache WHERE searcher = ?";
+    private static final String COUNT_ENTRIES = "SELECT COUNT(*) FROM search_cache";
+
+    /**
+     * A cached entry.
+     *
+     * @param <R> Type of the results.
+     */
+    public static final class CachedResults<R extends WebContent> {
+
+        private final SearchResults<R> results;
+
+        private final long created;
+
+        CachedResults(SearchResults<R> results, long created) {
+            this.results = results;
+            this.created = created;
+        }
+
+        public SearchResults<R> getResults() {
+            return results;
+        }
+
+        /** @return The time in milliseconds, when the results were stored. */
+        public long getCreated() {
+            return created;
+        }
+
+        /** @return The age in milliseconds. */
+        public long getAge() {
+            return System.currentTimeMillis() - created;
+        }
+
+    }
+
+    private final AtomicInteger size;
+
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /** Instances are created using the {@link DatabaseManagerFactory}. */
+    protected PersistentSearchCache(DataSource dataSource) {
+        super(dataSource);
+        runUpdate(CREATE_TABLE);
+        Integer count = runAggregateQuery(COUNT_ENTRIES);
+        size = new AtomicInteger(count != null ? count : 0);
+    }
+
+    /**
+     * <p>
+     * Open (or create) a cache in an embedded H2 database.
+     * </p>
+     *
+     * @param file The path of the database file, without the <code>.h2.db</code> extension, not <code>null</code>.
+     * @return The cache.
+     */
+    public static PersistentSearchCache open(File file) {
+        Validate.notNull(file, "file must not be null");
+        String jdbcUrl = "jdbc:h2:" + file.getAbsolutePath();
+        return DatabaseManagerFactory.create(PersistentSearchCache.class, jdbcUrl, "sa", "");
+    }
+
+    /**
+     * @param maxEntries The maximum number of entries, greater zero.
+     */
+    public void setMaxEntries(int maxEntries) {
+        Validate.isTrue(maxEntries > 0, "maxEntries must be greater zero");
+        this.maxEntries = maxEntries;
+        evictIfNecessary();
+    }
+
+    /**
+     * <p>
+     * Get the results for a key. Getting an entry updates its access time.
+     * </p>
+     *
+     * @param key The key, not <code>null</code>.
+     * @return The cached results, or <code>null</code> in case there is no entry for the key, or it could not be
+     *         deserialized.
+     */
+    public <R extends WebContent> CachedResults<R> get(String key) {
+        Validate.notNull(key, "key must not be null");
+        String hashedKey = hash(key);
+        CachedResults<R> cachedResults = runSingleQuery(new RowConverter<CachedResults<R>>() {
+            @Override
+            public CachedResults<R> convert(ResultSet resultSet) throws SQLException {
+                long created = resultSet.getLong("created");
+                Long resultCount = resultSet.getLong("result_count");
+                if (resultSet.wasNull()) {
+                    resultCount = null;
+                }
+                List<R> resultList = deserialize(resultSet.getBytes("results"));
+                return resultList != null ? new CachedResults<>(new SearchResults<>(resultList, resultCount), created)
+                        : null;
+            }
+        }, GET_ENTRY, hashedKey);
+        if (cachedResults != null) {
+            runUpdate(UPDATE_ACCESSED, System.currentTimeMillis(), hashedKey);
+        }
+        return cachedResults;
+    }
+
+    /**
+     * <p>
+     * Store the results for a key, replacing a potentially existing entry.
+     * </p>
+     *
+     * @param searcherName The name of the searcher which produced the results, not <code>null</code>.
+     * @param key The key, not <code>null</code>.
+     * @param results The results to store, not <code>null</code>.
+     * @return <code>true</code> in case the results were stored, <code>false</code> in case they could not be
+     *         serialized, or the database update failed.
+     */
+    public boolean put(String searcherName, String key, SearchResults<?> results) {
+        Validate.notNull(searcherName, "searcherName must not be null");
+        Validate.notNull(key, "key must not be null");
+        Validate.notNull(results, "results must not be null");
+        byte[] data = serialize(new ArrayList<>(results.getResultList()));
+        if (data == null) {
+            return false;
+        }
+        String hashedKey = hash(key);
+        long now = System.currentTimeMillis();
+        Long resultCount = results.getResultCount();
+        int updated = runUpdate(UPDATE_ENTRY, searcherName, now, now, resultCount, data, hashedKey);
+        if (updated > 0) {
+            return true;
+        }
+        if (runUpdate(INSERT_ENTRY, hashedKey, searcherName, now, now, resultCount, data) <= 0) {
+            return false;
+        }
+        if (size.incrementAndGet() > maxEntries) {
+            evictIfNecessary();
+        }
+        return true;
+    }
+
+    /**
+     * @param key The key of the entry to remove, not <code>null</code>.
+     */
+    public void remove(String key) {
+        Validate.notNull(key, "key must not be null");
+        if (runUpdate(DELETE_ENTRY, hash(key)) > 0) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param searcherName The name of the searcher for which to remove all entries, not <code>null</code>.
+     */
+    public void removeAll(String searcherName) {
+        Validate.notNull(searcherName, "searcherName must not be null");
+        runUpdate(DELETE_SEARCHER, searcherName);
+        Integer count = runAggregateQuery(COUNT_ENTRIES);
+        size.set(count != null ? count : 0);
+    }
+
+    /** @return The number of entries in the cache. */
+    public int size() {
+        return size.get();
+    }
+
+    /** Remove the least recently accessed entries, in batches to avoid running this on every insertion. */
+    private synchronized void evictIfNecessary() {
+        int currentSize = size.get();
+        if (currentSize <= maxEntries) {
+            return;
+        }
+        int numToRemove = currentSize - (int)(maxEntries * EVICTION_TARGET);
+        List<String> keys = runQuery(RowConverters.STRING, GET_LEAST_RECENTLY_ACCESSED, numToRemove);
+        List<List<Object>> batchArgs = new ArrayList<>();
+        for (String key : keys) {
+            batchArgs.add(Collections.<Object> singletonList(key));
+        }
+        int[] removed = runBatchUpdate(DELETE_ENTRY, batchArgs);
+        int numRemoved = 0;
+        for (int count : removed) {
+            numRemoved += Math.max(count, 0);
+        }
+        size.addAndGet(-numRemoved);
+        LOGGER.debug("Evicted {} entries from search cache", numRemoved);
+    }
+
+    /** The keys can be arbitrarily long, so we store a hash. */
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] serialize(Object object) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(object);
+        } catch (IOException e) {
+            LOGGER.warn("Could not serialize search results, they are not cached: {}", e.toString());
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] data) {
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (T)inputStream.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.warn("Could not deserialize cached search results: {}", e.toString());
+            return null;
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ import ws.palladian.retrieval.helper.TimeWindowRequestThrottle;
 import ws.palladian.retrieval.parser.json.JsonArray;
 import ws.palladian.retrieval.parser.json.JsonException;
 import ws.palladian.retrieval.parser.json.JsonObject;
+import ws.palladian.retrieval.parser.json.JsonReader;
 import ws.palladian.retrieval.resources.BasicWebImage;
 import ws.palladian.retrieval.resources.WebImage;
 import ws.palladian.retrieval.search.*;
@@ -257,10 +258,8 @@ public final class FlickrSearcher extends AbstractMultifacetSearcher<WebImage> {
                 throw new SearcherException("Encountered HTTP error status: " + httpResult.getStatusCode() + " ("
                         + httpResult.getStringContent() + ").");
             }
-            String jsonString = httpResult.getStringContent();
-
             try {
-                JsonObject resultJson = new JsonObject(jsonString);
+                JsonObject resultJson = new JsonObject(new JsonReader(httpResult.getContent()));
                 JsonObject photosJson = resultJson.getJsonObject("photos");
                 if (photosJson != null) { // result list (search)
                     if (photosJson.get("total") != null) {
@@ -277,7 +276,7 @@ public final class FlickrSearcher extends AbstractMultifacetSearcher<WebImage> {
                 }
             } catch (JsonException e) {
                 throw new SearcherException("Parse error while searching for \"" + query + "\" with " + getName()
-                        + ": " + e.getMessage() + ", JSON was \"" + jsonString + "\"", e);
+                        + ": " + e.getMessage() + ", JSON was \"" + httpResult.getStringContent() + "\"", e);
             }
         }
         return new SearchResults<WebImage>(result, availableResults);
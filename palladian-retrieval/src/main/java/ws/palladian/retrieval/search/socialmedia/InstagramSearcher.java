@@ -17,6 +17,7 @@ import ws.palladian.retrieval.helper.TimeWindowRequestThrottle;
 import ws.palladian.retrieval.parser.json.JsonArray;
 import ws.palladian.retrieval.parser.json.JsonException;
 import ws.palladian.retrieval.parser.json.JsonObject;
+import ws.palladian.retrieval.parser.json.JsonReader;
 import ws.palladian.retrieval.resources.BasicWebImage;
 import ws.palladian.retrieval.resources.WebContent;
 import ws.palladian.retrieval.resources.WebImage;
@@ -154,10 +155,11 @@ public final class InstagramSearcher extends AbstractMultifacetSearcher<WebImage
         page:
         for (; ; ) {
             HttpResult httpResult = performGet(queryUrl);
-            String jsonString = httpResult.getStringContent();
-            LOGGER.trace("JSON = {}", jsonString);
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("JSON = {}", httpResult.getStringContent());
+            }
             try {
-                JsonObject jsonResult = new JsonObject(jsonString);
+                JsonObject jsonResult = new JsonObject(new JsonReader(httpResult.getContent()));
                 if (jsonResult.get("data") instanceof JsonArray) {
                     // result list
                     JsonArray dataArray = jsonResult.getJsonArray("data");
@@ -182,7 +184,7 @@ public final class InstagramSearcher extends AbstractMultifacetSearcher<WebImage
                 }
                 queryUrl = paginationJson.getString("next_url");
             } catch (JsonException e) {
-                throw new SearcherException("Parse exception while parsing JSON data: \"" + jsonString + "\", URL: \""
+                throw new SearcherException("Parse exception while parsing JSON data: \"" + httpResult.getStringContent() + "\", URL: \""
                         + queryUrl + "\"", e);
             }
         }
@@ -14,6 +14,7 @@ import ws.palladian.retrieval.*;
 import ws.palladian.retrieval.parser.json.JsonArray;
 import ws.palladian.retrieval.parser.json.JsonException;
 import ws.palladian.retrieval.parser.json.JsonObject;
+import ws.palladian.retrieval.parser.json.JsonReader;
 import ws.palladian.retrieval.resources.BasicWebImage;
 import ws.palladian.retrieval.resources.BasicWebVideo;
 import ws.palladian.retrieval.resources.WebImage;
@@ -176,14 +177,15 @@ public final class YouTubeSearcher extends AbstractMultifacetSearcher<WebVideo>
 
                 HttpResult httpResult = retriever.httpGet(url);
                 checkForHttpError(httpResult);
-                String jsonString = httpResult.getStringContent();
-                JsonObject root = new JsonObject(jsonString);
-                numResults = root.queryLong("pageInfo/totalResults");
-                nextPageToken = root.tryQueryString("nextPageToken");
-                JsonArray entries = root.getJsonArray("items");
+                // only pull the required values from the response, instead of parsing the whole tree
+                JsonObject values = JsonReader.extract(httpResult.getContent(), "pageInfo/totalResults",
+                        "nextPageToken", "items[*]/contentDetails/videoId");
+                numResults = values.getLong("pageInfo/totalResults");
+                nextPageToken = values.tryGetString("nextPageToken");
+                JsonArray entries = values.tryGetJsonArray("items[*]/contentDetails/videoId");
                 if (entries != null) {
                     for (int i = 0; i < entries.size(); i++) {
-                        videoIds.add(entries.getJsonObject(i).tryQueryString("contentDetails/videoId"));
+                        videoIds.add(entries.tryGetString(i));
                     }
                 }
                 if (nextPageToken == null) {
@@ -344,14 +346,14 @@ public final class YouTubeSearcher extends AbstractMultifacetSearcher<WebVideo>
                 HttpResult httpResult = retriever.httpGet(url);
                 numRequests++;
                 checkForHttpError(httpResult);
-                String jsonString = httpResult.getStringContent();
-                JsonObject root = new JsonObject(jsonString);
-                numResults = root.queryLong("pageInfo/totalResults");
-                nextPageToken = root.tryQueryString("nextPageToken");
-                JsonArray entries = root.getJsonArray("items");
+                JsonObject values = JsonReader.extract(httpResult.getContent(), "pageInfo/totalResults",
+                        "nextPageToken", "items[*]/id/videoId");
+                numResults = values.getLong("pageInfo/totalResults");
+                nextPageToken = values.tryGetString("nextPageToken");
+                JsonArray entries = values.tryGetJsonArray("items[*]/id/videoId");
                 if (entries != null) {
                     for (int i = 0; i < entries.size() && videoIds.size() < query.getResultCount(); i++) {
-                        videoIds.add(entries.getJsonObject(i).queryString("id/videoId"));
+                        videoIds.add(entries.getString(i));
                     }
                 }
                 if (nextPageToken == null) {
@@ -0,0 +1,218 @@
+package ws.palladian.retrieval;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.w3c.dom.Document;
+
+import ws.palladian.retrieval.RenderingDocumentRetriever.ResourceType;
+import ws.palladian.retrieval.parser.ParserFactory;
+
+public class ManagedRenderingPoolTest {
+
+    /** Retriever without browser, which "renders" an empty document. */
+    private static final class DummyRetriever extends RenderingDocumentRetriever {
+        final Set<ResourceType> blockedResources;
+        volatile boolean alive = true;
+        volatile boolean crashOnRender;
+        volatile boolean quit;
+
+        DummyRetriever(Set<ResourceType> blockedResources) {
+            super((RemoteWebDriver)null);
+            this.blockedResources = blockedResources;
+        }
+
+        @Override
+        public void goTo(String url, boolean forceReload) {
+            if (crashOnRender) {
+                throw new WebDriverException("crashed");
+            }
+        }
+
+        @Override
+        public Document getCurrentWebDocument() {
+            try {
+                return ParserFactory.createHtmlParser().parse(new ByteArrayInputStream("<html><body>test</body></html>".getBytes(StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive && !quit;
+        }
+
+        @Override
+        public void quit() {
+            quit = true;
+        }
+    }
+
+    private final List<DummyRetriever> created = Collections.synchronizedList(new ArrayList<DummyRetriever>());
+
+    private ManagedRenderingPool pool;
+
+    private ManagedRenderingPool.Builder builder() {
+        return new ManagedRenderingPool.Builder(blockedResources -> {
+            DummyRetriever retriever = new DummyRetriever(blockedResources);
+            created.add(retriever);
+            return retriever;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private static void waitFor(ManagedRenderingPool pool, int numIdleSessions) throws InterruptedException {
+        for (int i = 0; i < 100 && pool.getNumIdleSessions() != numIdleSessions; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testWarmupAndReuse() throws InterruptedException {
+        pool = builder().setMinSessions(2).setMaxSessions(3).create();
+        waitFor(pool, 2);
+        assertEquals(2, pool.getNumIdleSessions());
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(pool.getWebDocument("http://example.com/" + i));
+        }
+        assertEquals(2, created.size());
+        ManagedRenderingPool.Metrics metrics = pool.getMetrics();
+        assertEquals(10, metrics.getRenders());
+        assertEquals(0, metrics.getFailures());
+        assertEquals(10, metrics.getRenderTimes().getCount());
+        assertTrue(metrics.getDomainReuses() >= 9);
+    }
+
+    @Test
+    public void testMaxSessions() throws InterruptedException {
+        pool = builder().setMinSessions(0).setMaxSessions(2).create();
+        final RenderingDocumentRetriever r1 = pool.acquire("http://a.com", Collections.<ResourceType> emptySet());
+        RenderingDocumentRetriever r2 = pool.acquire("http://b.com", Collections.<ResourceType> emptySet());
+        assertEquals(2, pool.getNumSessions());
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            pool.release(r1);
+        }).start();
+        // blocks until r1 is released
+        RenderingDocumentRetriever r3 = pool.acquire("http://c.com", Collections.<ResourceType> emptySet());
+        assertSame(r1, r3);
+        assertTrue(pool.getMetrics().getWaitTimes().getMax() >= 50);
+        pool.release(r2);
+        pool.release(r3);
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testPerDomainReuse() throws InterruptedException {
+        pool = builder().setMinSessions(0).create();
+        Set<ResourceType> none = Collections.emptySet();
+        RenderingDocumentRetriever a = pool.acquire("http://a.com/1", none);
+        RenderingDocumentRetriever b = pool.acquire("http://b.com/1", none);
+        pool.release(a);
+        pool.release(b);
+        // b is the most recently used one, but a rendered this domain before
+        assertSame(a, pool.acquire("http://a.com/2", none));
+    }
+
+    @Test
+    public void testRecycleAfterPages() throws InterruptedException {
+        pool = builder().setMinSessions(0).setMaxPagesPerSession(3).create();
+        for (int i = 0; i < 7; i++) {
+            pool.getWebDocument("http://example.com/" + i);
+        }
+        assertEquals(3, created.size());
+        assertTrue(created.get(0).quit);
+        assertTrue(created.get(1).quit);
+        assertFalse(created.get(2).quit);
+        assertEquals(2, pool.getMetrics().getSessionsRecycled());
+    }
+
+    @Test
+    public void testCrashDetection() throws InterruptedException {
+        pool = builder().setMinSessions(0).create();
+        Set<ResourceType> none = Collections.emptySet();
+        pool.release(pool.acquire("http://example.com", none));
+        created.get(0).alive = false;
+        // crashed idle session is replaced
+        RenderingDocumentRetriever retriever = pool.acquire("http://example.com", none);
+        assertSame(created.get(1), retriever);
+        pool.release(retriever);
+
+        // crash during rendering
+        created.get(1).crashOnRender = true;
+        assertNull(pool.getWebDocument("http://example.com"));
+        assertTrue(created.get(1).quit);
+        assertEquals(0, pool.getNumSessions());
+        assertEquals(2, pool.getMetrics().getSessionsCrashed());
+        assertEquals(1, pool.getMetrics().getFailures());
+    }
+
+    @Test
+    public void testBlockedResources() throws InterruptedException {
+        pool = builder().setMinSessions(0).setMaxSessions(1).create();
+        pool.getWebDocument("http://example.com", EnumSet.of(ResourceType.IMAGE));
+        assertEquals(EnumSet.of(ResourceType.IMAGE), created.get(0).blockedResources);
+        pool.getWebDocument("http://example.com", EnumSet.of(ResourceType.IMAGE));
+        assertEquals(1, created.size());
+        // the pool is exhausted, so the idle session with the other profile is replaced
+        pool.getWebDocument("http://example.com", EnumSet.of(ResourceType.FONT, ResourceType.MEDIA));
+        assertEquals(2, created.size());
+        assertTrue(created.get(0).quit);
+        assertEquals(EnumSet.of(ResourceType.FONT, ResourceType.MEDIA), created.get(1).blockedResources);
+        assertEquals(1, pool.getNumSessions());
+    }
+
+    @Test
+    public void testIdleEviction() throws InterruptedException {
+        pool = builder().setMinSessions(1).setMaxIdleTime(100, TimeUnit.MILLISECONDS).create();
+        Set<ResourceType> none = Collections.emptySet();
+        RenderingDocumentRetriever r1 = pool.acquire("http://a.com", none);
+        RenderingDocumentRetriever r2 = pool.acquire("http://b.com", none);
+        RenderingDocumentRetriever r3 = pool.acquire("http://c.com", none);
+        pool.release(r1);
+        pool.release(r2);
+        pool.release(r3);
+        assertEquals(3, pool.getNumSessions());
+        for (int i = 0; i < 100 && pool.getNumSessions() > 1; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getNumSessions());
+        assertEquals(2, pool.getMetrics().getSessionsEvicted());
+
+        pool.close();
+        int quit = 0;
+        for (DummyRetriever retriever : created) {
+            quit += retriever.quit ? 1 : 0;
+        }
+        assertEquals(created.size(), quit);
+    }
+
+}
@@ -0,0 +1,162 @@
+package ws.palladian.retrieval.parser.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ws.palladian.helper.io.FileHelper;
+import ws.palladian.helper.io.ResourceHelper;
+import ws.palladian.retrieval.parser.json.JsonReader.Token;
+
+public class JsonReaderTest {
+
+    private static final String JSON_STRING = "{'entry': {'a': 1,'b':['1a',['one','two'],{'f':1.48,'h': 2.22}],'c': {'d':'2b'}, 'd': null}}";
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEquivalence() throws JsonException, IOException {
+        for (String resource : Arrays.asList("/json/data.json", "/apiresponse/vimeo.json",
+                "/apiresponse/googleCustomSearchResponse.json")) {
+            File file = ResourceHelper.getResourceFile(resource);
+            JsonObject expected = new JsonObject(FileHelper.readFileToString(file));
+            try (InputStream inputStream = new FileInputStream(file)) {
+                assertEquals(resource, expected, new JsonObject(new JsonReader(inputStream)));
+            }
+        }
+        assertEquals(new JsonObject(JSON_STRING), new JsonObject(reader(JSON_STRING)));
+        String lenient = "{a: [1,,2,], 'b': true; \"c\": -1.5e3, d: 12345678901, e: text,}";
+        assertEquals(new JsonObject(lenient), new JsonObject(reader(lenient)));
+    }
+
+    @Test
+    public void testUtf8() throws JsonException {
+        // use enough text, so that multi byte characters span buffer boundaries
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("ä€\uD83D\uDE00x");
+        }
+        String json = "[\"" + text + "\", \"\\u00e4\\n\\\"\"]";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        JsonArray array = new JsonArray(new JsonReader(new ByteArrayInputStream(bytes)));
+        assertEquals(text.toString(), array.get(0));
+        assertEquals("ä\n\"", array.get(1));
+
+        // byte order mark is skipped
+        byte[] withBom = new byte[bytes.length + 3];
+        withBom[0] = (byte)0xef;
+        withBom[1] = (byte)0xbb;
+        withBom[2] = (byte)0xbf;
+        System.arraycopy(bytes, 0, withBom, 3, bytes.length);
+        assertEquals(array, new JsonArray(new JsonReader(withBom)));
+    }
+
+    @Test
+    public void testTokens() throws JsonException {
+        JsonReader reader = reader("{\"a\": [1, 2.5, \"x\"], \"b\": {\"c\": null, \"d\": false}}");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(Token.NUMBER, reader.peek());
+        assertEquals(1, reader.nextNumber());
+        assertEquals("a[1]", reader.getPath());
+        assertEquals(2.5, reader.nextNumber());
+        assertEquals("x", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("b", reader.nextName());
+        reader.beginObject();
+        assertEquals("c", reader.nextName());
+        assertEquals("b/c", reader.getPath());
+        reader.nextNull();
+        assertEquals("d", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        reader.endObject();
+        reader.endObject();
+        assertEquals(Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testSkipAndSeek() throws JsonException {
+        JsonReader reader = reader(JSON_STRING);
+        reader.beginObject();
+        assertEquals("entry", reader.nextName());
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.skipValue();
+        assertEquals("b", reader.nextName());
+        reader.skipValue();
+        assertEquals("c", reader.nextName());
+        assertEquals(new JsonObject("{'d':'2b'}"), reader.nextValue());
+
+        reader = reader(JSON_STRING);
+        assertTrue(reader.seek("entry/b[2]/f"));
+        assertEquals(1.48, reader.nextNumber());
+        assertEquals("h", reader.nextName());
+        assertEquals("2.22", reader.nextString());
+
+        reader = reader(JSON_STRING);
+        assertTrue(reader.seek("/entry/b[1]"));
+        assertEquals(new JsonArray("['one','two']"), reader.nextValue());
+
+        assertFalse(reader(JSON_STRING).seek("entry/b[3]"));
+        assertFalse(reader(JSON_STRING).seek("entry/x"));
+        assertFalse(reader(JSON_STRING).seek("entry/a/x"));
+    }
+
+    @Test
+    public void testExtract() throws JsonException {
+        JsonObject result = JsonReader.extract(JSON_STRING.getBytes(StandardCharsets.UTF_8), "entry/a", "entry/b[2]/h",
+                "entry/c", "entry/b[*]", "entry/b[1][*]", "entry/d", "entry/x");
+        JsonObject expected = new JsonObject(JSON_STRING);
+        assertEquals(expected.query("entry/a"), result.get("entry/a"));
+        assertEquals(expected.query("entry/b[2]/h"), result.get("entry/b[2]/h"));
+        assertEquals(expected.query("entry/c"), result.get("entry/c"));
+        assertEquals(expected.query("entry/b"), result.get("entry/b[*]"));
+        assertEquals(expected.query("entry/b[1]"), result.get("entry/b[1][*]"));
+        assertTrue(result.containsKey("entry/d"));
+        assertNull(result.get("entry/d"));
+        assertFalse(result.containsKey("entry/x"));
+
+        // stops reading as soon as all values were found, so the syntax error is never reached
+        result = JsonReader.extract(new ByteArrayInputStream("{\"a\": {\"b\": 1}, \"c\": }".getBytes()), "a/b");
+        assertEquals(1, result.get("a/b"));
+    }
+
+    @Test
+    public void testMultipleDocuments() throws JsonException {
+        JsonReader reader = reader("{\"id\": 1}\n{\"id\": 2}\n\n[3]\n");
+        assertEquals(1, new JsonObject(reader).getInt("id"));
+        assertEquals(2, new JsonObject(reader).getInt("id"));
+        assertTrue(reader.hasNext());
+        assertEquals(new JsonArray("[3]"), reader.nextValue());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testSyntaxError() {
+        for (String json : Arrays.asList("{\"a\" 1}", "{\"a\": 1", "[1 2]", "{\"a\": \"b}", "{\"a\": }", "[\"\\x\"]")) {
+            try {
+                new JsonReader(json.getBytes(StandardCharsets.UTF_8)).nextValue();
+                fail("expected syntax error for " + json);
+            } catch (JsonException e) {
+                // expected
+            }
+        }
+    }
+
+}
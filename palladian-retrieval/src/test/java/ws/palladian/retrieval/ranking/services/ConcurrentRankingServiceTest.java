@@ -0,0 +1,246 @@
+package ws.palladian.retrieval.ranking.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import ws.palladian.retrieval.ranking.Ranking;
+import ws.palladian.retrieval.ranking.RankingService;
+import ws.palladian.retrieval.ranking.RankingServiceException;
+import ws.palladian.retrieval.ranking.RankingType;
+
+public class ConcurrentRankingServiceTest {
+
+    /** Returns the length of the URL after a delay, or fails. */
+    private static class DummyRankingService extends AbstractRankingService {
+        final String id;
+        final RankingType type;
+        volatile long delay;
+        final AtomicInteger requests = new AtomicInteger();
+        volatile boolean failing;
+
+        DummyRankingService(String id, long delay) {
+            this.id = id;
+            this.type = new RankingType(id, id);
+            this.delay = delay;
+        }
+
+        @Override
+        public Ranking getRanking(String url) throws RankingServiceException {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                throw new RankingServiceException(e);
+            }
+            if (failing) {
+                throw new RankingServiceException("failure");
+            }
+            return new Ranking.Builder(this, url).add(type, url.length()).create();
+        }
+
+        @Override
+        public String getServiceId() {
+            return id;
+        }
+
+        @Override
+        public List<RankingType> getRankingTypes() {
+            return Arrays.asList(type);
+        }
+    }
+
+    /** Service with a dedicated batch implementation. */
+    private static final class BatchRankingService extends DummyRankingService {
+        final AtomicInteger batchRequests = new AtomicInteger();
+
+        BatchRankingService() {
+            super("batch", 0);
+        }
+
+        @Override
+        public Map<String, Ranking> getRanking(Collection<String> urls) throws RankingServiceException {
+            batchRequests.incrementAndGet();
+            Map<String, Ranking> result = new HashMap<>();
+            for (String url : urls) {
+                result.put(url, new Ranking.Builder(this, url).add(type, url.length()).create());
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() {
+        DummyRankingService service1 = new DummyRankingService("service1", 200);
+        DummyRankingService service2 = new DummyRankingService("service2", 200);
+        DummyRankingService service3 = new DummyRankingService("service3", 200);
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(service1,
+                service2, service3)).create();
+        long start = System.currentTimeMillis();
+        Map<RankingService, Ranking> rankings = rankingService.getRankings("http://example.com");
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertEquals(3, rankings.size());
+        assertEquals(18, rankings.get(service2).getValues().get(service2.type));
+
+        Ranking ranking = rankingService.getRanking("http://example.com");
+        assertEquals(3, ranking.getValues().size());
+        assertEquals(3, rankingService.getRankingTypes().size());
+    }
+
+    @Test
+    public void testTimeoutAndFailure() {
+        DummyRankingService fast = new DummyRankingService("fast", 0);
+        DummyRankingService slow = new DummyRankingService("slow", 1000);
+        DummyRankingService failing = new DummyRankingService("failing", 0);
+        failing.failing = true;
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(fast, slow,
+                failing)).setTimeout(100, TimeUnit.MILLISECONDS).create();
+        long start = System.currentTimeMillis();
+        Map<RankingService, Ranking> rankings = rankingService.getRankings("http://example.com");
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertEquals(1, rankings.size());
+        assertTrue(rankings.containsKey(fast));
+    }
+
+    @Test
+    public void testCircuitBreaker() throws InterruptedException {
+        DummyRankingService failing = new DummyRankingService("failing", 0);
+        failing.failing = true;
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(failing))
+                .setFailureThreshold(3).setOpenDuration(200, TimeUnit.MILLISECONDS).create();
+        for (int i = 0; i < 10; i++) {
+            rankingService.getRankings("http://example.com/" + i);
+        }
+        assertEquals(3, failing.requests.get());
+        assertTrue(rankingService.isCircuitOpen(failing));
+
+        // after the open duration, one trial request is made, which closes the circuit on success
+        Thread.sleep(300);
+        failing.failing = false;
+        assertEquals(1, rankingService.getRankings("http://example.com").size());
+        assertFalse(rankingService.isCircuitOpen(failing));
+        assertEquals(4, failing.requests.get());
+    }
+
+    @Test
+    public void testCircuitBreakerForHangingService() {
+        DummyRankingService hanging = new DummyRankingService("hanging", TimeUnit.MINUTES.toMillis(1));
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(hanging))
+                .setTimeout(50, TimeUnit.MILLISECONDS).setFailureThreshold(2).create();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rankingService.getRankings("http://example.com/" + i).isEmpty());
+        }
+        // a request might be cancelled before it was started, but the timeouts count nonetheless
+        assertTrue(hanging.requests.get() <= 2);
+        assertTrue(rankingService.isCircuitOpen(hanging));
+    }
+
+    /** Never returns, not even when being interrupted, until released. */
+    private static final class HangingRankingService extends DummyRankingService {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        HangingRankingService() {
+            super("hanging", 0);
+        }
+
+        @Override
+        public Ranking getRanking(String url) throws RankingServiceException {
+            requests.incrementAndGet();
+            boolean interrupted = false;
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RankingServiceException("released");
+        }
+    }
+
+    @Test
+    public void testIsolationFromHangingService() {
+        HangingRankingService hanging = new HangingRankingService();
+        DummyRankingService healthy = new DummyRankingService("healthy", 0);
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(hanging,
+                healthy)).setTimeout(200, TimeUnit.MILLISECONDS).setFailureThreshold(100).setThreadsPerService(2)
+                .create();
+        try {
+            // more hanging requests than threads; the healthy service must not be affected
+            for (int i = 0; i < 10; i++) {
+                Map<RankingService, Ranking> rankings = rankingService.getRankings("http://example.com/" + i);
+                assertEquals(1, rankings.size());
+                assertTrue(rankings.containsKey(healthy));
+            }
+            // only the requests which got a thread were made, the others were cancelled while waiting
+            assertTrue(hanging.requests.get() <= 2);
+            assertEquals(10, healthy.requests.get());
+        } finally {
+            hanging.release.countDown();
+        }
+    }
+
+    @Test
+    public void testRetryAfterTimeout() {
+        DummyRankingService slow = new DummyRankingService("slow", TimeUnit.MINUTES.toMillis(1));
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(slow))
+                .setTimeout(200, TimeUnit.MILLISECONDS).create();
+        assertTrue(rankingService.getRankings("http://example.com").isEmpty());
+        // the timed out request is not joined, but a new one is made
+        slow.delay = 0;
+        assertEquals(1, rankingService.getRankings("http://example.com").size());
+    }
+
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        final DummyRankingService slow = new DummyRankingService("slow", 300);
+        final ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(slow))
+                .create();
+        final AtomicInteger results = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    results.addAndGet(rankingService.getRankings("http://example.com").size());
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+        assertEquals(5, results.get());
+        assertEquals(1, slow.requests.get());
+    }
+
+    @Test
+    public void testBatching() {
+        BatchRankingService batch = new BatchRankingService();
+        DummyRankingService single = new DummyRankingService("single", 0);
+        assertTrue(ConcurrentRankingService.isBatching(batch));
+        assertFalse(ConcurrentRankingService.isBatching(single));
+        ConcurrentRankingService rankingService = new ConcurrentRankingService.Builder(Arrays.asList(batch, single))
+                .create();
+        List<String> urls = Arrays.asList("http://a.com", "http://bb.com", "http://ccc.com", "http://a.com");
+        Map<String, Ranking> rankings = rankingService.getRanking(urls);
+        assertEquals(3, rankings.size());
+        assertEquals(2, rankings.get("http://bb.com").getValues().size());
+        assertEquals(1, batch.batchRequests.get());
+        assertEquals(0, batch.requests.get());
+        assertEquals(3, single.requests.get());
+    }
+
+}
@@ -0,0 +1,160 @@
+package ws.palladian.retrieval.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ws.palladian.helper.constants.Language;
+import ws.palladian.persistence.DatabaseManagerFactory;
+import ws.palladian.retrieval.resources.BasicWebContent;
+import ws.palladian.retrieval.resources.WebContent;
+
+public class PersistentCachingSearcherTest {
+
+    /** Returns one result with the query text and the number of the request as title. */
+    private static final class CountingSearcher extends AbstractMultifacetSearcher<WebContent> {
+        final AtomicInteger requests = new AtomicInteger();
+        volatile boolean rateLimited;
+
+        @Override
+        public String getName() {
+            return "CountingSearcher";
+        }
+
+        @Override
+        public SearchResults<WebContent> search(MultifacetQuery query) throws SearcherException {
+            if (rateLimited) {
+                throw new RateLimitedException("rate limited", null);
+            }
+            BasicWebContent.Builder builder = new BasicWebContent.Builder();
+            builder.setUrl("http://example.com/" + query.getText());
+            builder.setTitle(String.valueOf(requests.incrementAndGet()));
+            List<WebContent> results = Arrays.<WebContent> asList(builder.create());
+            return new SearchResults<>(results, 42l);
+        }
+    }
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private PersistentSearchCache cache;
+
+    private CountingSearcher searcher;
+
+    @Before
+    public void setUp() {
+        String jdbcUrl = "jdbc:h2:mem:" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        cache = DatabaseManagerFactory.create(PersistentSearchCache.class, jdbcUrl, "sa", "");
+        searcher = new CountingSearcher();
+    }
+
+    private static MultifacetQuery query(String text) {
+        return new MultifacetQuery.Builder().setText(text).setResultCount(10).create();
+    }
+
+    @Test
+    public void testCaching() throws SearcherException {
+        Searcher<WebContent> cachingSearcher = PersistentCachingSearcher.create(searcher, cache, 1, 0, TimeUnit.HOURS);
+        SearchResults<WebContent> results = cachingSearcher.search(query("palladian"));
+        assertEquals(1, searcher.requests.get());
+        SearchResults<WebContent> cachedResults = cachingSearcher.search(query(" palladian  "));
+        assertEquals(1, searcher.requests.get());
+        assertEquals(results.getResultList(), cachedResults.getResultList());
+        assertEquals(42l, (long)cachedResults.getResultCount());
+
+        cachingSearcher.search(query("other"));
+        assertEquals(2, searcher.requests.get());
+        assertEquals(2, cache.size());
+
+        // the searcher can be used through the simple API as well
+        cachingSearcher.search("other", 10, Language.ENGLISH);
+        cachingSearcher.search("other", 10, Language.ENGLISH);
+        assertEquals(3, searcher.requests.get());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        Searcher<WebContent> cachingSearcher = PersistentCachingSearcher.create(searcher, cache, 50, 0,
+                TimeUnit.MILLISECONDS);
+        cachingSearcher.search(query("palladian"));
+        Thread.sleep(100);
+        cachingSearcher.search(query("palladian"));
+        assertEquals(2, searcher.requests.get());
+
+        // expired results are returned when rate limited
+        Thread.sleep(100);
+        searcher.rateLimited = true;
+        SearchResults<WebContent> results = cachingSearcher.search(query("palladian"));
+        assertEquals("2", results.getResultList().get(0).getTitle());
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        Searcher<WebContent> cachingSearcher = PersistentCachingSearcher.create(searcher, cache, 50, 60000,
+                TimeUnit.MILLISECONDS);
+        cachingSearcher.search(query("palladian"));
+        Thread.sleep(100);
+        // stale result is returned immediately, refresh happens in the background
+        SearchResults<WebContent> results = cachingSearcher.search(query("palladian"));
+        assertEquals("1", results.getResultList().get(0).getTitle());
+        for (int i = 0; i < 100 && searcher.requests.get() < 2; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, searcher.requests.get());
+        for (int i = 0; i < 100; i++) {
+            results = cachingSearcher.search(query("palladian"));
+            if (results.getResultList().get(0).getTitle().equals("2")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertEquals("2", results.getResultList().get(0).getTitle());
+    }
+
+    @Test
+    public void testEviction() throws SearcherException, InterruptedException {
+        cache.setMaxEntries(10);
+        Searcher<WebContent> cachingSearcher = PersistentCachingSearcher.create(searcher, cache, 1, 0, TimeUnit.HOURS);
+        for (int i = 0; i < 25; i++) {
+            cachingSearcher.search(query("query" + i));
+            Thread.sleep(2); // distinct access times
+        }
+        assertTrue(cache.size() <= 10);
+        // most recent entry is still there
+        String key = PersistentCachingSearcher.createKey(searcher.getName(), query("query24"));
+        assertNotNull(cache.get(key));
+        assertNull(cache.get(PersistentCachingSearcher.createKey(searcher.getName(), query("query0"))));
+    }
+
+    @Test
+    public void testKey() {
+        MultifacetQuery.Builder builder = new MultifacetQuery.Builder().setText("a b").setResultCount(10);
+        String key1 = PersistentCachingSearcher.createKey("searcher", builder.create());
+        assertEquals(key1, PersistentCachingSearcher.createKey("searcher", builder.setText(" a\tb ").create()));
+        assertNotEquals(key1, PersistentCachingSearcher.createKey("other", builder.create()));
+        assertNotEquals(key1, PersistentCachingSearcher.createKey("searcher", builder.setResultPage(2).create()));
+    }
+
+    @Test
+    public void testFileStore() throws IOException, SearcherException {
+        File file = new File(tempFolder.newFolder(), "searchCache");
+        PersistentSearchCache fileCache = PersistentSearchCache.open(file);
+        PersistentCachingSearcher.create(searcher, fileCache, 1, 0, TimeUnit.HOURS).search(query("palladian"));
+        assertEquals(1, fileCache.size());
+    }
+
+}